@@ -1,13 +1,23 @@
 package uk.ac.ebi.intact;
 
 import uk.ac.ebi.intact.core.context.IntactContext;
+import uk.ac.ebi.intact.dbupdate.prot.ProteinQuarantine;
 import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateContext;
 import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateProcessor;
 import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateProcessorConfig;
+import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateSummaryStore;
 import uk.ac.ebi.intact.dbupdate.prot.report.FileReportHandler;
+import uk.ac.ebi.intact.dbupdate.prot.report.JsonLinesWriter;
+import uk.ac.ebi.intact.dbupdate.prot.report.ReportCompression;
+import uk.ac.ebi.intact.dbupdate.prot.report.ReportFormat;
+import uk.ac.ebi.intact.dbupdate.prot.util.ProteinUpdateSummary;
+import uk.ac.ebi.intact.dbupdate.prot.util.StartupTimer;
+import uk.ac.ebi.intact.dbupdate.prot.util.UniprotAccessionIndex;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Future;
 
 /**
  * Main class for global protein update
@@ -21,9 +31,9 @@ public class GlobalProteinUpdate {
 
     public static void main(String [] args){
 
-        // three possible arguments
-        if( args.length != 2 && args.length != 3 ) {
-            System.err.println( "Usage: GlobalUpdate <database> <folder> <blast>" );
+        // eight possible arguments
+        if( args.length < 2 || args.length > 8 ) {
+            System.err.println( "Usage: GlobalUpdate <database> <folder> <blast> <uniprot accession folder> <protein budget in seconds> <progress port> <report compression> <report format>" );
             System.exit( 1 );
         }
         final String database = args[0];
@@ -31,27 +41,112 @@ public class GlobalProteinUpdate {
 
         boolean isBlastEnabled = false;
 
-        if (args.length == 3){
+        if (args.length >= 3){
             isBlastEnabled = Boolean.parseBoolean(args[2]);
         }
 
+        // folder containing delac_sp.txt, delac_tr.txt and sec_ac.txt
+        String accessionFolder = null;
+        if (args.length >= 4 && !"-".equals(args[3])){
+            accessionFolder = args[3];
+        }
+
+        // the proteins taking longer are quarantined
+        long budget = 0;
+        if (args.length >= 5){
+            budget = Long.parseLong(args[4]);
+        }
+
+        // the progress is available on http://localhost:<port>/progress and logged every minute
+        int progressPort = 0;
+        if (args.length >= 6){
+            progressPort = Integer.parseInt(args[5]);
+        }
+
+        // none or gzip
+        ReportCompression compression = ReportCompression.none;
+        if (args.length >= 7){
+            compression = ReportCompression.valueOf(args[6]);
+        }
+
+        // text, json or both
+        ReportFormat format = ReportFormat.text;
+        if (args.length == 8){
+            format = ReportFormat.valueOf(args[7]);
+        }
+
         System.out.println( "folder where are the log files = " + filename );
         System.out.println( "database = " + database );
         System.out.println( "Blast enabled = " + isBlastEnabled );
+        System.out.println( "uniprot accession folder = " + accessionFolder );
+        System.out.println( "Protein budget (s) = " + budget );
+        System.out.println( "Progress port = " + progressPort );
+        System.out.println( "Report compression = " + compression );
+        System.out.println( "Report format = " + format );
+
+        final StartupTimer startup = new StartupTimer();
+        final ProteinUpdateProcessorConfig config = ProteinUpdateContext.getInstance().getConfig();
+
+        // the remote services and the accession index don't need the intact context, they start while the context is initialised
+        startup.submit("uniprot service", config::getUniprotService);
+        startup.submit("taxonomy service", config::getTaxonomyService);
+
+        final String folder = accessionFolder;
+        Future<UniprotAccessionIndex> accessionIndex = null;
+        if (accessionFolder != null){
+            accessionIndex = startup.submit("uniprot accession index", () -> UniprotAccessionIndex.openOrBuild(new File(folder)));
+        }
 
-        IntactContext.initContext(new String[] {"/META-INF/"+database+".spring.xml"});
+        startup.run("intact context", () -> IntactContext.initContext(new String[] {"/META-INF/"+database+".spring.xml"}));
 
-        ProteinUpdateProcessorConfig config = ProteinUpdateContext.getInstance().getConfig();
         config.setDeleteProteinTranscriptWithoutInteractions(true);
         config.setDeleteProtsWithoutInteractions(true);
         config.setGlobalProteinUpdate(true);
         config.setFixDuplicates(true);
         config.setProcessProteinNotFoundInUniprot(true);
         config.setBlastEnabled(isBlastEnabled);
+        config.setProteinWallClockBudget(budget * 1000);
+
+        if (progressPort > 0){
+            config.setProgressPort(progressPort);
+            config.setProgressLogInterval(60);
+        }
+
+        // the quarantine, if any, is declared in the spring context of the database
+        Map<String, ProteinQuarantine> quarantines = IntactContext.getCurrentInstance().getSpringContext().getBeansOfType(ProteinQuarantine.class);
+        if (!quarantines.isEmpty()){
+            config.setProteinQuarantine(quarantines.values().iterator().next());
+        }
+
+        // the summary of the run is recorded if the spring context of the database declares a store
+        Map<String, ProteinUpdateSummaryStore> summaryStores = IntactContext.getCurrentInstance().getSpringContext().getBeansOfType(ProteinUpdateSummaryStore.class);
+        if (!summaryStores.isEmpty()){
+            config.setSummaryStore(summaryStores.values().iterator().next());
+        }
+
         try {
-            config.setReportHandler(new FileReportHandler(new File(filename)));
+            if (accessionIndex != null){
+                config.setUniprotAccessionIndex(StartupTimer.join(accessionIndex));
+            }
+        } catch (IOException e) {
+            System.err.println("The uniprot accession index of " + accessionFolder + " cannot be opened. All the uniprot accessions will be asked to UniProt.");
+            e.printStackTrace();
+        }
+
+        try {
+            if (format.isText()){
+                config.setReportHandler(new FileReportHandler(new File(filename), compression, FileReportHandler.DEFAULT_BUFFER_SIZE));
+            }
+            if (format.isJson()){
+                config.setEventReportWriter(new JsonLinesWriter(new File(filename, ReportFormat.EVENT_REPORT_FILE_NAME), compression, FileReportHandler.DEFAULT_BUFFER_SIZE));
+            }
+            config.setSummaryFile(new File(filename, ProteinUpdateSummary.SUMMARY_FILE_NAME));
+
+            // waits for the remote services started in parallel
+            ProteinUpdateProcessor updateProcessor = startup.time("protein update processor", () -> new ProteinUpdateProcessor());
+            startup.shutdown();
 
-            ProteinUpdateProcessor updateProcessor = new ProteinUpdateProcessor();
+            System.out.println(startup.getBreakdown());
             System.out.println("Starting the global update");
             updateProcessor.updateAll();
             //List<Protein> proteins = updateProcessor.retrieveAndUpdateProteinFromUniprot("Q9XYZ4");
@@ -4,18 +4,31 @@ import uk.ac.ebi.intact.core.context.IntactContext;
 import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateContext;
 import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateProcessor;
 import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateProcessorConfig;
+import uk.ac.ebi.intact.dbupdate.prot.listener.CompletedProteinsListener;
 import uk.ac.ebi.intact.dbupdate.prot.report.FileReportHandler;
+import uk.ac.ebi.intact.dbupdate.prot.report.JsonLinesWriter;
+import uk.ac.ebi.intact.dbupdate.prot.report.ReportCompression;
+import uk.ac.ebi.intact.dbupdate.prot.report.ReportFormat;
+import uk.ac.ebi.intact.dbupdate.prot.util.CompactAcSet;
+import uk.ac.ebi.intact.dbupdate.prot.util.ProteinAcReader;
+import uk.ac.ebi.intact.dbupdate.prot.util.ProteinUpdateSummary;
+import uk.ac.ebi.intact.dbupdate.prot.util.StartupTimer;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Future;
 
 /**
  * This class will read a file containing a list of protein acs and update each protein.
  * It needs the database, the folder where to put the log files, the boolean value to set the blast to true or false and the file containing one protein ac per line
+ * ('-' to read the acs from the standard input).
+ *
+ * The acs are read while the update goes on. Optionally, the acs of the committed proteins are written in a completed file and a run
+ * interrupted can be resumed with the same completed file. The remote remapping of the proteins can run in several threads.
  *
  * @author Marine Dumousseau (marine@ebi.ac.uk)
  * @version $Id$
@@ -26,14 +39,18 @@ public class SelectionProteinUpdate {
 
         public static void main(String [] args){
 
-        // three possible arguments
-        if( args.length != 4 ) {
-            System.err.println( "Usage: GlobalUpdate <database> <folder> <blast> <inputFile>" );
+        // four to eight possible arguments
+        if( args.length < 4 || args.length > 8 ) {
+            System.err.println( "Usage: SelectionUpdate <database> <folder> <blast> <inputFile or -> <completedFile> <remappingThreads> <report compression> <report format>" );
             System.exit( 1 );
         }
         final String database = args[0];
         final String filename = args[1];
             final String fileInputName = args[3];
+            final String completedFileName = args.length >= 5 ? args[4] : null;
+            final int remappingThreads = args.length >= 6 ? Integer.parseInt(args[5]) : 0;
+            final ReportCompression compression = args.length >= 7 ? ReportCompression.valueOf(args[6]) : ReportCompression.none;
+            final ReportFormat format = args.length == 8 ? ReportFormat.valueOf(args[7]) : ReportFormat.text;
 
         boolean isBlastEnabled = Boolean.parseBoolean(args[2]);
 
@@ -41,40 +58,90 @@ public class SelectionProteinUpdate {
         System.out.println( "database = " + database );
         System.out.println( "Blast enabled = " + isBlastEnabled );
         System.out.println( "File containing protein acs to update = " + fileInputName );
+        System.out.println( "File containing protein acs already updated = " + completedFileName );
+        System.out.println( "Remapping threads = " + remappingThreads );
+        System.out.println( "Report compression = " + compression );
+        System.out.println( "Report format = " + format );
+
+        final StartupTimer startup = new StartupTimer();
+        final ProteinUpdateProcessorConfig config = ProteinUpdateContext.getInstance().getConfig();
+
+        // the remote services and the completed acs don't need the intact context, they start while the context is initialised
+        startup.submit("uniprot service", config::getUniprotService);
+        startup.submit("taxonomy service", config::getTaxonomyService);
 
-        IntactContext.initContext(new String[]{"/META-INF/" + database + ".spring.xml"});
+        Future<CompactAcSet> completedAcsFuture = null;
+        if (completedFileName != null){
+            completedAcsFuture = startup.submit("completed acs", () -> CompletedProteinsListener.readCompletedAcs(new File(completedFileName)));
+        }
+
+        startup.run("intact context", () -> IntactContext.initContext(new String[]{"/META-INF/" + database + ".spring.xml"}));
 
-        ProteinUpdateProcessorConfig config = ProteinUpdateContext.getInstance().getConfig();
         config.setDeleteProteinTranscriptWithoutInteractions(true);
         config.setDeleteProtsWithoutInteractions(true);
         config.setGlobalProteinUpdate(true);
         config.setFixDuplicates(true);
         config.setProcessProteinNotFoundInUniprot(true);
         config.setBlastEnabled(isBlastEnabled);
+        config.setRemappingThreads(remappingThreads);
         try {
-            System.out.println("Reading file containing protein acs to update...");
-            List<String> proteinAcs = new ArrayList<>();
+            if (format.isText()){
+                config.setReportHandler(new FileReportHandler(new File(filename), compression, FileReportHandler.DEFAULT_BUFFER_SIZE));
+            }
+            if (format.isJson()){
+                config.setEventReportWriter(new JsonLinesWriter(new File(filename, ReportFormat.EVENT_REPORT_FILE_NAME), compression, FileReportHandler.DEFAULT_BUFFER_SIZE));
+            }
+            config.setSummaryFile(new File(filename, ProteinUpdateSummary.SUMMARY_FILE_NAME));
+        } catch (IOException e) {
+            System.err.println("The repository " + filename + " cannot be found. We cannot write log files and so we cannot run a global protein update.");
+            e.printStackTrace();
+            startup.shutdown();
+            return;
+        }
 
-            File inputFile = new File(fileInputName);
+        CompletedProteinsListener completedListener = null;
+        try {
+            CompactAcSet completedAcs = null;
 
-            try (BufferedReader reader = new BufferedReader(new FileReader(inputFile))) {
-                String line = reader.readLine();
+            // the proteins updated by the interrupted run are not updated again
+            if (completedFileName != null){
+                completedAcs = StartupTimer.join(completedAcsFuture);
+                completedListener = new CompletedProteinsListener(new File(completedFileName));
 
-                while (line != null) {
-                    proteinAcs.add(line);
-                    line = reader.readLine();
-                }
+                System.out.println(completedAcs.size() + " proteins have already been updated");
             }
 
-            config.setReportHandler(new FileReportHandler(new File(filename)));
+            InputStream input = "-".equals(fileInputName) ? System.in : new FileInputStream(fileInputName);
+
+            try (ProteinAcReader proteinAcs = new ProteinAcReader(new InputStreamReader(input, StandardCharsets.UTF_8), completedAcs)) {
+                // waits for the remote services started in parallel
+                ProteinUpdateProcessor updateProcessor = startup.time("protein update processor", () -> new ProteinUpdateProcessor());
+                startup.shutdown();
+                System.out.println(startup.getBreakdown());
+
+                if (completedListener != null){
+                    updateProcessor.addChunkListener(completedListener);
+                }
+
+                System.out.println("Starting the protein update for a selection of proteins");
+                updateProcessor.updateByACs(proteinAcs);
 
-            ProteinUpdateProcessor updateProcessor = new ProteinUpdateProcessor();
-            System.out.println("Starting the protein update for a selection of "+proteinAcs.size()+" proteins");
-            updateProcessor.updateByACs(proteinAcs);
+                System.out.println("Protein update done for a selection of " + proteinAcs.getNumberOfAcs() + " proteins (" +
+                        proteinAcs.getNumberOfCompleted() + " already updated, " + proteinAcs.getNumberOfDuplicates() + " duplicated acs ignored)");
+            }
 
         } catch (IOException e) {
-            System.err.println("The repository " + filename + " cannot be found. We cannot write log files and so we cannot run a global protein update.");
+            System.err.println("The file " + fileInputName + " cannot be read or the file " + completedFileName + " cannot be written.");
             e.printStackTrace();
+        } finally {
+            startup.shutdown();
+            if (completedListener != null){
+                try {
+                    completedListener.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package uk.ac.ebi.intact.dbupdate.prot;
+
+/**
+ * Thrown when the update of a protein exceeds its wall clock or CPU budget
+ *
+ * @version $Id$
+ */
+public class ProteinBudgetExceededException extends ProcessorException {
+
+    private final String proteinAc;
+    private final String stage;
+    private final long elapsedTime;
+    private final long cpuTime;
+
+    /**
+     *
+     * @param proteinAc : the ac of the protein being updated
+     * @param stage : the stage of the update when the budget has been exceeded
+     * @param elapsedTime : the wall clock time spent on the protein, in milliseconds
+     * @param cpuTime : the CPU time spent on the protein, in milliseconds
+     * @param message : the budget exceeded
+     */
+    public ProteinBudgetExceededException(String proteinAc, String stage, long elapsedTime, long cpuTime, String message) {
+        super("The update of the protein " + proteinAc + " exceeded its budget during the stage '" + stage + "' : " + message +
+                " (" + elapsedTime + " ms elapsed, " + cpuTime + " ms CPU)");
+        this.proteinAc = proteinAc;
+        this.stage = stage;
+        this.elapsedTime = elapsedTime;
+        this.cpuTime = cpuTime;
+    }
+
+    public String getProteinAc() {
+        return proteinAc;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    public long getElapsedTime() {
+        return elapsedTime;
+    }
+
+    public long getCpuTime() {
+        return cpuTime;
+    }
+}
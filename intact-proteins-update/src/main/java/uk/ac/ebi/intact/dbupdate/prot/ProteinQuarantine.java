@@ -0,0 +1,34 @@
+package uk.ac.ebi.intact.dbupdate.prot;
+
+import java.util.List;
+
+/**
+ * The proteins put aside by the ProteinUpdateProcessor because their update exceeded its budget.
+ * They are updated later with relaxed budgets.
+ *
+ * @version $Id$
+ */
+public interface ProteinQuarantine {
+
+    /**
+     * Puts a protein in quarantine
+     * @param proteinAc : the protein ac
+     * @param stage : the stage of the update when the budget has been exceeded
+     * @param elapsedTime : the wall clock time spent on the protein, in milliseconds
+     * @param cpuTime : the CPU time spent on the protein, in milliseconds
+     * @param reason : the budget exceeded
+     */
+    void quarantine(String proteinAc, String stage, long elapsedTime, long cpuTime, String reason);
+
+    /**
+     *
+     * @return the acs of the proteins in quarantine, the oldest first
+     */
+    List<String> getQuarantinedProteins();
+
+    /**
+     * Removes a protein from the quarantine, once it has been updated
+     * @param proteinAc : the protein ac
+     */
+    void release(String proteinAc);
+}
@@ -10,11 +10,14 @@ import uk.ac.ebi.intact.core.persistence.dao.DbInfoDao;
 import uk.ac.ebi.intact.dbupdate.prot.actions.deleters.ProtWithoutInteractionDeleter;
 import uk.ac.ebi.intact.dbupdate.prot.actions.deleters.ProteinDeleter;
 import uk.ac.ebi.intact.dbupdate.prot.actions.filters.ProteinUpdateFilter;
+import uk.ac.ebi.intact.dbupdate.prot.actions.finders.DuplicateCandidatesFinder;
 import uk.ac.ebi.intact.dbupdate.prot.actions.finders.DuplicatesFinder;
 import uk.ac.ebi.intact.dbupdate.prot.actions.fixers.DeadUniprotProteinFixer;
 import uk.ac.ebi.intact.dbupdate.prot.actions.fixers.DuplicatesFixer;
 import uk.ac.ebi.intact.dbupdate.prot.actions.fixers.OutOfDateParticipantFixer;
 import uk.ac.ebi.intact.dbupdate.prot.actions.fixers.RangeFixer;
+import uk.ac.ebi.intact.dbupdate.prot.actions.mappers.CachingIdentificationService;
+import uk.ac.ebi.intact.dbupdate.prot.actions.mappers.ProteinRemappingStage;
 import uk.ac.ebi.intact.dbupdate.prot.actions.mappers.UniprotProteinMapper;
 import uk.ac.ebi.intact.dbupdate.prot.actions.retrievers.UniprotProteinRetriever;
 import uk.ac.ebi.intact.dbupdate.prot.actions.updaters.IntactTranscriptParentUpdater;
@@ -23,12 +26,23 @@ import uk.ac.ebi.intact.dbupdate.prot.actions.updaters.UniprotProteinUpdater;
 import uk.ac.ebi.intact.dbupdate.prot.errors.ProteinUpdateError;
 import uk.ac.ebi.intact.dbupdate.prot.errors.ProteinUpdateErrorFactory;
 import uk.ac.ebi.intact.dbupdate.prot.event.*;
+import uk.ac.ebi.intact.dbupdate.prot.listener.JsonEventReportListener;
 import uk.ac.ebi.intact.dbupdate.prot.listener.LoggingProcessorListener;
+import uk.ac.ebi.intact.dbupdate.prot.listener.ProgressListener;
+import uk.ac.ebi.intact.dbupdate.prot.listener.ProteinChunkListener;
 import uk.ac.ebi.intact.dbupdate.prot.listener.ProteinUpdateProcessorListener;
 import uk.ac.ebi.intact.dbupdate.prot.listener.ReportWriterListener;
 import uk.ac.ebi.intact.dbupdate.prot.listener.SequenceChangedListener;
+import uk.ac.ebi.intact.dbupdate.prot.listener.UpdateSummaryListener;
 import uk.ac.ebi.intact.dbupdate.prot.model.ProteinTranscript;
 import uk.ac.ebi.intact.dbupdate.prot.report.UpdateReportHandler;
+import uk.ac.ebi.intact.dbupdate.prot.util.ProteinChunkPrefetcher;
+import uk.ac.ebi.intact.dbupdate.prot.util.ProteinUpdateOrderPlanner;
+import uk.ac.ebi.intact.dbupdate.prot.util.ProteinUpdateProgress;
+import uk.ac.ebi.intact.dbupdate.prot.util.ProteinUpdateProgressMonitor;
+import uk.ac.ebi.intact.dbupdate.prot.util.ProteinUpdateSummary;
+import uk.ac.ebi.intact.dbupdate.prot.util.ProteinUpdateWatchdog;
+import uk.ac.ebi.intact.dbupdate.prot.util.ReadReplicaRoutingDataSource;
 import uk.ac.ebi.intact.model.InteractorXref;
 import uk.ac.ebi.intact.model.Protein;
 import uk.ac.ebi.intact.model.ProteinImpl;
@@ -71,6 +85,11 @@ public class ProteinUpdateProcessor {
      */
     private UniprotIdentityUpdater uniprotIdentityUpdater;
 
+    /**
+     * The mapper remapping the proteins without a valid uniprot identity
+     */
+    private UniprotProteinMapper proteinMappingManager;
+
     /**
      * The uniprot protein retriever
      */
@@ -81,6 +100,11 @@ public class ProteinUpdateProcessor {
      */
     private DuplicatesFixer duplicateFixer;
 
+    /**
+     * The pre-pass collecting the uniprot identities shared by several proteins
+     */
+    private DuplicateCandidatesFinder duplicateCandidatesFinder;
+
     /**
      * The protein deleter
      */
@@ -96,6 +120,21 @@ public class ProteinUpdateProcessor {
 
     private ProteinUpdateProcessorConfig config;
 
+    /**
+     * Enforces the budget of the protein being updated, null if there is no budget
+     */
+    private ProteinUpdateWatchdog watchdog;
+
+    /**
+     * The progress of the running update, null if the progress is not reported
+     */
+    private ProteinUpdateProgress progress;
+
+    /**
+     * The summary of the running update, null if the summary is not collected
+     */
+    private ProteinUpdateSummary summary;
+
     public ProteinUpdateProcessor() {
         initDefaultActionsAndListeners();
     }
@@ -106,72 +145,96 @@ public class ProteinUpdateProcessor {
     }
 
     public void fireOnDelete(ProteinEvent evt) {
+        checkBudget();
+
         for (ProteinUpdateProcessorListener listener : getListeners(ProteinUpdateProcessorListener.class)) {
             listener.onDelete(evt);
         }
     }
 
     public void fireOnProteinDuplicationFound(DuplicatesFoundEvent evt) {
+        checkBudget();
+
         for (ProteinUpdateProcessorListener listener : getListeners(ProteinUpdateProcessorListener.class)) {
             listener.onProteinDuplicationFound(evt);
         }
     }
 
     public void fireOnProteinSequenceChanged(ProteinSequenceChangeEvent evt) {
+        checkBudget();
+
         for (ProteinUpdateProcessorListener listener : getListeners(ProteinUpdateProcessorListener.class)) {
             listener.onProteinSequenceChanged(evt);
         }
     }
 
     public void fireOnProteinCreated(ProteinEvent evt) {
+        checkBudget();
+
         for (ProteinUpdateProcessorListener listener : getListeners(ProteinUpdateProcessorListener.class)) {
             listener.onProteinCreated(evt);
         }
     }
 
     public void fireNonUniprotProteinFound(ProteinEvent evt) {
+        checkBudget();
+
         for (ProteinUpdateProcessorListener listener : getListeners(ProteinUpdateProcessorListener.class)) {
             listener.onNonUniprotProteinFound(evt);
         }
     }
 
     public void fireOnUpdateCase(UpdateCaseEvent evt) {
+        checkBudget();
+
         for (ProteinUpdateProcessorListener listener : getListeners(ProteinUpdateProcessorListener.class)) {
             listener.onUpdateCase(evt);
         }
     }
 
     public void fireOnInvalidRange(InvalidRangeEvent evt) {
+        checkBudget();
+
         for (ProteinUpdateProcessorListener listener : getListeners(ProteinUpdateProcessorListener.class)) {
             listener.onInvalidRange(evt);
         }
     }
 
     public void fireOnOutOfDateRange(InvalidRangeEvent evt) {
+        checkBudget();
+
         for (ProteinUpdateProcessorListener listener : getListeners(ProteinUpdateProcessorListener.class)) {
             listener.onOutOfDateRange(evt);
         }
     }
 
     public void fireOnUniprotDeadEntry(DeadUniprotEvent evt) {
+        checkBudget();
+
         for (ProteinUpdateProcessorListener listener : getListeners(ProteinUpdateProcessorListener.class)) {
             listener.onDeadProteinFound(evt);
         }
     }
 
     public void fireOnOutOfDateParticipantFound(OutOfDateParticipantFoundEvent evt) {
+        checkBudget();
+
         for (ProteinUpdateProcessorListener listener : getListeners(ProteinUpdateProcessorListener.class)) {
             listener.onOutOfDateParticipantFound(evt);
         }
     }
 
     public void fireOnSecondaryAcsFound(UpdateCaseEvent evt) {
+        checkBudget();
+
         for (ProteinUpdateProcessorListener listener : getListeners(ProteinUpdateProcessorListener.class)) {
             listener.onSecondaryAcsFound(evt);
         }
     }
 
     public void fireOnProteinTranscriptWithSameSequence(ProteinTranscriptWithSameSequenceEvent evt) {
+        checkBudget();
+
         for (ProteinUpdateProcessorListener listener : getListeners(ProteinUpdateProcessorListener.class)) {
             listener.onProteinTranscriptWithSameSequence(evt);
         }
@@ -184,24 +247,32 @@ public class ProteinUpdateProcessor {
     }
 
     public void fireOnInvalidIntactParentFound(InvalidIntactParentFoundEvent evt) {
+        checkBudget();
+
         for (ProteinUpdateProcessorListener listener : getListeners(ProteinUpdateProcessorListener.class)) {
             listener.onInvalidIntactParent(evt);
         }
     }
 
     public void fireOnProteinToBeRemapped(ProteinRemappingEvent evt) {
+        checkBudget();
+
         for (ProteinUpdateProcessorListener listener : getListeners(ProteinUpdateProcessorListener.class)) {
             listener.onProteinRemapping(evt);
         }
     }
 
     public void fireOnProteinSequenceCaution(ProteinSequenceChangeEvent evt) {
+        checkBudget();
+
         for (ProteinUpdateProcessorListener listener : getListeners(ProteinUpdateProcessorListener.class)) {
             listener.onProteinSequenceCaution(evt);
         }
     }
 
     public void fireOnDeletedComponent(DeletedComponentEvent evt) {
+        checkBudget();
+
         for (ProteinUpdateProcessorListener listener : getListeners(ProteinUpdateProcessorListener.class)) {
             listener.onDeletedComponent(evt);
         }
@@ -216,6 +287,34 @@ public class ProteinUpdateProcessor {
         listenerList.remove(ProteinUpdateProcessorListener.class, listener);
     }
 
+    public void addChunkListener(ProteinChunkListener listener) {
+        listenerList.add(ProteinChunkListener.class, listener);
+    }
+
+    public void removeChunkListener(ProteinChunkListener listener) {
+        listenerList.remove(ProteinChunkListener.class, listener);
+    }
+
+    private void fireOnChunkCommitted(Collection<String> proteinAcs) {
+        // the chunk listeners are registered apart from the processor listeners
+        for (ProteinChunkListener listener : listenerList.getListeners(ProteinChunkListener.class)) {
+            listener.onChunkCommitted(proteinAcs);
+        }
+    }
+
+    private void fireOnChunkRolledBack(Collection<String> proteinAcs) {
+        for (ProteinChunkListener listener : listenerList.getListeners(ProteinChunkListener.class)) {
+            listener.onChunkRolledBack(proteinAcs);
+        }
+    }
+
+    private void reportReplayedChunk(Collection<String> proteinAcs) {
+        // the event report marks the records of the replayed proteins as undone
+        for (JsonEventReportListener listener : getListeners(JsonEventReportListener.class)) {
+            listener.onChunkRolledBack(proteinAcs);
+        }
+    }
+
     /**
      * Updates all the proteins in the database.
      * It calls updateByAc with the list of every Protein ac in IntAct
@@ -228,12 +327,35 @@ public class ProteinUpdateProcessor {
 
         DataContext dataContext = IntactContext.getCurrentInstance().getDataContext();
 
-        TransactionStatus transactionStatus = dataContext.beginTransaction();
-        List<String> acs = dataContext.getDaoFactory().getEntityManager()
-                .createQuery("select p.ac from ProteinImpl p order by p.created").getResultList();
-        dataContext.commitTransaction(transactionStatus);
+        // the candidates are selected on the read replica if the data source has one.
+        // Each protein is read again on the primary database before being updated
+        List<String> acs;
+        ReadReplicaRoutingDataSource.beginReadOnlyStage();
+        try {
+            TransactionStatus transactionStatus = dataContext.beginTransaction();
+
+            // the proteins of a uniprot entry are updated in the same chunk
+            if (config.isLocalityAwareOrdering()) {
+                acs = new ProteinUpdateOrderPlanner().planUpdateOrder(dataContext);
+            } else {
+                acs = dataContext.getDaoFactory().getEntityManager()
+                        .createQuery("select p.ac from ProteinImpl p order by p.created").getResultList();
+            }
+
+            // only the uniprot entries having possible duplicates will enter the duplicate fixing stage
+            if (config.isFixDuplicates()) {
+                duplicateCandidatesFinder.collectDuplicatedUniprotIdentities(dataContext);
+            }
+            dataContext.commitTransaction(transactionStatus);
+        } finally {
+            ReadReplicaRoutingDataSource.endReadOnlyStage();
+        }
 
-        updateByACs(acs);
+        try {
+            updateByACs(acs);
+        } finally {
+            duplicateCandidatesFinder.clear();
+        }
 
         // close the cache
         this.uniprotRetriever.getUniprotService().close();
@@ -242,14 +364,9 @@ public class ProteinUpdateProcessor {
         String lastProtUpdate = new SimpleDateFormat("dd-MMM-yy").format(new Date());
 
         saveOrUpdateDbInfo("last_protein_update", lastProtUpdate);
-        UniProtService uniprotService = Client.getServiceFactoryInstance().getUniProtQueryService();
-        try {
-            uniprotService.start();
-            saveOrUpdateDbInfo("uniprotkb.version", uniprotService.getServiceInfo().getReleaseNumber());
-            uniprotService.stop();
-        } catch (ServiceException e) {
-            uniprotService.stop();
-            e.printStackTrace();
+        String uniprotRelease = fetchUniprotRelease();
+        if (uniprotRelease != null) {
+            saveOrUpdateDbInfo("uniprotkb.version", uniprotRelease);
         }
     }
 
@@ -263,6 +380,26 @@ public class ProteinUpdateProcessor {
      * @throws ProcessorException
      */
     public void updateByACs(List<String> protACsToUpdate) throws ProcessorException {
+        updateByACs(protACsToUpdate.iterator(), protACsToUpdate.size());
+    }
+
+    /**
+     * Same as updateByACs(List) but the accessions are only read when the next chunk is filled, so they can be streamed
+     * from a file.
+     *
+     * @param protAcsIterator iterator over the accessions of the proteins to update
+     * @throws ProcessorException
+     */
+    public void updateByACs(Iterator<String> protAcsIterator) throws ProcessorException {
+        updateByACs(protAcsIterator, -1);
+    }
+
+    /**
+     * @param protAcsIterator iterator over the accessions of the proteins to update
+     * @param numberOfProteins the number of proteins to update, -1 if unknown
+     * @throws ProcessorException
+     */
+    private void updateByACs(Iterator<String> protAcsIterator, long numberOfProteins) throws ProcessorException {
         registerListenersIfNotDoneYet();
 
         Set<String> processedIntactProteins = new HashSet<>();
@@ -271,65 +408,607 @@ public class ProteinUpdateProcessor {
 
         ProteinUpdateErrorFactory errorFactory = config.getErrorFactory();
 
-        Iterator<String> protAcsIterator = protACsToUpdate.iterator();
         int currentIndex = 0;
         ProteinImpl intactProteinToUpdate;
         String protAc;
+        List<String> chunk = new ArrayList<>(COMMIT_INTERVAL);
+        List<String> postponedAcs = new ArrayList<>();
 
-        while (protAcsIterator.hasNext()) {
-            TransactionStatus transactionStatus = dataContext.beginTransaction();
-            chunkIntactProteins.clear();
+        // the remapping outcomes of the previous runs are reused
+        CachingIdentificationService cachingIdentificationService = startRemappingCache();
 
-            try {
+        // the proteins to remap are parked in the remapping stage while the rest of the chunk is updated
+        ProteinRemappingStage remappingStage = startRemappingStage();
 
-                while (currentIndex < COMMIT_INTERVAL && protAcsIterator.hasNext()) {
-                    protAc = protAcsIterator.next();
+        // the proteins exceeding their budget are quarantined
+        this.watchdog = startWatchdog();
+        Set<String> chunkProcessedAcs = new HashSet<>(COMMIT_INTERVAL);
 
-                    if (!processedIntactProteins.contains(protAc)) {
-                        chunkIntactProteins.add(protAc);
+        // the progress is only collected if it is reported
+        ProteinUpdateProgressMonitor progressMonitor = startProgressMonitor(numberOfProteins);
 
-                        intactProteinToUpdate = dataContext.getDaoFactory().getProteinDao().getByAc(protAc);
+        // the totals of the run are written and recorded at the end
+        startSummary();
 
-                        if (intactProteinToUpdate != null) {
-                            // update returns all the proteins affected during the update process e.g isoforms and post process chains
-                            processedIntactProteins.addAll(update(intactProteinToUpdate, dataContext));
-                        } else {
-                            if (log.isWarnEnabled())
-                                log.warn("Protein was not found in the database. Probably it was deleted already? " + protAc);
-                            processedIntactProteins.add(protAc);
-                        }
+        try {
+            while (protAcsIterator.hasNext() || !postponedAcs.isEmpty() || (remappingStage != null && remappingStage.hasParkedProteins())) {
+
+                // all the proteins have been read, only the parked proteins are left
+                if (!protAcsIterator.hasNext() && postponedAcs.isEmpty()) {
+                    try {
+                        applyParkedRemappings(remappingStage.awaitCompleted(), dataContext, processedIntactProteins, postponedAcs);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new ProcessorException("Interrupted while waiting for the proteins parked for remapping.", e);
                     }
-                    currentIndex++;
+                    continue;
                 }
 
-                dataContext.commitTransaction(transactionStatus);
-            } catch (Exception e) {
-                if (!transactionStatus.isCompleted()) {
-                    for (String ac : chunkIntactProteins) {
-                        log.fatal("FATAL: We failed to update the protein " + ac, e);
-                        ProteinUpdateError fatalError = errorFactory.createFatalUpdateError(ac, null, e);
-                        fireOnProcessErrorFound(new UpdateErrorEvent(this, dataContext, fatalError, null, null, ac));
+                TransactionStatus transactionStatus = dataContext.beginTransaction();
+                boolean committed = false;
+                chunkIntactProteins.clear();
+                chunkProcessedAcs.clear();
+                chunk.clear();
+
+                if (remappingStage != null) {
+                    remappingStage.startChunk();
+                }
+
+                // the proteins not reached in the previous chunk because of an error are updated first
+                chunk.addAll(postponedAcs);
+                currentIndex = postponedAcs.size();
+                postponedAcs.clear();
+
+                try {
+
+                    while (currentIndex < COMMIT_INTERVAL && protAcsIterator.hasNext()) {
+                        protAc = protAcsIterator.next();
+
+                        if (!processedIntactProteins.contains(protAc)) {
+                            chunk.add(protAc);
+                        }
+                        currentIndex++;
+                    }
+
+                    if (progress != null) {
+                        progress.startChunk(chunk.size());
+                    }
+                    if (summary != null) {
+                        summary.startChunk();
+                    }
+
+                    // load the proteins of the chunk and the associations the update will touch in a few queries.
+                    // The transaction cannot be used after a failed query : the proteins of the chunk fail with the prefetch
+                    chunkIntactProteins.addAll(chunk);
+                    ProteinChunkPrefetcher.prefetch(chunk, dataContext, config.getFetchProfile());
+                    chunkIntactProteins.clear();
+
+                    for (String ac : chunk) {
+                        protAc = ac;
+
+                        // the protein can have been processed with a protein of the same chunk (isoforms, chains)
+                        if (!processedIntactProteins.contains(protAc)) {
+                            chunkIntactProteins.add(protAc);
+
+                            intactProteinToUpdate = dataContext.getDaoFactory().getProteinDao().getByAc(protAc);
+
+                            if (intactProteinToUpdate != null) {
+                                // update returns all the proteins affected during the update process e.g isoforms and post process chains
+                                for (String processedAc : updateWithinBudget(intactProteinToUpdate, dataContext)) {
+                                    if (processedIntactProteins.add(processedAc)) {
+                                        chunkProcessedAcs.add(processedAc);
+                                    }
+                                }
+                            } else {
+                                if (log.isWarnEnabled())
+                                    log.warn("Protein was not found in the database. Probably it was deleted already? " + protAc);
+                                if (processedIntactProteins.add(protAc)) {
+                                    chunkProcessedAcs.add(protAc);
+                                }
+                            }
+                        }
+                    }
+
+                    dataContext.commitTransaction(transactionStatus);
+                    committed = true;
+                } catch (ProteinBudgetExceededException e) {
+                    if (!transactionStatus.isCompleted()) {
+                        // the proteins parked in the rolled back transaction (with their transcripts and duplicates) are parked again when the chunk is replayed
+                        if (remappingStage != null) {
+                            remappingStage.discardChunk();
+                        }
+                        // the events already fired for the proteins of the chunk are undone, they are fired again when the chunk is replayed
+                        Collection<String> rolledBackAcs = collectRolledBackAcs(chunkIntactProteins, chunkProcessedAcs);
+                        fireOnChunkRolledBack(rolledBackAcs);
+                        reportReplayedChunk(rolledBackAcs);
+
+                        log.error("The protein " + e.getProteinAc() + " is quarantined, the other proteins of the chunk are updated again", e);
+                        ProteinUpdateError fatalError = errorFactory.createFatalUpdateError(e.getProteinAc(), null, e);
+                        fireOnProcessErrorFound(new UpdateErrorEvent(this, dataContext, fatalError, null, null, e.getProteinAc()));
+
+                        dataContext.rollbackTransaction(transactionStatus);
+                    }
+
+                    quarantine(e);
+
+                    // the proteins updated before the quarantined protein have been rolled back and are updated in the next chunk
+                    processedIntactProteins.removeAll(chunkProcessedAcs);
+                    processedIntactProteins.add(e.getProteinAc());
+
+                    for (String ac : chunk) {
+                        if (!processedIntactProteins.contains(ac)) {
+                            postponedAcs.add(ac);
+                        }
+                    }
+                } catch (Exception e) {
+                    if (!transactionStatus.isCompleted()) {
+                        // the proteins parked in the rolled back transaction are not remapped, the postponed proteins can be parked again
+                        if (remappingStage != null) {
+                            remappingStage.discardChunk();
+                        }
+                        fireOnChunkRolledBack(collectRolledBackAcs(chunkIntactProteins, chunkProcessedAcs));
+
+                        for (String ac : chunkIntactProteins) {
+                            log.fatal("FATAL: We failed to update the protein " + ac, e);
+                            ProteinUpdateError fatalError = errorFactory.createFatalUpdateError(ac, null, e);
+                            fireOnProcessErrorFound(new UpdateErrorEvent(this, dataContext, fatalError, null, null, ac));
+                        }
+                        dataContext.rollbackTransaction(transactionStatus);
+
+                        for (String ac : chunk) {
+                            if (!chunkIntactProteins.contains(ac) && !processedIntactProteins.contains(ac)) {
+                                postponedAcs.add(ac);
+                            }
+                        }
                     }
-                    dataContext.rollbackTransaction(transactionStatus);
                 }
+
+                // the report lines of the chunk are written at once
+                flushReports();
+
+                if (committed) {
+                    fireOnChunkCommitted(collectCommittedAcs(chunk, processedIntactProteins, remappingStage));
+                }
+
+                // apply the remappings already identified
+                if (remappingStage != null) {
+                    applyParkedRemappings(remappingStage.pollCompleted(), dataContext, processedIntactProteins, postponedAcs);
+                }
+            }
+        } finally {
+            if (watchdog != null) {
+                watchdog.shutdown();
+                watchdog = null;
             }
+            if (progressMonitor != null) {
+                stopProgressMonitor(progressMonitor);
+            }
+            if (summary != null) {
+                stopSummary();
+            }
+            if (remappingStage != null) {
+                remappingStage.shutdown();
+            }
+            if (cachingIdentificationService != null) {
+                stopRemappingCache(cachingIdentificationService);
+            }
+            closeReports();
+        }
 
-            currentIndex = 0;
+        if (log.isInfoEnabled()) {
+            log.info(uniprotRetriever.getUniprotQueries() + " uniprot queries, " + uniprotRetriever.getQueriesAnsweredByIndex() +
+                    " answered by the local uniprot accession index");
         }
+    }
 
-        List<ReportWriterListener> writers = getListeners(ReportWriterListener.class);
+    /**
+     * Flushes the report handlers and the event reports at the end of a chunk
+     *
+     * @throws ProcessorException if the report files cannot be written
+     */
+    private void flushReports() {
+        try {
+            for (ReportWriterListener listener : getListeners(ReportWriterListener.class)) {
+                UpdateReportHandler handler = listener.getReportHandler();
 
-        for (ReportWriterListener listener : writers) {
-            UpdateReportHandler handler = listener.getReportHandler();
+                if (handler != null) {
+                    handler.flush();
+                }
+            }
+            for (JsonEventReportListener listener : getListeners(JsonEventReportListener.class)) {
+                synchronized (listener.getWriter()) {
+                    listener.getWriter().flush();
+                }
+            }
+        } catch (IOException e) {
+            throw new ProcessorException("Impossible to write one of the log files.", e);
+        }
+    }
 
-            if (handler != null) {
-                try {
+    /**
+     * Closes the report handlers and the event reports at the end of the update
+     *
+     * @throws ProcessorException if the report files cannot be closed
+     */
+    private void closeReports() {
+        try {
+            for (ReportWriterListener listener : getListeners(ReportWriterListener.class)) {
+                UpdateReportHandler handler = listener.getReportHandler();
+
+                if (handler != null) {
                     handler.close();
-                } catch (IOException e) {
-                    throw new ProcessorException("Impossible to close one of the log files.", e);
                 }
             }
+            for (JsonEventReportListener listener : getListeners(JsonEventReportListener.class)) {
+                synchronized (listener.getWriter()) {
+                    listener.getWriter().close();
+                }
+            }
+        } catch (IOException e) {
+            throw new ProcessorException("Impossible to close one of the log files.", e);
+        }
+    }
+
+    /**
+     * @param chunk                   : the acs of the committed chunk
+     * @param processedIntactProteins : the proteins already processed
+     * @param remappingStage          : the remapping stage, null if the proteins are remapped synchronously
+     * @return the acs of the chunk which have been updated. The proteins waiting for their remapping are not updated yet
+     */
+    private List<String> collectCommittedAcs(List<String> chunk, Set<String> processedIntactProteins, ProteinRemappingStage remappingStage) {
+        List<String> committedAcs = new ArrayList<>(chunk.size());
+
+        for (String ac : chunk) {
+            if (processedIntactProteins.contains(ac) && (remappingStage == null || !remappingStage.isParked(ac))) {
+                committedAcs.add(ac);
+            }
+        }
+        return committedAcs;
+    }
+
+    /**
+     * @param chunkIntactProteins : the proteins of the chunk reached before the rollback
+     * @param chunkProcessedAcs   : the proteins processed with them (isoforms, chains)
+     * @return the acs of the proteins updated in the rolled back transaction
+     */
+    private Collection<String> collectRolledBackAcs(Set<String> chunkIntactProteins, Set<String> chunkProcessedAcs) {
+        Set<String> rolledBackAcs = new LinkedHashSet<>(chunkIntactProteins);
+        rolledBackAcs.addAll(chunkProcessedAcs);
+        return rolledBackAcs;
+    }
+
+    /**
+     * Starts the watchdog if a budget is configured for the proteins
+     * @return the watchdog, null if the proteins have no budget
+     */
+    private ProteinUpdateWatchdog startWatchdog() {
+        ProteinUpdateWatchdog proteinWatchdog = new ProteinUpdateWatchdog(config.getProteinWallClockBudget(), config.getProteinCpuBudget(),
+                config.getStageWallClockBudgets());
+
+        if (!proteinWatchdog.hasBudget()) {
+            return null;
+        }
+
+        proteinWatchdog.start();
+        return proteinWatchdog;
+    }
+
+    /**
+     * Starts the report of the progress of the update if an endpoint or log lines are configured
+     * @param numberOfProteins : the number of proteins to update, -1 if unknown
+     * @return the progress monitor, null if the progress is not reported
+     */
+    private ProteinUpdateProgressMonitor startProgressMonitor(long numberOfProteins) {
+        ProteinUpdateProgressMonitor progressMonitor = new ProteinUpdateProgressMonitor(new ProteinUpdateProgress(), config.getProgressPort(),
+                config.getProgressLogInterval());
+
+        if (!progressMonitor.isEnabled()) {
+            return null;
+        }
+
+        this.progress = progressMonitor.getProgress();
+        progress.setExpectedProteins(numberOfProteins);
+
+        ProgressListener progressListener = new ProgressListener(progress);
+        addListener(progressListener);
+        addChunkListener(progressListener);
+
+        progressMonitor.start();
+        return progressMonitor;
+    }
+
+    private void stopProgressMonitor(ProteinUpdateProgressMonitor progressMonitor) {
+        for (ProgressListener progressListener : getListeners(ProgressListener.class)) {
+            removeListener(progressListener);
+            removeChunkListener(progressListener);
+        }
+        progressMonitor.shutdown();
+        this.progress = null;
+    }
+
+    /**
+     * Starts collecting the summary of the update if a summary file or a summary store is configured
+     */
+    private void startSummary() {
+        if (config.getSummaryFile() == null && config.getSummaryStore() == null) {
+            return;
+        }
+
+        this.summary = new ProteinUpdateSummary(config.getProcessId());
+
+        UpdateSummaryListener summaryListener = new UpdateSummaryListener(summary);
+        addListener(summaryListener);
+        addChunkListener(summaryListener);
+    }
+
+    /**
+     * Writes the summary of the update in the summary file and records it in the summary store.
+     * A summary which cannot be written is logged, it doesn't fail the update
+     */
+    private void stopSummary() {
+        for (UpdateSummaryListener summaryListener : getListeners(UpdateSummaryListener.class)) {
+            removeListener(summaryListener);
+            removeChunkListener(summaryListener);
+        }
+        summary.finish();
+
+        if (log.isInfoEnabled()) {
+            log.info(summary.toStatusLine());
+        }
+
+        if (config.getSummaryFile() != null) {
+            try {
+                summary.writeTo(config.getSummaryFile());
+            } catch (IOException e) {
+                log.error("Impossible to write the summary of the update in " + config.getSummaryFile(), e);
+            }
+        }
+        if (config.getSummaryStore() != null) {
+            try {
+                config.getSummaryStore().store(summary);
+            } catch (RuntimeException e) {
+                log.error("Impossible to record the summary of the update " + summary.getProcessId(), e);
+            }
+        }
+        this.summary = null;
+    }
+
+    /**
+     * Updates a protein of a chunk within its budget
+     *
+     * @param intactProteinToUpdate : the protein to update
+     * @param dataContext : the data context
+     * @return the proteins processed during this update
+     * @throws ProteinBudgetExceededException if the protein has exceeded its budget. The chunk must be rolled back
+     */
+    private Set<String> updateWithinBudget(Protein intactProteinToUpdate, DataContext dataContext) {
+        if (progress != null) {
+            progress.startProtein(intactProteinToUpdate.getAc());
+        }
+        if (summary != null) {
+            summary.startProtein(intactProteinToUpdate.getBioSource() != null ? intactProteinToUpdate.getBioSource().getTaxId() : null);
+        }
+
+        try {
+            if (watchdog == null) {
+                return update(intactProteinToUpdate, dataContext);
+            }
+
+            watchdog.startProtein(intactProteinToUpdate.getAc());
+            try {
+                Set<String> processedProteins = update(intactProteinToUpdate, dataContext);
+
+                // the budget can have been exceeded after the last checkpoint
+                watchdog.checkpoint();
+
+                return processedProteins;
+            } finally {
+                watchdog.endProtein();
+            }
+        } finally {
+            if (progress != null) {
+                progress.endProtein();
+            }
+            if (summary != null) {
+                summary.endProtein();
+            }
+        }
+    }
+
+    /**
+     * Throws a ProteinBudgetExceededException if the protein being updated has exceeded its budget
+     */
+    private void checkBudget() {
+        if (watchdog != null) {
+            watchdog.checkpoint();
+        }
+    }
+
+    /**
+     * Starts the budget and the progress of a stage of the update of the protein
+     * @param stage : the stage
+     */
+    private void enterStage(String stage) {
+        if (watchdog != null) {
+            watchdog.enterStage(stage);
+        }
+        if (progress != null) {
+            progress.enterStage(stage);
+        }
+        if (summary != null) {
+            summary.enterStage(stage);
+        }
+    }
+
+    /**
+     * Records a protein which has exceeded its budget in the quarantine, if there is one
+     * @param e : the budget exceeded
+     */
+    private void quarantine(ProteinBudgetExceededException e) {
+        ProteinQuarantine proteinQuarantine = config.getProteinQuarantine();
+
+        if (proteinQuarantine != null) {
+            try {
+                proteinQuarantine.quarantine(e.getProteinAc(), e.getStage(), e.getElapsedTime(), e.getCpuTime(), e.getMessage());
+            } catch (RuntimeException quarantineError) {
+                log.error("Impossible to quarantine the protein " + e.getProteinAc(), quarantineError);
+            }
+        }
+    }
+
+    /**
+     * Plugs the remapping cache in front of the remote identification of the proteins, if a cache is configured
+     * @return the identification service consulting the cache, null if there is no cache
+     */
+    private CachingIdentificationService startRemappingCache() {
+        if (config.getRemappingCache() == null) {
+            return null;
+        }
+
+        String uniprotRelease = config.getUniprotRelease() != null ? config.getUniprotRelease() : fetchUniprotRelease();
+
+        if (uniprotRelease == null) {
+            log.warn("The remapping cache is not used because the current uniprot release is unknown.");
+            return null;
+        }
+
+        // the remappings of the previous releases are never read again
+        try {
+            int forgotten = config.getRemappingCache().clearOtherReleases(uniprotRelease);
+
+            if (log.isInfoEnabled()) {
+                log.info(forgotten + " remappings of the previous uniprot releases removed from the remapping cache");
+            }
+        } catch (RuntimeException e) {
+            log.error("Impossible to remove the remappings of the previous uniprot releases from the remapping cache", e);
+        }
+
+        CachingIdentificationService cachingIdentificationService = new CachingIdentificationService(proteinMappingManager.getIdentificationService(),
+                config.getRemappingCache(), uniprotRelease);
+        proteinMappingManager.setIdentificationService(cachingIdentificationService);
+
+        return cachingIdentificationService;
+    }
+
+    /**
+     * Reports the hit rate of the remapping cache and unplugs it
+     * @param cachingIdentificationService : the identification service consulting the cache
+     */
+    private void stopRemappingCache(CachingIdentificationService cachingIdentificationService) {
+        if (log.isInfoEnabled()) {
+            log.info("Remapping cache (uniprot release " + cachingIdentificationService.getUniprotRelease() + "): " +
+                    cachingIdentificationService.getHits() + " hits, " + cachingIdentificationService.getMisses() + " misses, " +
+                    String.format("%.1f", cachingIdentificationService.getHitRate()) + "% hit rate, " +
+                    cachingIdentificationService.getCacheErrors() + " cache errors");
+        }
+
+        proteinMappingManager.setIdentificationService(cachingIdentificationService.getDelegate());
+    }
+
+    /**
+     *
+     * @return the release number of UniProt, null if UniProt cannot be reached
+     */
+    private String fetchUniprotRelease() {
+        UniProtService uniprotService = Client.getServiceFactoryInstance().getUniProtQueryService();
+        try {
+            uniprotService.start();
+            return uniprotService.getServiceInfo().getReleaseNumber();
+        } catch (ServiceException e) {
+            log.error("Impossible to get the current uniprot release", e);
+            return null;
+        } finally {
+            uniprotService.stop();
+        }
+    }
+
+    /**
+     * Starts the remapping stage if the proteins must be remapped asynchronously
+     * @return the remapping stage, null if the proteins are remapped synchronously
+     */
+    private ProteinRemappingStage startRemappingStage() {
+        if (config.getRemappingThreads() <= 0) {
+            proteinMappingManager.setRemappingStage(null);
+            return null;
+        }
+
+        ProteinRemappingStage remappingStage = new ProteinRemappingStage(config.getRemappingThreads(), COMMIT_INTERVAL,
+                proteinMappingManager.getIdentificationService());
+        remappingStage.start();
+        proteinMappingManager.setRemappingStage(remappingStage);
+
+        return remappingStage;
+    }
+
+    /**
+     * Applies the remappings identified by the remapping stage in a short transaction.
+     * The remapped proteins are updated again with their new uniprot identity.
+     *
+     * @param remappings : the remappings identified
+     * @param dataContext : the data context
+     * @param processedIntactProteins : the proteins already processed
+     * @param postponedAcs : the proteins to update in the next chunk
+     */
+    private void applyParkedRemappings(List<ProteinRemappingStage.ParkedRemapping> remappings, DataContext dataContext,
+                                       Set<String> processedIntactProteins, List<String> postponedAcs) {
+        if (remappings.isEmpty()) {
+            return;
+        }
+
+        ProteinUpdateErrorFactory errorFactory = config.getErrorFactory();
+        List<String> remappedAcs = new ArrayList<>(remappings.size());
+
+        TransactionStatus transactionStatus = dataContext.beginTransaction();
+
+        try {
+            for (ProteinRemappingStage.ParkedRemapping remapping : remappings) {
+                String ac = remapping.getProteinAc();
+                ProteinImpl protein = dataContext.getDaoFactory().getProteinDao().getByAc(ac);
+
+                if (protein == null) {
+                    if (log.isWarnEnabled())
+                        log.warn("Protein parked for remapping was not found in the database. Probably it was deleted already? " + ac);
+                    continue;
+                }
+
+                if (remapping.getError() != null) {
+                    Exception error = remapping.getError();
+                    log.error("Impossible to remap the protein " + ac, error);
+
+                    ProteinUpdateError impossibleRemapping = errorFactory.createImpossibleProteinRemappingError(ac, "Impossible to remap the protein " + ac + " because an error of type " + error.getClass().getCanonicalName() + " has been thrown. " + error.getMessage());
+                    fireOnProcessErrorFound(new UpdateErrorEvent(this, dataContext, impossibleRemapping, protein));
+                } else {
+                    fireOnProteinToBeRemapped(new ProteinRemappingEvent(this, dataContext, protein, remapping.getContext(), remapping.getResult(), remapping.getMessage()));
+                }
+
+                String uniprotAc = remapping.getError() == null ? remapping.getFinalUniprotId() : null;
+
+                if (uniprotAc != null) {
+                    proteinMappingManager.applyRemapping(protein, uniprotAc, dataContext);
+                    remappedAcs.add(ac);
+                } else if (remapping.isReportNonUniprotIfUnmapped()) {
+                    ProteinEvent nonUniprotEvent = new ProteinEvent(this, dataContext, protein);
+                    nonUniprotEvent.setMessage(remapping.getMessage());
+                    fireNonUniprotProteinFound(nonUniprotEvent);
+                }
+            }
+
+            dataContext.commitTransaction(transactionStatus);
+        } catch (Exception e) {
+            if (!transactionStatus.isCompleted()) {
+                for (ProteinRemappingStage.ParkedRemapping remapping : remappings) {
+                    log.fatal("FATAL: We failed to remap the protein " + remapping.getProteinAc(), e);
+                    ProteinUpdateError fatalError = errorFactory.createFatalUpdateError(remapping.getProteinAc(), null, e);
+                    fireOnProcessErrorFound(new UpdateErrorEvent(this, dataContext, fatalError, null, null, remapping.getProteinAc()));
+                }
+                dataContext.rollbackTransaction(transactionStatus);
+            }
+            return;
         }
+
+        // the remapped proteins are updated with their new uniprot identity in the next chunk
+        processedIntactProteins.removeAll(remappedAcs);
+        postponedAcs.addAll(remappedAcs);
     }
 
     /**
@@ -404,6 +1083,7 @@ public class ProteinUpdateProcessor {
 
                 if (canBeUpdated) {
                     // get the uniprot identity of this protein
+                    enterStage(ProteinUpdateWatchdog.FILTER_STAGE);
                     uniprotIdentity = updateFilter.filterOnUniprotIdentity(processEvent);
 
                     // if the protein has a uniprot identity and is not 'no-uniprot-update'
@@ -413,6 +1093,7 @@ public class ProteinUpdateProcessor {
                         processEvent.setUniprotIdentity(uniprotIdentity);
 
                         // get the uniprot protein
+                        enterStage(ProteinUpdateWatchdog.UNIPROT_RETRIEVAL_STAGE);
                         UniprotProtein uniprotProtein = uniprotRetriever.retrieveUniprotEntry(processEvent);
 
                         // if the uniprot protein exists, start to update
@@ -439,7 +1120,13 @@ public class ProteinUpdateProcessor {
                 }
             }
 
+        } catch (ProteinBudgetExceededException e) {
+            // the chunk is rolled back and the protein quarantined by updateByACs
+            throw e;
         } catch (Exception e) {
+            // a remote call interrupted by the watchdog
+            checkBudget();
+
             log.fatal("We failed to update the protein " + intactProteinToUpdate.getAc(), e);
 
             ProteinUpdateError fatalError = errorFactory.createFatalUpdateError(intactProteinToUpdate.getAc(), uniprotIdentity, e);
@@ -534,19 +1221,7 @@ public class ProteinUpdateProcessor {
             }
         }
 
-        List<ReportWriterListener> writers = getListeners(ReportWriterListener.class);
-
-        for (ReportWriterListener listener : writers) {
-            UpdateReportHandler handler = listener.getReportHandler();
-
-            if (handler != null) {
-                try {
-                    handler.close();
-                } catch (IOException e) {
-                    throw new ProcessorException("Impossible to close one of the log files.", e);
-                }
-            }
-        }
+        closeReports();
 
         config.getUniprotService().close();
 
@@ -569,11 +1244,11 @@ public class ProteinUpdateProcessor {
     }
 
     protected void registerListenersIfNotDoneYet() {
-        if (listenerList.getListenerCount() == 0) {
+        if (listenerList.getListenerCount(ProteinUpdateProcessorListener.class) == 0) {
             registerListeners();
         }
 
-        if (listenerList.getListenerCount() == 0) {
+        if (listenerList.getListenerCount(ProteinUpdateProcessorListener.class) == 0) {
             throw new IllegalStateException("No listener registered for ProteinProcessor");
         }
     }
@@ -586,6 +1261,10 @@ public class ProteinUpdateProcessor {
             addListener(new ReportWriterListener(config.getReportHandler()));
         }
 
+        if (config.getEventReportWriter() != null) {
+            addListener(new JsonEventReportListener(config.getEventReportWriter(), config.getProcessId()));
+        }
+
         addListener(new SequenceChangedListener());
     }
 
@@ -600,12 +1279,13 @@ public class ProteinUpdateProcessor {
         this.protWithoutInteractionDeleter = new ProtWithoutInteractionDeleter();
         this.parentUpdater = new IntactTranscriptParentUpdater();
 
-        UniprotProteinMapper proteinMappingManager = new UniprotProteinMapper(config.getUniprotService());
+        this.proteinMappingManager = new UniprotProteinMapper(config.getUniprotService());
         this.updateFilter = new ProteinUpdateFilter(proteinMappingManager);
         this.uniprotRetriever = new UniprotProteinRetriever(config.getUniprotService(), proteinMappingManager, new DeadUniprotProteinFixer());
 
         OutOfDateParticipantFixer outOfDateParticipantFixer = new OutOfDateParticipantFixer(new RangeFixer());
         this.duplicateFixer = new DuplicatesFixer(this.proteinDeleter, outOfDateParticipantFixer, new DuplicatesFinder());
+        this.duplicateCandidatesFinder = new DuplicateCandidatesFinder();
         this.updater = new UniprotProteinUpdater(config.getTaxonomyService(), outOfDateParticipantFixer);
 
         registerListeners();
@@ -637,6 +1317,7 @@ public class ProteinUpdateProcessor {
             //     - primary isoforms : each primary isoform matches a primary ac of a uniprot splice variant
             //     - secondary isoforms : each secondary isoform matches a secondary ac of a uniprot splice variant
             //     - primary feature chains : each primary feature chain matches a primary ac of a uniprot feature chain
+            enterStage(ProteinUpdateWatchdog.UPDATE_CASE_STAGE);
             UpdateCaseEvent caseEvent = uniprotIdentityUpdater.collectPrimaryAndSecondaryProteins(processEvent);
 
             // if we can delete proteins without interactions, delete all of the proteins attached to this uniprot entry without interactions
@@ -695,9 +1376,14 @@ public class ProteinUpdateProcessor {
             // the master protein in IntAct
             Protein masterProtein = null;
 
+            enterStage(ProteinUpdateWatchdog.DUPLICATES_STAGE);
+
+            // the duplicate pre-pass tells if this uniprot entry can have duplicates
+            boolean hasPossibleDuplicates = config.isFixDuplicates() && duplicateCandidatesFinder.hasPossibleDuplicates(caseEvent);
+
             // if there are some duplicates and we can fix them, merge them
             // if fixing protein duplicate is enabled, fix them
-            if (config.isFixDuplicates()) {
+            if (hasPossibleDuplicates) {
                 if (log.isTraceEnabled()) log.trace("Check for possible duplicates.");
 
                 // return the master protein which is the result of the merge if there is one. Returns null if there were no duplicated proteins
@@ -706,6 +1392,7 @@ public class ProteinUpdateProcessor {
             }
 
             // update master proteins first
+            enterStage(ProteinUpdateWatchdog.MASTER_UPDATE_STAGE);
             try {
                 updater.createOrUpdateProtein(caseEvent);
             } catch (BioSourceServiceException e) {
@@ -739,6 +1426,8 @@ public class ProteinUpdateProcessor {
 
             // if a single master protein has been found and transcript update is needed
             if (needTranscriptUpdate) {
+                enterStage(ProteinUpdateWatchdog.TRANSCRIPT_UPDATE_STAGE);
+
                 if (canUpdateProteinTranscript) {
                     // add first a parent xref for all the protein transcripts without parent xref if it is necessary
                     if (!transcriptToReview.isEmpty()) {
@@ -747,7 +1436,7 @@ public class ProteinUpdateProcessor {
 
                     //protein transcript duplicates to merge
                     // fixing duplicates is enabled
-                    if (config.isFixDuplicates()) {
+                    if (hasPossibleDuplicates) {
                         if (log.isTraceEnabled()) log.trace("Check for possible transcript duplicates.");
 
                         duplicateFixer.fixAllProteinTranscriptDuplicates(caseEvent, masterProtein);
@@ -1,9 +1,13 @@
 package uk.ac.ebi.intact.dbupdate.prot;
 
 import psidev.psi.mi.jami.bridges.fetcher.OrganismFetcher;
+import uk.ac.ebi.intact.dbupdate.prot.actions.mappers.RemappingCache;
 import uk.ac.ebi.intact.dbupdate.prot.errors.DefaultProteinUpdateErrorFactory;
 import uk.ac.ebi.intact.dbupdate.prot.errors.ProteinUpdateErrorFactory;
+import uk.ac.ebi.intact.dbupdate.prot.report.JsonLinesWriter;
 import uk.ac.ebi.intact.dbupdate.prot.report.UpdateReportHandler;
+import uk.ac.ebi.intact.dbupdate.prot.util.ProteinFetchProfile;
+import uk.ac.ebi.intact.dbupdate.prot.util.UniprotAccessionIndex;
 import uk.ac.ebi.intact.protein.mapping.factories.ReportsFactory;
 import uk.ac.ebi.intact.protein.mapping.factories.ResultsFactory;
 import uk.ac.ebi.intact.protein.mapping.factories.impl.DefaultReportsFactory;
@@ -13,6 +17,10 @@ import uk.ac.ebi.intact.uniprot.service.UniprotService;
 import uk.ac.ebi.intact.util.biosource.BioSourceService;
 import uk.ac.ebi.intact.util.biosource.BioSourceServiceFactory;
 
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Protein update processor config.
  * <p/>
@@ -46,22 +54,109 @@ public class ProteinUpdateProcessorConfig {
 
     private UpdateReportHandler reportHandler;
 
+    /**
+     * Created on first use if not set
+     */
     private UniprotService uniprotService;
 
+    /**
+     * Created on first use if not set
+     */
     private OrganismFetcher taxonomyService;
 
     private boolean isGlobalProteinUpdate = false;
 
     private boolean isBlastEnabled = true;
 
+    /**
+     * The associations loaded for all the proteins of a chunk before updating them. The participants are only
+     * prefetched on demand (PARTICIPANTS) because most of the proteins of a chunk do not need them.
+     */
+    private ProteinFetchProfile fetchProfile = ProteinFetchProfile.PROTEIN;
+
+    /**
+     * If true, the global update groups the proteins by uniprot entry and organism. Otherwise the proteins are updated in created order.
+     */
+    private boolean localityAwareOrdering = true;
+
+    /**
+     * The number of threads remapping the proteins without a valid uniprot identity while the update goes on.
+     * If 0, the proteins are remapped synchronously.
+     */
+    private int remappingThreads = 0;
+
+    /**
+     * The cache of the remapping outcomes consulted before identifying a protein with PICR or BLAST. If null, nothing is cached.
+     */
+    private RemappingCache remappingCache;
+
+    /**
+     * The uniprot release the remapping outcomes are cached for. If null, the release is asked to UniProt.
+     */
+    private String uniprotRelease;
+
+    /**
+     * Local index of the deleted and secondary uniprot accessions, consulted before asking UniProt. If null, UniProt is always asked.
+     */
+    private UniprotAccessionIndex uniprotAccessionIndex;
+
+    /**
+     * The wall clock time the update of a single protein can take, in milliseconds. If 0, there is no limit.
+     */
+    private long proteinWallClockBudget = 0;
+
+    /**
+     * The CPU time the update of a single protein can take, in milliseconds. If 0, there is no limit.
+     */
+    private long proteinCpuBudget = 0;
+
+    /**
+     * The wall clock time each stage of the update of a protein can take, in milliseconds, by stage name (see ProteinUpdateWatchdog).
+     */
+    private Map<String, Long> stageWallClockBudgets = new HashMap<>();
+
+    /**
+     * Where the proteins exceeding their budget are recorded. If null, they are only reported as fatal errors.
+     */
+    private ProteinQuarantine proteinQuarantine;
+
+    /**
+     * The local port of the HTTP endpoint giving the progress of the update. If 0, there is no endpoint.
+     */
+    private int progressPort = 0;
+
+    /**
+     * The period of the log lines giving the progress of the update, in seconds. If 0, the progress is not logged.
+     * If there is no endpoint and no log line, the progress is not collected.
+     */
+    private long progressLogInterval = 0;
+
+    /**
+     * The writer of the JSON Lines event report, written instead of or alongside the text reports. If null, there is no event report.
+     */
+    private JsonLinesWriter eventReportWriter;
+
+    /**
+     * The identifier of the update run written in the records of the event report. If null, the name of the JVM (pid@host) is used.
+     */
+    private String processId;
+
+    /**
+     * The file where the summary of the update is written at the end of the run. If null, the summary is not written in a file.
+     */
+    private File summaryFile;
+
+    /**
+     * Where the summary of the update is recorded at the end of the run. If null, the summary is not recorded.
+     * If there is no summary file and no summary store, the summary is not collected.
+     */
+    private ProteinUpdateSummaryStore summaryStore;
+
     private ProteinUpdateErrorFactory errorFactory;
     private ResultsFactory proteinMappingResultsFactory;
     private ReportsFactory proteinMappingReportFactory;
 
     public ProteinUpdateProcessorConfig() {
-        this.uniprotService = new SimpleUniprotRemoteService();
-        final BioSourceService bioSourceService = BioSourceServiceFactory.getInstance().buildBioSourceService();
-        this.taxonomyService = bioSourceService.getTaxonomyService();
         this.errorFactory = new DefaultProteinUpdateErrorFactory();
         this.proteinMappingResultsFactory = new DefaultResultsFactory();
         this.proteinMappingReportFactory = new DefaultReportsFactory();
@@ -104,19 +199,26 @@ public class ProteinUpdateProcessorConfig {
         this.reportHandler = reportHandler;
     }
 
-    public UniprotService getUniprotService() {
+    public synchronized UniprotService getUniprotService() {
+        if (uniprotService == null) {
+            this.uniprotService = new SimpleUniprotRemoteService();
+        }
         return uniprotService;
     }
 
-    public void setUniprotService(UniprotService uniprotService) {
+    public synchronized void setUniprotService(UniprotService uniprotService) {
         this.uniprotService = uniprotService;
     }
 
-    public OrganismFetcher getTaxonomyService() {
+    public synchronized OrganismFetcher getTaxonomyService() {
+        if (taxonomyService == null) {
+            final BioSourceService bioSourceService = BioSourceServiceFactory.getInstance().buildBioSourceService();
+            this.taxonomyService = bioSourceService.getTaxonomyService();
+        }
         return taxonomyService;
     }
 
-    public void setTaxonomyService(OrganismFetcher taxonomyService) {
+    public synchronized void setTaxonomyService(OrganismFetcher taxonomyService) {
         this.taxonomyService = taxonomyService;
     }
 
@@ -144,6 +246,134 @@ public class ProteinUpdateProcessorConfig {
         isBlastEnabled = blastEnabled;
     }
 
+    public ProteinFetchProfile getFetchProfile() {
+        return fetchProfile;
+    }
+
+    public void setFetchProfile(ProteinFetchProfile fetchProfile) {
+        this.fetchProfile = fetchProfile;
+    }
+
+    public boolean isLocalityAwareOrdering() {
+        return localityAwareOrdering;
+    }
+
+    public void setLocalityAwareOrdering(boolean localityAwareOrdering) {
+        this.localityAwareOrdering = localityAwareOrdering;
+    }
+
+    public int getRemappingThreads() {
+        return remappingThreads;
+    }
+
+    public void setRemappingThreads(int remappingThreads) {
+        this.remappingThreads = remappingThreads;
+    }
+
+    public RemappingCache getRemappingCache() {
+        return remappingCache;
+    }
+
+    public void setRemappingCache(RemappingCache remappingCache) {
+        this.remappingCache = remappingCache;
+    }
+
+    public String getUniprotRelease() {
+        return uniprotRelease;
+    }
+
+    public void setUniprotRelease(String uniprotRelease) {
+        this.uniprotRelease = uniprotRelease;
+    }
+
+    public UniprotAccessionIndex getUniprotAccessionIndex() {
+        return uniprotAccessionIndex;
+    }
+
+    public void setUniprotAccessionIndex(UniprotAccessionIndex uniprotAccessionIndex) {
+        this.uniprotAccessionIndex = uniprotAccessionIndex;
+    }
+
+    public long getProteinWallClockBudget() {
+        return proteinWallClockBudget;
+    }
+
+    public void setProteinWallClockBudget(long proteinWallClockBudget) {
+        this.proteinWallClockBudget = proteinWallClockBudget;
+    }
+
+    public long getProteinCpuBudget() {
+        return proteinCpuBudget;
+    }
+
+    public void setProteinCpuBudget(long proteinCpuBudget) {
+        this.proteinCpuBudget = proteinCpuBudget;
+    }
+
+    public Map<String, Long> getStageWallClockBudgets() {
+        return stageWallClockBudgets;
+    }
+
+    public void setStageWallClockBudgets(Map<String, Long> stageWallClockBudgets) {
+        this.stageWallClockBudgets = stageWallClockBudgets;
+    }
+
+    public ProteinQuarantine getProteinQuarantine() {
+        return proteinQuarantine;
+    }
+
+    public void setProteinQuarantine(ProteinQuarantine proteinQuarantine) {
+        this.proteinQuarantine = proteinQuarantine;
+    }
+
+    public int getProgressPort() {
+        return progressPort;
+    }
+
+    public void setProgressPort(int progressPort) {
+        this.progressPort = progressPort;
+    }
+
+    public long getProgressLogInterval() {
+        return progressLogInterval;
+    }
+
+    public void setProgressLogInterval(long progressLogInterval) {
+        this.progressLogInterval = progressLogInterval;
+    }
+
+    public JsonLinesWriter getEventReportWriter() {
+        return eventReportWriter;
+    }
+
+    public void setEventReportWriter(JsonLinesWriter eventReportWriter) {
+        this.eventReportWriter = eventReportWriter;
+    }
+
+    public String getProcessId() {
+        return processId;
+    }
+
+    public void setProcessId(String processId) {
+        this.processId = processId;
+    }
+
+    public File getSummaryFile() {
+        return summaryFile;
+    }
+
+    public void setSummaryFile(File summaryFile) {
+        this.summaryFile = summaryFile;
+    }
+
+    public ProteinUpdateSummaryStore getSummaryStore() {
+        return summaryStore;
+    }
+
+    public void setSummaryStore(ProteinUpdateSummaryStore summaryStore) {
+        this.summaryStore = summaryStore;
+    }
+
     public ProteinUpdateErrorFactory getErrorFactory() {
         return errorFactory;
     }
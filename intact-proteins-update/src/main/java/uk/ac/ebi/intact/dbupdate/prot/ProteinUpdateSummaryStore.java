@@ -0,0 +1,18 @@
+package uk.ac.ebi.intact.dbupdate.prot;
+
+import uk.ac.ebi.intact.dbupdate.prot.util.ProteinUpdateSummary;
+
+/**
+ * Where the ProteinUpdateProcessor records the summary of each update run, so the totals of the runs can be queried
+ * without counting the lines of the reports.
+ *
+ * @version $Id$
+ */
+public interface ProteinUpdateSummaryStore {
+
+    /**
+     * Records the summary of a finished update
+     * @param summary : the summary
+     */
+    void store(ProteinUpdateSummary summary);
+}
@@ -66,7 +66,8 @@ public class ProteinUpdateFilter {
 
             evt.setMessage("no uniprot update");
             if (!proteinMappingManager.processProteinRemappingFor(evt)){
-                if (evt.getSource() instanceof ProteinUpdateProcessor) {
+                // a parked protein is reported once the remapping stage has failed to remap it
+                if (!proteinMappingManager.deferNonUniprotReport(protein) && evt.getSource() instanceof ProteinUpdateProcessor) {
                     final ProteinUpdateProcessor updateProcessor = (ProteinUpdateProcessor) evt.getSource();
                     updateProcessor.fireNonUniprotProteinFound(evt);
                 }
@@ -87,7 +88,8 @@ public class ProteinUpdateFilter {
 
             evt.setMessage("no uniprot identities");
             if (!proteinMappingManager.processProteinRemappingFor(evt)){
-                if (evt.getSource() instanceof ProteinUpdateProcessor) {
+                // a parked protein is reported once the remapping stage has failed to remap it
+                if (!proteinMappingManager.deferNonUniprotReport(protein) && evt.getSource() instanceof ProteinUpdateProcessor) {
                     final ProteinUpdateProcessor updateProcessor = (ProteinUpdateProcessor) evt.getSource();
                     updateProcessor.fireNonUniprotProteinFound(evt);
                 }
@@ -0,0 +1,150 @@
+package uk.ac.ebi.intact.dbupdate.prot.actions.finders;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import uk.ac.ebi.intact.core.context.DataContext;
+import uk.ac.ebi.intact.dbupdate.prot.event.UpdateCaseEvent;
+import uk.ac.ebi.intact.dbupdate.prot.model.ProteinTranscript;
+import uk.ac.ebi.intact.model.CvDatabase;
+import uk.ac.ebi.intact.model.CvXrefQualifier;
+import uk.ac.ebi.intact.model.InteractorXref;
+import uk.ac.ebi.intact.model.Protein;
+import uk.ac.ebi.intact.model.ProteinImpl;
+import uk.ac.ebi.intact.model.util.ProteinUtils;
+import uk.ac.ebi.intact.uniprot.service.IdentifierChecker;
+
+import javax.persistence.Query;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Pre-pass of the global protein update which collects, with a single grouped query, the uniprot identities
+ * (master proteins, isoforms and feature chains) shared by more than one IntAct protein.
+ *
+ * Only the uniprot entries having one of these identities can have duplicates with the same uniprot identity. Duplicates
+ * attached to secondary accessions cannot be seen by the grouped query and are still detected from the update case event.
+ *
+ * @version $Id$
+ */
+public class DuplicateCandidatesFinder {
+
+    /**
+     * The logger of this class
+     */
+    private static final Log log = LogFactory.getLog( DuplicateCandidatesFinder.class );
+
+    /**
+     * The uniprot identities shared by several IntAct proteins, null if the pre-pass has not been run
+     */
+    private Set<String> duplicatedIdentities;
+
+    /**
+     * Runs the grouped query and keeps the set of uniprot identities shared by several IntAct proteins.
+     * Logs statistics about the duplicates found.
+     * @param context : the data context, a transaction must be active
+     * @return the set of uniprot identities shared by several IntAct proteins
+     */
+    public Set<String> collectDuplicatedUniprotIdentities(DataContext context){
+        Query query = context.getDaoFactory().getEntityManager().createQuery("select x.primaryId, count(distinct p.ac) from InteractorImpl p join p.xrefs as x " +
+                "where p.objClass = :class and x.cvDatabase.identifier = :uniprot and x.cvXrefQualifier.identifier = :identity " +
+                "group by x.primaryId having count(distinct p.ac) > 1");
+        query.setParameter("class", ProteinImpl.class.getName());
+        query.setParameter("uniprot", CvDatabase.UNIPROT_MI_REF);
+        query.setParameter("identity", CvXrefQualifier.IDENTITY_MI_REF);
+
+        List<Object[]> results = query.getResultList();
+
+        this.duplicatedIdentities = new HashSet<>(results.size());
+
+        int numberOfIsoforms = 0;
+        int numberOfChains = 0;
+        long numberOfProteins = 0;
+        long maxDuplicates = 0;
+
+        for (Object[] result : results){
+            String identity = (String) result[0];
+            long numberOfDuplicates = ((Number) result[1]).longValue();
+
+            duplicatedIdentities.add(identity);
+
+            if (IdentifierChecker.isSpliceVariantId(identity)){
+                numberOfIsoforms++;
+            }
+            else if (IdentifierChecker.isFeatureChainId(identity)){
+                numberOfChains++;
+            }
+
+            numberOfProteins += numberOfDuplicates;
+            maxDuplicates = Math.max(maxDuplicates, numberOfDuplicates);
+        }
+
+        log.info("Found " + duplicatedIdentities.size() + " uniprot identities shared by several IntAct proteins (" +
+                (duplicatedIdentities.size() - numberOfIsoforms - numberOfChains) + " master proteins, " + numberOfIsoforms + " isoforms, " +
+                numberOfChains + " feature chains). " + numberOfProteins + " IntAct proteins are involved, the biggest set of duplicates contains " + maxDuplicates + " proteins.");
+
+        return duplicatedIdentities;
+    }
+
+    /**
+     *
+     * @return the uniprot identities shared by several IntAct proteins, an empty set if the pre-pass has not been run
+     */
+    public Set<String> getDuplicatedIdentities() {
+        return duplicatedIdentities != null ? duplicatedIdentities : Collections.<String>emptySet();
+    }
+
+    /**
+     *
+     * @return true if the pre-pass has been run
+     */
+    public boolean isCollected(){
+        return duplicatedIdentities != null;
+    }
+
+    /**
+     * Forget the results of the pre-pass. All the update cases will be considered as possible duplicates.
+     */
+    public void clear(){
+        this.duplicatedIdentities = null;
+    }
+
+    /**
+     *
+     * @param evt : the update case event
+     * @return false only if the pre-pass has been run and neither the master proteins nor the protein transcripts of this update case can have duplicates
+     */
+    public boolean hasPossibleDuplicates(UpdateCaseEvent evt){
+        if (duplicatedIdentities == null){
+            return true;
+        }
+        // proteins with a secondary accession are duplicates of the proteins with the primary accession
+        else if (evt.getPrimaryProteins().size() + evt.getSecondaryProteins().size() > 1){
+            return true;
+        }
+        // isoforms with a secondary accession are duplicates of the isoforms with the primary accession
+        else if (!evt.getSecondaryIsoforms().isEmpty()){
+            return true;
+        }
+
+        return hasDuplicatedTranscriptIdentity(evt.getPrimaryIsoforms()) || hasDuplicatedTranscriptIdentity(evt.getPrimaryFeatureChains());
+    }
+
+    private boolean hasDuplicatedTranscriptIdentity(Collection<ProteinTranscript> transcripts){
+        for (ProteinTranscript transcript : transcripts){
+            if (isDuplicatedIdentity(transcript.getProtein())){
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isDuplicatedIdentity(Protein protein){
+        InteractorXref identity = ProteinUtils.getUniprotXref(protein);
+
+        return identity == null || duplicatedIdentities.contains(identity.getPrimaryId());
+    }
+}
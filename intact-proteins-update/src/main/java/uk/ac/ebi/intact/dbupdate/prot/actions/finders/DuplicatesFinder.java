@@ -2,7 +2,6 @@ package uk.ac.ebi.intact.dbupdate.prot.actions.finders;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import uk.ac.ebi.intact.commons.util.Crc64;
 import uk.ac.ebi.intact.core.context.DataContext;
 import uk.ac.ebi.intact.dbupdate.prot.ProcessorException;
 import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateProcessor;
@@ -10,6 +9,7 @@ import uk.ac.ebi.intact.dbupdate.prot.actions.fixers.DuplicatesFixer;
 import uk.ac.ebi.intact.dbupdate.prot.event.DuplicatesFoundEvent;
 import uk.ac.ebi.intact.dbupdate.prot.event.UpdateCaseEvent;
 import uk.ac.ebi.intact.dbupdate.prot.model.ProteinTranscript;
+import uk.ac.ebi.intact.dbupdate.prot.util.SequenceCrc64;
 import uk.ac.ebi.intact.model.InteractorXref;
 import uk.ac.ebi.intact.model.Protein;
 import uk.ac.ebi.intact.model.util.ProteinUtils;
@@ -244,7 +244,7 @@ public class DuplicatesFinder {
 
                     if (transcript != null){
                         uniprotSequence = transcript.getSequence();
-                        uniprotCrc64 = Crc64.getCrc64(uniprotSequence);
+                        uniprotCrc64 = uniprotSequence != null ? SequenceCrc64.getCrc64(uniprotSequence) : null;
                         primaryAc = transcript.getPrimaryAc();
                         organism = transcript.getOrganism() != null ? String.valueOf(transcript.getOrganism().getTaxid()) : null;
                     }
@@ -0,0 +1,144 @@
+package uk.ac.ebi.intact.dbupdate.prot.actions.finders;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import uk.ac.ebi.intact.core.context.DataContext;
+import uk.ac.ebi.intact.core.persistence.dao.DaoFactory;
+import uk.ac.ebi.intact.model.CvDatabase;
+import uk.ac.ebi.intact.model.CvXrefQualifier;
+import uk.ac.ebi.intact.model.Institution;
+import uk.ac.ebi.intact.model.ProteinImpl;
+import uk.ac.ebi.intact.model.util.CvObjectUtils;
+
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the IntAct proteins having the acs of dead parent proteins as 'intact-secondary' cross references.
+ *
+ * The parent acs of a batch of protein transcripts are resolved with one exact match query on the cross references,
+ * which can use the index on the primary ids. The LIKE query of the ProteinDao is only used for the acs which are not well formed
+ * IntAct acs.
+ *
+ * @version $Id$
+ */
+public class IntactParentFinder {
+
+    /**
+     * The logger of this class
+     */
+    private static final Log log = LogFactory.getLog( IntactParentFinder.class );
+
+    public static final String INTACT_SECONDARY = "intact-secondary";
+
+    /**
+     * Pattern of the IntAct acs (EBI-12345)
+     */
+    private static final Pattern INTACT_AC = Pattern.compile("[A-Z]+-[0-9]+");
+
+    /**
+     * Maximum number of acs in a single IN query
+     */
+    private static final int MAX_ACS_PER_QUERY = 500;
+
+    /**
+     *
+     * @param parentAcs : the acs of the dead parents
+     * @param owner : the institution of the CVs to create if the intact database or the intact-secondary qualifier do not exist
+     * @param context : the data context, a transaction must be active
+     * @return the proteins having each parent ac as 'intact-secondary' cross reference, per parent ac. Each parent ac has an entry,
+     * with an empty list if no protein has this ac as 'intact-secondary'.
+     */
+    public Map<String, List<ProteinImpl>> findProteinsByIntactSecondaryAcs(Collection<String> parentAcs, Institution owner, DataContext context){
+        Map<String, List<ProteinImpl>> proteinsByAc = new HashMap<>(parentAcs.size());
+
+        if (parentAcs.isEmpty()){
+            return proteinsByAc;
+        }
+
+        DaoFactory factory = context.getDaoFactory();
+
+        // get the intact database
+        CvDatabase intact = factory.getCvObjectDao(CvDatabase.class).getByPsiMiRef(CvDatabase.INTACT_MI_REF);
+
+        if (intact == null){
+            intact = CvObjectUtils.createCvObject(owner, CvDatabase.class, CvDatabase.INTACT_MI_REF, CvDatabase.INTACT);
+            factory.getCvObjectDao(CvDatabase.class).persist(intact);
+        }
+
+        // get the intact-secondary xref qualifier
+        CvXrefQualifier intactSecondary = factory.getCvObjectDao(CvXrefQualifier.class).getByShortLabel(INTACT_SECONDARY);
+
+        if (intactSecondary == null){
+            intactSecondary = CvObjectUtils.createCvObject(owner, CvXrefQualifier.class, null, INTACT_SECONDARY);
+            factory.getCvObjectDao(CvXrefQualifier.class).persist(intactSecondary);
+        }
+
+        Set<String> wellFormedAcs = new LinkedHashSet<>(parentAcs.size());
+
+        for (String ac : parentAcs){
+            proteinsByAc.put(ac, new ArrayList<>(1));
+
+            if (isIntactAc(ac)){
+                wellFormedAcs.add(ac);
+            }
+            // the malformed acs can only be matched with the LIKE query
+            else if (ac != null){
+                proteinsByAc.get(ac).addAll(factory.getProteinDao().getByXrefLike(intact, intactSecondary, ac));
+            }
+        }
+
+        List<String> batch = new ArrayList<>(Math.min(wellFormedAcs.size(), MAX_ACS_PER_QUERY));
+        for (String ac : wellFormedAcs){
+            batch.add(ac);
+
+            if (batch.size() == MAX_ACS_PER_QUERY){
+                findProteins(batch, intact, intactSecondary, context, proteinsByAc);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()){
+            findProteins(batch, intact, intactSecondary, context, proteinsByAc);
+        }
+
+        if (log.isDebugEnabled()){
+            log.debug("Resolved " + proteinsByAc.size() + " dead parent acs (" + (proteinsByAc.size() - wellFormedAcs.size()) + " with the LIKE query)");
+        }
+
+        return proteinsByAc;
+    }
+
+    private void findProteins(List<String> acs, CvDatabase intact, CvXrefQualifier intactSecondary, DataContext context, Map<String, List<ProteinImpl>> proteinsByAc){
+        Query query = context.getDaoFactory().getEntityManager().createQuery("select distinct x.primaryId, p from ProteinImpl p join p.xrefs as x " +
+                "where x.cvDatabase = :intact and x.cvXrefQualifier = :intactSecondary and x.primaryId in (:acs)");
+        query.setParameter("intact", intact);
+        query.setParameter("intactSecondary", intactSecondary);
+        query.setParameter("acs", acs);
+
+        List<Object[]> results = query.getResultList();
+
+        for (Object[] result : results){
+            List<ProteinImpl> proteins = proteinsByAc.get((String) result[0]);
+
+            if (proteins != null){
+                proteins.add((ProteinImpl) result[1]);
+            }
+        }
+    }
+
+    /**
+     *
+     * @param ac : the ac
+     * @return true if the ac is a well formed IntAct ac which can be matched exactly
+     */
+    public static boolean isIntactAc(String ac){
+        return ac != null && INTACT_AC.matcher(ac).matches();
+    }
+}
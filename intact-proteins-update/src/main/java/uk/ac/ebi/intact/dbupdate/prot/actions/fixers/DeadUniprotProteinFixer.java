@@ -239,9 +239,7 @@ public class DeadUniprotProteinFixer {
         }
 
         // we delete the xrefs to be deleted
-        for (InteractorXref refToRemove : xRefsToRemove){
-            ProteinTools.deleteInteractorXRef(protein, context, refToRemove);
-        }
+        ProteinTools.deleteInteractorXRefs(protein, context, xRefsToRemove);
 
         deadEvt.setDeletedXrefs(xRefsToRemove);
     }
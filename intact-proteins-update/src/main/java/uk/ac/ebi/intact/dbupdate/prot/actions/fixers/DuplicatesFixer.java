@@ -1,6 +1,5 @@
 package uk.ac.ebi.intact.dbupdate.prot.actions.fixers;
 
-import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import uk.ac.ebi.intact.core.context.IntactContext;
@@ -18,6 +17,7 @@ import uk.ac.ebi.intact.dbupdate.prot.model.ProteinTranscript;
 import uk.ac.ebi.intact.dbupdate.prot.report.RangeUpdateReport;
 import uk.ac.ebi.intact.dbupdate.prot.util.ComponentTools;
 import uk.ac.ebi.intact.dbupdate.prot.util.ProteinTools;
+import uk.ac.ebi.intact.dbupdate.prot.util.SequenceCrc64;
 import uk.ac.ebi.intact.model.*;
 import uk.ac.ebi.intact.model.util.CvObjectUtils;
 import uk.ac.ebi.intact.model.util.ProteinUtils;
@@ -222,6 +222,51 @@ public class DuplicatesFixer {
         return duplicatesSortedByOrganism;
     }
 
+    /**
+     * Groups the duplicates having the same sequence (case insensitive). The proteins are first hashed in buckets
+     * keyed by taxId, CRC64 and length of the sequence so the full sequences are only compared inside a bucket.
+     * @param taxId : the taxId of the duplicates
+     * @param duplicates : the duplicates of a same organism
+     * @return the groups of proteins having the same sequence, in the order of the first protein of each group in the list of duplicates
+     */
+    protected static List<List<Protein>> groupDuplicatesPerSequence(String taxId, List<Protein> duplicates){
+        List<List<Protein>> sameSequenceGroups = new ArrayList<>(duplicates.size());
+        Map<String, List<List<Protein>>> groupsPerSequenceKey = new HashMap<>(duplicates.size());
+
+        for (Protein prot : duplicates){
+            String sequence = prot.getSequence() != null ? prot.getSequence().toUpperCase() : null;
+            String sequenceKey = sequence != null ? taxId + "|" + SequenceCrc64.getCrc64(sequence) + "|" + sequence.length() : taxId + "|";
+
+            List<List<Protein>> candidateGroups = groupsPerSequenceKey.get(sequenceKey);
+
+            if (candidateGroups == null){
+                candidateGroups = new ArrayList<>(1);
+                groupsPerSequenceKey.put(sequenceKey, candidateGroups);
+            }
+
+            // different sequences can share the same CRC64, the full sequence is compared with the first protein of each group
+            List<Protein> sameSequenceGroup = null;
+            for (List<Protein> group : candidateGroups){
+                String groupSequence = group.get(0).getSequence();
+
+                if ((sequence == null && groupSequence == null) || (sequence != null && groupSequence != null && sequence.equalsIgnoreCase(groupSequence))){
+                    sameSequenceGroup = group;
+                    break;
+                }
+            }
+
+            if (sameSequenceGroup == null){
+                sameSequenceGroup = new ArrayList<>();
+                candidateGroups.add(sameSequenceGroup);
+                sameSequenceGroups.add(sameSequenceGroup);
+            }
+
+            sameSequenceGroup.add(prot);
+        }
+
+        return sameSequenceGroups;
+    }
+
     /**
      * Merge the duplicates, the interactions are moved from the duplicate to the original protein.
      * If there are feature range conflucts, the duplicate is not merged and the interactions having range conflicts are still attached to the duplicate
@@ -277,35 +322,11 @@ public class DuplicatesFixer {
 
             boolean isUpdatable = entry.getKey().equals(uniprotOrganism);
 
-            // while the list of possible duplicates has not been fully treated, we need to check the duplicates
-            while (duplicatesAsList.size() > 0){
-                // clear the list of duplicates having the same sequence
+            // group the duplicates having the same sequence in one pass. The groups are kept in the order the first protein
+            // of each group appears in the list of duplicates
+            for (List<Protein> sameSequenceGroup : groupDuplicatesPerSequence(entry.getKey(), duplicatesAsList)){
                 duplicatesHavingSameSequence.clear();
-
-                // pick the first protein of the list and add it in the list of duplicates having the same sequence
-                Iterator<Protein> iterator = duplicatesAsList.iterator();
-                Protein protToCompare = iterator.next();
-                duplicatesHavingSameSequence.add(protToCompare);
-
-                // the sequence of the protein
-                String originalSequence = protToCompare.getSequence();
-
-                // we compare the sequence of this first protein against the sequence of the other proteins
-                while (iterator.hasNext()){
-                    // we extract the sequence of the next protein to compare
-                    Protein proteinCompared = iterator.next();
-                    String sequenceToCompare = proteinCompared.getSequence();
-
-                    // if the sequences are identical, we add the protein to the list of duplicates having the same sequence
-                    if (originalSequence != null && sequenceToCompare != null){
-                        if (originalSequence.equalsIgnoreCase(sequenceToCompare)){
-                            duplicatesHavingSameSequence.add(proteinCompared);
-                        }
-                    }
-                    else if (originalSequence == null && sequenceToCompare == null){
-                        duplicatesHavingSameSequence.add(proteinCompared);
-                    }
-                }
+                duplicatesHavingSameSequence.addAll(sameSequenceGroup);
 
                 // if we have more than two proteins in the duplicate list having the exact same sequence, we merge them
                 // without having to shift the ranges first
@@ -317,9 +338,6 @@ public class DuplicatesFixer {
                 else if (isUpdatable){
                     duplicatesHavingDifferentSequence.addAll(duplicatesHavingSameSequence);
                 }
-
-                // we remove the processed proteins from the list of protein to process
-                duplicatesAsList.removeAll(duplicatesHavingSameSequence);
             }
 
             // we still have to merge duplicates having different sequences
@@ -516,13 +534,11 @@ public class DuplicatesFixer {
                         Collection<Annotation> addedAnnotations = addAnnotationsForBadParticipant(duplicate, originalProt.getAc(), factory);
                         // components to let on the current protein
                         Collection<Component> componentToFix = proteinsNeedingPartialMerge.get(duplicate.getAc());
-                        // components without conflicts to move on the original protein
-                        Collection<Component> componentToMove = CollectionUtils.subtract(duplicate.getActiveInstances(), componentToFix);
 
                         Set<String> movedInteractions = Collections.EMPTY_SET;
-                        // move components without conflicts
-                        if (!componentToMove.isEmpty()){
-                            movedInteractions = ComponentTools.moveComponents(originalProt, duplicate, evt.getDataContext(), processor, componentToMove, evt.getPrimaryUniprotAc());
+                        // move components without conflicts on the original protein
+                        if (duplicate.getActiveInstances().size() > componentToFix.size()){
+                            movedInteractions = ComponentTools.moveAllComponents(originalProt, duplicate, evt.getDataContext(), processor, componentToFix, evt.getPrimaryUniprotAc());
                         }
 
                         // report the interactions to move before moving them
@@ -553,8 +569,7 @@ public class DuplicatesFixer {
 
                         // if the sequence in uniprot is different than the one of the duplicate, need to update the sequence and shift the ranges
                         if (ProteinTools.isSequenceChanged(sequence, evt.getUniprotSequence())){
-                            double relativeConservation = computesRequenceConservation(sequence, evt.getUniprotSequence());
-                            processor.fireOnProteinSequenceChanged(new ProteinSequenceChangeEvent(processor, evt.getDataContext(), duplicate, sequence, evt.getPrimaryUniprotAc(), evt.getUniprotSequence(), evt.getUniprotCrc64(), relativeConservation));
+                            processor.fireOnProteinSequenceChanged(new ProteinSequenceChangeEvent(processor, evt.getDataContext(), duplicate, evt.getPrimaryUniprotAc(), sequence, evt.getUniprotSequence(), evt.getUniprotCrc64()));
                         }
                     }
 
@@ -579,14 +594,6 @@ public class DuplicatesFixer {
         return originalProt;
     }
 
-    private double computesRequenceConservation(String oldSequence, String newSequence) {
-        double relativeConservation = 0;
-        if (oldSequence != null && newSequence != null){
-            relativeConservation = ProteinTools.calculateSequenceConservation(oldSequence, newSequence);
-        }
-        return relativeConservation;
-    }
-
     /**
      *
      * @param duplicates
@@ -744,9 +751,7 @@ public class DuplicatesFixer {
 
                 if (caseEvent.getSource() instanceof ProteinUpdateProcessor){
                     ProteinUpdateProcessor processor = (ProteinUpdateProcessor) caseEvent.getSource();
-                    double relativeConservation = computesRequenceConservation(oldSequence, duplEvt.getUniprotSequence());
-
-                    processor.fireOnProteinSequenceChanged(new ProteinSequenceChangeEvent(processor, caseEvent.getDataContext(), duplEvt.getReferenceProtein(), duplEvt.getPrimaryUniprotAc(), oldSequence, duplEvt.getUniprotSequence(), duplEvt.getUniprotCrc64(), relativeConservation));
+                    processor.fireOnProteinSequenceChanged(new ProteinSequenceChangeEvent(processor, caseEvent.getDataContext(), duplEvt.getReferenceProtein(), duplEvt.getPrimaryUniprotAc(), oldSequence, duplEvt.getUniprotSequence(), duplEvt.getUniprotCrc64()));
                 }
             }
         }
@@ -853,9 +858,7 @@ public class DuplicatesFixer {
 
                 if (caseEvent.getSource() instanceof ProteinUpdateProcessor){
                     ProteinUpdateProcessor processor = (ProteinUpdateProcessor) caseEvent.getSource();
-                    double relativeConservation = computesRequenceConservation(oldSequence, duplicateEvent.getUniprotSequence());
-
-                    processor.fireOnProteinSequenceChanged(new ProteinSequenceChangeEvent(processor, caseEvent.getDataContext(), duplicateEvent.getReferenceProtein(), duplicateEvent.getPrimaryUniprotAc(), oldSequence, duplicateEvent.getUniprotSequence(), duplicateEvent.getUniprotCrc64(), relativeConservation));
+                    processor.fireOnProteinSequenceChanged(new ProteinSequenceChangeEvent(processor, caseEvent.getDataContext(), duplicateEvent.getReferenceProtein(), duplicateEvent.getPrimaryUniprotAc(), oldSequence, duplicateEvent.getUniprotSequence(), duplicateEvent.getUniprotCrc64()));
                 }
             }
         }
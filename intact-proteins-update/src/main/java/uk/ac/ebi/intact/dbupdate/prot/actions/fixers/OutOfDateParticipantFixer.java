@@ -6,6 +6,7 @@ import uk.ac.ebi.intact.core.context.DataContext;
 import uk.ac.ebi.intact.core.persistence.dao.AnnotationDao;
 import uk.ac.ebi.intact.core.persistence.dao.DaoFactory;
 import uk.ac.ebi.intact.dbupdate.prot.model.ProteinTranscript;
+import uk.ac.ebi.intact.dbupdate.prot.model.TranscriptSequenceIndex;
 import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateProcessor;
 import uk.ac.ebi.intact.dbupdate.prot.event.OutOfDateParticipantFoundEvent;
 import uk.ac.ebi.intact.dbupdate.prot.event.ProteinEvent;
@@ -19,7 +20,6 @@ import uk.ac.ebi.intact.uniprot.model.UniprotProtein;
 import uk.ac.ebi.intact.uniprot.model.UniprotProteinTranscript;
 import uk.ac.ebi.intact.uniprot.model.UniprotSpliceVariant;
 
-import java.util.ArrayList;
 import java.util.Collection;
 
 /**
@@ -43,6 +43,11 @@ public class OutOfDateParticipantFixer {
 
     private RangeFixer rangeFixer;
 
+    /**
+     * The transcript index of the last uniprot entry processed
+     */
+    private TranscriptSequenceIndex transcriptSequenceIndex;
+
     public OutOfDateParticipantFixer(RangeFixer rangeFixer){
         if (rangeFixer != null){
             this.rangeFixer = rangeFixer;
@@ -59,24 +64,20 @@ public class OutOfDateParticipantFixer {
      * not protein transcript matches the exact sequence without having the canonical sequence
      */
     public UniprotProteinTranscript findTranscriptsWithIdenticalSequence(String sequence, UniprotProtein uniprotProtein){
-        // get all the isoforms and feature chains attached to the uniprot entry
-        Collection<UniprotProteinTranscript> proteinTranscripts = new ArrayList<>();
-        proteinTranscripts.addAll(uniprotProtein.getSpliceVariants());
-        proteinTranscripts.addAll(uniprotProtein.getFeatureChains());
-
-        // if the uniprot entry contains isoforms and feature chains
-        if (!proteinTranscripts.isEmpty()){
-
-            for (UniprotProteinTranscript pt : proteinTranscripts){
-                // if the sequence is exactly the same as a protein transcript and this uniprot transcript doesn't have the canonical sequence, return it
-                if (sequence.equalsIgnoreCase(pt.getSequence()) && !sequence.equalsIgnoreCase(uniprotProtein.getSequence())){
-                    return pt;
-                }
-            }
+        return getTranscriptSequenceIndex(uniprotProtein).findTranscriptWithIdenticalSequence(sequence);
+    }
+
+    /**
+     *
+     * @param uniprotProtein : the uniprot entry
+     * @return the index of the isoforms and feature chains of this uniprot entry. The index is only built again when the uniprot entry changes
+     */
+    public TranscriptSequenceIndex getTranscriptSequenceIndex(UniprotProtein uniprotProtein){
+        if (transcriptSequenceIndex == null || transcriptSequenceIndex.getUniprotProtein() != uniprotProtein){
+            transcriptSequenceIndex = new TranscriptSequenceIndex(uniprotProtein);
         }
 
-        // not transcript in uniprot has this exact sequence
-        return null;
+        return transcriptSequenceIndex;
     }
 
     /**
@@ -146,6 +146,9 @@ public class RangeFixer {
 
         FeatureDao featureDao = factory.getFeatureDao();
 
+        // the annotations to delete, they are deleted all at once
+        Collection<Annotation> annotationsToDelete = new ArrayList<>();
+
         // update or remove the feature annotations and collect invalid ranges annotations
         for (Annotation annotation : annotationsFeature){
             // invalid-range
@@ -164,7 +167,7 @@ public class RangeFixer {
                         featureReport.put(feature.getAc(), annreport);
                     }
 
-                    ProteinTools.deleteAnnotation(feature, context, annotation);
+                    annotationsToDelete.add(annotation);
                 }
                 // the range ac still exists
                 else{
@@ -183,7 +186,7 @@ public class RangeFixer {
                             featureReport.put(feature.getAc(), annreport);
                         }
 
-                        ProteinTools.deleteAnnotation(feature, context, annotation);
+                        annotationsToDelete.add(annotation);
                     }
                 }
             }
@@ -202,7 +205,7 @@ public class RangeFixer {
                         featureReport.put(feature.getAc(), annreport);
                     }
 
-                    ProteinTools.deleteAnnotation(feature, context, annotation);
+                    annotationsToDelete.add(annotation);
                 }
                 // the range ac still exists
                 else {
@@ -217,7 +220,7 @@ public class RangeFixer {
                             featureReport.put(feature.getAc(), annreport);
                         }
 
-                        ProteinTools.deleteAnnotation(feature, context, annotation);
+                        annotationsToDelete.add(annotation);
                     }
                     // if the map containing the features having range conflicts doesn't contains this range, create a new invalidFeatureReport
                     // and set the range ac of this report
@@ -243,7 +246,7 @@ public class RangeFixer {
                         featureReport.put(feature.getAc(), annreport);
                     }
 
-                    ProteinTools.deleteAnnotation(feature, context, annotation);
+                    annotationsToDelete.add(annotation);
                 }
                 // the range ac still exists
                 else {
@@ -258,7 +261,7 @@ public class RangeFixer {
                             featureReport.put(feature.getAc(), annreport);
                         }
 
-                        ProteinTools.deleteAnnotation(feature, context, annotation);
+                        annotationsToDelete.add(annotation);
                     }
                     // it is not an invalid-range from the beginning, can be remapped eventually
                     else if(!invalidRanges.contains(rangeAc)){
@@ -293,7 +296,7 @@ public class RangeFixer {
                         featureReport.put(feature.getAc(), annreport);
                     }
 
-                    ProteinTools.deleteAnnotation(feature, context, annotation);
+                    annotationsToDelete.add(annotation);
                 }
                 // the range ac still exists
                 else{
@@ -308,7 +311,7 @@ public class RangeFixer {
                             featureReport.put(feature.getAc(), annreport);
                         }
 
-                        ProteinTools.deleteAnnotation(feature, context, annotation);
+                        annotationsToDelete.add(annotation);
                     }
                     // add the sequence version to the proper feature report
                     else if (featureReports.containsKey(rangeAc)){
@@ -340,11 +343,13 @@ public class RangeFixer {
                         featureReport.put(feature.getAc(), annreport);
                     }
 
-                    ProteinTools.deleteAnnotation(feature, context, annotation);
+                    annotationsToDelete.add(annotation);
                 }
             }
         }
 
+        ProteinTools.deleteAnnotations(feature, context, annotationsToDelete);
+
         // update feature
         featureDao.update(feature);
 
@@ -386,6 +391,9 @@ public class RangeFixer {
 
         FeatureDao featureDao = factory.getFeatureDao();
 
+        // the annotations to delete, they are deleted all at once
+        Collection<Annotation> annotationsToDelete = new ArrayList<>();
+
         // for each annotation attached to this feature
         for (Annotation annotation : annotationsFeature){
             // if it is 'range-conflict', 'sequence-version', 'invalid-positions  => can be obsoletes now because problem fixed when trying to remap ranges?
@@ -408,7 +416,7 @@ public class RangeFixer {
                             featureReport.put(feature.getAc(), annreport);
                         }
 
-                        ProteinTools.deleteAnnotation(feature, context, annotation);
+                        annotationsToDelete.add(annotation);
                     }
                 }
                 // delete the annotation
@@ -422,11 +430,13 @@ public class RangeFixer {
                         featureReport.put(feature.getAc(), annreport);
                     }
 
-                    ProteinTools.deleteAnnotation(feature, context, annotation);
+                    annotationsToDelete.add(annotation);
                 }
             }
         }
 
+        ProteinTools.deleteAnnotations(feature, context, annotationsToDelete);
+
         featureDao.update(feature);
     }
 
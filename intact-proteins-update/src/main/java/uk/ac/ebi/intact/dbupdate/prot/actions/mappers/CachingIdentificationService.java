@@ -0,0 +1,153 @@
+package uk.ac.ebi.intact.dbupdate.prot.actions.mappers;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateContext;
+import uk.ac.ebi.intact.dbupdate.prot.util.SequenceCrc64;
+import uk.ac.ebi.intact.model.BioSource;
+import uk.ac.ebi.intact.protein.mapping.actions.ActionName;
+import uk.ac.ebi.intact.protein.mapping.actions.status.Status;
+import uk.ac.ebi.intact.protein.mapping.actions.status.StatusLabel;
+import uk.ac.ebi.intact.protein.mapping.model.actionReport.MappingReport;
+import uk.ac.ebi.intact.protein.mapping.model.contexts.UpdateContext;
+import uk.ac.ebi.intact.protein.mapping.results.IdentificationResults;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Consults the remapping cache before identifying a protein with the remote strategies and caches the outcome
+ * of the identifications.
+ *
+ * Only the successful remappings keyed by a sequence and a taxId are cached. The identifications done without updating the protein
+ * are never cached. The remappings found in the cache are reported with a single action giving the uniprot release they come from.
+ *
+ * @version $Id$
+ */
+public class CachingIdentificationService implements ProteinIdentificationService {
+
+    /**
+     * Sets up a logger for that class.
+     */
+    private static final Log log = LogFactory.getLog( CachingIdentificationService.class );
+
+    private final ProteinIdentificationService delegate;
+    private final RemappingCache cache;
+    private final String uniprotRelease;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong cacheErrors = new AtomicLong();
+
+    /**
+     *
+     * @param delegate : the service doing the remote identifications
+     * @param cache : the remapping cache
+     * @param uniprotRelease : the current uniprot release
+     */
+    public CachingIdentificationService(ProteinIdentificationService delegate, RemappingCache cache, String uniprotRelease){
+        if (delegate == null || cache == null || uniprotRelease == null){
+            throw new IllegalArgumentException("The caching identification service needs an identification service, a cache and a uniprot release.");
+        }
+        this.delegate = delegate;
+        this.cache = cache;
+        this.uniprotRelease = uniprotRelease;
+    }
+
+    @Override
+    public IdentificationResults<MappingReport> identifyProtein(UpdateContext context, boolean updateEnabled) throws Exception {
+        String crc64 = null;
+        String taxId = null;
+
+        if (updateEnabled && context.getSequence() != null){
+            BioSource organism = context.getOrganism();
+            taxId = organism != null ? organism.getTaxId() : null;
+            crc64 = taxId != null ? SequenceCrc64.getCrc64(context.getSequence().toUpperCase()) : null;
+        }
+
+        // the outcome cannot be cached
+        if (crc64 == null){
+            return delegate.identifyProtein(context, updateEnabled);
+        }
+
+        String cachedUniprotAc = null;
+        try {
+            cachedUniprotAc = cache.getCachedUniprotAc(crc64, taxId, uniprotRelease);
+        } catch (RuntimeException e) {
+            cacheErrors.incrementAndGet();
+            log.error("Impossible to read the remapping cache for the protein " + context.getIntactAccession(), e);
+        }
+
+        if (cachedUniprotAc != null){
+            hits.incrementAndGet();
+
+            IdentificationResults<MappingReport> result = createCachedResult(cachedUniprotAc);
+
+            if (log.isDebugEnabled()){
+                log.debug("Remapping of " + context.getIntactAccession() + " found in the remapping cache : " + cachedUniprotAc);
+            }
+            return result;
+        }
+
+        misses.incrementAndGet();
+
+        IdentificationResults<MappingReport> result = delegate.identifyProtein(context, updateEnabled);
+
+        // the proteins which cannot be remapped are identified again by the next runs
+        if (result != null && result.getFinalUniprotId() != null){
+            try {
+                cache.cacheRemapping(crc64, taxId, uniprotRelease, result.getFinalUniprotId());
+            } catch (RuntimeException e) {
+                cacheErrors.incrementAndGet();
+                log.error("Impossible to cache the remapping of the protein " + context.getIntactAccession(), e);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     *
+     * @param cachedUniprotAc : the uniprot ac found in the cache
+     * @return the results of the identification, with an action reporting the remapping found in the cache
+     */
+    private IdentificationResults<MappingReport> createCachedResult(String cachedUniprotAc){
+        IdentificationResults<MappingReport> result = ProteinUpdateContext.getInstance().getConfig().getProteinMappingResultsFactory().getIdentificationResults();
+        result.setFinalUniprotId(cachedUniprotAc);
+
+        MappingReport report = ProteinUpdateContext.getInstance().getConfig().getProteinMappingReportFactory().getMappingReport(ActionName.update_checking);
+        report.setStatus(new Status(StatusLabel.COMPLETED, "The sequence has already been remapped to " + cachedUniprotAc + " with the uniprot release " + uniprotRelease + " (remapping cache)"));
+        report.addPossibleAccession(cachedUniprotAc);
+        result.addActionReport(report);
+
+        return result;
+    }
+
+    public ProteinIdentificationService getDelegate() {
+        return delegate;
+    }
+
+    public String getUniprotRelease() {
+        return uniprotRelease;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getCacheErrors() {
+        return cacheErrors.get();
+    }
+
+    /**
+     *
+     * @return the percentage of the cacheable remappings found in the cache
+     */
+    public double getHitRate() {
+        long lookups = hits.get() + misses.get();
+        return lookups == 0 ? 0 : (100.0 * hits.get()) / lookups;
+    }
+}
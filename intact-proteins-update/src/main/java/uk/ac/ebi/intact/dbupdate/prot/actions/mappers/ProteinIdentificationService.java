@@ -0,0 +1,24 @@
+package uk.ac.ebi.intact.dbupdate.prot.actions.mappers;
+
+import uk.ac.ebi.intact.protein.mapping.model.actionReport.MappingReport;
+import uk.ac.ebi.intact.protein.mapping.model.contexts.UpdateContext;
+import uk.ac.ebi.intact.protein.mapping.results.IdentificationResults;
+
+/**
+ * Identifies the uniprot entry matching a protein (PICR, BLAST, etc.).
+ *
+ * The implementations are called from the worker threads of the ProteinRemappingStage and must be thread safe.
+ *
+ * @version $Id$
+ */
+public interface ProteinIdentificationService {
+
+    /**
+     *
+     * @param context : the context of the protein to identify (sequence, organism and identity cross references)
+     * @param updateEnabled : true if the protein can be remapped, false if the identification is only reported
+     * @return the results of the identification
+     * @throws Exception if the identification failed
+     */
+    IdentificationResults<MappingReport> identifyProtein(UpdateContext context, boolean updateEnabled) throws Exception;
+}
@@ -0,0 +1,369 @@
+package uk.ac.ebi.intact.dbupdate.prot.actions.mappers;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import uk.ac.ebi.intact.protein.mapping.model.actionReport.MappingReport;
+import uk.ac.ebi.intact.protein.mapping.model.contexts.UpdateContext;
+import uk.ac.ebi.intact.protein.mapping.results.IdentificationResults;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Remapping stage of the protein update : the proteins without a valid uniprot identity are parked while their
+ * uniprot entry is identified (PICR, BLAST) by a pool of worker threads, so the update of the rest of the chunk does not
+ * wait for the remote services.
+ *
+ * The identification only works on a detached UpdateContext. The remapping itself (new uniprot identity, removed cautions)
+ * is applied later by the ProteinUpdateProcessor in a short transaction.
+ *
+ * A protein is only parked once per run, unless the transaction parking it is rolled back.
+ *
+ * @version $Id$
+ */
+public class ProteinRemappingStage {
+
+    /**
+     * Sets up a logger for that class.
+     */
+    private static final Log log = LogFactory.getLog( ProteinRemappingStage.class );
+
+    private final int numberOfThreads;
+    private final int queueCapacity;
+    private final ProteinIdentificationService identificationService;
+
+    /**
+     * The worker pool, null if the stage is not started
+     */
+    private ThreadPoolExecutor executor;
+
+    /**
+     * The identifications done by the workers and not yet collected
+     */
+    private final BlockingQueue<ParkedRemapping> completedRemappings = new LinkedBlockingQueue<>();
+
+    /**
+     * The remappings parked and not yet collected, per protein ac
+     */
+    private final Map<String, ParkedRemapping> parkedRemappings = new LinkedHashMap<>();
+
+    /**
+     * The proteins parked during this run
+     */
+    private final Set<String> parkedProteins = new HashSet<>();
+
+    /**
+     * The proteins parked since the beginning of the current chunk : the proteins of the chunk, their transcripts and duplicates
+     */
+    private final Set<String> chunkParkedProteins = new HashSet<>();
+
+    /**
+     *
+     * @param numberOfThreads : the number of worker threads
+     * @param queueCapacity : the number of proteins waiting for a worker thread. When the queue is full, the protein is identified by the thread parking it
+     * @param identificationService : the service identifying the proteins
+     */
+    public ProteinRemappingStage(int numberOfThreads, int queueCapacity, ProteinIdentificationService identificationService){
+        if (numberOfThreads < 1){
+            throw new IllegalArgumentException("The remapping stage needs at least one worker thread.");
+        }
+        if (identificationService == null){
+            throw new IllegalArgumentException("The remapping stage needs a protein identification service.");
+        }
+        this.numberOfThreads = numberOfThreads;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.identificationService = identificationService;
+    }
+
+    /**
+     * Starts the worker threads. The proteins are parked only when the stage is started.
+     */
+    public synchronized void start(){
+        if (executor != null){
+            return;
+        }
+
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        ThreadFactory threadFactory = r -> {
+            Thread thread = new Thread(r, "protein-remapping-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        this.executor = new ThreadPoolExecutor(numberOfThreads, numberOfThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+        this.parkedProteins.clear();
+        this.chunkParkedProteins.clear();
+    }
+
+    /**
+     * Stops the worker threads. The remappings not collected are forgotten.
+     */
+    public synchronized void shutdown(){
+        if (executor != null){
+            executor.shutdownNow();
+            executor = null;
+        }
+        if (!parkedRemappings.isEmpty()){
+            log.warn(parkedRemappings.size() + " proteins parked for remapping have not been collected : " + parkedRemappings.keySet());
+        }
+        parkedRemappings.clear();
+        completedRemappings.clear();
+        chunkParkedProteins.clear();
+    }
+
+    public synchronized boolean isStarted(){
+        return executor != null;
+    }
+
+    /**
+     *
+     * @param proteinAc : the protein ac
+     * @return true if the stage is started and the protein has not been parked yet during this run
+     */
+    public synchronized boolean canPark(String proteinAc){
+        return executor != null && proteinAc != null && !parkedProteins.contains(proteinAc);
+    }
+
+    /**
+     * Parks the protein and submits its identification to the worker threads
+     * @param proteinAc : the protein ac
+     * @param context : the context of the protein, must not be shared with the update
+     * @param updateEnabled : true if the protein can be remapped, false if the identification is only reported
+     * @param message : the reason of the remapping
+     * @return the parked remapping
+     */
+    public ParkedRemapping park(String proteinAc, UpdateContext context, boolean updateEnabled, String message){
+        final ParkedRemapping remapping = new ParkedRemapping(proteinAc, context, updateEnabled, message);
+        ThreadPoolExecutor workers;
+
+        synchronized (this){
+            if (!canPark(proteinAc)){
+                throw new IllegalStateException("The protein " + proteinAc + " cannot be parked for remapping.");
+            }
+            parkedProteins.add(proteinAc);
+            chunkParkedProteins.add(proteinAc);
+            parkedRemappings.put(proteinAc, remapping);
+            workers = executor;
+        }
+
+        remapping.future = workers.submit(() -> {
+            try {
+                remapping.result = identificationService.identifyProtein(remapping.context, remapping.updateEnabled);
+            } catch (Exception e) {
+                remapping.error = e;
+            } catch (Error e) {
+                remapping.error = new ExecutionException("Unexpected error while identifying the protein " + remapping.proteinAc, e);
+                throw e;
+            } finally {
+                // every parked protein is completed, otherwise the update would wait for it forever
+                completedRemappings.add(remapping);
+            }
+        });
+
+        return remapping;
+    }
+
+    /**
+     *
+     * @param proteinAc : the protein ac
+     * @return true if the protein is parked and its remapping has not been collected yet
+     */
+    public synchronized boolean isParked(String proteinAc){
+        return parkedRemappings.containsKey(proteinAc);
+    }
+
+    /**
+     *
+     * @return true if some parked remappings have not been collected yet
+     */
+    public synchronized boolean hasParkedProteins(){
+        return !parkedRemappings.isEmpty();
+    }
+
+    /**
+     *
+     * @param proteinAc : the protein ac
+     * @return the parked remapping of this protein, null if the protein is not parked
+     */
+    public synchronized ParkedRemapping getParkedRemapping(String proteinAc){
+        return parkedRemappings.get(proteinAc);
+    }
+
+    /**
+     * Starts a new chunk : the proteins parked from now on are discarded by discardChunk
+     */
+    public synchronized void startChunk(){
+        chunkParkedProteins.clear();
+    }
+
+    /**
+     * Forgets the remappings of all the proteins parked since the beginning of the chunk, because the transaction parking them
+     * has been rolled back. These proteins can be parked again.
+     */
+    public synchronized void discardChunk(){
+        discard(new ArrayList<>(chunkParkedProteins));
+    }
+
+    /**
+     * Forgets the remappings of these proteins, for instance because the transaction parking them has been rolled back.
+     * These proteins can be parked again.
+     * @param proteinAcs : the protein acs
+     */
+    public synchronized void discard(Collection<String> proteinAcs){
+        for (String ac : proteinAcs){
+            parkedProteins.remove(ac);
+            chunkParkedProteins.remove(ac);
+            ParkedRemapping remapping = parkedRemappings.remove(ac);
+
+            if (remapping != null && remapping.future != null){
+                remapping.future.cancel(false);
+            }
+        }
+    }
+
+    /**
+     *
+     * @return the remappings already identified, without waiting
+     */
+    public List<ParkedRemapping> pollCompleted(){
+        List<ParkedRemapping> completed = new ArrayList<>();
+        completedRemappings.drainTo(completed);
+
+        return collect(completed);
+    }
+
+    /**
+     * Waits for all the parked remappings
+     * @return the remappings identified
+     * @throws InterruptedException
+     */
+    public List<ParkedRemapping> awaitCompleted() throws InterruptedException {
+        List<Future<?>> futures = new ArrayList<>();
+
+        synchronized (this){
+            for (ParkedRemapping remapping : parkedRemappings.values()){
+                if (remapping.future != null){
+                    futures.add(remapping.future);
+                }
+            }
+        }
+
+        for (Future<?> future : futures){
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                // the errors of the identification are kept in the parked remapping
+                log.error("Unexpected error in the remapping stage", e);
+            } catch (CancellationException e) {
+                // discarded remapping
+            }
+        }
+
+        return pollCompleted();
+    }
+
+    private synchronized List<ParkedRemapping> collect(List<ParkedRemapping> completed){
+        List<ParkedRemapping> collected = new ArrayList<>(completed.size());
+
+        for (ParkedRemapping remapping : completed){
+            // the remappings discarded in the meantime are ignored, even if their protein has been parked again
+            if (parkedRemappings.remove(remapping.getProteinAc(), remapping)){
+                collected.add(remapping);
+            }
+        }
+
+        return collected;
+    }
+
+    /**
+     * A protein waiting for its remapping
+     */
+    public static class ParkedRemapping {
+
+        private final String proteinAc;
+        private final UpdateContext context;
+        private final boolean updateEnabled;
+        private final String message;
+
+        private boolean reportNonUniprotIfUnmapped;
+
+        private volatile Future<?> future;
+        private volatile IdentificationResults<MappingReport> result;
+        private volatile Exception error;
+
+        private ParkedRemapping(String proteinAc, UpdateContext context, boolean updateEnabled, String message) {
+            this.proteinAc = proteinAc;
+            this.context = context;
+            this.updateEnabled = updateEnabled;
+            this.message = message;
+        }
+
+        public String getProteinAc() {
+            return proteinAc;
+        }
+
+        public UpdateContext getContext() {
+            return context;
+        }
+
+        public boolean isUpdateEnabled() {
+            return updateEnabled;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        /**
+         *
+         * @return the results of the identification, null if the identification failed or is not done
+         */
+        public IdentificationResults<MappingReport> getResult() {
+            return result;
+        }
+
+        /**
+         *
+         * @return the error thrown by the identification, null otherwise
+         */
+        public Exception getError() {
+            return error;
+        }
+
+        /**
+         *
+         * @return the uniprot ac the protein is remapped to, null if the protein cannot be remapped
+         */
+        public String getFinalUniprotId() {
+            return updateEnabled && result != null ? result.getFinalUniprotId() : null;
+        }
+
+        /**
+         *
+         * @return true if the protein must be reported as a non uniprot protein when it cannot be remapped
+         */
+        public boolean isReportNonUniprotIfUnmapped() {
+            return reportNonUniprotIfUnmapped;
+        }
+
+        public void setReportNonUniprotIfUnmapped(boolean reportNonUniprotIfUnmapped) {
+            this.reportNonUniprotIfUnmapped = reportNonUniprotIfUnmapped;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package uk.ac.ebi.intact.dbupdate.prot.actions.mappers;
+
+/**
+ * Cache of the remapping outcomes. The same sequence in the same organism is remapped to the same uniprot entry
+ * until the uniprot release changes, so the outcomes are keyed by (sequence CRC64, taxId, uniprot release).
+ *
+ * Only the successful remappings are cached : a sequence which cannot be remapped now can be remapped by a later run
+ * of the same release (BLAST enabled, new cross references), so it is always identified again.
+ *
+ * The implementations are called from the worker threads of the ProteinRemappingStage and must be thread safe.
+ *
+ * @version $Id$
+ */
+public interface RemappingCache {
+
+    /**
+     *
+     * @param crc64 : the CRC64 of the sequence
+     * @param taxId : the taxId of the organism
+     * @param uniprotRelease : the uniprot release
+     * @return the uniprot ac the sequence was remapped to, null if the remapping is not cached
+     */
+    public String getCachedUniprotAc(String crc64, String taxId, String uniprotRelease);
+
+    /**
+     * Caches a successful remapping
+     * @param crc64 : the CRC64 of the sequence
+     * @param taxId : the taxId of the organism
+     * @param uniprotRelease : the uniprot release
+     * @param uniprotAc : the uniprot ac the sequence was remapped to
+     */
+    public void cacheRemapping(String crc64, String taxId, String uniprotRelease, String uniprotAc);
+
+    /**
+     * Forgets the remappings of the previous uniprot releases, they are never read again
+     * @param uniprotRelease : the current uniprot release
+     * @return the number of remappings forgotten
+     */
+    public int clearOtherReleases(String uniprotRelease);
+}
@@ -0,0 +1,42 @@
+package uk.ac.ebi.intact.dbupdate.prot.actions.mappers;
+
+import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateContext;
+import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateProcessorConfig;
+import uk.ac.ebi.intact.protein.mapping.model.actionReport.MappingReport;
+import uk.ac.ebi.intact.protein.mapping.model.contexts.UpdateContext;
+import uk.ac.ebi.intact.protein.mapping.results.IdentificationResults;
+import uk.ac.ebi.intact.protein.mapping.strategies.StrategyForProteinUpdate;
+import uk.ac.ebi.intact.uniprot.service.UniprotService;
+
+/**
+ * Identifies the proteins with the same StrategyForProteinUpdate as the UniprotProteinMapper.
+ *
+ * The strategy keeps the state of the protein being identified so each worker thread gets its own strategy.
+ *
+ * @version $Id$
+ */
+public class StrategyIdentificationService implements ProteinIdentificationService {
+
+    private final ThreadLocal<StrategyForProteinUpdate> strategies;
+
+    public StrategyIdentificationService(final UniprotService service){
+        final ProteinUpdateProcessorConfig config = ProteinUpdateContext.getInstance().getConfig();
+
+        this.strategies = ThreadLocal.withInitial(() -> {
+            StrategyForProteinUpdate strategy = new StrategyForProteinUpdate(service);
+            strategy.enableIsoforms(false);
+            strategy.setBasicBlastProcessRequired(config.isBlastEnabled());
+            strategy.setReportsFactory(config.getProteinMappingReportFactory());
+            strategy.setResultsFactory(config.getProteinMappingResultsFactory());
+            return strategy;
+        });
+    }
+
+    @Override
+    public IdentificationResults<MappingReport> identifyProtein(UpdateContext context, boolean updateEnabled) throws Exception {
+        StrategyForProteinUpdate strategy = strategies.get();
+        strategy.setUpdateEnabled(updateEnabled);
+
+        return strategy.identifyProtein(context);
+    }
+}
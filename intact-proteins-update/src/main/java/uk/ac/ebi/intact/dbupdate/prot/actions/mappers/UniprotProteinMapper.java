@@ -21,7 +21,6 @@ import uk.ac.ebi.intact.model.util.CvObjectUtils;
 import uk.ac.ebi.intact.protein.mapping.model.actionReport.MappingReport;
 import uk.ac.ebi.intact.protein.mapping.model.contexts.UpdateContext;
 import uk.ac.ebi.intact.protein.mapping.results.IdentificationResults;
-import uk.ac.ebi.intact.protein.mapping.strategies.StrategyForProteinUpdate;
 import uk.ac.ebi.intact.uniprot.service.IdentifierChecker;
 import uk.ac.ebi.intact.uniprot.service.UniprotService;
 
@@ -48,26 +47,25 @@ public class UniprotProteinMapper {
     public static final Log log = LogFactory.getLog( UniprotProteinMapper.class );
 
     /**
-     * the strategy used to update the proteins
+     * the service identifying the proteins with the strategy for protein update
      */
-    private StrategyForProteinUpdate strategy;
+    private ProteinIdentificationService identificationService;
 
     /**
      * the context of the protein to update
      */
     private UpdateContext context;
 
+    /**
+     * the stage remapping the proteins asynchronously, null if the proteins are remapped synchronously
+     */
+    private ProteinRemappingStage remappingStage;
+
     /**
      * create a new ProteinUpdate manager.The strategy for update doesn't take into account the isoforms and keep the canonical sequence.
      */
     public UniprotProteinMapper(UniprotService service){
-        ProteinUpdateProcessorConfig config = ProteinUpdateContext.getInstance().getConfig();
-
-        this.strategy = new StrategyForProteinUpdate(service);
-        this.strategy.enableIsoforms(false);
-        this.strategy.setBasicBlastProcessRequired(config.isBlastEnabled());
-        this.strategy.setReportsFactory(config.getProteinMappingReportFactory());
-        this.strategy.setResultsFactory(config.getProteinMappingResultsFactory());
+        this.identificationService = new StrategyIdentificationService(service);
         this.context = new UpdateContext();
     }
 
@@ -137,8 +135,10 @@ public class UniprotProteinMapper {
         if (protein != null){
             if (isProteinMappingAllowed(protein)){
 
-                // enable the update
-                this.strategy.setUpdateEnabled(true);
+                // the protein is parked and will be remapped by the ProteinUpdateProcessor once identified
+                if (parkProtein(evt, true)){
+                    return false;
+                }
 
                 this.context.clean();
                 String accession = protein.getAc();
@@ -146,7 +146,6 @@ public class UniprotProteinMapper {
                 log.info("Protein AC = " + accession + " shortLabel = " + shortLabel);
 
                 Collection<InteractorXref> refs = protein.getXrefs();
-                Collection<Annotation> annotations = protein.getAnnotations();
                 String sequence = protein.getSequence();
                 BioSource organism = protein.getBioSource();
 
@@ -159,59 +158,16 @@ public class UniprotProteinMapper {
                 // result
                 IdentificationResults<MappingReport> result;
                 try {
-                    result = this.strategy.identifyProtein(context);
+                    result = this.identificationService.identifyProtein(context, true);
 
                     if (evt.getSource() instanceof ProteinUpdateProcessor){
                         ProteinUpdateProcessor processor = (ProteinUpdateProcessor) evt.getSource();
                         processor.fireOnProteinToBeRemapped(new ProteinRemappingEvent(processor, evt.getDataContext(), protein, context, result, evt.getMessage()));
                     }
 
-                    DaoFactory factory = evt.getDataContext().getDaoFactory();
                     // update
                     if (result != null && result.getFinalUniprotId() != null){
-                        // remove 'no-uniprot-update'
-                        Annotation a = collectNo_Uniprot_UpdateAnnotation(annotations);
-
-                        if (a != null){
-                            log.info("annotation no_uniprot_update removed from the annotations of " + accession);
-                            protein.removeAnnotation(a);
-                            factory.getAnnotationDao().delete(a);
-                        }
-
-                        // remove obsolete caution because of dead protein
-                        Annotation a2 = collectObsoleteAnnotation(annotations);
-
-                        if (a2 != null){
-                            log.info("obsolete caution removed from the annotations of " + accession);
-                            protein.removeAnnotation(a2);
-                            factory.getAnnotationDao().delete(a2);
-                        }
-
-                        // remove caution for out of date feature ranges
-                        Annotation a3 = collectFeatureObsoleteAnnotation(annotations);
-
-                        if (a3 != null){
-                            log.info("obsolete feature caution removed from the annotations of " + accession);
-                            protein.removeAnnotation(a3);
-                            factory.getAnnotationDao().delete(a3);
-                        }
-
-                        // remove caution for impossible merge
-                        Annotation a4 = collectImpossibleMergeAnnotation(annotations);
-
-                        if (a4 != null){
-                            log.info("impossible merge caution removed from the annotations of " + accession);
-                            protein.removeAnnotation(a4);
-                            factory.getAnnotationDao().delete(a4);
-                        }
-
-                        addUniprotCrossReferenceTo((ProteinImpl) protein, result.getFinalUniprotId(), factory);
-
-                        if (!IdentifierChecker.isSpliceVariantId(result.getFinalUniprotId()) && !IdentifierChecker.isFeatureChainId(result.getFinalUniprotId())){
-                            removeParentCrossReferenceTo((ProteinImpl) protein, evt.getDataContext());
-                        }
-
-                        factory.getProteinDao().update( (ProteinImpl) protein );
+                        applyRemapping(protein, result.getFinalUniprotId(), evt.getDataContext());
 
                         return true;
                     }
@@ -228,8 +184,10 @@ public class UniprotProteinMapper {
             }
             else if (isProteinMappingPossibleButNotAllowed(protein)){
 
-                // enable the update
-                this.strategy.setUpdateEnabled(false);
+                // the identification is parked and will be reported by the ProteinUpdateProcessor
+                if (parkProtein(evt, false)){
+                    return false;
+                }
 
                 this.context.clean();
                 String accession = protein.getAc();
@@ -248,7 +206,7 @@ public class UniprotProteinMapper {
 
                 IdentificationResults result;
                 try {
-                    result = this.strategy.identifyProtein(context);
+                    result = this.identificationService.identifyProtein(context, false);
 
                     if (evt.getSource() instanceof ProteinUpdateProcessor){
                         ProteinUpdateProcessor processor = (ProteinUpdateProcessor) evt.getSource();
@@ -279,6 +237,130 @@ public class UniprotProteinMapper {
         return false;
     }
 
+    /**
+     * Remaps the protein to the uniprot entry : removes the 'no-uniprot-update' annotation and the cautions added because the protein
+     * was dead, adds the uniprot identity and removes the parent cross references if the uniprot entry is not a protein transcript
+     * @param protein : the protein to remap
+     * @param uniprotAc : the uniprot ac the protein is remapped to
+     * @param dataContext : the data context, a transaction must be active
+     */
+    public void applyRemapping(Protein protein, String uniprotAc, DataContext dataContext){
+        DaoFactory factory = dataContext.getDaoFactory();
+        String accession = protein.getAc();
+        Collection<Annotation> annotations = protein.getAnnotations();
+
+        // remove 'no-uniprot-update'
+        Annotation a = collectNo_Uniprot_UpdateAnnotation(annotations);
+
+        if (a != null){
+            log.info("annotation no_uniprot_update removed from the annotations of " + accession);
+            protein.removeAnnotation(a);
+            factory.getAnnotationDao().delete(a);
+        }
+
+        // remove obsolete caution because of dead protein
+        Annotation a2 = collectObsoleteAnnotation(annotations);
+
+        if (a2 != null){
+            log.info("obsolete caution removed from the annotations of " + accession);
+            protein.removeAnnotation(a2);
+            factory.getAnnotationDao().delete(a2);
+        }
+
+        // remove caution for out of date feature ranges
+        Annotation a3 = collectFeatureObsoleteAnnotation(annotations);
+
+        if (a3 != null){
+            log.info("obsolete feature caution removed from the annotations of " + accession);
+            protein.removeAnnotation(a3);
+            factory.getAnnotationDao().delete(a3);
+        }
+
+        // remove caution for impossible merge
+        Annotation a4 = collectImpossibleMergeAnnotation(annotations);
+
+        if (a4 != null){
+            log.info("impossible merge caution removed from the annotations of " + accession);
+            protein.removeAnnotation(a4);
+            factory.getAnnotationDao().delete(a4);
+        }
+
+        addUniprotCrossReferenceTo((ProteinImpl) protein, uniprotAc, factory);
+
+        if (!IdentifierChecker.isSpliceVariantId(uniprotAc) && !IdentifierChecker.isFeatureChainId(uniprotAc)){
+            removeParentCrossReferenceTo((ProteinImpl) protein, dataContext);
+        }
+
+        factory.getProteinDao().update( (ProteinImpl) protein );
+    }
+
+    /**
+     * Parks the protein in the remapping stage if the stage is started
+     * @param evt : evt with the protein to remap
+     * @param updateEnabled : true if the protein can be remapped
+     * @return true if the protein has been parked
+     */
+    private boolean parkProtein(ProteinEvent evt, boolean updateEnabled){
+        Protein protein = evt.getProtein();
+
+        if (remappingStage == null || !remappingStage.canPark(protein.getAc())){
+            return false;
+        }
+
+        log.info("Protein AC = " + protein.getAc() + " shortLabel = " + protein.getShortLabel() + " parked for remapping");
+
+        UpdateContext parkedContext = new UpdateContext();
+        parkedContext.setSequence(protein.getSequence());
+        parkedContext.setOrganism(protein.getBioSource());
+        parkedContext.setIntactAccession(protein.getAc());
+        addIdentityCrossreferencesToContext(protein.getXrefs(), parkedContext);
+
+        remappingStage.park(protein.getAc(), parkedContext, updateEnabled, evt.getMessage());
+
+        return true;
+    }
+
+    /**
+     *
+     * @param protein : the protein
+     * @return true if the protein is parked in the remapping stage
+     */
+    public boolean isParkedForRemapping(Protein protein){
+        return remappingStage != null && protein != null && remappingStage.isParked(protein.getAc());
+    }
+
+    /**
+     * If the protein is parked in the remapping stage, it will be reported as a non uniprot protein only if it cannot be remapped
+     * @param protein : the protein
+     * @return true if the protein is parked and the report is deferred
+     */
+    public boolean deferNonUniprotReport(Protein protein){
+        ProteinRemappingStage.ParkedRemapping remapping = remappingStage != null && protein != null ? remappingStage.getParkedRemapping(protein.getAc()) : null;
+
+        if (remapping == null){
+            return false;
+        }
+        remapping.setReportNonUniprotIfUnmapped(true);
+
+        return true;
+    }
+
+    public ProteinIdentificationService getIdentificationService() {
+        return identificationService;
+    }
+
+    public void setIdentificationService(ProteinIdentificationService identificationService) {
+        this.identificationService = identificationService;
+    }
+
+    public ProteinRemappingStage getRemappingStage() {
+        return remappingStage;
+    }
+
+    public void setRemappingStage(ProteinRemappingStage remappingStage) {
+        this.remappingStage = remappingStage;
+    }
+
     /**
      * This method query IntAct to get the list of protein to update and for each one create an updateContext
      * Write the results of the protein update process
@@ -474,15 +556,17 @@ public class UniprotProteinMapper {
 
     private void removeParentCrossReferenceTo(ProteinImpl prot, DataContext context){
 
-        Collection<InteractorXref> intRef = new ArrayList<>(prot.getXrefs());
-        for (InteractorXref ref : intRef){
+        Collection<InteractorXref> parentRefs = new ArrayList<>();
+        for (InteractorXref ref : prot.getXrefs()){
             if (ref.getCvDatabase().getIdentifier().equals(CvDatabase.INTACT_MI_REF)){
                 if (ref.getCvXrefQualifier() != null){
                     if (ref.getCvXrefQualifier().getIdentifier().equals(CvXrefQualifier.ISOFORM_PARENT_MI_REF) || ref.getCvXrefQualifier().getIdentifier().equals(CvXrefQualifier.CHAIN_PARENT_MI_REF)){
-                        ProteinTools.deleteInteractorXRef(prot, context, ref);
+                        parentRefs.add(ref);
                     }
                 }
             }
         }
+
+        ProteinTools.deleteInteractorXRefs(prot, context, parentRefs);
     }
 }
\ No newline at end of file
@@ -17,6 +17,7 @@ import uk.ac.ebi.intact.dbupdate.prot.event.ProteinEvent;
 import uk.ac.ebi.intact.dbupdate.prot.event.UpdateCaseEvent;
 import uk.ac.ebi.intact.dbupdate.prot.event.UpdateErrorEvent;
 import uk.ac.ebi.intact.dbupdate.prot.model.ProteinTranscript;
+import uk.ac.ebi.intact.dbupdate.prot.util.UniprotAccessionIndex;
 import uk.ac.ebi.intact.model.InteractorXref;
 import uk.ac.ebi.intact.model.Protein;
 import uk.ac.ebi.intact.model.ProteinImpl;
@@ -66,6 +67,12 @@ public class UniprotProteinRetriever {
 
     private int retryAttempt = 0;
 
+    /**
+     * The number of queries sent to the uniprot service and the number of uniprot queries answered by the local uniprot accession index
+     */
+    private long uniprotQueries = 0;
+    private long queriesAnsweredByIndex = 0;
+
     public UniprotProteinRetriever(UniprotService uniprotService, UniprotProteinMapper proteinMapper, DeadUniprotProteinFixer deadProteinfixer) {
         if (uniprotService != null){
             this.uniprotService = uniprotService;
@@ -148,7 +155,12 @@ public class UniprotProteinRetriever {
                 evt.setMessage(uniprotAc + " doesn't match any uniprot entries.");
                 processProteinNotFoundInUniprot(evt);
                 if (!proteinMappingManager.processProteinRemappingFor(evt)){
-                    log.info("The dead entry " + evt.getProtein().getAc() + " cannot be remapped to any uni-prot entries");
+                    if (proteinMappingManager.isParkedForRemapping(evt.getProtein())){
+                        log.info("The dead entry " + evt.getProtein().getAc() + " is parked for remapping");
+                    }
+                    else {
+                        log.info("The dead entry " + evt.getProtein().getAc() + " cannot be remapped to any uni-prot entries");
+                    }
                 }
                 else {
                     InteractorXref identityAfterRemapping = ProteinUtils.getUniprotXref(evt.getProtein());
@@ -325,6 +337,17 @@ public class UniprotProteinRetriever {
 
             // the protein is not the protein being updated at the moment so we need to query uniprot with this primary ac
             if (!evt.getQuerySentToService().equals(primaryAc)){
+                // a secondary ac attached to a single entry can be checked with the local index
+                List<String> indexedPrimaryAcs = getIndexedPrimaryAccessions(primaryAc);
+                if (indexedPrimaryAcs.size() == 1){
+                    queriesAnsweredByIndex++;
+
+                    if (!indexedPrimaryAcs.get(0).equalsIgnoreCase(uniprotProtein.getPrimaryAc())){
+                        secondaryAcToRemove.add(prot);
+                    }
+                    continue;
+                }
+
                 Collection<UniprotProtein> uniprotProteins = retrieveUniprotEntries( primaryAc );
 
                 // no uniprot protein matches this uniprot ac
@@ -480,12 +503,38 @@ public class UniprotProteinRetriever {
         transcripts.removeAll(secondaryAcToRemove);
     }
 
+    /**
+     *
+     * @param uniprotAc : a uniprot ac
+     * @return the primary acs of the uniprot entries having this secondary ac in the local index, an empty list if there is no index
+     * or the ac is not a secondary ac
+     */
+    private List<String> getIndexedPrimaryAccessions(String uniprotAc){
+        UniprotAccessionIndex accessionIndex = ProteinUpdateContext.getInstance().getConfig().getUniprotAccessionIndex();
+
+        if (accessionIndex == null || IdentifierChecker.isSpliceVariantId(uniprotAc) || IdentifierChecker.isFeatureChainId(uniprotAc)){
+            return Collections.emptyList();
+        }
+        return accessionIndex.getPrimaryAccessions(uniprotAc);
+    }
+
     private Collection<UniprotProtein> retrieveUniprotEntries(String primaryAc) {
+        UniprotAccessionIndex accessionIndex = ProteinUpdateContext.getInstance().getConfig().getUniprotAccessionIndex();
+
+        // the accessions deleted from uniprot do not need a remote query
+        if (accessionIndex != null && accessionIndex.isDeleted(primaryAc) && !accessionIndex.isSecondary(primaryAc)){
+            queriesAnsweredByIndex++;
+
+            if (log.isDebugEnabled()) log.debug(primaryAc + " is a deleted uniprot accession in the local accession index.");
+            return Collections.emptyList();
+        }
+
         // try to collect uniprot entries
         Collection<UniprotProtein> uniprotProteins;
         uniprotService.start();
         try{
             //Calls intact-uniprot:UniprotServices in intact-bridges
+            uniprotQueries++;
             uniprotProteins = uniprotService.retrieve( primaryAc );
         } catch (RemoteAccessException ce) {
             /**
@@ -500,6 +549,7 @@ public class UniprotProteinRetriever {
             if (log.isErrorEnabled()) log.error("Couldn't connect to Uniprot. Will wait 60 seconds before retrying. (Retry: "+retryAttempt+")");
             try {
                 Thread.sleep(60*1000);
+                uniprotQueries++;
                 uniprotProteins = uniprotService.retrieve( primaryAc );
             } catch (InterruptedException e) {
                 uniprotService.close();
@@ -561,6 +611,22 @@ public class UniprotProteinRetriever {
         }
     }
 
+    /**
+     *
+     * @return the number of queries sent to the uniprot service, including the retries
+     */
+    public long getUniprotQueries() {
+        return uniprotQueries;
+    }
+
+    /**
+     *
+     * @return the number of uniprot queries answered by the local uniprot accession index
+     */
+    public long getQueriesAnsweredByIndex() {
+        return queriesAnsweredByIndex;
+    }
+
     public UniprotService getUniprotService() {
         return uniprotService;
     }
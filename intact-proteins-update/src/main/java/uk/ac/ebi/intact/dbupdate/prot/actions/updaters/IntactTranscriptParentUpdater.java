@@ -10,6 +10,7 @@ import uk.ac.ebi.intact.dbupdate.prot.model.ProteinTranscript;
 import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateContext;
 import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateProcessor;
 import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateProcessorConfig;
+import uk.ac.ebi.intact.dbupdate.prot.actions.finders.IntactParentFinder;
 import uk.ac.ebi.intact.dbupdate.prot.errors.ProteinUpdateError;
 import uk.ac.ebi.intact.dbupdate.prot.errors.ProteinUpdateErrorFactory;
 import uk.ac.ebi.intact.dbupdate.prot.errors.UpdateError;
@@ -24,8 +25,14 @@ import uk.ac.ebi.intact.model.util.ProteinUtils;
 import uk.ac.ebi.intact.uniprot.service.IdentifierChecker;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * This class checks, updates and create intact parent cross references when necessary (for isoforms and feature chains)
@@ -42,6 +49,11 @@ public class IntactTranscriptParentUpdater {
      */
     private static final Log log = LogFactory.getLog( IntactTranscriptParentUpdater.class );
 
+    /**
+     * The finder of the proteins having the acs of dead parents as intact-secondary
+     */
+    private IntactParentFinder parentFinder = new IntactParentFinder();
+
     /**
      *
      * @param evt : the event containing the protein transcript to check
@@ -90,6 +102,15 @@ public class IntactTranscriptParentUpdater {
                 // initial number of parents before clean up
                 int totalNumberOfParents = parents.size();
 
+                // the proteins having the dead parent acs as intact-secondary, resolved when the first dead parent is found
+                Map<String, List<ProteinImpl>> remappedParentsByAc = null;
+
+                // the parents looked up in the database, null for the dead parents
+                Map<String, Protein> parentsByAc = new HashMap<>();
+
+                // the invalid parent xrefs, deleted all at once
+                Collection<InteractorXref> invalidParentXrefs = new ArrayList<>();
+
                 // for each parent, we check that the parent ac is still valid in the database. If not, try to remap the parent ac
                 for (InteractorXref parent : parents){
 
@@ -100,38 +121,25 @@ public class IntactTranscriptParentUpdater {
                             ProteinUpdateError invalidParent = errorFactory.createInvalidParentXrefError(protein.getAc(), parent.getPrimaryId(), "The parent xref of the protein refers to itself.");
                             processor.fireOnProcessErrorFound(new UpdateErrorEvent(processor, evt.getDataContext(), invalidParent, protein, evt.getUniprotIdentity()));
 
-                            // now delete the invalid xref
-                            ProteinTools.deleteInteractorXRef(protein, evt.getDataContext(), parent);
+                            // the invalid xref is deleted after the check of all the parents
+                            invalidParentXrefs.add(parent);
                             totalNumberOfParents --;
                         }
                         transcriptsToReview.add(protein);
                     }
                     else {
                         // the protein parent
-                        Protein par = proteinDao.getByAc(parent.getPrimaryId());
+                        Protein par = getParent(parentsByAc, parent.getPrimaryId(), proteinDao);
 
                         if (par == null){
 
-                            DaoFactory factory = evt.getDataContext().getDaoFactory();
-
-                            // get the intact database
-                            CvDatabase intact = factory.getCvObjectDao(CvDatabase.class).getByPsiMiRef(CvDatabase.INTACT_MI_REF);
-
-                            if (intact == null){
-                                intact = CvObjectUtils.createCvObject(parent.getOwner(), CvDatabase.class, CvDatabase.INTACT_MI_REF, CvDatabase.INTACT);
-                                factory.getCvObjectDao(CvDatabase.class).persist(intact);
-                            }
-
-                            // get the intact-secondary xref qualifier
-                            CvXrefQualifier intactSecondary = factory.getCvObjectDao(CvXrefQualifier.class).getByShortLabel("intact-secondary");
-
-                            if (intactSecondary == null){
-                                intactSecondary = CvObjectUtils.createCvObject(parent.getOwner(), CvXrefQualifier.class, null, "intact-secondary");
-                                factory.getCvObjectDao(CvXrefQualifier.class).persist(intactSecondary);
+                            // the dead parents of this transcript are remapped with a single query
+                            if (remappedParentsByAc == null){
+                                remappedParentsByAc = findRemappedParents(Collections.singleton(protein), evt.getDataContext(), parentsByAc);
                             }
 
                             // collect all proteins in intact having the parent ac as intact-secondary
-                            List<ProteinImpl> remappedParents = proteinDao.getByXrefLike(intact, intactSecondary, parent.getPrimaryId());
+                            List<ProteinImpl> remappedParents = getRemappedParents(remappedParentsByAc, parent, evt.getDataContext());
 
                             // the protein ac cannot be remapped, an error is logged in 'process_errors.csv'
                             // the protein cannot be updated
@@ -142,8 +150,8 @@ public class IntactTranscriptParentUpdater {
                                     ProteinUpdateError invalidParent = errorFactory.createInvalidParentXrefError(protein.getAc(), parent.getPrimaryId(), "The parent xref of the protein refers to a dead protein in IntAct.");
                                     processor.fireOnProcessErrorFound(new UpdateErrorEvent(processor, evt.getDataContext(), invalidParent, protein, evt.getUniprotIdentity()));
                                 }
-                                // now delete the invalid xref
-                                ProteinTools.deleteInteractorXRef(protein, evt.getDataContext(), parent);
+                                // the invalid xref is deleted after the check of all the parents
+                                invalidParentXrefs.add(parent);
                                 totalNumberOfParents --;
 
                                 // add the transcript to the list of transcripts to review
@@ -173,8 +181,8 @@ public class IntactTranscriptParentUpdater {
                                     processor.fireOnProcessErrorFound(new UpdateErrorEvent(processor, evt.getDataContext(), invalidParent, protein, evt.getUniprotIdentity()));
                                 }
 
-                                // now delete the invalid xref
-                                ProteinTools.deleteInteractorXRef(protein, evt.getDataContext(), parent);
+                                // the invalid xref is deleted after the check of all the parents
+                                invalidParentXrefs.add(parent);
                                 totalNumberOfParents --;
                                 // add the transcript to the list of transcripts to review
                                 transcriptsToReview.add(protein);
@@ -189,8 +197,8 @@ public class IntactTranscriptParentUpdater {
                                     processor.fireOnProcessErrorFound(new UpdateErrorEvent(processor, evt.getDataContext(), invalidParent, protein, evt.getUniprotIdentity()));
 
                                 }
-                                // now delete the invalid xref
-                                ProteinTools.deleteInteractorXRef(protein, evt.getDataContext(), parent);
+                                // the invalid xref is deleted after the check of all the parents
+                                invalidParentXrefs.add(parent);
                                 totalNumberOfParents --;
                                 // add the transcript to the list of transcripts to review
                                 transcriptsToReview.add(protein);
@@ -199,6 +207,9 @@ public class IntactTranscriptParentUpdater {
                     }
                 }
 
+                // now delete the invalid xrefs
+                ProteinTools.deleteInteractorXRefs(protein, evt.getDataContext(), invalidParentXrefs);
+
                 // the protein cannot be updated because we don't know which parent to choose'
                 if (totalNumberOfParents > 1){
                     if (evt.getSource() instanceof ProteinUpdateProcessor ){
@@ -227,8 +238,11 @@ public class IntactTranscriptParentUpdater {
      * @param transcriptsToReview : collection of transcript to check
      * @param evt : update case event containing the list of all proteins in intact matching a single uniprot entry
      * @param proteinWithoutParents : the list of protein transcript without parents to fill
+     * @param remappedParentsByAc : the proteins having the dead parent acs as intact-secondary
+     * @param parentsByAc : the parents already looked up in the database, null for the dead parents
      */
-    private void checkConsistencyOf(Collection<ProteinTranscript> transcriptsToReview, UpdateCaseEvent evt, List<Protein> proteinWithoutParents){
+    private void checkConsistencyOf(Collection<ProteinTranscript> transcriptsToReview, UpdateCaseEvent evt, List<Protein> proteinWithoutParents,
+                                    Map<String, List<ProteinImpl>> remappedParentsByAc, Map<String, Protein> parentsByAc){
         ProteinUpdateProcessorConfig config = ProteinUpdateContext.getInstance().getConfig();
         ProteinUpdateErrorFactory errorFactory = config.getErrorFactory();
 
@@ -270,6 +284,9 @@ public class IntactTranscriptParentUpdater {
                     proteinWithoutParents.add(protein);
                 }
 
+                // the invalid parent xrefs, deleted all at once
+                Collection<InteractorXref> invalidParentXrefs = new ArrayList<>();
+
                 // check the consistencye of each parent xref
                 for (InteractorXref parent : parents){
                     if (parent.getPrimaryId().equals(protein.getAc())){
@@ -285,25 +302,10 @@ public class IntactTranscriptParentUpdater {
                         }
                     }
                     else{
-                        Protein par = proteinDao.getByAc(parent.getPrimaryId());
+                        Protein par = getParent(parentsByAc, parent.getPrimaryId(), proteinDao);
 
                         if (par == null){
-                            DaoFactory factory = evt.getDataContext().getDaoFactory();
-                            CvDatabase intact = factory.getCvObjectDao(CvDatabase.class).getByPsiMiRef(CvDatabase.INTACT_MI_REF);
-
-                            if (intact == null){
-                                intact = CvObjectUtils.createCvObject(parent.getOwner(), CvDatabase.class, CvDatabase.INTACT_MI_REF, CvDatabase.INTACT);
-                                factory.getCvObjectDao(CvDatabase.class).persist(intact);
-                            }
-
-                            CvXrefQualifier intactSecondary = factory.getCvObjectDao(CvXrefQualifier.class).getByShortLabel("intact-secondary");
-
-                            if (intactSecondary == null){
-                                intactSecondary = CvObjectUtils.createCvObject(parent.getOwner(), CvXrefQualifier.class, null, "intact-secondary");
-                                factory.getCvObjectDao(CvXrefQualifier.class).persist(intactSecondary);
-                            }
-
-                            List<ProteinImpl> remappedParents = proteinDao.getByXrefLike(intact, intactSecondary, parent.getPrimaryId());
+                            List<ProteinImpl> remappedParents = getRemappedParents(remappedParentsByAc, parent, evt.getDataContext());
 
                             if (remappedParents.size() == 0){
                                 if (evt.getSource() instanceof ProteinUpdateProcessor ){
@@ -313,8 +315,8 @@ public class IntactTranscriptParentUpdater {
                                     processor.fireOnProcessErrorFound(new UpdateErrorEvent(processor, evt.getDataContext(), invalidParent, protein, evt.getQuerySentToService()));
                                 }
 
-                                // now delete the invalid xref
-                                ProteinTools.deleteInteractorXRef(protein, evt.getDataContext(), parent);
+                                // the invalid xref is deleted after the check of all the parents
+                                invalidParentXrefs.add(parent);
                                 totalNumberOfParents --;
 
                                 if (!proteinWithoutParents.contains(protein)){
@@ -345,8 +347,8 @@ public class IntactTranscriptParentUpdater {
                                     processor.fireOnProcessErrorFound(new UpdateErrorEvent(processor, evt.getDataContext(), invalidParent, protein, evt.getQuerySentToService()));
                                 }
 
-                                // now delete the invalid xref
-                                ProteinTools.deleteInteractorXRef(protein, evt.getDataContext(), parent);
+                                // the invalid xref is deleted after the check of all the parents
+                                invalidParentXrefs.add(parent);
                                 totalNumberOfParents --;
 
                                 if (!transcriptToDelete.contains(p)){
@@ -363,8 +365,8 @@ public class IntactTranscriptParentUpdater {
                                     processor.fireOnProcessErrorFound(new UpdateErrorEvent(processor, evt.getDataContext(), invalidParent, protein, evt.getQuerySentToService()));
                                 }
 
-                                // now delete the invalid xref
-                                ProteinTools.deleteInteractorXRef(protein, evt.getDataContext(), parent);
+                                // the invalid xref is deleted after the check of all the parents
+                                invalidParentXrefs.add(parent);
                                 totalNumberOfParents --;
 
                                 if (!proteinWithoutParents.contains(protein)){
@@ -375,6 +377,9 @@ public class IntactTranscriptParentUpdater {
                     }
                 }
 
+                // now delete the invalid xrefs
+                ProteinTools.deleteInteractorXRefs(protein, evt.getDataContext(), invalidParentXrefs);
+
                 // if we have several parents, the protein cannot be updated
                 if (totalNumberOfParents > 1){
                     if (evt.getSource() instanceof ProteinUpdateProcessor ){
@@ -402,13 +407,99 @@ public class IntactTranscriptParentUpdater {
     public List<Protein> checkConsistencyOfAllTranscripts(UpdateCaseEvent evt){
         List<Protein> proteinTranscriptsWithoutParent = new ArrayList<>();
 
-        checkConsistencyOf(evt.getPrimaryIsoforms(), evt, proteinTranscriptsWithoutParent);
-        checkConsistencyOf(evt.getSecondaryIsoforms(), evt, proteinTranscriptsWithoutParent);
-        checkConsistencyOf(evt.getPrimaryFeatureChains(), evt, proteinTranscriptsWithoutParent);
+        // the dead parents of all the transcripts of this entry are remapped with a single query
+        List<Protein> transcripts = new ArrayList<>();
+        for (Collection<ProteinTranscript> proteinTranscripts : Arrays.asList(evt.getPrimaryIsoforms(), evt.getSecondaryIsoforms(), evt.getPrimaryFeatureChains())){
+            for (ProteinTranscript transcript : proteinTranscripts){
+                transcripts.add(transcript.getProtein());
+            }
+        }
+        // the parents are looked up once, the checks reuse them
+        Map<String, Protein> parentsByAc = new HashMap<>();
+        Map<String, List<ProteinImpl>> remappedParentsByAc = findRemappedParents(transcripts, evt.getDataContext(), parentsByAc);
+
+        checkConsistencyOf(evt.getPrimaryIsoforms(), evt, proteinTranscriptsWithoutParent, remappedParentsByAc, parentsByAc);
+        checkConsistencyOf(evt.getSecondaryIsoforms(), evt, proteinTranscriptsWithoutParent, remappedParentsByAc, parentsByAc);
+        checkConsistencyOf(evt.getPrimaryFeatureChains(), evt, proteinTranscriptsWithoutParent, remappedParentsByAc, parentsByAc);
 
         return proteinTranscriptsWithoutParent;
     }
 
+    /**
+     *
+     * @param transcripts : the protein transcripts
+     * @param context : the data context
+     * @param parentsByAc : the parents already looked up in the database, null for the dead parents. The parents looked up here are added
+     * @return the proteins having the acs of the dead parents of these transcripts as intact-secondary, per dead parent ac
+     */
+    private Map<String, List<ProteinImpl>> findRemappedParents(Collection<Protein> transcripts, DataContext context, Map<String, Protein> parentsByAc){
+        ProteinDao proteinDao = context.getDaoFactory().getProteinDao();
+
+        Set<String> deadParentAcs = new HashSet<>();
+        Institution owner = null;
+
+        for (Protein transcript : transcripts){
+            Collection<InteractorXref> parents = new ArrayList<>(ProteinUtils.extractIsoformParentCrossReferencesFrom(transcript));
+            parents.addAll(ProteinUtils.extractChainParentCrossReferencesFrom(transcript));
+
+            for (InteractorXref parent : parents){
+                String parentAc = parent.getPrimaryId();
+
+                if (parentAc != null && !parentAc.equals(transcript.getAc()) && !deadParentAcs.contains(parentAc) && getParent(parentsByAc, parentAc, proteinDao) == null){
+                    deadParentAcs.add(parentAc);
+                    owner = parent.getOwner();
+                }
+            }
+        }
+
+        if (deadParentAcs.isEmpty()){
+            return Collections.emptyMap();
+        }
+        return parentFinder.findProteinsByIntactSecondaryAcs(deadParentAcs, owner, context);
+    }
+
+    /**
+     *
+     * @param parentsByAc : the parents already looked up in the database, null for the dead parents
+     * @param parentAc : the ac of the parent
+     * @param proteinDao : the protein dao
+     * @return the protein having this ac, null if the parent is dead. Each parent is only looked up once in the database
+     */
+    private Protein getParent(Map<String, Protein> parentsByAc, String parentAc, ProteinDao proteinDao){
+        if (parentsByAc.containsKey(parentAc)){
+            return parentsByAc.get(parentAc);
+        }
+
+        Protein parent = proteinDao.getByAc(parentAc);
+        parentsByAc.put(parentAc, parent);
+        return parent;
+    }
+
+    /**
+     *
+     * @param remappedParentsByAc : the proteins having the dead parent acs as intact-secondary
+     * @param parent : the parent xref
+     * @param context : the data context
+     * @return the proteins having the parent ac as intact-secondary
+     */
+    private List<ProteinImpl> getRemappedParents(Map<String, List<ProteinImpl>> remappedParentsByAc, InteractorXref parent, DataContext context){
+        List<ProteinImpl> remappedParents = remappedParentsByAc.get(parent.getPrimaryId());
+
+        // parent not resolved in advance
+        if (remappedParents == null){
+            remappedParents = parentFinder.findProteinsByIntactSecondaryAcs(Collections.singleton(parent.getPrimaryId()), parent.getOwner(), context).get(parent.getPrimaryId());
+        }
+        return remappedParents;
+    }
+
+    public IntactParentFinder getParentFinder() {
+        return parentFinder;
+    }
+
+    public void setParentFinder(IntactParentFinder parentFinder) {
+        this.parentFinder = parentFinder;
+    }
+
     /**
      * Create a valid parent xref for this protein transcript
      * @param transcripts
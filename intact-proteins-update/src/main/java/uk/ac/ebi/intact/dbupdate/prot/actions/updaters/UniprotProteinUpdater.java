@@ -20,6 +20,7 @@ import uk.ac.ebi.intact.dbupdate.prot.event.*;
 import uk.ac.ebi.intact.dbupdate.prot.model.ProteinTranscript;
 import uk.ac.ebi.intact.dbupdate.prot.report.RangeUpdateReport;
 import uk.ac.ebi.intact.dbupdate.prot.util.ProteinTools;
+import uk.ac.ebi.intact.dbupdate.prot.util.SequenceCrc64;
 import uk.ac.ebi.intact.model.*;
 import uk.ac.ebi.intact.model.util.CvObjectUtils;
 import uk.ac.ebi.intact.model.util.ProteinUtils;
@@ -27,7 +28,6 @@ import uk.ac.ebi.intact.uniprot.model.Organism;
 import uk.ac.ebi.intact.uniprot.model.UniprotProtein;
 import uk.ac.ebi.intact.uniprot.model.UniprotProteinTranscript;
 import uk.ac.ebi.intact.uniprot.model.UniprotSpliceVariant;
-import uk.ac.ebi.intact.util.Crc64;
 import uk.ac.ebi.intact.util.biosource.BioSourceService;
 import uk.ac.ebi.intact.util.biosource.BioSourceServiceException;
 import uk.ac.ebi.intact.util.biosource.BioSourceServiceFactory;
@@ -624,7 +624,7 @@ public class UniprotProteinUpdater {
 
         // update sequence
         if (uniprotTranscript.getSequence() != null){
-            if (updateProteinSequence(intactTranscript, uniprotTranscript.getSequence(), Crc64.getCrc64(uniprotTranscript.getSequence()), evt, master.getAc())){
+            if (updateProteinSequence(intactTranscript, uniprotTranscript.getSequence(), SequenceCrc64.getCrc64(uniprotTranscript.getSequence()), evt, master.getAc())){
                 hasBeenUpdated = true;
             }
         } // uniprot transcript sequence is likely to be null
@@ -780,12 +780,8 @@ public class UniprotProteinUpdater {
     }
 
     private void sequenceChanged(Protein protein, String uniprot, String newSequence, String oldSequence, String crc64, DataContext context) {
-        double relativeConservation = 0;
-
-        if (oldSequence != null && newSequence != null){
-            relativeConservation = ProteinTools.calculateSequenceConservation(oldSequence, newSequence);
-        }
-        processor.fireOnProteinSequenceChanged(new ProteinSequenceChangeEvent(processor, context, protein, uniprot, oldSequence, newSequence, crc64, relativeConservation));
+        // the relative conservation is computed by the listeners if they need it
+        processor.fireOnProteinSequenceChanged(new ProteinSequenceChangeEvent(processor, context, protein, uniprot, oldSequence, newSequence, crc64));
     }
 
     private void proteinCreated(Protein protein, DataContext context, String message, String uniprot) {
@@ -889,7 +885,7 @@ public class UniprotProteinUpdater {
 
         if (uniprotProteinTranscript.getSequence() != null) {
             variant.setSequence(uniprotProteinTranscript.getSequence());
-            variant.setCrc64(Crc64.getCrc64(variant.getSequence()));
+            variant.setCrc64(SequenceCrc64.getCrc64(variant.getSequence()));
         } else if (!uniprotProteinTranscript.isNullSequenceAllowed()){
             log.warn("Uniprot splice variant without sequence: "+variant);
         }
@@ -1,6 +1,8 @@
 package uk.ac.ebi.intact.dbupdate.prot.event;
 
 import uk.ac.ebi.intact.core.context.DataContext;
+import uk.ac.ebi.intact.dbupdate.prot.util.ProteinTools;
+import uk.ac.ebi.intact.dbupdate.prot.util.SequenceConservationCalculator;
 import uk.ac.ebi.intact.model.Protein;
 
 /**
@@ -20,7 +22,19 @@ public class ProteinSequenceChangeEvent extends ProteinEvent {
 
     private String uniprotCrc64;
 
-    double relativeConservation;
+    private double relativeConservation;
+
+    /**
+     * True when the relative conservation has been computed
+     */
+    private boolean isRelativeConservationComputed;
+
+    /**
+     * The bounds of the relative conservation computed in linear time, -1 if they have not been computed yet
+     */
+    private double relativeConservationLowerBound = -1;
+
+    private double relativeConservationUpperBound = -1;
 
     /**
      * A protein update event
@@ -34,6 +48,21 @@ public class ProteinSequenceChangeEvent extends ProteinEvent {
         this.newSequence = newSequence;
         this.uniprotCrc64 = uniprotCrc64;
         this.relativeConservation = relativeConservation;
+        this.isRelativeConservationComputed = true;
+        setUniprotIdentity(uniprot);
+    }
+
+    /**
+     * A protein update event. The relative conservation of the sequence is only computed when it is needed.
+     *
+     * @param source The object on which the Event initially occurred.
+     * @throws IllegalArgumentException if source is null.
+     */
+    public ProteinSequenceChangeEvent(Object source, DataContext dataContext, Protein protein, String uniprot, String oldSequence, String newSequence, String uniprotCrc64) {
+        super(source, dataContext, protein);
+        this.oldSequence = oldSequence;
+        this.newSequence = newSequence;
+        this.uniprotCrc64 = uniprotCrc64;
         setUniprotIdentity(uniprot);
     }
 
@@ -49,7 +78,83 @@ public class ProteinSequenceChangeEvent extends ProteinEvent {
         return uniprotCrc64;
     }
 
+    /**
+     *
+     * @return the relative conservation of the old sequence in the new sequence, 0 if one of the sequences is null
+     */
     public double getRelativeConservation() {
+        if (!isRelativeConservationComputed){
+            if (oldSequence != null && newSequence != null){
+                relativeConservation = ProteinTools.calculateSequenceConservation(oldSequence, newSequence);
+            }
+            isRelativeConservationComputed = true;
+        }
         return relativeConservation;
     }
+
+    /**
+     *
+     * @return true if the exact relative conservation has been computed (or given when creating the event)
+     */
+    public boolean isRelativeConservationComputed() {
+        return isRelativeConservationComputed;
+    }
+
+    /**
+     *
+     * @return a lower bound of the relative conservation computed in linear time, the relative conservation itself if it has been computed
+     */
+    public double getRelativeConservationLowerBound() {
+        if (!computeRelativeConservationBounds()){
+            return getRelativeConservation();
+        }
+        return relativeConservationLowerBound;
+    }
+
+    /**
+     *
+     * @return an upper bound of the relative conservation computed in linear time, the relative conservation itself if it has been computed
+     */
+    public double getRelativeConservationUpperBound() {
+        if (!computeRelativeConservationBounds()){
+            return getRelativeConservation();
+        }
+        return relativeConservationUpperBound;
+    }
+
+    /**
+     *
+     * @param threshold : the conservation threshold
+     * @return true if the relative conservation of the sequence is below or equal to the threshold. The exact relative conservation is only
+     * computed if the threshold cannot be decided from the bounds of the conservation. An empty old sequence has no relative conservation
+     * and is never below the threshold
+     */
+    public boolean isRelativeConservationBelow(double threshold) {
+        if (oldSequence != null && oldSequence.isEmpty()){
+            return false;
+        }
+        else if (getRelativeConservationLowerBound() > threshold){
+            return false;
+        }
+        else if (getRelativeConservationUpperBound() <= threshold){
+            return true;
+        }
+        return getRelativeConservation() <= threshold;
+    }
+
+    /**
+     *
+     * @return false if the bounds are not needed because the exact relative conservation is known or cheap to compute
+     */
+    private boolean computeRelativeConservationBounds() {
+        if (isRelativeConservationComputed || oldSequence == null || newSequence == null || oldSequence.isEmpty()){
+            return false;
+        }
+
+        if (relativeConservationLowerBound < 0){
+            relativeConservationLowerBound = SequenceConservationCalculator.getConservationLowerBound(oldSequence, newSequence);
+            relativeConservationUpperBound = SequenceConservationCalculator.getConservationUpperBound(oldSequence, newSequence);
+        }
+        return true;
+    }
 }
@@ -0,0 +1,100 @@
+package uk.ac.ebi.intact.dbupdate.prot.listener;
+
+import uk.ac.ebi.intact.dbupdate.prot.ProcessorException;
+import uk.ac.ebi.intact.dbupdate.prot.util.CompactAcSet;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+/**
+ * Writes the acs of the proteins updated in each committed chunk, so an interrupted run can be resumed.
+ *
+ * @version $Id$
+ */
+public class CompletedProteinsListener implements ProteinChunkListener, Closeable {
+
+    private final Writer writer;
+
+    /**
+     *
+     * @param completedFile : the file of the completed acs. The acs are appended to the file if it already exists
+     * @throws IOException
+     */
+    public CompletedProteinsListener(File completedFile) throws IOException {
+        this.writer = Files.newBufferedWriter(completedFile.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+        // the incomplete last line of an interrupted run is not glued to the first ac of this run
+        if (!endsWithNewLine(completedFile)){
+            writer.write('\n');
+        }
+    }
+
+    @Override
+    public void onChunkCommitted(Collection<String> proteinAcs) {
+        try {
+            for (String ac : proteinAcs){
+                writer.write(ac);
+                writer.write('\n');
+            }
+            // the acs of a committed chunk must survive an interruption of the run
+            writer.flush();
+        } catch (IOException e) {
+            throw new ProcessorException("Impossible to write the completed protein acs", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    /**
+     *
+     * @param completedFile : the file of the completed acs
+     * @return the acs completed by a previous run, an empty set if the file does not exist
+     * @throws IOException
+     */
+    public static CompactAcSet readCompletedAcs(File completedFile) throws IOException {
+        CompactAcSet completedAcs = new CompactAcSet();
+
+        if (completedFile.exists()){
+            // the last line is incomplete if the run has been killed while writing it
+            boolean lastLineComplete = endsWithNewLine(completedFile);
+
+            try (BufferedReader reader = Files.newBufferedReader(completedFile.toPath(), StandardCharsets.UTF_8)) {
+                String line = reader.readLine();
+                while (line != null){
+                    String nextLine = reader.readLine();
+                    String ac = line.trim();
+
+                    if (!ac.isEmpty() && (nextLine != null || lastLineComplete)){
+                        completedAcs.add(ac);
+                    }
+                    line = nextLine;
+                }
+            }
+        }
+        return completedAcs;
+    }
+
+    private static boolean endsWithNewLine(File file) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            long length = randomAccessFile.length();
+
+            if (length == 0){
+                return true;
+            }
+            randomAccessFile.seek(length - 1);
+            return randomAccessFile.read() == '\n';
+        }
+    }
+}
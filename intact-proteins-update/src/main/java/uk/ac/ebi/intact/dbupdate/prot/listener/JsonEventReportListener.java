@@ -0,0 +1,444 @@
+package uk.ac.ebi.intact.dbupdate.prot.listener;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import uk.ac.ebi.intact.dbupdate.prot.ProcessorException;
+import uk.ac.ebi.intact.dbupdate.prot.errors.ProteinUpdateError;
+import uk.ac.ebi.intact.dbupdate.prot.event.*;
+import uk.ac.ebi.intact.dbupdate.prot.model.ProteinTranscript;
+import uk.ac.ebi.intact.dbupdate.prot.rangefix.InvalidRange;
+import uk.ac.ebi.intact.dbupdate.prot.report.JsonLinesWriter;
+import uk.ac.ebi.intact.model.Component;
+import uk.ac.ebi.intact.model.InteractorXref;
+import uk.ac.ebi.intact.model.Protein;
+import uk.ac.ebi.intact.protein.mapping.model.actionReport.MappingReport;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Listener writing each event of the update as a JSON Lines record, an alternative to the text reports of the ReportWriterListener
+ * which can be parsed by the downstream tools.
+ *
+ * Each record has the same envelope :
+ * {"schema":1,"process":"...","time":...,"event":"...","ac":"...","payload":{...}}
+ * where process identifies the update run, time is the time of the event in milliseconds since the epoch, event is one of the
+ * EventType values, ac is the intact ac of the protein (null if the event doesn't concern a single intact protein) and payload
+ * contains the fields specific to the event. New fields can be added to the payloads, the existing fields are not renamed or removed
+ * without increasing the schema version.
+ *
+ * The records are written in the buffer of the JsonLinesWriter, which is flushed at the end of each chunk by the processor.
+ * When a chunk is rolled back because a protein exceeded its budget, a chunk_rolled_back record is written for each protein of the chunk :
+ * the records written before for this protein are undone, and the protein is reported again when the chunk is replayed.
+ *
+ * @version $Id$
+ */
+public class JsonEventReportListener extends AbstractProteinUpdateProcessorListener {
+
+    private static final Log log = LogFactory.getLog(JsonEventReportListener.class);
+
+    /**
+     * The version of the schema of the records
+     */
+    public static final int SCHEMA_VERSION = 1;
+
+    /**
+     * The type of the records
+     */
+    public enum EventType {
+        deleted, created, duplicates, sequence_changed, sequence_changed_caution, update_case, secondary_proteins,
+        non_uniprot, invalid_range, out_of_date_range, dead_protein, out_of_date_participant, process_error,
+        transcript_same_sequence, intact_parent, protein_mapping, deleted_component, chunk_rolled_back
+    }
+
+    private final JsonLinesWriter writer;
+    private final String processId;
+
+    /**
+     *
+     * @param writer : the writer of the records
+     * @param processId : the identifier of the update run written in each record. If null, the name of the JVM (pid@host) is used
+     */
+    public JsonEventReportListener(JsonLinesWriter writer, String processId) {
+        this.writer = writer;
+        this.processId = processId != null ? processId : ManagementFactory.getRuntimeMXBean().getName();
+    }
+
+    public JsonLinesWriter getWriter() {
+        return writer;
+    }
+
+    public String getProcessId() {
+        return processId;
+    }
+
+    @Override
+    public void onDelete(ProteinEvent evt) throws ProcessorException {
+        writeDefaultRecord(EventType.deleted, evt);
+    }
+
+    @Override
+    public void onProteinCreated(ProteinEvent evt) throws ProcessorException {
+        writeDefaultRecord(EventType.created, evt);
+    }
+
+    @Override
+    public void onNonUniprotProteinFound(ProteinEvent evt) throws ProcessorException {
+        writeDefaultRecord(EventType.non_uniprot, evt);
+    }
+
+    @Override
+    public void onProteinDuplicationFound(DuplicatesFoundEvent evt) throws ProcessorException {
+        synchronized (writer) {
+            try {
+                begin(EventType.duplicates, acOf(evt.getReferenceProtein()))
+                        .field("uniprotAc", evt.getPrimaryUniprotAc())
+                        .field("taxId", evt.getUniprotTaxId());
+
+                writer.beginArray("duplicates");
+                for (Protein duplicate : evt.getProteins()) {
+                    writer.value(duplicate.getAc());
+                }
+                writer.endArray();
+
+                writeMapOfAcs("movedInteractions", evt.getMovedInteractions());
+                writeMapOfAcs("updatedTranscripts", evt.getUpdatedTranscripts());
+                end();
+            } catch (IOException e) {
+                log.fatal("Problem writing the duplicates of " + evt.getPrimaryUniprotAc() + " to the event report", e);
+            }
+        }
+    }
+
+    @Override
+    public void onProteinSequenceChanged(ProteinSequenceChangeEvent evt) throws ProcessorException {
+        writeSequenceRecord(EventType.sequence_changed, evt);
+    }
+
+    @Override
+    public void onProteinSequenceCaution(ProteinSequenceChangeEvent evt) throws ProcessorException {
+        writeSequenceRecord(EventType.sequence_changed_caution, evt);
+    }
+
+    @Override
+    public void onUpdateCase(UpdateCaseEvent evt) throws ProcessorException {
+        writeUpdateCaseRecord(EventType.update_case, evt);
+    }
+
+    @Override
+    public void onSecondaryAcsFound(UpdateCaseEvent evt) throws ProcessorException {
+        writeUpdateCaseRecord(EventType.secondary_proteins, evt);
+    }
+
+    @Override
+    public void onInvalidRange(InvalidRangeEvent evt) throws ProcessorException {
+        writeRangeRecord(EventType.invalid_range, evt);
+    }
+
+    @Override
+    public void onOutOfDateRange(InvalidRangeEvent evt) throws ProcessorException {
+        writeRangeRecord(EventType.out_of_date_range, evt);
+    }
+
+    @Override
+    public void onDeadProteinFound(DeadUniprotEvent evt) throws ProcessorException {
+        synchronized (writer) {
+            try {
+                begin(EventType.dead_protein, acOf(evt.getProtein()))
+                        .field("uniprotAc", evt.getUniprotIdentityXref() != null ? evt.getUniprotIdentityXref().getPrimaryId() : null);
+
+                writer.beginArray("deletedXrefs");
+                for (InteractorXref xref : evt.getDeletedXrefs()) {
+                    writer.beginObject()
+                            .field("database", xref.getCvDatabase() != null ? xref.getCvDatabase().getShortLabel() : null)
+                            .field("id", xref.getPrimaryId())
+                            .endObject();
+                }
+                writer.endArray();
+                end();
+            } catch (IOException e) {
+                log.fatal("Problem writing the dead protein " + acOf(evt.getProtein()) + " to the event report", e);
+            }
+        }
+    }
+
+    @Override
+    public void onOutOfDateParticipantFound(OutOfDateParticipantFoundEvent evt) throws ProcessorException {
+        synchronized (writer) {
+            try {
+                begin(EventType.out_of_date_participant, acOf(evt.getProteinWithConflicts()))
+                        .field("validParentAc", evt.getValidParentAc())
+                        .field("remappedProteinAc", evt.getRemappedProteinAc());
+
+                writeComponents("components", evt.getComponentsToFix());
+                end();
+            } catch (IOException e) {
+                log.fatal("Problem writing the out of date participants of " + acOf(evt.getProteinWithConflicts()) + " to the event report", e);
+            }
+        }
+    }
+
+    @Override
+    public void onProcessErrorFound(UpdateErrorEvent evt) throws ProcessorException {
+        ProteinUpdateError error = evt.getError();
+        String proteinAc = evt.getProtein() != null ? evt.getProtein().getAc() : evt.getProteinAc();
+
+        synchronized (writer) {
+            try {
+                begin(EventType.process_error, proteinAc)
+                        .field("uniprotAc", evt.getUniprotAc())
+                        .field("error", error != null && error.getErrorLabel() != null ? error.getErrorLabel().name() : null)
+                        .field("message", error != null ? error.getErrorMessage() : null);
+                end();
+            } catch (IOException e) {
+                log.fatal("Problem writing the error of " + proteinAc + " to the event report", e);
+            }
+        }
+    }
+
+    /**
+     * Called when a chunk is rolled back to be replayed without the protein which exceeded its budget
+     * @param proteinAcs : the acs of the chunk which have been updated in the rolled back transaction
+     */
+    public void onChunkRolledBack(Collection<String> proteinAcs) {
+        synchronized (writer) {
+            try {
+                for (String proteinAc : proteinAcs) {
+                    begin(EventType.chunk_rolled_back, proteinAc);
+                    end();
+                }
+            } catch (IOException e) {
+                log.fatal("Problem writing the rolled back proteins " + proteinAcs + " to the event report", e);
+            }
+        }
+    }
+
+    @Override
+    public void onProteinTranscriptWithSameSequence(ProteinTranscriptWithSameSequenceEvent evt) throws ProcessorException {
+        synchronized (writer) {
+            try {
+                begin(EventType.transcript_same_sequence, acOf(evt.getProtein()))
+                        .field("uniprotAc", evt.getUniprotIdentity())
+                        .field("transcriptAc", evt.getUniprotTranscriptAc());
+                end();
+            } catch (IOException e) {
+                log.fatal("Problem writing the transcript " + evt.getUniprotTranscriptAc() + " to the event report", e);
+            }
+        }
+    }
+
+    @Override
+    public void onInvalidIntactParent(InvalidIntactParentFoundEvent evt) throws ProcessorException {
+        synchronized (writer) {
+            try {
+                begin(EventType.intact_parent, acOf(evt.getProtein()))
+                        .field("oldParentAc", evt.getOldParentAc())
+                        .field("newParentAc", evt.getNewParentAc());
+                end();
+            } catch (IOException e) {
+                log.fatal("Problem writing the intact parent of " + acOf(evt.getProtein()) + " to the event report", e);
+            }
+        }
+    }
+
+    @Override
+    public void onProteinRemapping(ProteinRemappingEvent evt) throws ProcessorException {
+        synchronized (writer) {
+            try {
+                begin(EventType.protein_mapping, acOf(evt.getProtein()))
+                        .field("message", evt.getMessage())
+                        .field("uniprotAc", evt.getResult() != null ? evt.getResult().getFinalUniprotId() : null);
+
+                writer.beginObject("identifiers");
+                if (evt.getContext() != null) {
+                    for (Map.Entry<String, String> identifier : evt.getContext().getIdentifiers().entrySet()) {
+                        writer.field(identifier.getKey(), identifier.getValue());
+                    }
+                }
+                writer.endObject();
+
+                writer.beginArray("actions");
+                if (evt.getResult() != null) {
+                    for (MappingReport report : (List<MappingReport>) evt.getResult().getListOfActions()) {
+                        writer.beginObject()
+                                .field("name", report.getName() != null ? report.getName().toString() : null)
+                                .field("status", report.getStatus() != null ? String.valueOf(report.getStatus().getLabel()) : null);
+
+                        writer.beginArray("possibleAcs");
+                        for (String ac : report.getPossibleAccessions()) {
+                            writer.value(ac);
+                        }
+                        writer.endArray();
+                        writer.endObject();
+                    }
+                }
+                writer.endArray();
+                end();
+            } catch (IOException e) {
+                log.fatal("Problem writing the remapping of " + acOf(evt.getProtein()) + " to the event report", e);
+            }
+        }
+    }
+
+    @Override
+    public void onDeletedComponent(DeletedComponentEvent evt) throws ProcessorException {
+        synchronized (writer) {
+            try {
+                begin(EventType.deleted_component, acOf(evt.getProtein()));
+                writeComponents("components", evt.getDeletedComponents());
+                end();
+            } catch (IOException e) {
+                log.fatal("Problem writing the deleted components of " + acOf(evt.getProtein()) + " to the event report", e);
+            }
+        }
+    }
+
+    private void writeDefaultRecord(EventType type, ProteinEvent evt) {
+        Protein protein = evt.getProtein();
+
+        synchronized (writer) {
+            try {
+                begin(type, acOf(protein))
+                        .field("shortLabel", protein != null ? protein.getShortLabel() : null)
+                        .field("uniprotAc", evt.getUniprotIdentity())
+                        .field("message", evt.getMessage());
+                end();
+            } catch (IOException e) {
+                log.fatal("Problem writing the protein " + acOf(protein) + " to the event report", e);
+            }
+        }
+    }
+
+    private void writeSequenceRecord(EventType type, ProteinSequenceChangeEvent evt) {
+        synchronized (writer) {
+            try {
+                begin(type, acOf(evt.getProtein()))
+                        .field("uniprotAc", evt.getUniprotIdentity())
+                        .field("relativeConservation", evt.getRelativeConservation())
+                        .field("oldSequence", evt.getOldSequence())
+                        .field("newSequence", evt.getNewSequence());
+                end();
+            } catch (IOException e) {
+                log.fatal("Problem writing the sequence of " + acOf(evt.getProtein()) + " to the event report", e);
+            }
+        }
+    }
+
+    private void writeUpdateCaseRecord(EventType type, UpdateCaseEvent evt) {
+        synchronized (writer) {
+            try {
+                begin(type, null)
+                        .field("uniprotAc", evt.getProtein() != null ? evt.getProtein().getPrimaryAc() : null)
+                        .field("query", evt.getQuerySentToService());
+
+                writeProteins("primaryProteins", evt.getPrimaryProteins());
+                writeProteins("secondaryProteins", evt.getSecondaryProteins());
+                writeTranscripts("primaryIsoforms", evt.getPrimaryIsoforms());
+                writeTranscripts("secondaryIsoforms", evt.getSecondaryIsoforms());
+                writeTranscripts("featureChains", evt.getPrimaryFeatureChains());
+                end();
+            } catch (IOException e) {
+                log.fatal("Problem writing the update case " + evt.getQuerySentToService() + " to the event report", e);
+            }
+        }
+    }
+
+    private void writeRangeRecord(EventType type, InvalidRangeEvent evt) {
+        InvalidRange range = evt.getInvalidRange();
+
+        synchronized (writer) {
+            try {
+                begin(type, range != null ? range.getProteinAc() : null);
+                if (range != null) {
+                    writer.field("uniprotAc", range.getUniprotAc())
+                            .field("rangeAc", range.getRangeAc())
+                            .field("featureAc", range.getFeatureAc())
+                            .field("componentAc", range.getComponentAc())
+                            .field("interactionAc", range.getInteractionAc())
+                            .field("oldPositions", range.getOldPositions())
+                            .field("newPositions", range.getNewRangePositions())
+                            .field("fromStatus", range.getFromStatus())
+                            .field("toStatus", range.getToStatus())
+                            .field("message", range.getMessage());
+                }
+                end();
+            } catch (IOException e) {
+                log.fatal("Problem writing the range " + (range != null ? range.getRangeAc() : null) + " to the event report", e);
+            }
+        }
+    }
+
+    /**
+     * Writes the envelope of a record and begins its payload
+     */
+    private JsonLinesWriter begin(EventType type, String proteinAc) throws IOException {
+        return writer.beginRecord()
+                .field("schema", SCHEMA_VERSION)
+                .field("process", processId)
+                .field("time", System.currentTimeMillis())
+                .field("event", type.name())
+                .field("ac", proteinAc)
+                .beginObject("payload");
+    }
+
+    private void end() throws IOException {
+        writer.endObject().endRecord();
+    }
+
+    private void writeProteins(String name, Collection<Protein> proteins) throws IOException {
+        writer.beginArray(name);
+        if (proteins != null) {
+            for (Protein protein : proteins) {
+                writer.value(protein.getAc());
+            }
+        }
+        writer.endArray();
+    }
+
+    private void writeTranscripts(String name, Collection<ProteinTranscript> transcripts) throws IOException {
+        writer.beginArray(name);
+        if (transcripts != null) {
+            for (ProteinTranscript transcript : transcripts) {
+                writer.beginObject()
+                        .field("ac", acOf(transcript.getProtein()))
+                        .field("uniprotAc", transcript.getUniprotProteinTranscript() != null ? transcript.getUniprotProteinTranscript().getPrimaryAc() : null)
+                        .endObject();
+            }
+        }
+        writer.endArray();
+    }
+
+    private void writeComponents(String name, Collection<Component> components) throws IOException {
+        writer.beginArray(name);
+        if (components != null) {
+            for (Component component : components) {
+                writer.beginObject()
+                        .field("ac", component.getAc())
+                        .field("interactionAc", component.getInteraction() != null ? component.getInteraction().getAc() : null)
+                        .endObject();
+            }
+        }
+        writer.endArray();
+    }
+
+    private void writeMapOfAcs(String name, Map<String, ? extends Collection<String>> acs) throws IOException {
+        writer.beginObject(name);
+        if (acs != null) {
+            for (Map.Entry<String, ? extends Collection<String>> entry : acs.entrySet()) {
+                writer.beginArray(entry.getKey());
+                for (String ac : entry.getValue()) {
+                    writer.value(ac);
+                }
+                writer.endArray();
+            }
+        }
+        writer.endObject();
+    }
+
+    private static String acOf(Protein protein) {
+        return protein != null ? protein.getAc() : null;
+    }
+}
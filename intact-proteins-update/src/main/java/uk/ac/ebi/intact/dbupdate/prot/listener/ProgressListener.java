@@ -0,0 +1,74 @@
+package uk.ac.ebi.intact.dbupdate.prot.listener;
+
+import uk.ac.ebi.intact.dbupdate.prot.ProcessorException;
+import uk.ac.ebi.intact.dbupdate.prot.event.*;
+import uk.ac.ebi.intact.dbupdate.prot.util.ProteinUpdateProgress;
+
+import java.util.Collection;
+
+/**
+ * Listener feeding the progress of the update with the chunks committed, the errors and the main events
+ *
+ * @version $Id$
+ */
+public class ProgressListener extends AbstractProteinUpdateProcessorListener implements ProteinChunkListener {
+
+    private final ProteinUpdateProgress progress;
+
+    public ProgressListener(ProteinUpdateProgress progress) {
+        this.progress = progress;
+    }
+
+    @Override
+    public void onChunkCommitted(Collection<String> proteinAcs) {
+        progress.chunkCommitted(proteinAcs.size());
+    }
+
+    @Override
+    public void onChunkRolledBack(Collection<String> proteinAcs) {
+        progress.chunkRolledBack();
+    }
+
+    @Override
+    public void onProcessErrorFound(UpdateErrorEvent evt) throws ProcessorException {
+        if (evt.getError() != null && evt.getError().getErrorLabel() != null) {
+            progress.errorFound(evt.getError().getErrorLabel().name());
+        } else {
+            progress.errorFound("unknown");
+        }
+    }
+
+    @Override
+    public void onDelete(ProteinEvent evt) throws ProcessorException {
+        progress.eventFired("deleted");
+    }
+
+    @Override
+    public void onProteinCreated(ProteinEvent evt) throws ProcessorException {
+        progress.eventFired("created");
+    }
+
+    @Override
+    public void onProteinDuplicationFound(DuplicatesFoundEvent evt) throws ProcessorException {
+        progress.eventFired("duplicates");
+    }
+
+    @Override
+    public void onProteinSequenceChanged(ProteinSequenceChangeEvent evt) throws ProcessorException {
+        progress.eventFired("sequence changed");
+    }
+
+    @Override
+    public void onDeadProteinFound(DeadUniprotEvent evt) throws ProcessorException {
+        progress.eventFired("dead");
+    }
+
+    @Override
+    public void onProteinRemapping(ProteinRemappingEvent evt) throws ProcessorException {
+        progress.eventFired("remapping");
+    }
+
+    public ProteinUpdateProgress getProgress() {
+        return progress;
+    }
+}
@@ -0,0 +1,28 @@
+package uk.ac.ebi.intact.dbupdate.prot.listener;
+
+import java.util.Collection;
+import java.util.EventListener;
+
+/**
+ * Listener notified each time the ProteinUpdateProcessor commits or rolls back a chunk of proteins
+ *
+ * @version $Id$
+ */
+public interface ProteinChunkListener extends EventListener {
+
+    /**
+     *
+     * @param proteinAcs : the acs of the chunk which have been updated in the committed transaction
+     */
+    void onChunkCommitted(Collection<String> proteinAcs);
+
+    /**
+     * The events fired for these proteins before the rollback are undone. When a protein of the chunk exceeded its budget, the other
+     * proteins are updated again in the next chunk and fire their events again. When the chunk failed, a fatal error is fired for
+     * each of these proteins.
+     *
+     * @param proteinAcs : the acs of the chunk which have been updated in the rolled back transaction
+     */
+    default void onChunkRolledBack(Collection<String> proteinAcs) {
+    }
+}
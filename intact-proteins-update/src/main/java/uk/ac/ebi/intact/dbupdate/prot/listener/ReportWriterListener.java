@@ -1,10 +1,8 @@
 package uk.ac.ebi.intact.dbupdate.prot.listener;
 
-import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.joda.time.DateTime;
-import uk.ac.ebi.intact.commons.util.Crc64;
 import uk.ac.ebi.intact.dbupdate.prot.ProcessorException;
 import uk.ac.ebi.intact.dbupdate.prot.model.ProteinTranscript;
 import uk.ac.ebi.intact.dbupdate.prot.report.RangeUpdateReport;
@@ -12,10 +10,11 @@ import uk.ac.ebi.intact.dbupdate.prot.errors.ProteinUpdateError;
 import uk.ac.ebi.intact.dbupdate.prot.event.*;
 import uk.ac.ebi.intact.dbupdate.prot.rangefix.InvalidRange;
 import uk.ac.ebi.intact.dbupdate.prot.rangefix.UpdatedRange;
+import uk.ac.ebi.intact.dbupdate.prot.report.ReportLine;
 import uk.ac.ebi.intact.dbupdate.prot.report.ReportWriter;
 import uk.ac.ebi.intact.dbupdate.prot.report.UpdateReportHandler;
 import uk.ac.ebi.intact.dbupdate.prot.util.AdditionalInfoMap;
-import uk.ac.ebi.intact.dbupdate.prot.util.ProteinTools;
+import uk.ac.ebi.intact.dbupdate.prot.util.SequenceCrc64;
 import uk.ac.ebi.intact.model.*;
 import uk.ac.ebi.intact.model.util.ProteinUtils;
 import uk.ac.ebi.intact.protein.mapping.model.actionReport.BlastReport;
@@ -34,6 +33,9 @@ import java.util.*;
 /**
  * Listener for logging the actions during the update
  *
+ * The values of the report lines are appended directly in the report writers through their ReportLine,
+ * the collections are never formatted in temporary strings.
+ *
  * @author Bruno Aranda (baranda@ebi.ac.uk)
  * @version $Id$
  */
@@ -58,15 +60,17 @@ public class ReportWriterListener extends AbstractProteinUpdateProcessorListener
             String protAc = evt.getReferenceProtein() != null ? evt.getReferenceProtein().getAc() : "All. Impossible to merge";
             int activeInstanceNumber = evt.getReferenceProtein() != null ? evt.getReferenceProtein().getActiveInstances().size() : 0;
 
-            duplicatedWriter.writeColumnValues(protAc,
-                    evt.getPrimaryUniprotAc(),
-                    String.valueOf(activeInstanceNumber),
-                    protCollectionToString(evt.getProteins(), false, evt.getOriginalActiveInstancesCount()),
-                    mapCollectionStringToString(evt.getUpdatedTranscripts()),
-                    mapSetStringToString(evt.getMovedInteractions()),
-                    mapCollectionXrefsToString(evt.getMovedXrefs()),
-                    mapCollectionAnnotationsToString(evt.getAddedAnnotations())
-            );
+            ReportLine line = duplicatedWriter.beginLine()
+                    .column(protAc)
+                    .column(evt.getPrimaryUniprotAc())
+                    .column().append(activeInstanceNumber)
+                    .column();
+            appendProteins(line, evt.getProteins(), false, evt.getOriginalActiveInstancesCount());
+            appendSizes(line.column(), evt.getUpdatedTranscripts());
+            appendSizes(line.column(), evt.getMovedInteractions());
+            appendSizes(line.column(), evt.getMovedXrefs());
+            appendSizes(line.column(), evt.getAddedAnnotations());
+            line.end();
 
             duplicatedWriter.flush();
 
@@ -85,84 +89,20 @@ public class ReportWriterListener extends AbstractProteinUpdateProcessorListener
         }
     }
 
-    private String mapCollectionStringToString(Map<String, Collection<String>> mapInfo){
-        StringBuilder buffer = new StringBuilder();
-
-        int i = 1;
-
-        for (Map.Entry<String, Collection<String>> entry : mapInfo.entrySet()){
-            buffer.append(entry.getKey());
-            buffer.append("[");
-            buffer.append(entry.getValue().size());
-            buffer.append("]");
-
-            if (i < mapInfo.size()){
-                buffer.append(", ");
-            }
-            i++;
-        }
-
-        return buffer.toString();
-    }
-
-    private String mapSetStringToString(Map<String, Set<String>> mapInfo){
-        StringBuilder buffer = new StringBuilder();
-
-        int i = 1;
-
-        for (Map.Entry<String, Set<String>> entry : mapInfo.entrySet()){
-            buffer.append(entry.getKey());
-            buffer.append("[");
-            buffer.append(entry.getValue().size());
-            buffer.append("]");
-
-            if (i < mapInfo.size()){
-                buffer.append(", ");
-            }
-            i++;
-        }
-
-        return buffer.toString();
-    }
-
-    private String mapCollectionXrefsToString(Map<String, Collection<InteractorXref>> mapInfo){
-        StringBuilder buffer = new StringBuilder();
-
-        int i = 1;
-
-        for (Map.Entry<String, Collection<InteractorXref>> entry : mapInfo.entrySet()){
-            buffer.append(entry.getKey());
-            buffer.append("[");
-            buffer.append(entry.getValue().size());
-            buffer.append("]");
-
-            if (i < mapInfo.size()){
-                buffer.append(", ");
-            }
-            i++;
-        }
-
-        return buffer.toString();
-    }
-
-    private String mapCollectionAnnotationsToString(Map<String, Collection<Annotation>> mapInfo){
-        StringBuilder buffer = new StringBuilder();
-
+    /**
+     * Appends the keys of the map with the size of their collection : key1[size1], key2[size2]
+     */
+    private static void appendSizes(ReportLine line, Map<String, ? extends Collection<?>> mapInfo) throws IOException {
         int i = 1;
 
-        for (Map.Entry<String, Collection<Annotation>> entry : mapInfo.entrySet()){
-            buffer.append(entry.getKey());
-            buffer.append("[");
-            buffer.append(entry.getValue().size());
-            buffer.append("]");
+        for (Map.Entry<String, ? extends Collection<?>> entry : mapInfo.entrySet()){
+            line.append(entry.getKey()).append('[').append(entry.getValue().size()).append(']');
 
             if (i < mapInfo.size()){
-                buffer.append(", ");
+                line.append(", ");
             }
             i++;
         }
-
-        return buffer.toString();
     }
 
     @Override
@@ -212,42 +152,53 @@ public class ReportWriterListener extends AbstractProteinUpdateProcessorListener
         final Protein protein = evt.getProtein();
         try {
             final ReportWriter writer = reportHandler.getSequenceChangedWriter();
-            String primaryId = evt.getUniprotIdentity() != null ? evt.getUniprotIdentity() : getPrimaryIdString(protein);
-            if (evt.getOldSequence() != null) {
-                writer.writeLine(">"+ protein.getAc()+"|OLD|"+
-                        protein.getShortLabel()+"|"+
-                        primaryId
-                        +"|CRC:"+ Crc64.getCrc64(evt.getOldSequence())+
-                        "|Length:"+evt.getOldSequence().length());
-                writer.writeLine(insertNewLinesIfNecessary(evt.getOldSequence(), 80));
+            String oldSequence = evt.getOldSequence();
+            String newSequence = evt.getNewSequence();
+
+            if (oldSequence != null) {
+                ReportLine line = writer.beginLine()
+                        .append('>').append(protein.getAc())
+                        .append("|OLD|").append(protein.getShortLabel())
+                        .append('|');
+                if (evt.getUniprotIdentity() != null) {
+                    line.append(evt.getUniprotIdentity());
+                } else {
+                    appendPrimaryId(line, protein);
+                }
+                line.append("|CRC:").append(SequenceCrc64.getCrc64(oldSequence))
+                        .append("|Length:").append(oldSequence.length())
+                        .end();
+                writer.beginLine().appendLines(oldSequence, 80, NEW_LINE).end();
             }
 
             String state;
             int seqDiff;
             int levenshtein;
-            double conservation;
 
-            if (evt.getOldSequence() != null) {
+            if (oldSequence != null) {
                 state = "UPDATE";
-                seqDiff = evt.getNewSequence().length()-evt.getOldSequence().length();
-                levenshtein = StringUtils.getLevenshteinDistance(evt.getNewSequence(), evt.getOldSequence());
-                conservation = ProteinTools.calculateSequenceConservation(evt.getOldSequence(), evt.getNewSequence());
+                seqDiff = newSequence.length()-oldSequence.length();
+                levenshtein = getLevenshteinDistance(newSequence, oldSequence);
             } else {
                 state = "NEW";
-                seqDiff = evt.getNewSequence().length();
+                seqDiff = newSequence.length();
                 levenshtein = seqDiff;
-                conservation = 0;
             }
-            int sequenceLength = evt.getNewSequence().length();
-            writer.writeLine(">"+ protein.getAc()+"|"+state+"|"+
-                    protein.getShortLabel()+"|"+
-                    getPrimaryIdString(protein)+
-                    "|CRC:"+evt.getUniprotCrc64()+
-                    "|Length:"+ sequenceLength +
-                    "|Diff:"+seqDiff+
-                    "|Levenshtein:"+ levenshtein+
-                    "|Conservation:"+conservation);
-            writer.writeLine(insertNewLinesIfNecessary(evt.getNewSequence(), 80));
+            int sequenceLength = newSequence.length();
+            ReportLine line = writer.beginLine()
+                    .append('>').append(protein.getAc())
+                    .append('|').append(state)
+                    .append('|').append(protein.getShortLabel())
+                    .append('|');
+            appendPrimaryId(line, protein);
+            line.append("|CRC:").append(evt.getUniprotCrc64())
+                    .append("|Length:").append(sequenceLength)
+                    .append("|Diff:").append(seqDiff)
+                    .append("|Levenshtein:").append(levenshtein)
+                    .append("|Conservation:");
+            appendConservation(line, evt);
+            line.end();
+            writer.beginLine().appendLines(newSequence, 80, NEW_LINE).end();
             writer.flush();
         } catch (Exception e) {
             log.fatal("Problem writing to sequence changed writer", e);
@@ -267,26 +218,28 @@ public class ReportWriterListener extends AbstractProteinUpdateProcessorListener
                     "Removed xref");
 
             String primaryRef = evt.getUniprotIdentityXref() != null ? evt.getUniprotIdentityXref().getPrimaryId() : "-";
-            StringBuilder xRefs = new StringBuilder();
+            String taxId = protein.getBioSource() != null ? protein.getBioSource().getTaxId() : "-";
+
+            ReportLine line = writer.beginLine()
+                    .column(protein.getAc())
+                    .column(protein.getShortLabel())
+                    .column(taxId)
+                    .column(primaryRef)
+                    .column();
 
             if (evt.getDeletedXrefs() != null && !evt.getDeletedXrefs().isEmpty()){
                 for (Xref ref : evt.getDeletedXrefs()) {
+                    line.append(ref.getCvDatabase().getShortLabel()).append(':').append(ref.getPrimaryId());
 
-                    String qual = (ref.getCvXrefQualifier() != null)? "("+ref.getCvXrefQualifier().getShortLabel()+")" : "";
-
-                    xRefs.append(ref.getCvDatabase().getShortLabel()).append(":").append(ref.getPrimaryId()).append(qual);
+                    if (ref.getCvXrefQualifier() != null) {
+                        line.append('(').append(ref.getCvXrefQualifier().getShortLabel()).append(')');
+                    }
                 }
             }
             else {
-                xRefs.append("-");
+                line.append(EMPTY_VALUE);
             }
-
-            String taxId = protein.getBioSource() != null ? protein.getBioSource().getTaxId() : "-";
-            writer.writeColumnValues(protein.getAc(),
-                    protein.getShortLabel(),
-                    taxId,
-                    primaryRef,
-                    xRefs.toString());
+            line.end();
             writer.flush();
         } catch (Exception e) {
             log.fatal("Problem writing to dead protein writer", e);
@@ -354,11 +307,14 @@ public class ReportWriterListener extends AbstractProteinUpdateProcessorListener
                     "IA isoform secondary c.",
                     "IA isoform secondary");
             String primaryId = evt.getProtein().getPrimaryAc();
-            writer.writeColumnValues(primaryId,
-                    String.valueOf(evt.getSecondaryProteins().size()),
-                    protXrefCollectionToString(evt.getSecondaryProteins(), primaryId),
-                    String.valueOf(evt.getSecondaryIsoforms().size()),
-                    protTranscriptXrefCollectionToString(evt.getSecondaryIsoforms()));
+            ReportLine line = writer.beginLine()
+                    .column(primaryId)
+                    .column().append(evt.getSecondaryProteins().size())
+                    .column();
+            appendProteinXrefs(line, evt.getSecondaryProteins(), primaryId);
+            line.column().append(evt.getSecondaryIsoforms().size()).column();
+            appendTranscriptXrefs(line, evt.getSecondaryIsoforms());
+            line.end();
             writer.flush();
         } catch (Exception e) {
             log.fatal("Problem writing secondary acs found to stream", e);
@@ -385,35 +341,36 @@ public class ReportWriterListener extends AbstractProteinUpdateProcessorListener
                     "New annotations");
             String primaryId = evt.getProtein().getPrimaryAc();
 
-            StringBuilder buffer = new StringBuilder();
+            ReportLine line = writer.beginLine().column(primaryId).column();
+            appendStrings(line, evt.getProteins());
+            line.column().append(evt.getPrimaryProteins().size()).column();
+            appendProteins(line, evt.getPrimaryProteins(), true);
+            line.column().append(evt.getPrimaryIsoforms().size()).column();
+            appendTranscripts(line, evt.getPrimaryIsoforms(), true);
+            line.column().append(evt.getPrimaryFeatureChains().size()).column();
+            appendTranscripts(line, evt.getPrimaryFeatureChains(), true);
+            appendXrefReports(line.column(), evt.getXrefUpdaterReports(), true);
+            appendXrefReports(line.column(), evt.getXrefUpdaterReports(), false);
+            appendAliasReports(line.column(), evt.getAliasUpdaterReports(), true);
+            appendAliasReports(line.column(), evt.getAliasUpdaterReports(), false);
+            appendNameReports(line.column(), evt.getNameUpdaterReports());
+            line.column();
+
             for (Map.Entry<String, Collection<Annotation>> entry : evt.getNewAnnotations().entrySet()) {
 
-                buffer.append(entry.getKey()).append(" [");
+                line.append(entry.getKey()).append(" [");
 
                 for (Annotation annotation : entry.getValue()){
-                    String qual = (annotation.getCvTopic()!= null)? "("+ annotation.getCvTopic().getShortLabel()+")" : "";
+                    if (annotation.getCvTopic() != null) {
+                        line.append('(').append(annotation.getCvTopic().getShortLabel()).append(')');
+                    }
 
-                    buffer.append(qual).append(":").append(annotation.getAnnotationText() != null ? annotation.getAnnotationText() : "-");
-                    buffer.append(" ");
+                    line.append(':').append(annotation.getAnnotationText() != null ? annotation.getAnnotationText() : "-");
+                    line.append(' ');
                 }
-                buffer.append(entry.getKey()).append("] ");
+                line.append(entry.getKey()).append("] ");
             }
-
-            writer.writeColumnValues(primaryId,
-                    collectionToString(evt.getProteins()),
-                    String.valueOf(evt.getPrimaryProteins().size()),
-                    protCollectionToString(evt.getPrimaryProteins(), true),
-                    String.valueOf(evt.getPrimaryIsoforms().size()),
-                    protTranscriptCollectionToString(evt.getPrimaryIsoforms(), true, null),
-                    String.valueOf(evt.getPrimaryFeatureChains().size()),
-                    protTranscriptCollectionToString(evt.getPrimaryFeatureChains(), true, null),
-                    xrefReportsAddedToString(evt.getXrefUpdaterReports()),
-                    xrefReportsRemovedToString(evt.getXrefUpdaterReports()),
-                    addedAliasReportsToString(evt.getAliasUpdaterReports()),
-                    removedAliasReportsToString(evt.getAliasUpdaterReports()),
-                    nameReportsToString(evt.getNameUpdaterReports()),
-                    buffer.toString()
-            );
+            line.end();
             writer.flush();
 
             if (!evt.getUpdatedRanges().isEmpty()){
@@ -440,12 +397,14 @@ public class ReportWriterListener extends AbstractProteinUpdateProcessorListener
                     "Components",
                     "sequence");
             String uniprotId = evt.getProtein() != null ? evt.getProtein().getPrimaryAc() : "-";
-            writer.writeColumnValues(uniprotId,
-                    evt.getProteinWithConflicts().getAc(),
-                    dashIfNull(evt.getValidParentAc()),
-                    dashIfNull(evt.getRemappedProteinAc()),
-                    compCollectionToString(evt.getComponentsToFix()),
-                    evt.getProteinWithConflicts().getSequence());
+            ReportLine line = writer.beginLine()
+                    .column(uniprotId)
+                    .column(evt.getProteinWithConflicts().getAc())
+                    .column(dashIfNull(evt.getValidParentAc()))
+                    .column(dashIfNull(evt.getRemappedProteinAc()))
+                    .column();
+            appendComponents(line, evt.getComponentsToFix());
+            line.column(evt.getProteinWithConflicts().getSequence()).end();
             writer.flush();
 
             if (!evt.getInvalidRangeReport().getUpdatedFeatureAnnotations().isEmpty()){
@@ -522,44 +481,29 @@ public class ReportWriterListener extends AbstractProteinUpdateProcessorListener
             Map<String, AnnotationUpdateReport> featureReport = rangeReport.getUpdatedFeatureAnnotations();
 
             for (Map.Entry<String, AnnotationUpdateReport> entry : featureReport.entrySet()){
-                StringBuilder added = new StringBuilder();
-                StringBuilder removed = new StringBuilder();
-                StringBuilder updated = new StringBuilder();
-
                 AnnotationUpdateReport a = entry.getValue();
 
-                if (a != null){
-                    if (a.getAddedAnnotations().isEmpty()){
-                        added.append(EMPTY_VALUE);
-                    }
-                    else{
-                        added.append(AnnotationUpdateReport.annotationsToString(a.getAddedAnnotations()));
-                    }
-                    if (a.getAddedAnnotations().isEmpty()){
-                        added.append(EMPTY_VALUE);
-                    }
-                    else{
-                        removed.append(AnnotationUpdateReport.annotationsToString(a.getRemovedAnnotations()));
-                    }
-                    if (a.getAddedAnnotations().isEmpty()){
-                        added.append(EMPTY_VALUE);
-                    }
-                    else{
-                        updated.append(AnnotationUpdateReport.annotationsToString(a.getUpdatedAnnotations()));
-                    }
-                }
-
-
                 ReportWriter writer = reportHandler.getFeatureChangedWriter();
                 writer.writeHeaderIfNecessary("Feature AC",
                         "Added annotations",
                         "Removed annotations",
                         "Updated annotations");
 
-                writer.writeColumnValues(dashIfNull(entry.getKey()),
-                        added.toString(),
-                        removed.toString(),
-                        updated.toString());
+                ReportLine line = writer.beginLine().column(dashIfNull(entry.getKey()));
+
+                // as in the previous reports, the dashes of the three columns are written in the first one when no annotation has been added
+                if (a == null){
+                    line.column().column().column();
+                }
+                else if (a.getAddedAnnotations().isEmpty()){
+                    line.column(EMPTY_VALUE).append(EMPTY_VALUE).append(EMPTY_VALUE).column().column();
+                }
+                else {
+                    AnnotationUpdateReport.appendAnnotations(line.column(), a.getAddedAnnotations());
+                    AnnotationUpdateReport.appendAnnotations(line.column(), a.getRemovedAnnotations());
+                    AnnotationUpdateReport.appendAnnotations(line.column(), a.getUpdatedAnnotations());
+                }
+                line.end();
                 writer.flush();
             }
         } catch (Exception e) {
@@ -607,17 +551,19 @@ public class ReportWriterListener extends AbstractProteinUpdateProcessorListener
                     "Prot. Uniprot",
                     "Interaction ac",
                     "Message");
-            writer.writeColumnValues(dashIfNull(rangeAc),
-                    dashIfNull(oldRange),
-                    Integer.toString(updatedRange.getSequence().length()),
-                    dashIfNull(featureAc),
-                    dashIfNull(featureLabel),
-                    dashIfNull(componentAc),
-                    dashIfNull(proteinAc),
-                    dashIfNull(proteinLabel),
-                    dashIfNull(uniprotAc),
-                    dashIfNull(interactionAc),
-                    dashIfNull(updatedRange.getMessage()));
+            writer.beginLine()
+                    .column(dashIfNull(rangeAc))
+                    .column(dashIfNull(oldRange))
+                    .column().append(updatedRange.getSequence().length())
+                    .column(dashIfNull(featureAc))
+                    .column(dashIfNull(featureLabel))
+                    .column(dashIfNull(componentAc))
+                    .column(dashIfNull(proteinAc))
+                    .column(dashIfNull(proteinLabel))
+                    .column(dashIfNull(uniprotAc))
+                    .column(dashIfNull(interactionAc))
+                    .column(dashIfNull(updatedRange.getMessage()))
+                    .end();
             writer.flush();
         } catch (Exception e) {
             log.fatal("Problem writing update case to stream", e);
@@ -658,7 +604,6 @@ public class ReportWriterListener extends AbstractProteinUpdateProcessorListener
                 newRange = dashIfNull(updatedRange.getNewRangePositions());
             }
 
-            String sequenceLength = updatedRange.getSequence() != null ? Integer.toString(updatedRange.getSequence().length()) : EMPTY_VALUE;
             ReportWriter writer = reportHandler.getOutOfDateRangeWriter();
             writer.writeHeaderIfNecessary("Range AC",
                     "Pos.",
@@ -673,19 +618,27 @@ public class ReportWriterListener extends AbstractProteinUpdateProcessorListener
                     "Prot. Label",
                     "Interaction Ac",
                     "Message");
-            writer.writeColumnValues(dashIfNull(rangeAc),
-                    dashIfNull(oldRange),
-                    dashIfNull(newRange),
-                    dashIfNull(sequenceLength),
-                    dashIfNull(uniprotAc),
-                    dashIfNull(Integer.toString(updatedRange.getValidSequenceVersion())),
-                    dashIfNull(featureAc),
-                    dashIfNull(featureLabel),
-                    dashIfNull(componentAc),
-                    dashIfNull(proteinAc),
-                    dashIfNull(proteinLabel),
-                    dashIfNull(interactionAc),
-                    dashIfNull(updatedRange.getMessage()));
+            ReportLine line = writer.beginLine()
+                    .column(dashIfNull(rangeAc))
+                    .column(dashIfNull(oldRange))
+                    .column(dashIfNull(newRange))
+                    .column();
+            if (updatedRange.getSequence() != null) {
+                line.append(updatedRange.getSequence().length());
+            }
+            else {
+                line.append(EMPTY_VALUE);
+            }
+            line.column(dashIfNull(uniprotAc))
+                    .column().append(updatedRange.getValidSequenceVersion())
+                    .column(dashIfNull(featureAc))
+                    .column(dashIfNull(featureLabel))
+                    .column(dashIfNull(componentAc))
+                    .column(dashIfNull(proteinAc))
+                    .column(dashIfNull(proteinLabel))
+                    .column(dashIfNull(interactionAc))
+                    .column(dashIfNull(updatedRange.getMessage()))
+                    .end();
             writer.flush();
         } catch (Exception e) {
             log.fatal("Problem writing update case to stream", e);
@@ -720,47 +673,51 @@ public class ReportWriterListener extends AbstractProteinUpdateProcessorListener
                     "Uniprot id found",
                     "Actions");
 
-            StringBuilder identifiers = new StringBuilder(1064);
+            ReportLine line = writer.beginLine()
+                    .column(evt.getContext().getIntactAccession())
+                    .column(dashIfNull(evt.getContext().getSequence()))
+                    .column();
 
             for (Map.Entry<String, String> entry : evt.getContext().getIdentifiers().entrySet()){
-                identifiers.append(entry.getKey()).append(" : ").append(entry.getValue()).append(",");
+                line.append(entry.getKey()).append(" : ").append(entry.getValue()).append(',');
             }
 
-            String uniprotId = "-";
-            StringBuilder actions = new StringBuilder(1064);
+            line.column(evt.getMessage())
+                    .column(evt.getResult() != null ? dashIfNull(evt.getResult().getFinalUniprotId()) : "-")
+                    .column();
+
             if (evt.getResult() != null){
-                uniprotId = dashIfNull(evt.getResult().getFinalUniprotId());
                 List<MappingReport> reports = evt.getResult().getListOfActions();
 
                 for (MappingReport report : reports){
-                    actions.append("[");
-                    actions.append(report.getName().toString()).append(" : ").append(report.getStatus().getLabel()).append(" : ").append(report.getStatus().getDescription());
+                    line.append('[');
+                    line.append(report.getName().toString()).append(" : ").append(String.valueOf(report.getStatus().getLabel())).append(" : ").append(String.valueOf(report.getStatus().getDescription()));
 
                     if (!report.getWarnings().isEmpty()){
-                        actions.append(" (");
+                        line.append(" (");
                         for (String warn : report.getWarnings()){
-                            actions.append(warn).append(";");
+                            line.append(warn).append(';');
                         }
-                        actions.append(")");
+                        line.append(')');
                     }
 
                     if (!report.getPossibleAccessions().isEmpty()){
-                        actions.append(", possible accessions : ");
+                        line.append(", possible accessions : ");
                         for (String ac : report.getPossibleAccessions()){
-                            actions.append(ac).append(";");
+                            line.append(ac).append(';');
                         }
                     }
 
                     if (report instanceof UniprotProteinAPIReport){
-                        actions.append(", ");
+                        line.append(", ");
 
                         UniprotProteinAPIReport<UniprotProteinAPICrossReferences> uniprotProteinAPIReport = (UniprotProteinAPIReport) report;
-                        actions.append("Is a Swissprot entry : ").append(uniprotProteinAPIReport.isASwissprotEntry());
+                        line.append("Is a Swissprot entry : ").append(uniprotProteinAPIReport.isASwissprotEntry());
 
                         if (!uniprotProteinAPIReport.getCrossReferences().isEmpty()){
-                            actions.append(", other cross references : ");
+                            line.append(", other cross references : ");
                             for (UniprotProteinAPICrossReferences xrefs : uniprotProteinAPIReport.getCrossReferences()){
-                                actions.append(xrefs.getDatabase()).append(" : ").append(xrefs.getAccessions()).append(";");
+                                line.append(String.valueOf(xrefs.getDatabase())).append(" : ").append(String.valueOf(xrefs.getAccessions())).append(';');
                             }
                         }
                     }
@@ -769,24 +726,18 @@ public class ReportWriterListener extends AbstractProteinUpdateProcessorListener
                         BlastReport<BlastResults> blast = (BlastReport) report;
 
                         if (!blast.getBlastMatchingProteins().isEmpty()){
-                            actions.append(", Blast Results : ");
+                            line.append(", Blast Results : ");
                             for (BlastResults prot : blast.getBlastMatchingProteins()){
-                                actions.append("BLAST Protein ").append(prot.getAccession()).append(" : identity = ").append(prot.getIdentity()).append(";");
-                                actions.append("Query start = ").append(prot.getStartQuery()).append(": end = ").append(prot.getEndQuery()).append(";");
-                                actions.append("Match start = ").append(prot.getStartMatch()).append(": end = ").append(prot.getEndMatch()).append(",");
+                                line.append("BLAST Protein ").append(String.valueOf(prot.getAccession())).append(" : identity = ").append(String.valueOf(prot.getIdentity())).append(';');
+                                line.append("Query start = ").append(String.valueOf(prot.getStartQuery())).append(": end = ").append(String.valueOf(prot.getEndQuery())).append(';');
+                                line.append("Match start = ").append(String.valueOf(prot.getStartMatch())).append(": end = ").append(String.valueOf(prot.getEndMatch())).append(',');
                             }
                         }
                     }
-                    actions.append("], ");
+                    line.append("], ");
                 }
             }
-
-            writer.writeColumnValues(evt.getContext().getIntactAccession(),
-                    dashIfNull(evt.getContext().getSequence()),
-                    dashIfNull(identifiers.toString()),
-                    evt.getMessage(),
-                    dashIfNull(uniprotId),
-                    actions.toString());
+            line.end();
             writer.flush();
         } catch (Exception e) {
             log.fatal("Problem writing results of protein mapping", e);
@@ -805,11 +756,14 @@ public class ReportWriterListener extends AbstractProteinUpdateProcessorListener
                     "New sequence");
 
             if (evt.getProtein() != null){
-                writer.writeColumnValues(dashIfNull(evt.getProtein().getAc()),
-                        Double.toString(evt.getRelativeConservation()),
-                        dashIfNull(evt.getUniprotIdentity()),
-                        dashIfNull(evt.getOldSequence()),
-                        dashIfNull(evt.getNewSequence()));
+                writer.beginLine()
+                        .column(dashIfNull(evt.getProtein().getAc()))
+                        // only the cautions need the exact conservation, it is computed here if the bounds were enough to decide the caution
+                        .column().append(evt.getRelativeConservation())
+                        .column(dashIfNull(evt.getUniprotIdentity()))
+                        .column(dashIfNull(evt.getOldSequence()))
+                        .column(dashIfNull(evt.getNewSequence()))
+                        .end();
                 writer.flush();
             }
 
@@ -828,23 +782,24 @@ public class ReportWriterListener extends AbstractProteinUpdateProcessorListener
                     "Deleted Components");
 
             if (evt.getProtein() != null && !evt.getDeletedComponents().isEmpty()){
-                StringBuilder comp = new StringBuilder();
+                ReportLine line = writer.beginLine()
+                        .column(dashIfNull(evt.getProtein().getAc()))
+                        .column(dashIfNull(evt.getUniprotIdentity()))
+                        .column();
 
                 int i = 0;
                 for (Component component : evt.getDeletedComponents()){
                     String interactionAc = component.getInteraction() != null ? component.getInteraction().getAc() : "-";
 
-                    comp.append("Participant ").append(component.getAc()).append("[interaction = ").append(interactionAc).append("]");
+                    line.append("Participant ").append(component.getAc()).append("[interaction = ").append(interactionAc).append(']');
 
                     if (i < evt.getDeletedComponents().size()){
-                        comp.append(",");
+                        line.append(',');
                     }
 
                     i++;
                 }
-                writer.writeColumnValues(dashIfNull(evt.getProtein().getAc()),
-                        dashIfNull(evt.getUniprotIdentity()),
-                        comp.toString());
+                line.end();
                 writer.flush();
             }
 
@@ -853,304 +808,251 @@ public class ReportWriterListener extends AbstractProteinUpdateProcessorListener
         }
     }
 
-    private static String insertNewLinesIfNecessary(String oldSequence, int maxLineLength) {
-        StringBuilder sb = new StringBuilder(oldSequence);
-
-        int startIndex = oldSequence.length() - (oldSequence.length() % maxLineLength);
-
-        if (startIndex >= maxLineLength) {
-            for (int i = startIndex; i>0; i=i-maxLineLength) {
-                sb.insert(i, NEW_LINE);
-            }
-        }
-
-        return sb.toString();
-    }
-
-    private static String compCollectionToString(Collection<Component> components) {
-        StringBuilder sb = new StringBuilder();
-
+    private static void appendComponents(ReportLine line, Collection<Component> components) throws IOException {
         for (Iterator<Component> iterator = components.iterator(); iterator.hasNext();) {
             Component component = iterator.next();
 
-            sb.append(component.getShortLabel()).append("(").append(component.getAc()).append(")");
-            sb.append("[interaction:").append(component.getInteraction().getAc()).append(" ,interactor:").append(component.getInteractor().getAc()).append("]");
+            line.append(component.getShortLabel()).append('(').append(component.getAc()).append(')');
+            line.append("[interaction:").append(component.getInteraction().getAc()).append(" ,interactor:").append(component.getInteractor().getAc()).append(']');
 
             if (iterator.hasNext()) {
-                sb.append(", ");
+                line.append(", ");
             }
         }
 
         if (components.isEmpty()) {
-            sb.append(EMPTY_VALUE);
+            line.append(EMPTY_VALUE);
         }
-
-        return sb.toString();
     }
 
-    private static String protTranscriptCollectionToString(Collection<ProteinTranscript> protCollection,
-                                                 boolean showInteractionsCount,
-                                                 AdditionalInfoMap<?> additionalInfo) {
-        StringBuilder sb = new StringBuilder();
-
+    private static void appendTranscripts(ReportLine line, Collection<ProteinTranscript> protCollection,
+                                          boolean showInteractionsCount) throws IOException {
         for (Iterator<ProteinTranscript> iterator = protCollection.iterator(); iterator.hasNext();) {
             Protein protein = iterator.next().getProtein();
 
-            sb.append(protein.getShortLabel()).append("(").append(protein.getAc()).append(")");
+            line.append(protein.getShortLabel()).append('(').append(protein.getAc()).append(')');
 
             if (showInteractionsCount) {
-                sb.append("[").append(protein.getActiveInstances().size()).append("]");
-            }
-
-            if (additionalInfo != null && !additionalInfo.isEmpty()) {
-                sb.append("[").append(additionalInfo.get(protein.getAc())).append("]");
+                line.append('[').append(protein.getActiveInstances().size()).append(']');
             }
 
             if (iterator.hasNext()) {
-                sb.append(", ");
+                line.append(", ");
             }
         }
 
         if (protCollection.isEmpty()) {
-            sb.append(EMPTY_VALUE);
+            line.append(EMPTY_VALUE);
         }
-
-        return sb.toString();
     }
 
-        private static String protTranscriptXrefCollectionToString(Collection<ProteinTranscript> protCollection) {
-        StringBuilder sb = new StringBuilder();
-
+    private static void appendTranscriptXrefs(ReportLine line, Collection<ProteinTranscript> protCollection) throws IOException {
         for (Iterator<ProteinTranscript> iterator = protCollection.iterator(); iterator.hasNext();) {
             ProteinTranscript p = iterator.next();
             Protein protein = p.getProtein();
 
-            sb.append(protein.getShortLabel()).append("(").append(protein.getAc()).append(")");
+            line.append(protein.getShortLabel()).append('(').append(protein.getAc()).append(')');
 
             InteractorXref ref = ProteinUtils.getUniprotXref(protein);
             String primary = p.getUniprotProteinTranscript() != null ? p.getUniprotProteinTranscript().getPrimaryAc() : "-";
 
             if (ref != null){
-                sb.append(" Old = ").append(ref.getPrimaryId()).append(", New = ").append(primary);
+                line.append(" Old = ").append(ref.getPrimaryId()).append(", New = ").append(primary);
             }
 
             if (iterator.hasNext()) {
-                sb.append(", ");
+                line.append(", ");
             }
         }
 
         if (protCollection.isEmpty()) {
-            sb.append(EMPTY_VALUE);
+            line.append(EMPTY_VALUE);
         }
-
-        return sb.toString();
     }
 
-    private static String protCollectionToString(Collection<? extends Protein> protCollection,
-                                                 boolean showActiveInstancesCount) {
-        return protCollectionToString(protCollection, showActiveInstancesCount, Collections.EMPTY_MAP);
-    }
+    /**
+     * Appends the proteins with their number of active instances, or a dash if there is no protein
+     */
+    private static void appendProteins(ReportLine line, Collection<? extends Protein> protCollection,
+                                       boolean showInteractionsCount) throws IOException {
+        appendProteins(line, protCollection, showInteractionsCount, null);
 
-    private static String protCollectionToString(Collection<? extends Protein> protCollection,
-                                                 boolean showInteractionsCount,
-                                                 AdditionalInfoMap<?> additionalInfo) {
-        StringBuilder sb = new StringBuilder();
+        if (protCollection.isEmpty()) {
+            line.append(EMPTY_VALUE);
+        }
+    }
 
+    private static void appendProteins(ReportLine line, Collection<? extends Protein> protCollection,
+                                       boolean showInteractionsCount,
+                                       AdditionalInfoMap<?> additionalInfo) throws IOException {
         for (Iterator<? extends Protein> iterator = protCollection.iterator(); iterator.hasNext();) {
             Protein protein = iterator.next();
 
-            sb.append(protein.getShortLabel()).append("(").append(protein.getAc()).append(")");
+            line.append(protein.getShortLabel()).append('(').append(protein.getAc()).append(')');
 
             if (showInteractionsCount) {
-                sb.append("[").append(protein.getActiveInstances().size()).append("]");
+                line.append('[').append(protein.getActiveInstances().size()).append(']');
             }
 
             if (additionalInfo != null && !additionalInfo.isEmpty()) {
-                sb.append("[").append(additionalInfo.get(protein.getAc())).append("]");
+                line.append('[').append(String.valueOf(additionalInfo.get(protein.getAc()))).append(']');
             }
 
             if (iterator.hasNext()) {
-                sb.append(", ");
+                line.append(", ");
             }
         }
-
-        return sb.toString();
     }
 
-    private static String protXrefCollectionToString(Collection<? extends Protein> protCollection, String primary) {
-        StringBuilder sb = new StringBuilder();
-
+    private static void appendProteinXrefs(ReportLine line, Collection<? extends Protein> protCollection, String primary) throws IOException {
         for (Iterator<? extends Protein> iterator = protCollection.iterator(); iterator.hasNext();) {
             Protein protein = iterator.next();
 
-            sb.append(protein.getShortLabel()).append("(").append(protein.getAc()).append(")");
+            line.append(protein.getShortLabel()).append('(').append(protein.getAc()).append(')');
 
             InteractorXref ref = ProteinUtils.getUniprotXref(protein);
 
             if (ref != null){
-                sb.append(" old = ").append(ref.getPrimaryId()).append(", new = ").append(primary);
+                line.append(" old = ").append(ref.getPrimaryId()).append(", new = ").append(primary);
             }
 
             if (iterator.hasNext()) {
-                sb.append(", ");
+                line.append(", ");
             }
         }
-
-        return sb.toString();
     }
 
-
-    private static String protCollectionToString(Collection<? extends Protein> protCollection,
-                                                 boolean showInteractionsCount,
-                                                 Map<String,Collection<?>> additionalInfo) {
-        StringBuilder sb = new StringBuilder();
-
-        for (Iterator<? extends Protein> iterator = protCollection.iterator(); iterator.hasNext();) {
-            Protein protein = iterator.next();
-
-            sb.append(protein.getShortLabel()).append("(").append(protein.getAc()).append(")");
-
-            if (showInteractionsCount) {
-                sb.append("[").append(protein.getActiveInstances().size()).append("]");
-            }
-
-            if (additionalInfo != null && !additionalInfo.isEmpty()) {
-                sb.append("[").append(additionalInfo.get(protein.getAc()).size()).append("]");
-            }
+    private static void appendStrings(ReportLine line, Collection<String> strings) throws IOException {
+        for (Iterator<String> iterator = strings.iterator(); iterator.hasNext();) {
+            line.append(iterator.next());
 
             if (iterator.hasNext()) {
-                sb.append(", ");
+                line.append(", ");
             }
         }
 
-        if (protCollection.isEmpty()) {
-            sb.append(EMPTY_VALUE);
+        if (strings.isEmpty()) {
+            line.append(EMPTY_VALUE);
         }
-
-        return sb.toString();
     }
 
-    private static String collectionToString(Collection<String> protCollection) {
-        StringBuilder sb = new StringBuilder();
-
-        for (Iterator<String> iterator = protCollection.iterator(); iterator.hasNext();) {
-            String protein = iterator.next();
-
-            sb.append(protein);
-
-            if (iterator.hasNext()) {
-                sb.append(", ");
-            }
-        }
-
-        if (protCollection.isEmpty()) {
-            sb.append(EMPTY_VALUE);
-        }
-
-        return sb.toString();
-    }
-
-    private static String xrefReportsAddedToString(Collection<XrefUpdaterReport> xrefReports) {
-        StringBuilder sb = new StringBuilder();
-
+    /**
+     * Appends the xrefs added (or removed) for each protein : protein1[xrefs]|protein2[xrefs]
+     */
+    private static void appendXrefReports(ReportLine line, Collection<XrefUpdaterReport> xrefReports, boolean added) throws IOException {
         for (Iterator<XrefUpdaterReport> iterator = xrefReports.iterator(); iterator.hasNext();) {
             XrefUpdaterReport report = iterator.next();
 
-            sb.append(report.getProtein()).append("[").append(report.addedXrefsToString()).append("]");
+            line.append(report.getProtein()).append('[');
+            XrefUpdaterReport.appendXrefs(line, added ? report.getAddedXrefs() : report.getRemovedXrefs());
+            line.append(']');
 
             if (iterator.hasNext()) {
-                sb.append("|");
+                line.append('|');
             }
         }
 
         if (xrefReports.isEmpty()) {
-            sb.append(EMPTY_VALUE);
+            line.append(EMPTY_VALUE);
         }
-
-        return sb.toString();
     }
 
-    private static String nameReportsToString(Collection<ProteinNameUpdateReport> nameReports) {
-        StringBuilder sb = new StringBuilder();
-
+    private static void appendNameReports(ReportLine line, Collection<ProteinNameUpdateReport> nameReports) throws IOException {
         for (Iterator<ProteinNameUpdateReport> iterator = nameReports.iterator(); iterator.hasNext();) {
             ProteinNameUpdateReport report = iterator.next();
 
             String shortlabel = report.getShortLabel() != null ? report.getShortLabel() : "not updated";
             String fullName = report.getFullName() != null ? report.getFullName() : "not updated";
 
-            sb.append(report.getProtein()).append("[").append("ShortLabel : ").append(shortlabel).append("FullName : ").append(fullName).append("]");
+            line.append(report.getProtein()).append('[').append("ShortLabel : ").append(shortlabel).append("FullName : ").append(fullName).append(']');
 
             if (iterator.hasNext()) {
-                sb.append("|");
+                line.append('|');
             }
         }
 
         if (nameReports.isEmpty()) {
-            sb.append(EMPTY_VALUE);
+            line.append(EMPTY_VALUE);
         }
-
-        return sb.toString();
     }
 
-    private static String addedAliasReportsToString(Collection<AliasUpdateReport> aliasReports) {
-        StringBuilder sb = new StringBuilder();
-
+    /**
+     * Appends the aliases added (or removed) for each protein : protein1[aliases]|protein2[aliases]
+     */
+    private static void appendAliasReports(ReportLine line, Collection<AliasUpdateReport> aliasReports, boolean added) throws IOException {
         for (Iterator<AliasUpdateReport> iterator = aliasReports.iterator(); iterator.hasNext();) {
             AliasUpdateReport report = iterator.next();
 
-            sb.append(report.getProtein()).append("[").append(AliasUpdateReport.aliasesToString(report.getAddedAliases())).append("]");
+            line.append(report.getProtein()).append('[');
+            AliasUpdateReport.appendAliases(line, added ? report.getAddedAliases() : report.getRemovedAliases());
+            line.append(']');
 
             if (iterator.hasNext()) {
-                sb.append("|");
+                line.append('|');
             }
         }
 
         if (aliasReports.isEmpty()) {
-            sb.append(EMPTY_VALUE);
+            line.append(EMPTY_VALUE);
         }
-
-        return sb.toString();
     }
 
-    private static String removedAliasReportsToString(Collection<AliasUpdateReport> aliasReports) {
-        StringBuilder sb = new StringBuilder();
-
-        for (Iterator<AliasUpdateReport> iterator = aliasReports.iterator(); iterator.hasNext();) {
-            AliasUpdateReport report = iterator.next();
-
-            sb.append(report.getProtein()).append("[").append(AliasUpdateReport.aliasesToString(report.getRemovedAliases())).append("]");
-
-            if (iterator.hasNext()) {
-                sb.append("|");
-            }
+    /**
+     * Appends the relative conservation of the sequence, computed here if the listeners did not need it.
+     * A new sequence has no conservation
+     */
+    private static void appendConservation(ReportLine line, ProteinSequenceChangeEvent evt) throws IOException {
+        if (evt.getOldSequence() == null) {
+            line.append(0.0);
+        } else {
+            line.append(evt.getRelativeConservation());
         }
+    }
 
-        if (aliasReports.isEmpty()) {
-            sb.append(EMPTY_VALUE);
+    /**
+     * Levenshtein distance between two sequences, computed on the sequences without converting them in strings
+     */
+    private static int getLevenshteinDistance(CharSequence s, CharSequence t) {
+        int n = s.length();
+        int m = t.length();
+
+        if (n == 0) {
+            return m;
+        } else if (m == 0) {
+            return n;
         }
 
-        return sb.toString();
-    }
+        // the rows have the length of the shortest sequence
+        if (n > m) {
+            CharSequence tmp = s;
+            s = t;
+            t = tmp;
+            n = m;
+            m = t.length();
+        }
 
-    private static String xrefReportsRemovedToString(Collection<XrefUpdaterReport> xrefReports) {
-        StringBuilder sb = new StringBuilder();
+        int[] previous = new int[n + 1];
+        int[] current = new int[n + 1];
 
-        for (Iterator<XrefUpdaterReport> iterator = xrefReports.iterator(); iterator.hasNext();) {
-            XrefUpdaterReport report = iterator.next();
+        for (int i = 0; i <= n; i++) {
+            previous[i] = i;
+        }
 
-            sb.append(report.getProtein()).append("[").append(report.removedXrefsToString()).append("]");
+        for (int j = 1; j <= m; j++) {
+            char tj = t.charAt(j - 1);
+            current[0] = j;
 
-            if (iterator.hasNext()) {
-                sb.append("|");
+            for (int i = 1; i <= n; i++) {
+                int cost = s.charAt(i - 1) == tj ? 0 : 1;
+                current[i] = Math.min(Math.min(current[i - 1] + 1, previous[i] + 1), previous[i - 1] + cost);
             }
-        }
 
-        if (xrefReports.isEmpty()) {
-            sb.append(EMPTY_VALUE);
+            int[] swap = previous;
+            previous = current;
+            current = swap;
         }
 
-        return sb.toString();
+        return previous[n];
     }
 
     private void writeDefaultHeaderIfNecessary(ReportWriter writer) throws IOException {
@@ -1163,46 +1065,51 @@ public class ReportWriterListener extends AbstractProteinUpdateProcessorListener
     private void writeDefaultLine(ReportWriter writer, Protein protein, String message) throws IOException {
         writeDefaultHeaderIfNecessary(writer);
         if (writer != null) {
-            String primaryId = getPrimaryIdString(protein);
-            message = dashIfNull(message);
-
-            writer.writeColumnValues(new DateTime().toString(), protein.getAc(), protein.getShortLabel(), primaryId, message);
+            ReportLine line = writer.beginLine()
+                    .column(new DateTime().toString())
+                    .column(protein.getAc())
+                    .column(protein.getShortLabel())
+                    .column();
+            appendPrimaryId(line, protein);
+            line.column(dashIfNull(message)).end();
             writer.flush();
         }
     }
 
-    private String dashIfNull(String str) {str = (str != null)? str : EMPTY_VALUE;
+    private static String dashIfNull(String str) {str = (str != null)? str : EMPTY_VALUE;
         return str;
     }
 
+    private static CharSequence dashIfNull(CharSequence str) {
+        return (str != null)? str : EMPTY_VALUE;
+    }
+
     private String booleanToYesNo(boolean bool) {
         return bool? "Y" : "N";
     }
 
-    private String getPrimaryIdString(Protein protein) {
+    /**
+     * Appends the uniprot ac of the protein or, if there is none, its identity xrefs : db1:id1|db2:id2
+     */
+    private static void appendPrimaryId(ReportLine line, Protein protein) throws IOException {
         InteractorXref uniprotXref = ProteinUtils.getUniprotXref(protein);
 
-        String primaryId = null;
-
         if (uniprotXref != null) {
-            primaryId = uniprotXref.getPrimaryId();
+            line.append(uniprotXref.getPrimaryId());
         } else {
-            StringBuilder sb = new StringBuilder(64);
             List<InteractorXref> xrefs = ProteinUtils.getIdentityXrefs(protein);
 
             Iterator<InteractorXref> iterator = xrefs.iterator();
             while (iterator.hasNext()) {
                 InteractorXref xref =  iterator.next();
-                sb.append(xref.getCvDatabase().getShortLabel()).append(":").append(xref.getPrimaryId());
-                if (iterator.hasNext()) sb.append("|");
-                primaryId = sb.toString();
+                line.append(xref.getCvDatabase().getShortLabel()).append(':').append(xref.getPrimaryId());
+                if (iterator.hasNext()) line.append('|');
             }
 
             if (xrefs.isEmpty()) {
-                primaryId = EMPTY_VALUE;
+                line.append(EMPTY_VALUE);
             }
         }
-        return primaryId;
     }
 
     public UpdateReportHandler getReportHandler() {
@@ -31,16 +31,12 @@ public class SequenceChangedListener extends AbstractProteinUpdateProcessorListe
 
     @Override
     public void onProteinSequenceChanged(ProteinSequenceChangeEvent evt) throws ProcessorException {
-        String oldSeq = evt.getOldSequence();
         Protein protein = evt.getProtein();
 
-        double relativeConservation = 0;
-
-        if (oldSeq != null){
-            relativeConservation = evt.getRelativeConservation();
+        if (evt.getOldSequence() != null){
 
             // if the sequences are considerably different, create a caution for the protein and the interactions
-            if ( relativeConservation <= conservationThreshold) {
+            if (evt.isRelativeConservationBelow(conservationThreshold)) {
 
                 if (evt.getSource() instanceof ProteinUpdateProcessor){
                     ProteinUpdateProcessor processor = (ProteinUpdateProcessor) evt.getSource();
@@ -52,7 +48,7 @@ public class SequenceChangedListener extends AbstractProteinUpdateProcessorListe
         }
 
         if (log.isDebugEnabled()) {
-            log.debug("After sequence update, the relative sequence conservation is " + relativeConservation);
+            log.debug("After sequence update, the relative sequence conservation is between " + evt.getRelativeConservationLowerBound() + " and " + evt.getRelativeConservationUpperBound());
         }
     }
 }
\ No newline at end of file
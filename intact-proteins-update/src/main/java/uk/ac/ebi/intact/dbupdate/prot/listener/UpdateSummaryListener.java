@@ -0,0 +1,166 @@
+package uk.ac.ebi.intact.dbupdate.prot.listener;
+
+import uk.ac.ebi.intact.dbupdate.prot.ProcessorException;
+import uk.ac.ebi.intact.dbupdate.prot.ProteinBudgetExceededException;
+import uk.ac.ebi.intact.dbupdate.prot.errors.FatalErrorDuringUpdate;
+import uk.ac.ebi.intact.dbupdate.prot.errors.ProteinUpdateError;
+import uk.ac.ebi.intact.dbupdate.prot.event.*;
+import uk.ac.ebi.intact.dbupdate.prot.report.RangeUpdateReport;
+import uk.ac.ebi.intact.dbupdate.prot.util.ProteinUpdateSummary;
+import uk.ac.ebi.intact.dbupdate.prot.util.ProteinUpdateSummary.Counter;
+import uk.ac.ebi.intact.model.Protein;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Listener counting the events of the update in the summary of the run
+ *
+ * @version $Id$
+ */
+public class UpdateSummaryListener extends AbstractProteinUpdateProcessorListener implements ProteinChunkListener {
+
+    private final ProteinUpdateSummary summary;
+
+    public UpdateSummaryListener(ProteinUpdateSummary summary) {
+        this.summary = summary;
+    }
+
+    @Override
+    public void onChunkCommitted(Collection<String> proteinAcs) {
+        summary.chunkCommitted(proteinAcs.size());
+    }
+
+    @Override
+    public void onChunkRolledBack(Collection<String> proteinAcs) {
+        summary.chunkRolledBack();
+    }
+
+    @Override
+    public void onDelete(ProteinEvent evt) throws ProcessorException {
+        summary.increment(Counter.deleted);
+    }
+
+    @Override
+    public void onProteinCreated(ProteinEvent evt) throws ProcessorException {
+        summary.increment(Counter.created);
+    }
+
+    @Override
+    public void onUpdateCase(UpdateCaseEvent evt) throws ProcessorException {
+        summary.add(Counter.updated, evt.getPrimaryProteins().size() + evt.getPrimaryIsoforms().size() + evt.getPrimaryFeatureChains().size());
+        summary.add(Counter.ranges_shifted, countShiftedRanges(evt.getUpdatedRanges()));
+    }
+
+    @Override
+    public void onProteinDuplicationFound(DuplicatesFoundEvent evt) throws ProcessorException {
+        Protein reference = evt.getReferenceProtein();
+
+        // the duplicates with feature conflicts are not merged
+        if (reference != null) {
+            long merged = 0;
+            for (Protein duplicate : evt.getProteins()) {
+                if (!duplicate.getAc().equals(reference.getAc()) && !evt.getComponentsWithFeatureConflicts().containsKey(duplicate)) {
+                    merged++;
+                }
+            }
+            summary.add(Counter.duplicates_merged, merged);
+        }
+        summary.add(Counter.ranges_shifted, countShiftedRanges(evt.getUpdatedRanges()));
+    }
+
+    @Override
+    public void onProteinSequenceChanged(ProteinSequenceChangeEvent evt) throws ProcessorException {
+        summary.increment(Counter.sequence_changed);
+    }
+
+    @Override
+    public void onInvalidRange(InvalidRangeEvent evt) throws ProcessorException {
+        summary.increment(Counter.ranges_invalid);
+    }
+
+    @Override
+    public void onOutOfDateRange(InvalidRangeEvent evt) throws ProcessorException {
+        summary.increment(Counter.ranges_out_of_date);
+    }
+
+    @Override
+    public void onDeadProteinFound(DeadUniprotEvent evt) throws ProcessorException {
+        summary.increment(Counter.dead_proteins);
+    }
+
+    @Override
+    public void onNonUniprotProteinFound(ProteinEvent evt) throws ProcessorException {
+        summary.increment(Counter.non_uniprot);
+    }
+
+    @Override
+    public void onOutOfDateParticipantFound(OutOfDateParticipantFoundEvent evt) throws ProcessorException {
+        summary.increment(Counter.out_of_date_participants);
+    }
+
+    @Override
+    public void onProteinRemapping(ProteinRemappingEvent evt) throws ProcessorException {
+        if (evt.getResult() != null && evt.getResult().getFinalUniprotId() != null) {
+            summary.increment(Counter.remapped);
+        }
+    }
+
+    @Override
+    public void onDeletedComponent(DeletedComponentEvent evt) throws ProcessorException {
+        summary.add(Counter.deleted_components, evt.getDeletedComponents().size());
+    }
+
+    @Override
+    public void onProcessErrorFound(UpdateErrorEvent evt) throws ProcessorException {
+        ProteinUpdateError error = evt.getError();
+
+        if (error != null && error.getErrorLabel() != null) {
+            summary.errorFound(error.getErrorLabel().name());
+        } else {
+            summary.errorFound("unknown");
+        }
+
+        if (error instanceof FatalErrorDuringUpdate) {
+            Exception exception = ((FatalErrorDuringUpdate) error).getException();
+
+            if (exception instanceof ProteinBudgetExceededException) {
+                summary.increment(Counter.quarantined);
+            } else if (isRemoteFailure(exception)) {
+                summary.increment(Counter.remote_failures);
+            }
+        }
+    }
+
+    public ProteinUpdateSummary getSummary() {
+        return summary;
+    }
+
+    private static long countShiftedRanges(Map<String, RangeUpdateReport> updatedRanges) {
+        long shiftedRanges = 0;
+
+        for (RangeUpdateReport report : updatedRanges.values()) {
+            if (report != null) {
+                shiftedRanges += report.getShiftedRanges().size();
+            }
+        }
+        return shiftedRanges;
+    }
+
+    /**
+     * The remote services (UniProt, taxonomy, mapping strategies) fail with an IOException (timeouts, connection refused...)
+     * somewhere in the causes of the exception
+     */
+    private static boolean isRemoteFailure(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+}
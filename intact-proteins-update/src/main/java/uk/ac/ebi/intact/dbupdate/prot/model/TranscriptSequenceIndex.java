@@ -0,0 +1,98 @@
+package uk.ac.ebi.intact.dbupdate.prot.model;
+
+import uk.ac.ebi.intact.dbupdate.prot.util.SequenceCrc64;
+import uk.ac.ebi.intact.uniprot.model.UniprotProtein;
+import uk.ac.ebi.intact.uniprot.model.UniprotProteinTranscript;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the isoforms and feature chains of a uniprot entry keyed by the CRC64 of their upper case sequence.
+ * It is built once per uniprot entry and gives the transcripts having an exact sequence without comparing all the sequences.
+ *
+ * @version $Id$
+ */
+public class TranscriptSequenceIndex {
+
+    private UniprotProtein uniprotProtein;
+
+    /**
+     * The upper case canonical sequence of the uniprot entry
+     */
+    private String canonicalSequence;
+
+    /**
+     * The transcripts per CRC64 of their upper case sequence, in the order of the uniprot entry (isoforms first, then feature chains)
+     */
+    private Map<String, List<UniprotProteinTranscript>> transcriptsPerCrc64;
+
+    public TranscriptSequenceIndex(UniprotProtein uniprotProtein){
+        if (uniprotProtein == null){
+            throw new IllegalArgumentException("The uniprot entry to index cannot be null");
+        }
+        this.uniprotProtein = uniprotProtein;
+        this.canonicalSequence = uniprotProtein.getSequence() != null ? uniprotProtein.getSequence().toUpperCase() : null;
+
+        Collection<UniprotProteinTranscript> proteinTranscripts = new ArrayList<>(uniprotProtein.getSpliceVariants().size() + uniprotProtein.getFeatureChains().size());
+        proteinTranscripts.addAll(uniprotProtein.getSpliceVariants());
+        proteinTranscripts.addAll(uniprotProtein.getFeatureChains());
+
+        this.transcriptsPerCrc64 = new HashMap<>(proteinTranscripts.size());
+
+        for (UniprotProteinTranscript pt : proteinTranscripts){
+            if (pt.getSequence() != null){
+                String crc64 = SequenceCrc64.getCrc64(pt.getSequence().toUpperCase());
+
+                List<UniprotProteinTranscript> transcripts = transcriptsPerCrc64.get(crc64);
+                if (transcripts == null){
+                    transcripts = new ArrayList<>(1);
+                    transcriptsPerCrc64.put(crc64, transcripts);
+                }
+                transcripts.add(pt);
+            }
+        }
+    }
+
+    /**
+     *
+     * @return the indexed uniprot entry
+     */
+    public UniprotProtein getUniprotProtein() {
+        return uniprotProtein;
+    }
+
+    /**
+     *
+     * @param sequence : the protein sequence to look for
+     * @return the first UniprotProteinTranscript with the exact same sequence (case insensitive), null if the sequence is the canonical sequence
+     * or if no protein transcript has this sequence
+     */
+    public UniprotProteinTranscript findTranscriptWithIdenticalSequence(String sequence){
+        if (sequence == null || transcriptsPerCrc64.isEmpty()){
+            return null;
+        }
+
+        String upperSequence = sequence.toUpperCase();
+
+        if (upperSequence.equals(canonicalSequence)){
+            return null;
+        }
+
+        List<UniprotProteinTranscript> candidates = transcriptsPerCrc64.get(SequenceCrc64.getCrc64(upperSequence));
+
+        if (candidates != null){
+            // the sequences are still compared in case of CRC64 collision
+            for (UniprotProteinTranscript pt : candidates){
+                if (upperSequence.equalsIgnoreCase(pt.getSequence())){
+                    return pt;
+                }
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,39 @@
+package uk.ac.ebi.intact.dbupdate.prot.report;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * ReportWriter which keeps the lines in its buffer until the end of the chunk of proteins.
+ *
+ * The ReportWriterListener flushes the writers after each event : these flushes are ignored and the lines of the chunk
+ * are written in a few large writes when the report handler is flushed at the end of the chunk.
+ *
+ * @version $Id$
+ */
+public class BufferedReportWriter extends ReportWriterImpl {
+
+    /**
+     *
+     * @param writer : a buffered writer
+     */
+    public BufferedReportWriter(Writer writer) {
+        super(writer);
+    }
+
+    /**
+     * The lines are only flushed at the end of the chunk
+     */
+    @Override
+    public void flush() {
+        // nothing
+    }
+
+    /**
+     * Writes the lines in the buffer
+     * @throws IOException
+     */
+    public void flushBuffer() throws IOException {
+        getWriter().flush();
+    }
+}
@@ -1,8 +1,8 @@
 package uk.ac.ebi.intact.dbupdate.prot.report;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The handler containing the possible writers for a protein update
@@ -32,7 +32,40 @@ public class FileReportHandler implements UpdateReportHandler{
     private final ReportWriter sequenceChangedCautionWriter;
     private final ReportWriter deletedComponentWriter;
 
+    /**
+     * The size of the buffers of the report files used by the update applications, in characters
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 128 * 1024;
+
+    private final ReportCompression compression;
+    private final int bufferSize;
+
+    /**
+     * The writers flushed at the end of each chunk, empty if the writers flush each event
+     */
+    private final List<BufferedReportWriter> bufferedWriters = new ArrayList<BufferedReportWriter>();
+
+    /**
+     * Creates the report files in a directory. The writers flush each event, without compression.
+     * @param dirFile : the directory of the report files
+     * @throws IOException
+     */
     public FileReportHandler(File dirFile) throws IOException {
+        this(dirFile, ReportCompression.none, 0);
+    }
+
+    /**
+     * Creates the report files in a directory
+     * @param dirFile : the directory of the report files
+     * @param compression : the compression of the report files
+     * @param bufferSize : the size of the buffer of each report file in characters. If 0, the writers flush each event,
+     * otherwise the lines are only written when the buffer is full or when the handler is flushed at the end of each chunk.
+     * @throws IOException
+     */
+    public FileReportHandler(File dirFile, ReportCompression compression, int bufferSize) throws IOException {
+        this.compression = compression;
+        this.bufferSize = bufferSize;
+
         if (!dirFile.exists()) {
             dirFile.mkdirs();
         }
@@ -40,25 +73,67 @@ public class FileReportHandler implements UpdateReportHandler{
             throw new IOException("The file passed to the constructor has to be a directory: "+dirFile);
         }
 
-        this.duplicatesWriter = new ReportWriterImpl(new FileWriter(new File(dirFile, "duplicates.csv")));
-        this.deletedWriter = new ReportWriterImpl(new FileWriter(new File(dirFile, "deleted.csv")));
-        this.createdWriter = new ReportWriterImpl(new FileWriter(new File(dirFile, "created.csv")));
-        this.nonUniprotProteinWriter = new ReportWriterImpl(new FileWriter(new File(dirFile, "non_uniprot.csv")));
-        this.updateCasesWriter = new ReportWriterImpl(new FileWriter(new File(dirFile, "update_cases.csv")));
-        this.sequenceChangedWriter = new ReportWriterImpl(new FileWriter(new File(dirFile, "sequence_changed.fasta")));
-        this.rangeChangedWriter = new ReportWriterImpl(new FileWriter(new File(dirFile, "range_changed.csv")));
-        this.featureChangedWriter = new ReportWriterImpl(new FileWriter(new File(dirFile, "feature_changed.csv")));
-        this.invalidRangeWriter = new ReportWriterImpl(new FileWriter(new File(dirFile, "invalid_range.csv")));
-        this.outOfDateRangeWriter = new ReportWriterImpl(new FileWriter(new File(dirFile, "out_of_date_range.csv")));
-        this.deadProteinWriter = new ReportWriterImpl(new FileWriter(new File(dirFile, "dead_proteins.csv")));
-        this.outOfDateParticipantWriter = new ReportWriterImpl(new FileWriter(new File(dirFile, "out_of_date_participants.csv")));
-        this.preprocessErrorWriter = new ReportWriterImpl(new FileWriter(new File(dirFile, "process_errors.csv")));
-        this.secondaryProteinsWriter = new ReportWriterImpl(new FileWriter(new File(dirFile, "secondary_proteins.csv")));
-        this.transcriptWithSameSequenceWriter = new ReportWriterImpl(new FileWriter(new File(dirFile, "transcript_same_sequence.csv")));
-        this.updatedIntactParentWriter = new ReportWriterImpl(new FileWriter(new File(dirFile, "updated_intact_parents.csv")));
-        this.proteinMappingWriter = new ReportWriterImpl(new FileWriter(new File(dirFile, "protein_mapping.csv")));
-        this.sequenceChangedCautionWriter = new ReportWriterImpl(new FileWriter(new File(dirFile, "sequence_changed_caution.csv")));
-        this.deletedComponentWriter = new ReportWriterImpl(new FileWriter(new File(dirFile, "deleted_component.csv")));
+        this.duplicatesWriter = createWriter(dirFile, "duplicates.csv");
+        this.deletedWriter = createWriter(dirFile, "deleted.csv");
+        this.createdWriter = createWriter(dirFile, "created.csv");
+        this.nonUniprotProteinWriter = createWriter(dirFile, "non_uniprot.csv");
+        this.updateCasesWriter = createWriter(dirFile, "update_cases.csv");
+        this.sequenceChangedWriter = createWriter(dirFile, "sequence_changed.fasta");
+        this.rangeChangedWriter = createWriter(dirFile, "range_changed.csv");
+        this.featureChangedWriter = createWriter(dirFile, "feature_changed.csv");
+        this.invalidRangeWriter = createWriter(dirFile, "invalid_range.csv");
+        this.outOfDateRangeWriter = createWriter(dirFile, "out_of_date_range.csv");
+        this.deadProteinWriter = createWriter(dirFile, "dead_proteins.csv");
+        this.outOfDateParticipantWriter = createWriter(dirFile, "out_of_date_participants.csv");
+        this.preprocessErrorWriter = createWriter(dirFile, "process_errors.csv");
+        this.secondaryProteinsWriter = createWriter(dirFile, "secondary_proteins.csv");
+        this.transcriptWithSameSequenceWriter = createWriter(dirFile, "transcript_same_sequence.csv");
+        this.updatedIntactParentWriter = createWriter(dirFile, "updated_intact_parents.csv");
+        this.proteinMappingWriter = createWriter(dirFile, "protein_mapping.csv");
+        this.sequenceChangedCautionWriter = createWriter(dirFile, "sequence_changed_caution.csv");
+        this.deletedComponentWriter = createWriter(dirFile, "deleted_component.csv");
+    }
+
+    /**
+     * Opens a report file
+     * @param dirFile : the directory of the report files
+     * @param fileName : the name of the report file, without the extension of the compression
+     * @return the writer of the report file
+     * @throws IOException
+     */
+    private ReportWriter createWriter(File dirFile, String fileName) throws IOException {
+        File file = new File(dirFile, fileName + compression.getExtension());
+
+        if (bufferSize <= 0) {
+            if (compression == ReportCompression.none) {
+                return new ReportWriterImpl(new FileWriter(file));
+            }
+            return new ReportWriterImpl(new OutputStreamWriter(compression.compress(new FileOutputStream(file), 8192)));
+        }
+
+        OutputStream output = compression.compress(new BufferedOutputStream(new FileOutputStream(file), bufferSize), bufferSize);
+        BufferedReportWriter writer = new BufferedReportWriter(new BufferedWriter(new OutputStreamWriter(output), bufferSize));
+        bufferedWriters.add(writer);
+
+        return writer;
+    }
+
+    /**
+     * Writes the lines kept in the buffers of the report files. The protein update flushes the handler at the end of each chunk.
+     * @throws IOException
+     */
+    public void flush() throws IOException {
+        for (BufferedReportWriter writer : bufferedWriters) {
+            writer.flushBuffer();
+        }
+    }
+
+    public ReportCompression getCompression() {
+        return compression;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
     }
 
     public ReportWriter getDuplicatedWriter() {
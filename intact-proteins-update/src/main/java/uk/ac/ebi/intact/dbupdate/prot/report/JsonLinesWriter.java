@@ -0,0 +1,274 @@
+package uk.ac.ebi.intact.dbupdate.prot.report;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming writer of JSON Lines records : each record is a JSON object written on a single line.
+ *
+ * The names and values are escaped and written in the buffer of the current record, without building intermediate strings.
+ * The record is only written once endRecord() has been called : a record which is not ended (because of an error while writing it)
+ * is discarded. The writer is not thread safe and the records written by several threads must be synchronized on the writer.
+ *
+ * @version $Id$
+ */
+public class JsonLinesWriter implements Flushable, Closeable {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int MAX_DEPTH = 32;
+
+    private final Writer writer;
+
+    /**
+     * The current record, written to the writer when it is ended
+     */
+    private final CharArrayWriter record = new CharArrayWriter(1024);
+
+    /**
+     * For each level of the current record, true if a value has already been written at this level
+     */
+    private final boolean[] hasValue = new boolean[MAX_DEPTH];
+    private int depth = 0;
+
+    /**
+     * Buffer for the digits of the numbers
+     */
+    private final char[] digits = new char[20];
+
+    /**
+     *
+     * @param writer : the writer of the records
+     */
+    public JsonLinesWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Creates a JSON Lines file, encoded in UTF-8
+     * @param file : the JSON Lines file. The extension of the compression is added to its name
+     * @param compression : the compression of the file
+     * @param bufferSize : the size of the buffer of the file, in characters
+     * @throws IOException
+     */
+    public JsonLinesWriter(File file, ReportCompression compression, int bufferSize) throws IOException {
+        this(createWriter(file, compression, bufferSize));
+    }
+
+    private static Writer createWriter(File file, ReportCompression compression, int bufferSize) throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+
+        OutputStream output = compression.compress(new FileOutputStream(file.getPath() + compression.getExtension()), 8192);
+        return new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), bufferSize);
+    }
+
+    /**
+     * Begins a record. If the previous record has not been ended (because of an error while writing it), it is discarded.
+     */
+    public JsonLinesWriter beginRecord() throws IOException {
+        record.reset();
+        record.write('{');
+        depth = 1;
+        hasValue[depth] = false;
+        return this;
+    }
+
+    public JsonLinesWriter endRecord() throws IOException {
+        if (depth != 1) {
+            throw new IllegalStateException("The record contains an object or an array which has not been ended");
+        }
+        record.write('}');
+        record.write('\n');
+        depth = 0;
+
+        record.writeTo(writer);
+        record.reset();
+        return this;
+    }
+
+    public JsonLinesWriter beginObject(String name) throws IOException {
+        name(name);
+        return open('{');
+    }
+
+    /**
+     * Begins an object in an array
+     */
+    public JsonLinesWriter beginObject() throws IOException {
+        separator();
+        return open('{');
+    }
+
+    public JsonLinesWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    public JsonLinesWriter beginArray(String name) throws IOException {
+        name(name);
+        return open('[');
+    }
+
+    public JsonLinesWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    /**
+     * Writes a field with a string value, null if the value is null
+     */
+    public JsonLinesWriter field(String name, CharSequence value) throws IOException {
+        name(name);
+        string(value);
+        return this;
+    }
+
+    public JsonLinesWriter field(String name, long value) throws IOException {
+        name(name);
+        number(value);
+        return this;
+    }
+
+    /**
+     * Writes a field with a decimal value, null if the value is NaN or infinite
+     */
+    public JsonLinesWriter field(String name, double value) throws IOException {
+        name(name);
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            record.write("null");
+        } else if (value == (long) value) {
+            number((long) value);
+        } else {
+            record.write(Double.toString(value));
+        }
+        return this;
+    }
+
+    public JsonLinesWriter field(String name, boolean value) throws IOException {
+        name(name);
+        record.write(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Writes a string value in an array, null if the value is null
+     */
+    public JsonLinesWriter value(CharSequence value) throws IOException {
+        separator();
+        string(value);
+        return this;
+    }
+
+    /**
+     * Writes a number in an array
+     */
+    public JsonLinesWriter value(long value) throws IOException {
+        separator();
+        number(value);
+        return this;
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private JsonLinesWriter open(char bracket) throws IOException {
+        if (depth + 1 >= MAX_DEPTH) {
+            throw new IllegalStateException("The record cannot contain more than " + (MAX_DEPTH - 2) + " nested objects or arrays");
+        }
+        record.write(bracket);
+        hasValue[++depth] = false;
+        return this;
+    }
+
+    private JsonLinesWriter close(char bracket) throws IOException {
+        if (depth <= 1) {
+            throw new IllegalStateException("There is no object or array to end");
+        }
+        record.write(bracket);
+        depth--;
+        return this;
+    }
+
+    private void separator() throws IOException {
+        if (depth == 0) {
+            throw new IllegalStateException("The record has not been begun");
+        }
+        if (hasValue[depth]) {
+            record.write(',');
+        }
+        hasValue[depth] = true;
+    }
+
+    private void name(String name) throws IOException {
+        separator();
+        string(name);
+        record.write(':');
+    }
+
+    private void string(CharSequence value) throws IOException {
+        if (value == null) {
+            record.write("null");
+            return;
+        }
+
+        record.write('"');
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+
+            switch (c) {
+                case '"':
+                    record.write("\\\"");
+                    break;
+                case '\\':
+                    record.write("\\\\");
+                    break;
+                case '\n':
+                    record.write("\\n");
+                    break;
+                case '\r':
+                    record.write("\\r");
+                    break;
+                case '\t':
+                    record.write("\\t");
+                    break;
+                default:
+                    // the other control characters and the line separators of javascript
+                    if (c < 0x20 || c == 0x2028 || c == 0x2029) {
+                        record.write("\\u");
+                        record.write(HEX[(c >> 12) & 0xF]);
+                        record.write(HEX[(c >> 8) & 0xF]);
+                        record.write(HEX[(c >> 4) & 0xF]);
+                        record.write(HEX[c & 0xF]);
+                    } else {
+                        record.write(c);
+                    }
+            }
+        }
+        record.write('"');
+    }
+
+    private void number(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            record.write("-9223372036854775808");
+            return;
+        }
+        if (value < 0) {
+            record.write('-');
+            value = -value;
+        }
+
+        int start = digits.length;
+        do {
+            digits[--start] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+
+        record.write(digits, start, digits.length - start);
+    }
+}
@@ -0,0 +1,49 @@
+package uk.ac.ebi.intact.dbupdate.prot.report;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The compression of the report files of a protein update
+ *
+ * @version $Id$
+ */
+public enum ReportCompression {
+
+    none(""),
+
+    /**
+     * The compressed stream is flushed with SYNC_FLUSH : what has been flushed can be read with zcat while the file is written
+     */
+    gzip(".gz");
+
+    private final String extension;
+
+    ReportCompression(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     *
+     * @return the extension added to the name of the report files
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * @param output : the stream of the report file
+     * @param bufferSize : the size of the buffer of the compressor
+     * @return the stream compressing the report
+     * @throws IOException
+     */
+    public OutputStream compress(OutputStream output, int bufferSize) throws IOException {
+        switch (this) {
+            case gzip:
+                return new GZIPOutputStream(output, bufferSize, true);
+            default:
+                return output;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package uk.ac.ebi.intact.dbupdate.prot.report;
+
+/**
+ * The reports written by a protein update application : the text report files, the JSON Lines event report or both
+ *
+ * @version $Id$
+ */
+public enum ReportFormat {
+
+    text, json, both;
+
+    /**
+     * The name of the JSON Lines event report, in the directory of the report files
+     */
+    public static final String EVENT_REPORT_FILE_NAME = "events.jsonl";
+
+    public boolean isText() {
+        return this != json;
+    }
+
+    public boolean isJson() {
+        return this != text;
+    }
+}
@@ -0,0 +1,58 @@
+package uk.ac.ebi.intact.dbupdate.prot.report;
+
+import java.io.IOException;
+
+/**
+ * A line of a report, appended directly in the buffer of its ReportWriter.
+ *
+ * The line is reused by the writer for all its lines : it must be ended before the next line is begun and must not be kept.
+ * The values are appended to the current column, a new column is begun with column().
+ *
+ * @version $Id$
+ */
+public interface ReportLine extends Appendable {
+
+    /**
+     * Begins a new column. The column separator is written before all the columns but the first.
+     * @throws IllegalArgumentException if the line already has the number of columns of the header
+     */
+    ReportLine column() throws IOException;
+
+    /**
+     * Begins a new column containing the value ("null" if the value is null)
+     */
+    ReportLine column(CharSequence value) throws IOException;
+
+    ReportLine append(CharSequence value) throws IOException;
+
+    ReportLine append(CharSequence value, int start, int end) throws IOException;
+
+    ReportLine append(char c) throws IOException;
+
+    ReportLine append(long value) throws IOException;
+
+    ReportLine append(double value) throws IOException;
+
+    ReportLine append(boolean value) throws IOException;
+
+    /**
+     * Appends a sequence and inserts the line separator after each full line of maxLineLength characters
+     */
+    default ReportLine appendLines(CharSequence value, int maxLineLength, String lineSeparator) throws IOException {
+        for (int start = 0; start < value.length(); start += maxLineLength) {
+            int end = Math.min(start + maxLineLength, value.length());
+            append(value, start, end);
+
+            if (end - start == maxLineLength) {
+                append(lineSeparator);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Ends the line
+     * @throws IllegalArgumentException if the number of columns is not the number of columns of the header
+     */
+    void end() throws IOException;
+}
@@ -0,0 +1,145 @@
+package uk.ac.ebi.intact.dbupdate.prot.report;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Merges the report files written by several workers in their own shard directory into the consolidated report files.
+ *
+ * The shards are merged in the natural order of their names (shard-2 before shard-10) and the lines of each shard keep their order,
+ * so the merge is deterministic. The header of each report file is only kept once, at the top of the consolidated file.
+ *
+ * @version $Id$
+ */
+public class ReportShardMerger {
+
+    private static final String NEW_LINE = System.getProperty("line.separator");
+    private static final char HEADER_CHAR = '#';
+
+    /**
+     * Orders the names with the numbers they contain in numerical order
+     */
+    public static final Comparator<String> NATURAL_ORDER = (name1, name2) -> {
+        int i1 = 0;
+        int i2 = 0;
+
+        while (i1 < name1.length() && i2 < name2.length()) {
+            char c1 = name1.charAt(i1);
+            char c2 = name2.charAt(i2);
+
+            if (Character.isDigit(c1) && Character.isDigit(c2)) {
+                int end1 = i1;
+                while (end1 < name1.length() && Character.isDigit(name1.charAt(end1))) {
+                    end1++;
+                }
+                int end2 = i2;
+                while (end2 < name2.length() && Character.isDigit(name2.charAt(end2))) {
+                    end2++;
+                }
+
+                String number1 = name1.substring(i1, end1).replaceFirst("^0+(?=.)", "");
+                String number2 = name2.substring(i2, end2).replaceFirst("^0+(?=.)", "");
+
+                int comparison = number1.length() != number2.length() ? number1.length() - number2.length() : number1.compareTo(number2);
+                if (comparison != 0) {
+                    return comparison;
+                }
+                i1 = end1;
+                i2 = end2;
+            } else {
+                if (c1 != c2) {
+                    return c1 - c2;
+                }
+                i1++;
+                i2++;
+            }
+        }
+        return (name1.length() - i1) - (name2.length() - i2);
+    };
+
+    private final ReportCompression compression;
+
+    /**
+     *
+     * @param compression : the compression of the shard files and of the consolidated files
+     */
+    public ReportShardMerger(ReportCompression compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * Merges the report files of the shards
+     * @param shardDirs : the directories of the shards
+     * @param outputDir : the directory of the consolidated report files
+     * @return the number of consolidated report files
+     * @throws IOException
+     */
+    public int merge(Collection<File> shardDirs, File outputDir) throws IOException {
+        List<File> orderedShardDirs = new ArrayList<File>(shardDirs);
+        orderedShardDirs.sort((dir1, dir2) -> NATURAL_ORDER.compare(dir1.getName(), dir2.getName()));
+
+        // all the report files of all the shards
+        Set<String> fileNames = new TreeSet<String>();
+        for (File shardDir : orderedShardDirs) {
+            File[] files = shardDir.listFiles(File::isFile);
+            if (files != null) {
+                for (File file : files) {
+                    fileNames.add(file.getName());
+                }
+            }
+        }
+
+        if (!outputDir.exists()) {
+            outputDir.mkdirs();
+        }
+
+        for (String fileName : fileNames) {
+            mergeFile(orderedShardDirs, fileName, new File(outputDir, fileName));
+        }
+        return fileNames.size();
+    }
+
+    private void mergeFile(List<File> shardDirs, String fileName, File mergedFile) throws IOException {
+        boolean headerWritten = false;
+        char[] buffer = new char[8192];
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(compression.compress(new FileOutputStream(mergedFile), 8192)), 65536)) {
+            for (File shardDir : shardDirs) {
+                File shardFile = new File(shardDir, fileName);
+                if (!shardFile.exists()) {
+                    continue;
+                }
+
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(open(shardFile)))) {
+                    String firstLine = reader.readLine();
+                    if (firstLine == null) {
+                        continue;
+                    }
+
+                    // the header of the report file is only kept for the first shard
+                    if (firstLine.length() > 0 && firstLine.charAt(0) == HEADER_CHAR) {
+                        if (!headerWritten) {
+                            writer.write(firstLine);
+                            writer.write(NEW_LINE);
+                            headerWritten = true;
+                        }
+                    } else {
+                        writer.write(firstLine);
+                        writer.write(NEW_LINE);
+                    }
+
+                    int read;
+                    while ((read = reader.read(buffer)) != -1) {
+                        writer.write(buffer, 0, read);
+                    }
+                }
+            }
+        }
+    }
+
+    private InputStream open(File shardFile) throws IOException {
+        InputStream input = new BufferedInputStream(new FileInputStream(shardFile));
+        return compression == ReportCompression.gzip ? new GZIPInputStream(input) : input;
+    }
+}
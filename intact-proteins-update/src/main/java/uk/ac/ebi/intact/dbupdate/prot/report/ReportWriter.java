@@ -16,4 +16,11 @@ public interface ReportWriter extends Flushable, Closeable{
     void writeColumnValues(String ... colValues) throws IOException;
 
     void writeLine(String str) throws IOException;
+
+    /**
+     * Begins a line whose values are appended directly in the writer, without building the line in a String first
+     * @return the line, reused for each line of the writer
+     * @throws IOException
+     */
+    ReportLine beginLine() throws IOException;
 }
@@ -6,6 +6,8 @@ import java.io.Writer;
 /**
  * Writer decorator, to allow methods to write column-formatted data.
  *
+ * The lines are appended directly in the writer through a ReportLine reused for all the lines of the report.
+ *
  * @author Bruno Aranda (baranda@ebi.ac.uk)
  * @version $Id$
  */
@@ -15,7 +17,9 @@ public class ReportWriterImpl implements ReportWriter {
     private boolean isContentWritten;
     private int headerCols;
 
-    private static final String COL_SEPARATOR = "\t";
+    private final Line line = new Line();
+
+    private static final char COL_SEPARATOR = '\t';
     private static final String NEW_LINE = System.getProperty("line.separator");
     private static final char HEADER_CHAR = '#';
 
@@ -37,24 +41,30 @@ public class ReportWriterImpl implements ReportWriter {
             throw new IllegalArgumentException("Unexpected number of values, as the header contains "+headerCols+" columns and the values provided were: "+colValues.length);
         }
 
-        StringBuilder sb = new StringBuilder();
+        ReportLine columns = beginLine();
 
-        for (int i=0; i<colValues.length; i++) {
-            if (i > 0) {
-                sb.append(COL_SEPARATOR);
-            }
-            sb.append(colValues[i]);
+        for (String value : colValues) {
+            columns.column(value);
         }
 
-        sb.append(NEW_LINE);
-
-        getWriter().write(sb.toString());
-
-        isContentWritten = true;
+        columns.end();
     }
 
     public void writeLine(String str) throws IOException {
-        getWriter().write(str+NEW_LINE);
+        getWriter().write(str);
+        getWriter().write(NEW_LINE);
+    }
+
+    /**
+     * Begins a line. If the previous line has not been ended (because of an error while it was written), it is ended first.
+     */
+    public ReportLine beginLine() throws IOException {
+        if (line.open) {
+            getWriter().write(NEW_LINE);
+        }
+        line.open = true;
+        line.columns = 0;
+        return line;
     }
 
     public Writer getWriter() {
@@ -68,4 +78,118 @@ public class ReportWriterImpl implements ReportWriter {
     public void close() throws IOException {
         getWriter().close();
     }
-}
\ No newline at end of file
+
+    /**
+     * The line appended in the writer
+     */
+    private final class Line implements ReportLine {
+
+        private boolean open;
+        private int columns;
+
+        /**
+         * Buffer for the digits of the numbers
+         */
+        private final char[] digits = new char[20];
+
+        /**
+         * Buffer for the characters of the sequences which are not strings
+         */
+        private final char[] chars = new char[256];
+
+        public ReportLine column() throws IOException {
+            if (headerCols > 0 && columns == headerCols) {
+                throw new IllegalArgumentException("Unexpected number of values, as the header contains "+headerCols+" columns and more values were provided");
+            }
+            if (columns > 0) {
+                writer.write(COL_SEPARATOR);
+            }
+            columns++;
+            return this;
+        }
+
+        public ReportLine column(CharSequence value) throws IOException {
+            return column().append(value);
+        }
+
+        public ReportLine append(CharSequence value) throws IOException {
+            if (value instanceof String) {
+                writer.write((String) value);
+            } else if (value == null) {
+                writer.write("null");
+            } else {
+                append(value, 0, value.length());
+            }
+            return this;
+        }
+
+        /**
+         * The characters are copied through the chars buffer : Writer.append would convert the sequence in a String
+         */
+        public ReportLine append(CharSequence value, int start, int end) throws IOException {
+            if (value == null) {
+                return append("null", start, end);
+            }
+            if (value instanceof String) {
+                writer.write((String) value, start, end - start);
+                return this;
+            }
+
+            while (start < end) {
+                int length = Math.min(chars.length, end - start);
+                for (int i = 0; i < length; i++) {
+                    chars[i] = value.charAt(start + i);
+                }
+                writer.write(chars, 0, length);
+                start += length;
+            }
+            return this;
+        }
+
+        public ReportLine append(char c) throws IOException {
+            writer.write(c);
+            return this;
+        }
+
+        public ReportLine append(long value) throws IOException {
+            if (value == Long.MIN_VALUE) {
+                writer.write(Long.toString(value));
+                return this;
+            }
+            if (value < 0) {
+                writer.write('-');
+                value = -value;
+            }
+
+            int start = digits.length;
+            do {
+                digits[--start] = (char) ('0' + value % 10);
+                value /= 10;
+            } while (value != 0);
+
+            writer.write(digits, start, digits.length - start);
+            return this;
+        }
+
+        public ReportLine append(double value) throws IOException {
+            writer.write(Double.toString(value));
+            return this;
+        }
+
+        public ReportLine append(boolean value) throws IOException {
+            writer.write(value ? "true" : "false");
+            return this;
+        }
+
+        public void end() throws IOException {
+            // the line is not ended if it misses columns, it is ended by the next line like a line interrupted by an error
+            if (headerCols > 0 && columns != headerCols) {
+                throw new IllegalArgumentException("Unexpected number of values, as the header contains "+headerCols+" columns and the values provided were: "+columns);
+            }
+
+            writer.write(NEW_LINE);
+            open = false;
+            isContentWritten = true;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package uk.ac.ebi.intact.dbupdate.prot.report;
+
+import uk.ac.ebi.intact.dbupdate.prot.ProcessorException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Report handler shared by several workers updating proteins concurrently.
+ *
+ * Each worker thread writes its own report files in a shard directory, so the workers never share a writer and don't need any lock.
+ * At the end of the run, merge() produces the same consolidated report files as a FileReportHandler.
+ *
+ * A worker should open its shard with a stable name (for instance the index of its partition) before writing : the shards are merged
+ * in the order of their names. Without a name, the shard of a thread is named after the thread id.
+ *
+ * @version $Id$
+ */
+public class ShardedReportHandler implements UpdateReportHandler {
+
+    /**
+     * The directory of the shards, in the directory of the consolidated report files
+     */
+    public static final String SHARDS_DIRECTORY = "shards";
+
+    private final File dirFile;
+    private final File shardsDir;
+    private final ReportCompression compression;
+    private final int bufferSize;
+
+    /**
+     * All the shards opened during the run, by name
+     */
+    private final Map<String, FileReportHandler> shards = new ConcurrentHashMap<String, FileReportHandler>();
+
+    /**
+     * The shard of each worker thread
+     */
+    private final ThreadLocal<FileReportHandler> currentShard = new ThreadLocal<FileReportHandler>();
+
+    /**
+     *
+     * @param dirFile : the directory of the consolidated report files
+     * @param compression : the compression of the report files
+     * @param bufferSize : the size of the buffer of each report file (see FileReportHandler)
+     * @throws IOException
+     */
+    public ShardedReportHandler(File dirFile, ReportCompression compression, int bufferSize) throws IOException {
+        this.dirFile = dirFile;
+        this.shardsDir = new File(dirFile, SHARDS_DIRECTORY);
+        this.compression = compression;
+        this.bufferSize = bufferSize;
+
+        if (!shardsDir.exists()) {
+            shardsDir.mkdirs();
+        }
+        if (!shardsDir.isDirectory()) {
+            throw new IOException("The shards of the report files cannot be created in " + shardsDir);
+        }
+    }
+
+    /**
+     * Opens the shard of the current thread
+     * @param shardName : the name of the shard, unique among the workers
+     * @throws IOException if the report files of the shard cannot be created
+     * @throws IllegalStateException if the shard has already been opened
+     */
+    public void openShard(String shardName) throws IOException {
+        String directoryName = shardName.replaceAll("[^A-Za-z0-9_.-]", "_");
+
+        if (shards.containsKey(directoryName)) {
+            throw new IllegalStateException("The report shard " + directoryName + " has already been opened");
+        }
+
+        FileReportHandler shard = new FileReportHandler(new File(shardsDir, directoryName), compression, bufferSize);
+        if (shards.putIfAbsent(directoryName, shard) != null) {
+            shard.close();
+            throw new IllegalStateException("The report shard " + directoryName + " has already been opened");
+        }
+
+        currentShard.set(shard);
+    }
+
+    /**
+     *
+     * @return the shard of the current thread, opened if necessary
+     */
+    private FileReportHandler getShard() {
+        FileReportHandler shard = currentShard.get();
+
+        if (shard == null) {
+            try {
+                openShard("thread-" + Thread.currentThread().getId());
+            } catch (IOException e) {
+                throw new ProcessorException("Impossible to create the report shard of the thread " + Thread.currentThread().getName(), e);
+            }
+            shard = currentShard.get();
+        }
+        return shard;
+    }
+
+    /**
+     * Flushes the shard of the current thread
+     * @throws IOException
+     */
+    public void flush() throws IOException {
+        FileReportHandler shard = currentShard.get();
+
+        if (shard != null) {
+            shard.flush();
+        }
+    }
+
+    /**
+     * Closes the shard of the current thread. The shards of the other workers are still open.
+     * @throws IOException
+     */
+    public void close() throws IOException {
+        FileReportHandler shard = currentShard.get();
+
+        if (shard != null) {
+            currentShard.remove();
+            shard.close();
+        }
+    }
+
+    /**
+     * Closes all the shards and merges them in the consolidated report files. All the workers must have finished.
+     * @param deleteShards : if true, the shard directories are deleted once merged
+     * @throws IOException
+     */
+    public void merge(boolean deleteShards) throws IOException {
+        List<File> shardDirs = new ArrayList<File>();
+
+        for (Map.Entry<String, FileReportHandler> shard : shards.entrySet()) {
+            // closing a shard already closed by its worker has no effect
+            shard.getValue().close();
+            shardDirs.add(new File(shardsDir, shard.getKey()));
+        }
+        currentShard.remove();
+
+        new ReportShardMerger(compression).merge(shardDirs, dirFile);
+
+        if (deleteShards) {
+            for (File shardDir : shardDirs) {
+                File[] files = shardDir.listFiles();
+                if (files != null) {
+                    for (File file : files) {
+                        file.delete();
+                    }
+                }
+                shardDir.delete();
+            }
+            shardsDir.delete();
+        }
+    }
+
+    public List<String> getShardNames() {
+        List<String> shardNames = new ArrayList<String>(shards.keySet());
+        shardNames.sort(ReportShardMerger.NATURAL_ORDER);
+        return shardNames;
+    }
+
+    public ReportWriter getDuplicatedWriter() {
+        return getShard().getDuplicatedWriter();
+    }
+
+    public ReportWriter getDeletedWriter() {
+        return getShard().getDeletedWriter();
+    }
+
+    public ReportWriter getCreatedWriter() {
+        return getShard().getCreatedWriter();
+    }
+
+    public ReportWriter getNonUniprotProteinWriter() {
+        return getShard().getNonUniprotProteinWriter();
+    }
+
+    public ReportWriter getUpdateCasesWriter() {
+        return getShard().getUpdateCasesWriter();
+    }
+
+    public ReportWriter getSequenceChangedWriter() {
+        return getShard().getSequenceChangedWriter();
+    }
+
+    public ReportWriter getRangeChangedWriter() {
+        return getShard().getRangeChangedWriter();
+    }
+
+    public ReportWriter getFeatureChangedWriter() {
+        return getShard().getFeatureChangedWriter();
+    }
+
+    public ReportWriter getInvalidRangeWriter() {
+        return getShard().getInvalidRangeWriter();
+    }
+
+    public ReportWriter getDeadProteinWriter() {
+        return getShard().getDeadProteinWriter();
+    }
+
+    public ReportWriter getOutOfDateParticipantWriter() {
+        return getShard().getOutOfDateParticipantWriter();
+    }
+
+    public ReportWriter getPreProcessErrorWriter() {
+        return getShard().getPreProcessErrorWriter();
+    }
+
+    public ReportWriter getSecondaryProteinsWriter() {
+        return getShard().getSecondaryProteinsWriter();
+    }
+
+    public ReportWriter getOutOfDateRangeWriter() {
+        return getShard().getOutOfDateRangeWriter();
+    }
+
+    public ReportWriter getTranscriptWithSameSequenceWriter() {
+        return getShard().getTranscriptWithSameSequenceWriter();
+    }
+
+    public ReportWriter getIntactParentWriter() {
+        return getShard().getIntactParentWriter();
+    }
+
+    public ReportWriter getProteinMappingWriter() {
+        return getShard().getProteinMappingWriter();
+    }
+
+    public ReportWriter getSequenceChangedCautionWriter() {
+        return getShard().getSequenceChangedCautionWriter();
+    }
+
+    public ReportWriter getDeletedComponentWriter() {
+        return getShard().getDeletedComponentWriter();
+    }
+}
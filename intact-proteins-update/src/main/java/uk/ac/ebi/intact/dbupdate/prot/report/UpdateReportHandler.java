@@ -1,14 +1,16 @@
 package uk.ac.ebi.intact.dbupdate.prot.report;
 
 import java.io.Closeable;
+import java.io.Flushable;
 
 /**
  * Defines the ReportWriters available to a protein update process.
+ * The handler is flushed at the end of each chunk of proteins.
  *
  * @author Bruno Aranda (baranda@ebi.ac.uk)
  * @version $Id$
  */
-public interface UpdateReportHandler extends Closeable {
+public interface UpdateReportHandler extends Closeable, Flushable {
 
     ReportWriter getDuplicatedWriter();
     ReportWriter getDeletedWriter();
@@ -0,0 +1,185 @@
+package uk.ac.ebi.intact.dbupdate.prot.util;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Set of protein acs using a few bytes per ac.
+ *
+ * The acs made of a prefix and a number (EBI-12345) are kept as the number in an open addressing table of longs per prefix.
+ * The other acs are kept as strings.
+ *
+ * This class is not thread safe.
+ *
+ * @version $Id$
+ */
+public class CompactAcSet {
+
+    /**
+     * The numbers of the acs, per prefix
+     */
+    private final Map<String, LongHashSet> numbersPerPrefix = new HashMap<>();
+
+    /**
+     * The acs which are not a prefix followed by a number
+     */
+    private final Set<String> otherAcs = new HashSet<>();
+
+    private long size;
+
+    /**
+     *
+     * @param ac : the ac to add
+     * @return true if the ac was not in the set
+     */
+    public boolean add(String ac){
+        if (ac == null){
+            return false;
+        }
+
+        int separator = numberSeparator(ac);
+        boolean added;
+
+        if (separator > 0){
+            String prefix = ac.substring(0, separator);
+            LongHashSet numbers = numbersPerPrefix.get(prefix);
+
+            if (numbers == null){
+                numbers = new LongHashSet();
+                numbersPerPrefix.put(prefix, numbers);
+            }
+            added = numbers.add(Long.parseLong(ac.substring(separator)));
+        }
+        else {
+            added = otherAcs.add(ac);
+        }
+
+        if (added){
+            size++;
+        }
+        return added;
+    }
+
+    /**
+     *
+     * @param ac : the ac
+     * @return true if the ac is in the set
+     */
+    public boolean contains(String ac){
+        if (ac == null){
+            return false;
+        }
+
+        int separator = numberSeparator(ac);
+
+        if (separator > 0){
+            LongHashSet numbers = numbersPerPrefix.get(ac.substring(0, separator));
+            return numbers != null && numbers.contains(Long.parseLong(ac.substring(separator)));
+        }
+        return otherAcs.contains(ac);
+    }
+
+    public long size(){
+        return size;
+    }
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    /**
+     *
+     * @param ac : the ac
+     * @return the index of the first digit of the number following the prefix, -1 if the ac is not a prefix followed by a number
+     * which can be kept as a long without losing leading zeros
+     */
+    private static int numberSeparator(String ac){
+        int dash = ac.lastIndexOf('-');
+        int length = ac.length();
+
+        // at most 18 digits, without leading zero
+        if (dash <= 0 || dash == length - 1 || length - dash - 1 > 18 || ac.charAt(dash + 1) == '0'){
+            return -1;
+        }
+
+        for (int i = dash + 1; i < length; i++){
+            char c = ac.charAt(i);
+            if (c < '0' || c > '9'){
+                return -1;
+            }
+        }
+        return dash + 1;
+    }
+
+    /**
+     * Open addressing hash set of positive longs
+     */
+    private static class LongHashSet {
+
+        private static final long EMPTY = 0;
+
+        private long[] table = new long[64];
+        private int size;
+
+        boolean add(long value){
+            // 0 marks the empty slots, the values are stored shifted by one
+            long stored = value + 1;
+
+            if ((size + 1) * 4 > table.length * 3){
+                resize();
+            }
+
+            int mask = table.length - 1;
+            int index = hash(stored) & mask;
+
+            while (table[index] != EMPTY){
+                if (table[index] == stored){
+                    return false;
+                }
+                index = (index + 1) & mask;
+            }
+
+            table[index] = stored;
+            size++;
+            return true;
+        }
+
+        boolean contains(long value){
+            long stored = value + 1;
+            int mask = table.length - 1;
+            int index = hash(stored) & mask;
+
+            while (table[index] != EMPTY){
+                if (table[index] == stored){
+                    return true;
+                }
+                index = (index + 1) & mask;
+            }
+            return false;
+        }
+
+        private void resize(){
+            long[] oldTable = table;
+            table = new long[oldTable.length * 2];
+            int mask = table.length - 1;
+
+            for (long stored : oldTable){
+                if (stored != EMPTY){
+                    int index = hash(stored) & mask;
+
+                    while (table[index] != EMPTY){
+                        index = (index + 1) & mask;
+                    }
+                    table[index] = stored;
+                }
+            }
+        }
+
+        private static int hash(long value){
+            long h = value * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
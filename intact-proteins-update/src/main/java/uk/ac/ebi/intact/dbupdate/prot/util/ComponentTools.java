@@ -1,6 +1,7 @@
 package uk.ac.ebi.intact.dbupdate.prot.util;
 
 import org.apache.commons.collections.CollectionUtils;
+import org.hibernate.Session;
 import uk.ac.ebi.intact.core.context.DataContext;
 import uk.ac.ebi.intact.core.persistence.dao.AnnotationDao;
 import uk.ac.ebi.intact.core.persistence.dao.DaoFactory;
@@ -10,6 +11,9 @@ import uk.ac.ebi.intact.dbupdate.prot.event.DeletedComponentEvent;
 import uk.ac.ebi.intact.model.*;
 import uk.ac.ebi.intact.model.util.CvObjectUtils;
 
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
 import java.util.*;
 
 /**
@@ -348,4 +352,114 @@ public class ComponentTools {
         // all components minus the components which have been deleted
         return interactionAcs;
     }
-}
\ No newline at end of file
+
+    /**
+     * Move all the components from a source protein to a destination protein, except the components to keep on the source protein.
+     * The components which do not share their interaction with another component of the source or destination protein are moved with a single
+     * bulk update and the components already loaded in memory are re-attached to the destination protein without being flushed again.
+     * The other components are moved one by one (see moveComponents) because they can be duplicated participants.
+     * @param destinationProtein
+     * @param sourceProtein
+     * @param context
+     * @param processor
+     * @param componentsToKeep : the components which must stay attached to the source protein (range conflicts)
+     * @param uniprot
+     * @return the collection of interaction acs which have been moved from the source protein to the destination protein
+     */
+    public static Set<String> moveAllComponents(Protein destinationProtein, Protein sourceProtein, DataContext context, ProteinUpdateProcessor processor, Collection<Component> componentsToKeep, String uniprot) {
+
+        // the bulk update can only be done for persistent proteins
+        if (destinationProtein.getAc() == null || sourceProtein.getAc() == null){
+            Collection<Component> componentsToMove = CollectionUtils.subtract(sourceProtein.getActiveInstances(), componentsToKeep);
+            return moveComponents(destinationProtein, sourceProtein, context, processor, componentsToMove, uniprot);
+        }
+
+        EntityManager entityManager = context.getDaoFactory().getEntityManager();
+
+        // the components to keep which are not persistent yet cannot be selected by the bulk update
+        Set<String> keptComponentAcs = new HashSet<>(componentsToKeep.size());
+        for (Component component : componentsToKeep){
+            if (component.getAc() != null){
+                keptComponentAcs.add(component.getAc());
+            }
+        }
+
+        // the bulk update does not go through the persistence context so pending changes must be written first
+        entityManager.flush();
+
+        // components which do not share their interaction with another component of the source or destination protein cannot be duplicated participants
+        Query selectQuery = entityManager.createQuery("select c.ac, i.ac from Component c left join c.interaction as i where c.interactor = :source " +
+                "and not exists (select c2.ac from Component c2 where c2.interaction = c.interaction and c2.ac <> c.ac " +
+                "and (c2.interactor = :destination or c2.interactor = :source))");
+        selectQuery.setParameter("source", sourceProtein);
+        selectQuery.setParameter("destination", destinationProtein);
+
+        List<Object[]> movableComponents = selectQuery.getResultList();
+
+        Set<String> bulkMovedComponentAcs = new HashSet<>(movableComponents.size());
+        Set<String> interactionAcs = new HashSet<>(movableComponents.size());
+
+        for (Object[] result : movableComponents){
+            if (!keptComponentAcs.contains(result[0])){
+                bulkMovedComponentAcs.add((String) result[0]);
+
+                if (result[1] != null){
+                    interactionAcs.add((String) result[1]);
+                }
+            }
+        }
+
+        if (!bulkMovedComponentAcs.isEmpty()){
+            Query updateQuery = entityManager.createQuery("update Component c set c.interactor = :destination where c.ac in (:acs)");
+            updateQuery.setParameter("destination", destinationProtein);
+            updateQuery.setParameter("acs", bulkMovedComponentAcs);
+            updateQuery.executeUpdate();
+
+            Session session = entityManager.unwrap(Session.class);
+            Cache secondLevelCache = entityManager.getEntityManagerFactory().getCache();
+
+            // the components already loaded in memory are attached to the destination protein. The component is read only while
+            // its interactor is changed so the new state is taken as the database state and the component is not updated a second time
+            for (Component component : new ArrayList<>(sourceProtein.getActiveInstances())){
+                if (bulkMovedComponentAcs.contains(component.getAc())){
+                    boolean isManaged = session.contains(component);
+
+                    if (isManaged){
+                        session.setReadOnly(component, true);
+                    }
+
+                    sourceProtein.removeActiveInstance(component);
+                    destinationProtein.addActiveInstance(component);
+
+                    if (isManaged){
+                        session.setReadOnly(component, false);
+                    }
+                }
+            }
+
+            for (String componentAc : bulkMovedComponentAcs){
+                secondLevelCache.evict(Component.class, componentAc);
+            }
+            secondLevelCache.evict(ProteinImpl.class, sourceProtein.getAc());
+            secondLevelCache.evict(ProteinImpl.class, destinationProtein.getAc());
+        }
+
+        // the remaining components share their interaction with the source or destination protein and can be duplicated participants
+        Set<Component> keptComponents = Collections.newSetFromMap(new IdentityHashMap<Component, Boolean>());
+        keptComponents.addAll(componentsToKeep);
+
+        Collection<Component> remainingComponents = new ArrayList<>(sourceProtein.getActiveInstances().size());
+        for (Component component : sourceProtein.getActiveInstances()){
+            if (!keptComponents.contains(component) && !keptComponentAcs.contains(component.getAc())
+                    && !bulkMovedComponentAcs.contains(component.getAc())){
+                remainingComponents.add(component);
+            }
+        }
+
+        if (!remainingComponents.isEmpty()){
+            interactionAcs.addAll(moveComponents(destinationProtein, sourceProtein, context, processor, remainingComponents, uniprot));
+        }
+
+        return interactionAcs;
+    }
+}
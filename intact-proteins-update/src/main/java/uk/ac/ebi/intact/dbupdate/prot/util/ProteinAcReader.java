@@ -0,0 +1,120 @@
+package uk.ac.ebi.intact.dbupdate.prot.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the protein acs to update, one per line, while the update goes on.
+ *
+ * The empty lines and the lines starting with '#' are ignored. Each ac is only returned once, and the acs already updated
+ * by a previous run are skipped.
+ *
+ * @version $Id$
+ */
+public class ProteinAcReader implements Iterator<String>, Closeable {
+
+    private final BufferedReader reader;
+
+    /**
+     * The acs already returned
+     */
+    private final CompactAcSet readAcs = new CompactAcSet();
+
+    /**
+     * The acs updated by a previous run, can be null
+     */
+    private final CompactAcSet completedAcs;
+
+    private String nextAc;
+
+    private long numberOfDuplicates;
+    private long numberOfCompleted;
+
+    /**
+     *
+     * @param reader : the reader of the acs
+     * @param completedAcs : the acs updated by a previous run, null if the run does not resume a previous one
+     */
+    public ProteinAcReader(Reader reader, CompactAcSet completedAcs){
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        this.completedAcs = completedAcs;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextAc != null){
+            return true;
+        }
+
+        try {
+            String line;
+            while ((line = reader.readLine()) != null){
+                String ac = line.trim();
+
+                if (ac.isEmpty() || ac.startsWith("#")){
+                    continue;
+                }
+
+                if (!readAcs.add(ac)){
+                    numberOfDuplicates++;
+                }
+                else if (completedAcs != null && completedAcs.contains(ac)){
+                    numberOfCompleted++;
+                }
+                else {
+                    nextAc = ac;
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible to read the protein acs to update", e);
+        }
+
+        return false;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()){
+            throw new NoSuchElementException();
+        }
+
+        String ac = nextAc;
+        nextAc = null;
+        return ac;
+    }
+
+    /**
+     *
+     * @return the number of distinct acs read so far
+     */
+    public long getNumberOfAcs() {
+        return readAcs.size();
+    }
+
+    /**
+     *
+     * @return the number of acs read more than once
+     */
+    public long getNumberOfDuplicates() {
+        return numberOfDuplicates;
+    }
+
+    /**
+     *
+     * @return the number of acs skipped because a previous run updated them
+     */
+    public long getNumberOfCompleted() {
+        return numberOfCompleted;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
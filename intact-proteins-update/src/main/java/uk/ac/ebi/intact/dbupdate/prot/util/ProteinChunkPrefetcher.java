@@ -0,0 +1,73 @@
+package uk.ac.ebi.intact.dbupdate.prot.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hibernate.Query;
+import org.hibernate.Session;
+import uk.ac.ebi.intact.core.context.DataContext;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Loads the proteins of a chunk with the associations needed by the protein update in a few queries.
+ *
+ * Each collection is fetched in its own query (fetching several bags in one query is not allowed by hibernate) so the number
+ * of queries only depends on the fetch profile and not on the number of proteins in the chunk. The loaded proteins stay in the
+ * persistence context and are returned by the DAOs without hitting the database again as long as the transaction is active.
+ *
+ * The queries run in the transaction of the chunk. A failed query can abort this transaction (PostgreSQL rejects any statement
+ * after an error until the rollback), so the error is not caught : the chunk is rolled back like for any error of its update.
+ *
+ * @version $Id$
+ */
+public class ProteinChunkPrefetcher {
+
+    private static final Log log = LogFactory.getLog( ProteinChunkPrefetcher.class );
+
+    private ProteinChunkPrefetcher() {}
+
+    /**
+     * Loads the proteins with the given acs and the associations of the fetch profile.
+     * @param proteinAcs : the acs of the proteins to load
+     * @param context : the data context, a transaction must be active
+     * @param profile : the fetch profile
+     * @return the number of queries which have been run
+     * @throws org.hibernate.HibernateException if a query fails
+     */
+    public static int prefetch(Collection<String> proteinAcs, DataContext context, ProteinFetchProfile profile){
+        if (proteinAcs.isEmpty() || profile == null || !profile.isFetchingProteins()){
+            return 0;
+        }
+
+        Session session = context.getDaoFactory().getEntityManager().unwrap(Session.class);
+        Collection<String> acs = new ArrayList<>(proteinAcs);
+        int numberOfQueries = 0;
+
+        // proteins with their cross references, aliases and annotations
+        numberOfQueries += fetch(session, "select distinct p from ProteinImpl p left join fetch p.xrefs where p.ac in (:acs)", acs);
+        numberOfQueries += fetch(session, "select distinct p from ProteinImpl p left join fetch p.aliases where p.ac in (:acs)", acs);
+        numberOfQueries += fetch(session, "select distinct p from ProteinImpl p left join fetch p.annotations where p.ac in (:acs)", acs);
+
+        if (profile.isFetchingParticipants()){
+            // participants with their features and the ranges of these features
+            numberOfQueries += fetch(session, "select distinct p from ProteinImpl p left join fetch p.activeInstances where p.ac in (:acs)", acs);
+            numberOfQueries += fetch(session, "select distinct c from Component c left join fetch c.features where c.interactor.ac in (:acs)", acs);
+            numberOfQueries += fetch(session, "select distinct f from Feature f left join fetch f.ranges where f.component.interactor.ac in (:acs)", acs);
+        }
+
+        if (log.isDebugEnabled()){
+            log.debug("Prefetched " + acs.size() + " proteins with the profile " + profile + " in " + numberOfQueries + " queries");
+        }
+
+        return numberOfQueries;
+    }
+
+    private static int fetch(Session session, String hql, Collection<String> acs){
+        Query query = session.createQuery(hql);
+        query.setParameterList("acs", acs);
+        query.list();
+
+        return 1;
+    }
+}
@@ -0,0 +1,33 @@
+package uk.ac.ebi.intact.dbupdate.prot.util;
+
+/**
+ * The associations of the proteins which are loaded for a whole chunk before updating the proteins of this chunk.
+ *
+ * @version $Id$
+ */
+public enum ProteinFetchProfile {
+
+    /**
+     * Nothing is prefetched, the associations are lazily loaded when the update touches them
+     */
+    NONE,
+
+    /**
+     * The cross references, aliases and annotations of the proteins are prefetched
+     */
+    PROTEIN,
+
+    /**
+     * The cross references, aliases and annotations of the proteins are prefetched as well as
+     * the participants, features and ranges attached to the proteins
+     */
+    PARTICIPANTS;
+
+    public boolean isFetchingProteins(){
+        return this != NONE;
+    }
+
+    public boolean isFetchingParticipants(){
+        return this == PARTICIPANTS;
+    }
+}
@@ -4,16 +4,15 @@ import uk.ac.ebi.intact.commons.util.DiffUtils;
 import uk.ac.ebi.intact.commons.util.diff.Diff;
 import uk.ac.ebi.intact.commons.util.diff.Operation;
 import uk.ac.ebi.intact.core.context.DataContext;
-import uk.ac.ebi.intact.core.persistence.dao.AliasDao;
-import uk.ac.ebi.intact.core.persistence.dao.AnnotationDao;
 import uk.ac.ebi.intact.core.persistence.dao.DaoFactory;
-import uk.ac.ebi.intact.core.persistence.dao.XrefDao;
 import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateProcessor;
 import uk.ac.ebi.intact.model.*;
 import uk.ac.ebi.intact.model.util.AnnotatedObjectUtils;
 import uk.ac.ebi.intact.model.util.CvObjectUtils;
 import uk.ac.ebi.intact.model.util.ProteinUtils;
 
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
 import java.util.*;
 
 /**
@@ -27,16 +26,15 @@ public class ProteinTools {
     private ProteinTools() {}
 
     /**
-     * Move the interactions attached to the source protein to the destination protein
+     * Move the interactions attached to the source protein to the destination protein.
+     * The components are moved with a bulk update, only the participants which could be duplicated in an interaction are moved one by one.
      * @param destinationProtein : protein where to move the interactions
      * @param sourceProtein : the protein for what we want to move the interactions
      * @return the collection of interaction acs which have been moved from the cource protein to the destination protein
      */
     public static Set<String> moveInteractionsBetweenProteins(Protein destinationProtein, Protein sourceProtein, DataContext context, ProteinUpdateProcessor processor, String primaryUniprot) {
 
-        List<Component> componentsToMove = new ArrayList<>(sourceProtein.getActiveInstances());
-
-        return ComponentTools.moveComponents(destinationProtein, sourceProtein, context, processor, componentsToMove, primaryUniprot);
+        return ComponentTools.moveAllComponents(destinationProtein, sourceProtein, context, processor, Collections.<Component>emptyList(), primaryUniprot);
     }
 
     /**
@@ -287,138 +285,183 @@ public class ProteinTools {
         return false;
     }
 
+    /**
+     * Deletes a cross reference of a protein. If the protein has several copies of this cross reference, one copy is kept.
+     * @param protein : the protein
+     * @param context : the data context
+     * @param xref : the cross reference to delete
+     */
     public static void deleteInteractorXRef(Protein protein, DataContext context, InteractorXref xref) {
-        List<InteractorXref> xrefDuplicates = new ArrayList<>();
+        deleteInteractorXRefs(protein, context, Collections.singletonList(xref));
+    }
 
-        for (InteractorXref ref : protein.getXrefs()){
-            if (xref.equals(ref)){
-                xrefDuplicates.add(ref);
-            }
+    /**
+     * Deletes several cross references of a protein with a single statement. The copies of the deleted cross references are found in one pass
+     * and, for each cross reference having copies which are not deleted, one copy is kept.
+     * @param protein : the protein
+     * @param context : the data context
+     * @param xrefs : the cross references to delete
+     */
+    public static void deleteInteractorXRefs(Protein protein, DataContext context, Collection<InteractorXref> xrefs) {
+        if (xrefs.isEmpty()){
+            return;
         }
 
-        if (xrefDuplicates.size() > 1){
+        Collection<InteractorXref> deletedXrefs = collectDeletions(protein.getXrefs(), xrefs);
 
-            for (InteractorXref ref : xrefDuplicates){
-                protein.removeXref( ref );
-            }
+        EntityManager entityManager = context.getDaoFactory().getEntityManager();
+        entityManager.flush();
 
-            String refAcKept = null;
-            for (InteractorXref ref : xrefDuplicates){
-                if (!ref.getAc().equalsIgnoreCase(xref.getAc())){
-                    protein.addXref(ref);
-                    refAcKept = ref.getAc();
-                    break;
-                }
-            }
-            XrefDao<InteractorXref> refDao = context.getDaoFactory().getXrefDao(InteractorXref.class);
-
-            for (InteractorXref ref : xrefDuplicates){
-                if (!refAcKept.equalsIgnoreCase(ref.getAc())){
-                    ref.setParent(null);
-
-                    if (!refDao.isTransient(ref)) {
-
-                        refDao.delete(ref);
-                    } else {
-                        refDao.deleteByAc(ref.getAc());
-                    }
-                }
-            }
+        for (InteractorXref ref : deletedXrefs){
+            protein.removeXref(ref);
+            detach(entityManager, ref);
+            ref.setParent(null);
         }
-        else{
-            protein.removeXref( xref );
-            xref.setParent(null);
 
-            context.getDaoFactory().getXrefDao(InteractorXref.class).delete(xref);
-        }
+        bulkDelete(entityManager, "InteractorXref", deletedXrefs);
     }
 
+    /**
+     * Deletes an alias of a protein. If the protein has several copies of this alias, one copy is kept.
+     * @param protein : the protein
+     * @param context : the data context
+     * @param alias : the alias to delete
+     */
     public static void deleteAlias(Protein protein, DataContext context, InteractorAlias alias) {
-        List<InteractorAlias> aliasDuplicates = new ArrayList<>();
+        deleteAliases(protein, context, Collections.singletonList(alias));
+    }
 
-        for (InteractorAlias a : protein.getAliases()){
-            if (alias.equals(a)){
-                aliasDuplicates.add(a);
-            }
+    /**
+     * Deletes several aliases of a protein with a single statement. The copies of the deleted aliases are found in one pass
+     * and, for each alias having copies which are not deleted, one copy is kept.
+     * @param protein : the protein
+     * @param context : the data context
+     * @param aliases : the aliases to delete
+     */
+    public static void deleteAliases(Protein protein, DataContext context, Collection<InteractorAlias> aliases) {
+        if (aliases.isEmpty()){
+            return;
         }
 
-        if (aliasDuplicates.size() > 1){
+        Collection<InteractorAlias> deletedAliases = collectDeletions(protein.getAliases(), aliases);
 
-            for (InteractorAlias a : aliasDuplicates){
-                protein.removeAlias( a );
-            }
+        EntityManager entityManager = context.getDaoFactory().getEntityManager();
+        entityManager.flush();
 
-            String aliasAcKept = null;
-            for (InteractorAlias a : aliasDuplicates){
-                if (!a.getAc().equalsIgnoreCase(alias.getAc())){
-                    protein.addAlias(a);
-                    aliasAcKept = a.getAc();
-                    break;
-                }
-            }
-            AliasDao<InteractorAlias> aliasDao = context.getDaoFactory().getAliasDao(InteractorAlias.class);
+        for (InteractorAlias a : deletedAliases){
+            protein.removeAlias(a);
+            detach(entityManager, a);
+            a.setParent(null);
+        }
+
+        bulkDelete(entityManager, "InteractorAlias", deletedAliases);
+    }
+
+    /**
+     * Deletes an annotation of an annotated object. If the annotated object has several copies of this annotation, one copy is kept.
+     * @param ao : the annotated object
+     * @param context : the data context
+     * @param annotation : the annotation to delete
+     */
+    public static void deleteAnnotation(AnnotatedObject ao, DataContext context, Annotation annotation) {
+        deleteAnnotations(ao, context, Collections.singletonList(annotation));
+    }
 
-            for (InteractorAlias a : aliasDuplicates){
-                if (!aliasAcKept.equalsIgnoreCase(a.getAc())){
-                    a.setParent(null);
+    /**
+     * Deletes several annotations of an annotated object with a single statement. The copies of the deleted annotations are found in one pass
+     * and, for each annotation having copies which are not deleted, one copy is kept.
+     * @param ao : the annotated object
+     * @param context : the data context
+     * @param annotations : the annotations to delete
+     */
+    public static void deleteAnnotations(AnnotatedObject ao, DataContext context, Collection<Annotation> annotations) {
+        if (annotations.isEmpty()){
+            return;
+        }
 
-                    if (!aliasDao.isTransient(a)) {
+        Collection<Annotation> deletedAnnotations = collectDeletions(ao.getAnnotations(), annotations);
 
-                        aliasDao.delete(a);
-                    } else {
-                        aliasDao.deleteByAc(a.getAc());
-                    }
-                }
-            }
+        for (Annotation a : deletedAnnotations){
+            ao.removeAnnotation(a);
         }
-        else{
-            protein.removeAlias( alias );
-            alias.setParent(null);
 
-            context.getDaoFactory().getAliasDao(InteractorAlias.class).delete(alias);
+        // the links between the annotated object and its annotations are removed before deleting the annotations
+        EntityManager entityManager = context.getDaoFactory().getEntityManager();
+        entityManager.flush();
+
+        for (Annotation a : deletedAnnotations){
+            detach(entityManager, a);
         }
-    }
 
-    public static void deleteAnnotation(AnnotatedObject ao, DataContext context, Annotation annotation) {
-        List<Annotation> annotationDuplicates = new ArrayList<>();
+        bulkDelete(entityManager, "Annotation", deletedAnnotations);
+    }
 
-        for (Annotation a : ao.getAnnotations()){
-            if (annotation.equals(a)){
-                annotationDuplicates.add(a);
+    /**
+     *
+     * @param objects : the collection containing the objects to delete
+     * @param objectsToDelete : the objects to delete
+     * @return the objects to delete and their copies in the collection (same equals), except the first copy which is not in the objects to delete
+     */
+    private static <T extends IntactObject> Collection<T> collectDeletions(Collection<T> objects, Collection<T> objectsToDelete) {
+        Set<T> deletions = Collections.newSetFromMap(new IdentityHashMap<T, Boolean>());
+        deletions.addAll(objectsToDelete);
+
+        Map<T, List<T>> copies = new HashMap<>(objectsToDelete.size());
+        for (T object : objectsToDelete){
+            if (!copies.containsKey(object)){
+                copies.put(object, new ArrayList<T>());
             }
         }
 
-        if (annotationDuplicates.size() > 1){
+        for (T object : objects){
+            List<T> copiesOfObject = copies.get(object);
 
-            for (Annotation a : annotationDuplicates){
-                ao.removeAnnotation( a );
+            if (copiesOfObject != null){
+                copiesOfObject.add(object);
             }
+        }
+
+        for (List<T> copiesOfObject : copies.values()){
+            T kept = null;
 
-            String annotationAcKept = null;
-            for (Annotation a : annotationDuplicates){
-                if (!a.getAc().equalsIgnoreCase(annotation.getAc())){
-                    ao.addAnnotation(a);
-                    annotationAcKept = a.getAc();
-                    break;
+            for (T copy : copiesOfObject){
+                if (kept == null && !deletions.contains(copy)){
+                    kept = copy;
+                }
+                else {
+                    deletions.add(copy);
                 }
             }
-            AnnotationDao annDao = context.getDaoFactory().getAnnotationDao();
+        }
 
-            for (Annotation a : annotationDuplicates){
-                if (!annotationAcKept.equalsIgnoreCase(a.getAc())){
-                    if (!annDao.isTransient(a)) {
+        return new ArrayList<>(deletions);
+    }
 
-                        annDao.delete(a);
-                    } else {
-                        annDao.deleteByAc(a.getAc());
-                    }
-                }
+    private static void detach(EntityManager entityManager, IntactObject object) {
+        if (object.getAc() != null && entityManager.contains(object)){
+            entityManager.detach(object);
+        }
+    }
+
+    /**
+     * Deletes the persistent objects with a single statement. Transient objects are ignored.
+     * @param entityManager : the entity manager
+     * @param entityName : the name of the entity to delete
+     * @param objects : the objects to delete
+     */
+    private static void bulkDelete(EntityManager entityManager, String entityName, Collection<? extends IntactObject> objects) {
+        Set<String> acs = new HashSet<>(objects.size());
+
+        for (IntactObject object : objects){
+            if (object.getAc() != null){
+                acs.add(object.getAc());
             }
         }
-        else{
-            ao.removeAnnotation( annotation );
 
-            context.getDaoFactory().getAnnotationDao().delete(annotation);
+        if (!acs.isEmpty()){
+            Query query = entityManager.createQuery("delete from " + entityName + " o where o.ac in (:acs)");
+            query.setParameter("acs", acs);
+            query.executeUpdate();
         }
     }
 
@@ -0,0 +1,152 @@
+package uk.ac.ebi.intact.dbupdate.prot.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import uk.ac.ebi.intact.core.context.DataContext;
+import uk.ac.ebi.intact.model.CvDatabase;
+import uk.ac.ebi.intact.model.CvXrefQualifier;
+import uk.ac.ebi.intact.model.ProteinImpl;
+
+import javax.persistence.Query;
+import java.util.*;
+
+/**
+ * Plans the order in which the proteins of a global update are updated.
+ *
+ * The proteins sharing a uniprot entry (master proteins, isoforms and feature chains) are updated one after the other,
+ * and the uniprot entries of the same organism are updated together. The proteins of a uniprot entry are then
+ * in the same chunk most of the time : the entry is retrieved from uniprot and reconciled once, and the duplicates and
+ * transcripts are fixed in the same transaction. The proteins without uniprot identity are updated last, in created order.
+ *
+ * @version $Id$
+ */
+public class ProteinUpdateOrderPlanner {
+
+    private static final Log log = LogFactory.getLog( ProteinUpdateOrderPlanner.class );
+
+    /**
+     * The uniprot entry of each protein having a uniprot identity
+     */
+    private Map<String, String> uniprotEntries = new HashMap<>();
+
+    private int numberOfEntries = 0;
+    private int numberOfOrganisms = 0;
+
+    /**
+     * Loads the acs, uniprot identities and organisms of all the proteins and plans their update order
+     * @param context : the data context, a transaction must be active
+     * @return the acs of all the proteins in the order they should be updated
+     */
+    public List<String> planUpdateOrder(DataContext context) {
+        List<Object[]> proteins = context.getDaoFactory().getEntityManager()
+                .createQuery("select p.ac, b.taxId from ProteinImpl p left join p.bioSource as b order by p.created").getResultList();
+
+        Query query = context.getDaoFactory().getEntityManager().createQuery("select p.ac, x.primaryId from InteractorImpl p join p.xrefs as x " +
+                "where p.objClass = :class and x.cvDatabase.identifier = :uniprot and x.cvXrefQualifier.identifier = :identity");
+        query.setParameter("class", ProteinImpl.class.getName());
+        query.setParameter("uniprot", CvDatabase.UNIPROT_MI_REF);
+        query.setParameter("identity", CvXrefQualifier.IDENTITY_MI_REF);
+
+        Map<String, String> uniprotIdentities = new HashMap<>();
+        for (Object[] identity : (List<Object[]>) query.getResultList()) {
+            uniprotIdentities.put((String) identity[0], (String) identity[1]);
+        }
+
+        List<String> acs = new ArrayList<>(proteins.size());
+        Map<String, String> taxIds = new HashMap<>();
+        for (Object[] protein : proteins) {
+            String ac = (String) protein[0];
+            acs.add(ac);
+            if (protein[1] != null) {
+                taxIds.put(ac, (String) protein[1]);
+            }
+        }
+
+        List<String> plannedAcs = planUpdateOrder(acs, uniprotIdentities, taxIds);
+
+        log.info("Planned the update of " + plannedAcs.size() + " proteins in " + numberOfEntries + " uniprot entries and " + numberOfOrganisms +
+                " organisms");
+
+        return plannedAcs;
+    }
+
+    /**
+     * Plans the update order of the proteins
+     * @param acs : the acs of the proteins in created order
+     * @param uniprotIdentities : the uniprot identity of each protein having one
+     * @param taxIds : the taxId of each protein having an organism
+     * @return the acs of the proteins in the order they should be updated
+     */
+    public List<String> planUpdateOrder(List<String> acs, Map<String, String> uniprotIdentities, Map<String, String> taxIds) {
+        uniprotEntries = new HashMap<>(uniprotIdentities.size());
+
+        // the proteins of each uniprot entry, the entries of each organism, in order of first appearance
+        Map<String, Map<String, List<String>>> entriesByOrganism = new LinkedHashMap<>();
+        Map<String, List<String>> proteinsByEntry = new HashMap<>();
+        List<String> proteinsWithoutIdentity = new ArrayList<>();
+
+        for (String ac : acs) {
+            String identity = uniprotIdentities.get(ac);
+
+            if (identity == null) {
+                proteinsWithoutIdentity.add(ac);
+                continue;
+            }
+
+            String entry = getUniprotEntry(identity);
+            uniprotEntries.put(ac, entry);
+
+            List<String> entryProteins = proteinsByEntry.get(entry);
+            if (entryProteins == null) {
+                entryProteins = new ArrayList<>();
+                proteinsByEntry.put(entry, entryProteins);
+
+                // the organism of the entry is the organism of its first protein
+                entriesByOrganism.computeIfAbsent(taxIds.get(ac), k -> new LinkedHashMap<>()).put(entry, entryProteins);
+            }
+            entryProteins.add(ac);
+        }
+
+        List<String> plannedAcs = new ArrayList<>(acs.size());
+        for (Map<String, List<String>> organismEntries : entriesByOrganism.values()) {
+            for (List<String> entryProteins : organismEntries.values()) {
+                // the master proteins first, then the isoforms and feature chains
+                entryProteins.sort(Comparator.comparing(ac -> uniprotIdentities.get(ac).indexOf('-') > 0));
+                plannedAcs.addAll(entryProteins);
+            }
+        }
+        plannedAcs.addAll(proteinsWithoutIdentity);
+
+        this.numberOfEntries = proteinsByEntry.size();
+        this.numberOfOrganisms = entriesByOrganism.size();
+
+        return plannedAcs;
+    }
+
+    /**
+     *
+     * @param uniprotIdentity : a uniprot identity
+     * @return the accession of the uniprot entry of this master protein, isoform or feature chain
+     */
+    public static String getUniprotEntry(String uniprotIdentity) {
+        int suffix = uniprotIdentity.indexOf('-');
+        return suffix > 0 ? uniprotIdentity.substring(0, suffix) : uniprotIdentity;
+    }
+
+    /**
+     *
+     * @param ac : a protein ac
+     * @return the uniprot entry of the protein in the last plan, null if the protein has no uniprot identity
+     */
+    public String getUniprotEntryOf(String ac) {
+        return uniprotEntries.get(ac);
+    }
+
+    public int getNumberOfEntries() {
+        return numberOfEntries;
+    }
+
+    public int getNumberOfOrganisms() {
+        return numberOfOrganisms;
+    }
+}
@@ -0,0 +1,332 @@
+package uk.ac.ebi.intact.dbupdate.prot.util;
+
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.function.LongSupplier;
+
+/**
+ * Progress of a protein update : the proteins processed and remaining, the current chunk, the time spent in each stage
+ * of the update of a protein, and the errors and events by type.
+ *
+ * It is fed by the thread running the update and read by the threads reporting the progress.
+ * The throughput is computed over the last chunks committed, and the estimated completion time from this throughput.
+ * The errors and events of a chunk are counted once the chunk is committed, the ones of a chunk rolled back are dropped as the
+ * proteins of this chunk are updated again.
+ *
+ * @version $Id$
+ */
+public class ProteinUpdateProgress {
+
+    /**
+     * The number of committed chunks the throughput is computed on
+     */
+    private static final int THROUGHPUT_WINDOW = 20;
+
+    private final LongSupplier clock;
+    private final long startTime;
+
+    /**
+     * The number of proteins to update, -1 if unknown
+     */
+    private long expectedProteins = -1;
+    private long processedProteins = 0;
+    private int currentChunk = 0;
+    private int currentChunkSize = 0;
+    private String currentProtein;
+
+    /**
+     * The time and number of processed proteins of the last chunks committed
+     */
+    private final Deque<long[]> recentChunks = new ArrayDeque<>(THROUGHPUT_WINDOW + 1);
+
+    /**
+     * The number of proteins which entered each stage and the time spent in this stage, in milliseconds
+     */
+    private final Map<String, long[]> stages = new LinkedHashMap<>();
+    private String currentStage;
+    private long currentStageStart;
+
+    private final Map<String, Long> errors = new TreeMap<>();
+    private final Map<String, Long> events = new TreeMap<>();
+
+    /**
+     * The errors and events of the current chunk, counted once the chunk is committed
+     */
+    private boolean chunkStarted = false;
+    private final Map<String, Long> chunkErrors = new HashMap<>();
+    private final Map<String, Long> chunkEvents = new HashMap<>();
+
+    public ProteinUpdateProgress() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     *
+     * @param clock : the clock giving the current time in milliseconds
+     */
+    ProteinUpdateProgress(LongSupplier clock) {
+        this.clock = clock;
+        this.startTime = clock.getAsLong();
+        this.recentChunks.add(new long[]{startTime, 0});
+    }
+
+    /**
+     *
+     * @param expectedProteins : the number of proteins to update, -1 if unknown
+     */
+    public synchronized void setExpectedProteins(long expectedProteins) {
+        this.expectedProteins = expectedProteins;
+    }
+
+    /**
+     * A new chunk of proteins is updated
+     * @param chunkSize : the number of proteins of the chunk
+     */
+    public synchronized void startChunk(int chunkSize) {
+        this.currentChunk++;
+        this.currentChunkSize = chunkSize;
+
+        endChunk();
+        this.chunkStarted = true;
+    }
+
+    /**
+     * The current chunk has been committed
+     * @param committedProteins : the number of proteins updated in the chunk
+     */
+    public synchronized void chunkCommitted(int committedProteins) {
+        this.processedProteins += committedProteins;
+
+        chunkErrors.forEach((type, count) -> errors.merge(type, count, Long::sum));
+        chunkEvents.forEach((type, count) -> events.merge(type, count, Long::sum));
+        endChunk();
+
+        recentChunks.addLast(new long[]{clock.getAsLong(), processedProteins});
+        if (recentChunks.size() > THROUGHPUT_WINDOW + 1) {
+            recentChunks.removeFirst();
+        }
+    }
+
+    /**
+     * The current chunk has been rolled back. Its errors and events are dropped
+     */
+    public synchronized void chunkRolledBack() {
+        endChunk();
+    }
+
+    private void endChunk() {
+        this.chunkStarted = false;
+        chunkErrors.clear();
+        chunkEvents.clear();
+    }
+
+    /**
+     * The update of a protein starts
+     * @param ac : the ac of the protein
+     */
+    public synchronized void startProtein(String ac) {
+        this.currentProtein = ac;
+    }
+
+    /**
+     * The protein being updated enters a new stage (see ProteinUpdateWatchdog)
+     * @param stage : the stage
+     */
+    public synchronized void enterStage(String stage) {
+        long now = clock.getAsLong();
+        closeStage(now);
+
+        long[] stageProgress = stages.computeIfAbsent(stage, k -> new long[2]);
+        stageProgress[0]++;
+
+        this.currentStage = stage;
+        this.currentStageStart = now;
+    }
+
+    /**
+     * The update of the current protein is finished
+     */
+    public synchronized void endProtein() {
+        closeStage(clock.getAsLong());
+        this.currentProtein = null;
+    }
+
+    /**
+     * @param type : the type of the error found
+     */
+    public synchronized void errorFound(String type) {
+        (chunkStarted ? chunkErrors : errors).merge(type, 1L, Long::sum);
+    }
+
+    /**
+     * @param type : the type of the event fired
+     */
+    public synchronized void eventFired(String type) {
+        (chunkStarted ? chunkEvents : events).merge(type, 1L, Long::sum);
+    }
+
+    private void closeStage(long now) {
+        if (currentStage != null) {
+            stages.get(currentStage)[1] += now - currentStageStart;
+            currentStage = null;
+        }
+    }
+
+    public synchronized long getProcessedProteins() {
+        return processedProteins;
+    }
+
+    /**
+     *
+     * @return the number of proteins left to update, -1 if the number of proteins to update is unknown
+     */
+    public synchronized long getRemainingProteins() {
+        return expectedProteins < 0 ? -1 : Math.max(0, expectedProteins - processedProteins);
+    }
+
+    public synchronized int getCurrentChunk() {
+        return currentChunk;
+    }
+
+    /**
+     *
+     * @return the number of proteins updated per second over the last chunks committed
+     */
+    public synchronized double getThroughput() {
+        long[] first = recentChunks.getFirst();
+        long elapsedTime = clock.getAsLong() - first[0];
+
+        return elapsedTime <= 0 ? 0 : (processedProteins - first[1]) * 1000d / elapsedTime;
+    }
+
+    /**
+     *
+     * @param stage : the stage
+     * @return the number of proteins going through this stage per second, 0 if no protein went through this stage
+     */
+    public synchronized double getStageThroughput(String stage) {
+        long[] stageProgress = stages.get(stage);
+
+        if (stageProgress == null) {
+            return 0;
+        }
+        long stageTime = stageProgress[1];
+        if (stage.equals(currentStage)) {
+            stageTime += clock.getAsLong() - currentStageStart;
+        }
+
+        return stageTime <= 0 ? 0 : stageProgress[0] * 1000d / stageTime;
+    }
+
+    /**
+     *
+     * @return the estimated completion time in milliseconds, -1 if it cannot be estimated yet
+     */
+    public synchronized long getEstimatedCompletionTime() {
+        long remainingProteins = getRemainingProteins();
+        double throughput = getThroughput();
+
+        if (remainingProteins < 0 || throughput <= 0) {
+            return -1;
+        }
+        return clock.getAsLong() + (long) (remainingProteins * 1000 / throughput);
+    }
+
+    public synchronized Map<String, Long> getErrors() {
+        return new TreeMap<>(errors);
+    }
+
+    public synchronized Map<String, Long> getEvents() {
+        return new TreeMap<>(events);
+    }
+
+    /**
+     *
+     * @return the progress on one line, for the logs
+     */
+    public synchronized String toStatusLine() {
+        StringBuilder status = new StringBuilder(256);
+        status.append("Processed ").append(processedProteins).append(" proteins");
+
+        long remainingProteins = getRemainingProteins();
+        if (remainingProteins >= 0) {
+            status.append(", remaining ").append(remainingProteins);
+        }
+        status.append(", chunk ").append(currentChunk).append(" (").append(currentChunkSize).append(" proteins)");
+        status.append(", ").append(String.format(Locale.ENGLISH, "%.2f", getThroughput())).append(" proteins/s");
+
+        long completionTime = getEstimatedCompletionTime();
+        if (completionTime >= 0) {
+            status.append(", ETA ").append(formatDate(completionTime));
+        }
+
+        long numberOfErrors = 0;
+        for (long count : errors.values()) {
+            numberOfErrors += count;
+        }
+        status.append(", ").append(numberOfErrors).append(" errors ").append(errors);
+
+        return status.toString();
+    }
+
+    /**
+     *
+     * @return the progress as a JSON object
+     */
+    public synchronized String toJson() {
+        StringBuilder json = new StringBuilder(1024);
+        long now = clock.getAsLong();
+
+        json.append('{');
+        json.append("\"startTime\":\"").append(formatDate(startTime)).append("\",");
+        json.append("\"elapsedSeconds\":").append((now - startTime) / 1000).append(',');
+        json.append("\"expected\":").append(expectedProteins).append(',');
+        json.append("\"processed\":").append(processedProteins).append(',');
+        json.append("\"remaining\":").append(getRemainingProteins()).append(',');
+        json.append("\"currentChunk\":").append(currentChunk).append(',');
+        json.append("\"currentChunkSize\":").append(currentChunkSize).append(',');
+        json.append("\"currentProtein\":").append(currentProtein != null ? "\"" + currentProtein + "\"" : "null").append(',');
+        json.append("\"currentStage\":").append(currentStage != null ? "\"" + currentStage + "\"" : "null").append(',');
+        json.append("\"throughput\":").append(String.format(Locale.ENGLISH, "%.3f", getThroughput())).append(',');
+
+        long completionTime = getEstimatedCompletionTime();
+        json.append("\"estimatedCompletionTime\":").append(completionTime >= 0 ? "\"" + formatDate(completionTime) + "\"" : "null").append(',');
+
+        json.append("\"stages\":{");
+        boolean first = true;
+        for (Map.Entry<String, long[]> stage : stages.entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append('"').append(stage.getKey()).append("\":{\"proteins\":").append(stage.getValue()[0])
+                    .append(",\"throughput\":").append(String.format(Locale.ENGLISH, "%.3f", getStageThroughput(stage.getKey()))).append('}');
+        }
+        json.append("},");
+
+        json.append("\"errors\":");
+        appendCounts(json, errors);
+        json.append(",\"events\":");
+        appendCounts(json, events);
+        json.append('}');
+
+        return json.toString();
+    }
+
+    private void appendCounts(StringBuilder json, Map<String, Long> counts) {
+        json.append('{');
+        boolean first = true;
+        for (Map.Entry<String, Long> count : counts.entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append('"').append(count.getKey()).append("\":").append(count.getValue());
+        }
+        json.append('}');
+    }
+
+    private String formatDate(long time) {
+        return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss").format(new Date(time));
+    }
+}
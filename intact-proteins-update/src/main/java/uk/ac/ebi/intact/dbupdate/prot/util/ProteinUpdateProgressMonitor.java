@@ -0,0 +1,123 @@
+package uk.ac.ebi.intact.dbupdate.prot.util;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports the progress of a protein update while it runs :
+ * - on a local HTTP endpoint : /progress gives the progress as JSON and / as a line of text
+ * - in the logs, with one line at a fixed period
+ *
+ * The endpoint only listens on the loopback address.
+ *
+ * @version $Id$
+ */
+public class ProteinUpdateProgressMonitor {
+
+    private static final Log log = LogFactory.getLog( ProteinUpdateProgressMonitor.class );
+
+    private final ProteinUpdateProgress progress;
+
+    /**
+     * The port of the HTTP endpoint, 0 if there is no endpoint
+     */
+    private final int port;
+
+    /**
+     * The period of the log lines in seconds, 0 if the progress is not logged
+     */
+    private final long logInterval;
+
+    private HttpServer server;
+    private ScheduledExecutorService logger;
+
+    /**
+     *
+     * @param progress : the progress to report
+     * @param port : the port of the HTTP endpoint, 0 if there is no endpoint
+     * @param logInterval : the period of the log lines in seconds, 0 if the progress is not logged
+     */
+    public ProteinUpdateProgressMonitor(ProteinUpdateProgress progress, int port, long logInterval) {
+        this.progress = progress;
+        this.port = port;
+        this.logInterval = logInterval;
+    }
+
+    /**
+     *
+     * @return true if the progress is reported on an endpoint or in the logs
+     */
+    public boolean isEnabled() {
+        return port > 0 || logInterval > 0;
+    }
+
+    /**
+     * Starts the endpoint and the log lines. The update goes on without endpoint if the port is not available.
+     */
+    public synchronized void start() {
+        if (port > 0 && server == null) {
+            try {
+                server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+                server.createContext("/progress", exchange -> respond(exchange, "application/json", progress.toJson()));
+                server.createContext("/", exchange -> respond(exchange, "text/plain", progress.toStatusLine()));
+                server.setExecutor(null);
+                server.start();
+
+                log.info("The progress of the protein update is available at http://localhost:" + port + "/progress");
+            } catch (IOException e) {
+                log.error("Impossible to start the progress endpoint on the port " + port, e);
+                server = null;
+            }
+        }
+
+        if (logInterval > 0 && logger == null) {
+            logger = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "protein-update-progress");
+                thread.setDaemon(true);
+                return thread;
+            });
+            logger.scheduleAtFixedRate(() -> log.info(progress.toStatusLine()), logInterval, logInterval, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stops the endpoint and the log lines, and logs the final progress
+     */
+    public synchronized void shutdown() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (logger != null) {
+            logger.shutdownNow();
+            logger = null;
+        }
+
+        log.info(progress.toStatusLine());
+    }
+
+    public ProteinUpdateProgress getProgress() {
+        return progress;
+    }
+
+    private void respond(HttpExchange exchange, String contentType, String content) throws IOException {
+        byte[] body = content.getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=UTF-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+}
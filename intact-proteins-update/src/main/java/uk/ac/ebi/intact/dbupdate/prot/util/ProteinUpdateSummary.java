@@ -0,0 +1,318 @@
+package uk.ac.ebi.intact.dbupdate.prot.util;
+
+import uk.ac.ebi.intact.dbupdate.prot.report.JsonLinesWriter;
+import uk.ac.ebi.intact.dbupdate.prot.report.ReportCompression;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.function.LongSupplier;
+
+/**
+ * Summary of a protein update : the totals of the run (proteins created, updated, deleted, sequences changed, duplicates merged,
+ * ranges shifted or made invalid, errors and remote failures...) and their histograms by stage and by organism.
+ *
+ * The counters are incremented by the thread running the update. Each count is attributed to the stage and the organism
+ * of the protein being updated, '-' when the event happens outside the update of a protein.
+ * The counts of a chunk are added to the summary once the chunk is committed. The counts of a chunk rolled back are dropped, as the
+ * proteins of this chunk are updated again or counted as errors.
+ *
+ * At the end of the run, the summary is written as a single JSON record and recorded in the ProteinUpdateSummaryStore, if any.
+ *
+ * @version $Id$
+ */
+public class ProteinUpdateSummary {
+
+    /**
+     * The name of the summary file, in the directory of the report files
+     */
+    public static final String SUMMARY_FILE_NAME = "summary.json";
+
+    /**
+     * The stage or organism of the counts not attributed to a protein
+     */
+    public static final String NONE = "-";
+
+    /**
+     * The counters of the summary
+     */
+    public enum Counter {
+        proteins, created, updated, deleted, sequence_changed, duplicates_merged, ranges_shifted, ranges_invalid, ranges_out_of_date,
+        dead_proteins, remapped, non_uniprot, out_of_date_participants, deleted_components, errors, remote_failures, quarantined
+    }
+
+    private static final int COUNTERS = Counter.values().length;
+
+    private final LongSupplier clock;
+    private final String processId;
+    private final long startTime;
+    private long endTime = -1;
+
+    private final long[] totals = new long[COUNTERS];
+    private final Map<String, long[]> stages = new LinkedHashMap<>();
+    private final Map<String, long[]> organisms = new TreeMap<>();
+    private final Map<String, Long> errors = new TreeMap<>();
+
+    /**
+     * The counts of the current chunk, added to the summary once the chunk is committed
+     */
+    private boolean chunkStarted = false;
+    private final long[] chunkTotals = new long[COUNTERS];
+    private final Map<String, long[]> chunkStages = new LinkedHashMap<>();
+    private final Map<String, long[]> chunkOrganisms = new HashMap<>();
+    private final Map<String, Long> chunkErrors = new HashMap<>();
+
+    private String currentStage = NONE;
+    private String currentOrganism = NONE;
+
+    /**
+     *
+     * @param processId : the identifier of the update run. If null, the name of the JVM (pid@host) is used
+     */
+    public ProteinUpdateSummary(String processId) {
+        this(processId, System::currentTimeMillis);
+    }
+
+    /**
+     *
+     * @param processId : the identifier of the update run. If null, the name of the JVM (pid@host) is used
+     * @param clock : the clock giving the current time in milliseconds
+     */
+    ProteinUpdateSummary(String processId, LongSupplier clock) {
+        this.clock = clock;
+        this.processId = processId != null ? processId : ManagementFactory.getRuntimeMXBean().getName();
+        this.startTime = clock.getAsLong();
+    }
+
+    /**
+     * A new chunk of proteins is updated. Its counts are kept apart until it is committed or rolled back
+     */
+    public synchronized void startChunk() {
+        endChunk();
+        this.chunkStarted = true;
+    }
+
+    /**
+     * The update of a protein starts
+     * @param taxId : the taxId of the organism of the protein, null if the protein has no organism
+     */
+    public synchronized void startProtein(String taxId) {
+        this.currentOrganism = taxId != null ? taxId : NONE;
+    }
+
+    /**
+     * The protein being updated enters a new stage (see ProteinUpdateWatchdog)
+     * @param stage : the stage
+     */
+    public synchronized void enterStage(String stage) {
+        this.currentStage = stage;
+    }
+
+    /**
+     * The update of the current protein is finished
+     */
+    public synchronized void endProtein() {
+        this.currentStage = NONE;
+        this.currentOrganism = NONE;
+    }
+
+    public void increment(Counter counter) {
+        add(counter, 1);
+    }
+
+    /**
+     * Adds a count to the totals and to the histograms of the current stage and organism, once the current chunk is committed
+     * @param counter : the counter
+     * @param count : the count to add
+     */
+    public synchronized void add(Counter counter, long count) {
+        if (count == 0) {
+            return;
+        }
+        if (chunkStarted) {
+            chunkTotals[counter.ordinal()] += count;
+            chunkStages.computeIfAbsent(currentStage, k -> new long[COUNTERS])[counter.ordinal()] += count;
+            chunkOrganisms.computeIfAbsent(currentOrganism, k -> new long[COUNTERS])[counter.ordinal()] += count;
+        } else {
+            totals[counter.ordinal()] += count;
+            stages.computeIfAbsent(currentStage, k -> new long[COUNTERS])[counter.ordinal()] += count;
+            organisms.computeIfAbsent(currentOrganism, k -> new long[COUNTERS])[counter.ordinal()] += count;
+        }
+    }
+
+    /**
+     * The proteins of a chunk have been committed. They are only counted in the totals, the other counts of the chunk are added to
+     * the summary
+     * @param committedProteins : the number of proteins updated in the chunk
+     */
+    public synchronized void chunkCommitted(int committedProteins) {
+        totals[Counter.proteins.ordinal()] += committedProteins;
+
+        for (int i = 0; i < COUNTERS; i++) {
+            totals[i] += chunkTotals[i];
+        }
+        mergeHistogram(stages, chunkStages);
+        mergeHistogram(organisms, chunkOrganisms);
+        chunkErrors.forEach((type, count) -> errors.merge(type, count, Long::sum));
+        endChunk();
+    }
+
+    /**
+     * The current chunk has been rolled back. Its counts are dropped
+     */
+    public synchronized void chunkRolledBack() {
+        endChunk();
+    }
+
+    private void endChunk() {
+        this.chunkStarted = false;
+        Arrays.fill(chunkTotals, 0);
+        chunkStages.clear();
+        chunkOrganisms.clear();
+        chunkErrors.clear();
+    }
+
+    private static void mergeHistogram(Map<String, long[]> histogram, Map<String, long[]> chunkHistogram) {
+        for (Map.Entry<String, long[]> entry : chunkHistogram.entrySet()) {
+            long[] counts = histogram.computeIfAbsent(entry.getKey(), k -> new long[COUNTERS]);
+            for (int i = 0; i < COUNTERS; i++) {
+                counts[i] += entry.getValue()[i];
+            }
+        }
+    }
+
+    /**
+     * @param type : the type of the error found
+     */
+    public synchronized void errorFound(String type) {
+        (chunkStarted ? chunkErrors : errors).merge(type, 1L, Long::sum);
+        add(Counter.errors, 1);
+    }
+
+    /**
+     * The update is finished
+     */
+    public synchronized void finish() {
+        this.endTime = clock.getAsLong();
+    }
+
+    public String getProcessId() {
+        return processId;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     *
+     * @return the end of the update, -1 if the update is not finished
+     */
+    public synchronized long getEndTime() {
+        return endTime;
+    }
+
+    public synchronized long getCount(Counter counter) {
+        return totals[counter.ordinal()];
+    }
+
+    /**
+     *
+     * @param stage : the stage
+     * @param counter : the counter
+     * @return the count of the counter in this stage
+     */
+    public synchronized long getCountByStage(String stage, Counter counter) {
+        long[] counts = stages.get(stage);
+        return counts != null ? counts[counter.ordinal()] : 0;
+    }
+
+    /**
+     *
+     * @param taxId : the taxId of the organism
+     * @param counter : the counter
+     * @return the count of the counter for the proteins of this organism
+     */
+    public synchronized long getCountByOrganism(String taxId, Counter counter) {
+        long[] counts = organisms.get(taxId);
+        return counts != null ? counts[counter.ordinal()] : 0;
+    }
+
+    public synchronized Map<String, Long> getErrors() {
+        return new TreeMap<>(errors);
+    }
+
+    /**
+     * Writes the summary in a single JSON record :
+     * {"process":"...","startTime":...,"endTime":...,"totals":{...},"errors":{...},"stages":{"stage":{...}},"organisms":{"taxId":{...}}}
+     * where the times are in milliseconds since the epoch. The counters equal to 0 are not written in the histograms.
+     *
+     * @param writer : the writer
+     * @throws IOException
+     */
+    public synchronized void writeRecord(JsonLinesWriter writer) throws IOException {
+        writer.beginRecord()
+                .field("process", processId)
+                .field("startTime", startTime)
+                .field("endTime", endTime);
+
+        writer.beginObject("totals");
+        for (Counter counter : Counter.values()) {
+            writer.field(counter.name(), totals[counter.ordinal()]);
+        }
+        writer.endObject();
+
+        writer.beginObject("errors");
+        for (Map.Entry<String, Long> error : errors.entrySet()) {
+            writer.field(error.getKey(), error.getValue());
+        }
+        writer.endObject();
+
+        writeHistogram(writer, "stages", stages);
+        writeHistogram(writer, "organisms", organisms);
+        writer.endRecord();
+    }
+
+    /**
+     * Writes the summary in a file, replacing the previous summary
+     * @param file : the file
+     * @throws IOException
+     */
+    public void writeTo(File file) throws IOException {
+        JsonLinesWriter writer = new JsonLinesWriter(file, ReportCompression.none, 8192);
+        try {
+            writeRecord(writer);
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void writeHistogram(JsonLinesWriter writer, String name, Map<String, long[]> histogram) throws IOException {
+        writer.beginObject(name);
+        for (Map.Entry<String, long[]> entry : histogram.entrySet()) {
+            writer.beginObject(entry.getKey());
+            for (Counter counter : Counter.values()) {
+                if (entry.getValue()[counter.ordinal()] != 0) {
+                    writer.field(counter.name(), entry.getValue()[counter.ordinal()]);
+                }
+            }
+            writer.endObject();
+        }
+        writer.endObject();
+    }
+
+    /**
+     *
+     * @return the totals on one line, for the logs
+     */
+    public synchronized String toStatusLine() {
+        StringBuilder status = new StringBuilder(256);
+        status.append("Summary of ").append(processId).append(':');
+
+        for (Counter counter : Counter.values()) {
+            status.append(' ').append(counter.name()).append('=').append(totals[counter.ordinal()]);
+        }
+        return status.toString();
+    }
+}
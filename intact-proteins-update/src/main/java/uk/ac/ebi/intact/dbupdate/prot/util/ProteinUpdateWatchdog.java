@@ -0,0 +1,239 @@
+package uk.ac.ebi.intact.dbupdate.prot.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import uk.ac.ebi.intact.dbupdate.prot.ProteinBudgetExceededException;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enforces a wall clock and CPU budget on the update of each protein, and a wall clock budget on each stage of the update.
+ *
+ * The update thread calls checkpoint() regularly and gets a ProteinBudgetExceededException once the budget is exceeded.
+ * A watchdog thread checks the budget as well and interrupts the update thread when it is blocked (remote call, sleep)
+ * and does not reach any checkpoint.
+ *
+ * @version $Id$
+ */
+public class ProteinUpdateWatchdog {
+
+    private static final Log log = LogFactory.getLog( ProteinUpdateWatchdog.class );
+
+    public static final String FILTER_STAGE = "filter";
+    public static final String UNIPROT_RETRIEVAL_STAGE = "uniprot retrieval";
+    public static final String UPDATE_CASE_STAGE = "update case";
+    public static final String DUPLICATES_STAGE = "duplicates";
+    public static final String MASTER_UPDATE_STAGE = "master update";
+    public static final String TRANSCRIPT_UPDATE_STAGE = "transcript update";
+
+    /**
+     * Period of the checks of the watchdog thread, in milliseconds
+     */
+    private static final long CHECK_PERIOD = 200;
+
+    private final long wallClockBudget;
+    private final long cpuBudget;
+    private final Map<String, Long> stageBudgets;
+
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final boolean cpuTimeSupported;
+
+    private ScheduledExecutorService watchdogThread;
+
+    /**
+     * The protein being updated, null between two proteins
+     */
+    private volatile String proteinAc;
+    private volatile Thread updateThread;
+    private volatile String stage;
+    private volatile long proteinStart;
+    private volatile long stageStart;
+    private volatile long cpuStart;
+
+    /**
+     * The budget exceeded by the protein being updated, null if the protein is within its budget
+     */
+    private volatile ProteinBudgetExceededException exceeded;
+
+    /**
+     *
+     * @param wallClockBudget : the wall clock budget per protein in milliseconds, 0 for no budget
+     * @param cpuBudget : the CPU budget per protein in milliseconds, 0 for no budget
+     * @param stageBudgets : the wall clock budget per stage in milliseconds, can be null
+     */
+    public ProteinUpdateWatchdog(long wallClockBudget, long cpuBudget, Map<String, Long> stageBudgets){
+        this.wallClockBudget = wallClockBudget;
+        this.cpuBudget = cpuBudget;
+        this.stageBudgets = stageBudgets != null ? new HashMap<>(stageBudgets) : Collections.<String, Long>emptyMap();
+        this.cpuTimeSupported = threadBean.isThreadCpuTimeSupported();
+
+        if (cpuBudget > 0 && !cpuTimeSupported){
+            log.warn("The CPU time of the threads cannot be measured, the CPU budget of the proteins is ignored.");
+        }
+    }
+
+    /**
+     * Starts the watchdog thread
+     */
+    public synchronized void start(){
+        if (watchdogThread != null){
+            return;
+        }
+
+        watchdogThread = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "protein-update-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdogThread.scheduleAtFixedRate(this::watch, CHECK_PERIOD, CHECK_PERIOD, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the watchdog thread
+     */
+    public synchronized void shutdown(){
+        if (watchdogThread != null){
+            watchdogThread.shutdownNow();
+            watchdogThread = null;
+        }
+    }
+
+    /**
+     * Starts the budget of a protein. The protein is updated by the current thread.
+     * @param ac : the protein ac
+     */
+    public synchronized void startProtein(String ac){
+        this.exceeded = null;
+        this.updateThread = Thread.currentThread();
+        this.cpuStart = currentCpuTime(updateThread);
+        this.proteinStart = System.currentTimeMillis();
+        this.stageStart = proteinStart;
+        this.stage = FILTER_STAGE;
+        this.proteinAc = ac;
+    }
+
+    /**
+     * Starts the budget of a new stage of the protein being updated, once the budget of the stage left is checked
+     * @param newStage : the stage
+     */
+    public void enterStage(String newStage){
+        if (proteinAc != null){
+            checkpoint();
+
+            this.stage = newStage;
+            this.stageStart = System.currentTimeMillis();
+            checkpoint();
+        }
+    }
+
+    /**
+     * Throws a ProteinBudgetExceededException if the protein being updated has exceeded its budget
+     */
+    public void checkpoint(){
+        if (proteinAc == null || Thread.currentThread() != updateThread){
+            return;
+        }
+
+        ProteinBudgetExceededException exception = exceeded;
+        if (exception == null){
+            exception = checkBudget();
+        }
+
+        if (exception != null){
+            exceeded = exception;
+            throw exception;
+        }
+    }
+
+    /**
+     * Ends the budget of the protein being updated. The interrupt of the watchdog, if any, is cleared
+     */
+    public synchronized void endProtein(){
+        this.proteinAc = null;
+        this.updateThread = null;
+
+        if (exceeded != null){
+            Thread.interrupted();
+        }
+    }
+
+    /**
+     *
+     * @return the budget exceeded by the protein being updated, null if the protein is within its budget
+     */
+    public ProteinBudgetExceededException getExceeded() {
+        return exceeded;
+    }
+
+    public boolean hasBudget(){
+        return wallClockBudget > 0 || (cpuBudget > 0 && cpuTimeSupported) || !stageBudgets.isEmpty();
+    }
+
+    private void watch(){
+        try {
+            Thread thread = updateThread;
+
+            if (proteinAc != null && exceeded == null){
+                ProteinBudgetExceededException exception = checkBudget();
+
+                if (exception != null){
+                    interrupt(thread, exception);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Unexpected error in the protein update watchdog", e);
+        }
+    }
+
+    private synchronized void interrupt(Thread thread, ProteinBudgetExceededException exception){
+        // the protein can have ended in the meantime, and the thread can have started another protein
+        if (thread != null && thread == updateThread && exception.getProteinAc().equals(proteinAc) && exceeded == null){
+            exceeded = exception;
+            log.warn(exception.getMessage() + ", interrupting the update");
+            thread.interrupt();
+        }
+    }
+
+    private ProteinBudgetExceededException checkBudget(){
+        String ac = proteinAc;
+        String currentStage = stage;
+        Thread thread = updateThread;
+
+        if (ac == null || thread == null){
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        long elapsedTime = now - proteinStart;
+        long cpuTime = cpuTimeSupported ? (currentCpuTime(thread) - cpuStart) / 1000000 : 0;
+
+        if (wallClockBudget > 0 && elapsedTime > wallClockBudget){
+            return new ProteinBudgetExceededException(ac, currentStage, elapsedTime, cpuTime, "wall clock budget of " + wallClockBudget + " ms");
+        }
+        if (cpuBudget > 0 && cpuTimeSupported && cpuTime > cpuBudget){
+            return new ProteinBudgetExceededException(ac, currentStage, elapsedTime, cpuTime, "CPU budget of " + cpuBudget + " ms");
+        }
+
+        Long stageBudget = stageBudgets.get(currentStage);
+        if (stageBudget != null && stageBudget > 0 && now - stageStart > stageBudget){
+            return new ProteinBudgetExceededException(ac, currentStage, elapsedTime, cpuTime, "wall clock budget of " + stageBudget + " ms for the stage");
+        }
+
+        return null;
+    }
+
+    private long currentCpuTime(Thread thread){
+        if (!cpuTimeSupported){
+            return 0;
+        }
+        long cpuTime = threadBean.getThreadCpuTime(thread.getId());
+        return cpuTime > 0 ? cpuTime : 0;
+    }
+}
@@ -0,0 +1,82 @@
+package uk.ac.ebi.intact.dbupdate.prot.util;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * DataSource sending the read only transactions and the read only stages of the protein update to a secondary database (read replica).
+ * All the other connections are given by the primary database.
+ *
+ * The connection is chosen when it is first used so this DataSource must be wrapped in a
+ * <code>org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy</code> : the transaction managers open the connection before
+ * the read only flag of the transaction is visible.
+ *
+ * <pre>
+ * &lt;bean id="intactCoreDataSource" class="org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy"&gt;
+ *     &lt;property name="targetDataSource"&gt;
+ *         &lt;bean class="uk.ac.ebi.intact.dbupdate.prot.util.ReadReplicaRoutingDataSource"&gt;
+ *             &lt;constructor-arg ref="primaryDataSource"/&gt;
+ *             &lt;constructor-arg ref="replicaDataSource"/&gt;
+ *         &lt;/bean&gt;
+ *     &lt;/property&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ *
+ * The data read on the replica can be stale : the stages using it must read again the objects on the primary database before updating them.
+ *
+ * @version $Id$
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    /**
+     * True when the current thread is running a read only stage
+     */
+    private static final ThreadLocal<Boolean> readOnlyStage = new ThreadLocal<>();
+
+    public ReadReplicaRoutingDataSource(DataSource primaryDataSource, DataSource replicaDataSource) {
+        Map<Object, Object> targetDataSources = new HashMap<>(2);
+        targetDataSources.put(PRIMARY, primaryDataSource);
+        targetDataSources.put(REPLICA, replicaDataSource != null ? replicaDataSource : primaryDataSource);
+
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primaryDataSource);
+    }
+
+    /**
+     * Starts a read only stage for the current thread. The connections opened before the end of the stage are given by the replica.
+     */
+    public static void beginReadOnlyStage() {
+        readOnlyStage.set(Boolean.TRUE);
+    }
+
+    /**
+     * Ends the read only stage of the current thread, the next connections are given by the primary database.
+     */
+    public static void endReadOnlyStage() {
+        readOnlyStage.remove();
+    }
+
+    /**
+     *
+     * @return true if the current thread is running a read only stage
+     */
+    public static boolean isReadOnlyStage() {
+        return Boolean.TRUE.equals(readOnlyStage.get());
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (isReadOnlyStage() || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return REPLICA;
+        }
+
+        return PRIMARY;
+    }
+}
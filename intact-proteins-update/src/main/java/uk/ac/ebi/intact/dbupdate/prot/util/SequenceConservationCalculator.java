@@ -0,0 +1,111 @@
+package uk.ac.ebi.intact.dbupdate.prot.util;
+
+/**
+ * Decides if the relative conservation between two sequences is above a threshold without always running a full diff.
+ *
+ * The relative conservation is the number of residues kept by the diff divided by the length of the old sequence
+ * (see ProteinTools.calculateSequenceConservation). Two bounds are computed in linear time :
+ * - the common prefix and suffix of the sequences are always kept by the diff (lower bound)
+ * - the diff cannot keep more residues of one type than the number of these residues in each sequence (upper bound)
+ * The exact diff is only run when the threshold is between the two bounds.
+ *
+ * @version $Id$
+ */
+public class SequenceConservationCalculator {
+
+    private SequenceConservationCalculator() {}
+
+    /**
+     *
+     * @param oldSeq : the old sequence
+     * @param newSeq : the new sequence
+     * @return the number of residues of the common prefix and common suffix of the two sequences
+     */
+    public static int countCommonPrefixAndSuffix(String oldSeq, String newSeq) {
+        int minLength = Math.min(oldSeq.length(), newSeq.length());
+
+        int prefix = 0;
+        while (prefix < minLength && oldSeq.charAt(prefix) == newSeq.charAt(prefix)) {
+            prefix++;
+        }
+
+        int suffix = 0;
+        while (suffix < minLength - prefix
+                && oldSeq.charAt(oldSeq.length() - 1 - suffix) == newSeq.charAt(newSeq.length() - 1 - suffix)) {
+            suffix++;
+        }
+
+        return prefix + suffix;
+    }
+
+    /**
+     *
+     * @param oldSeq : the old sequence
+     * @param newSeq : the new sequence
+     * @return an upper bound of the number of residues the two sequences have in common, whatever their position.
+     * The residues are counted on 7 bits : characters out of the ascii range share their counter with an ascii character, which can only increase the bound
+     */
+    public static int countCommonResidues(String oldSeq, String newSeq) {
+        int[] counts = new int[128];
+
+        for (int i = 0; i < oldSeq.length(); i++) {
+            counts[oldSeq.charAt(i) & 0x7F]++;
+        }
+
+        int common = 0;
+        for (int i = 0; i < newSeq.length(); i++) {
+            int residue = newSeq.charAt(i) & 0x7F;
+
+            if (counts[residue] > 0) {
+                counts[residue]--;
+                common++;
+            }
+        }
+
+        return common;
+    }
+
+    /**
+     *
+     * @param oldSeq : the old sequence, not empty
+     * @param newSeq : the new sequence
+     * @return a lower bound of the relative conservation of the old sequence in the new sequence
+     */
+    public static double getConservationLowerBound(String oldSeq, String newSeq) {
+        return (double) countCommonPrefixAndSuffix(oldSeq, newSeq) / oldSeq.length();
+    }
+
+    /**
+     *
+     * @param oldSeq : the old sequence, not empty
+     * @param newSeq : the new sequence
+     * @return an upper bound of the relative conservation of the old sequence in the new sequence
+     */
+    public static double getConservationUpperBound(String oldSeq, String newSeq) {
+        return (double) countCommonResidues(oldSeq, newSeq) / oldSeq.length();
+    }
+
+    /**
+     *
+     * @param oldSeq : the old sequence
+     * @param newSeq : the new sequence
+     * @param threshold : the conservation threshold
+     * @return true if the relative conservation of the old sequence in the new sequence is below or equal to the threshold.
+     * An empty old sequence has no relative conservation (0/0) and is never below the threshold
+     */
+    public static boolean isConservationBelowThreshold(String oldSeq, String newSeq, double threshold) {
+        if (oldSeq.isEmpty()) {
+            return false;
+        }
+
+        if (getConservationLowerBound(oldSeq, newSeq) > threshold) {
+            return false;
+        }
+
+        if (getConservationUpperBound(oldSeq, newSeq) <= threshold) {
+            return true;
+        }
+
+        return ProteinTools.calculateSequenceConservation(oldSeq, newSeq) <= threshold;
+    }
+}
@@ -0,0 +1,150 @@
+package uk.ac.ebi.intact.dbupdate.prot.util;
+
+/**
+ * CRC64 of protein sequences (SWISS-PROT polynomial), giving exactly the same values as <code>uk.ac.ebi.intact.commons.util.Crc64</code>.
+ *
+ * The sequences are processed 8 residues at a time with the slicing-by-8 tables instead of one residue at a time.
+ * As in the original implementation, only the low byte of each character is used.
+ *
+ * @version $Id$
+ */
+public final class SequenceCrc64 {
+
+    private static final long POLY64REV = 0xd800000000000000L;
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * TABLES[k][i] is the CRC of the byte i followed by k null bytes
+     */
+    private static final long[][] TABLES = new long[8][256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            long part = i;
+            for (int j = 0; j < 8; j++) {
+                if ((part & 1) != 0) {
+                    part = (part >>> 1) ^ POLY64REV;
+                }
+                else {
+                    part >>>= 1;
+                }
+            }
+            TABLES[0][i] = part;
+        }
+
+        for (int k = 1; k < 8; k++) {
+            for (int i = 0; i < 256; i++) {
+                long previous = TABLES[k-1][i];
+                TABLES[k][i] = (previous >>> 8) ^ TABLES[0][(int) (previous & 0xff)];
+            }
+        }
+    }
+
+    private SequenceCrc64() {}
+
+    /**
+     *
+     * @param residues : the residues
+     * @param offset : the index of the first residue
+     * @param length : the number of residues
+     * @return the CRC64 of the residues
+     */
+    public static long getCrc64Long(byte[] residues, int offset, int length) {
+        long crc = 0;
+        int index = offset;
+        int end = offset + length;
+
+        for (; index + 8 <= end; index += 8) {
+            crc ^= (residues[index] & 0xffL)
+                    | (residues[index + 1] & 0xffL) << 8
+                    | (residues[index + 2] & 0xffL) << 16
+                    | (residues[index + 3] & 0xffL) << 24
+                    | (residues[index + 4] & 0xffL) << 32
+                    | (residues[index + 5] & 0xffL) << 40
+                    | (residues[index + 6] & 0xffL) << 48
+                    | (residues[index + 7] & 0xffL) << 56;
+            crc = slice(crc);
+        }
+
+        for (; index < end; index++) {
+            crc = TABLES[0][(int) ((crc ^ residues[index]) & 0xff)] ^ (crc >>> 8);
+        }
+
+        return crc;
+    }
+
+    /**
+     *
+     * @param sequence : the sequence
+     * @return the CRC64 of the sequence
+     */
+    public static long getCrc64Long(CharSequence sequence) {
+        long crc = 0;
+        int index = 0;
+        int end = sequence.length();
+
+        for (; index + 8 <= end; index += 8) {
+            crc ^= (sequence.charAt(index) & 0xffL)
+                    | (sequence.charAt(index + 1) & 0xffL) << 8
+                    | (sequence.charAt(index + 2) & 0xffL) << 16
+                    | (sequence.charAt(index + 3) & 0xffL) << 24
+                    | (sequence.charAt(index + 4) & 0xffL) << 32
+                    | (sequence.charAt(index + 5) & 0xffL) << 40
+                    | (sequence.charAt(index + 6) & 0xffL) << 48
+                    | (sequence.charAt(index + 7) & 0xffL) << 56;
+            crc = slice(crc);
+        }
+
+        for (; index < end; index++) {
+            crc = TABLES[0][(int) ((crc ^ sequence.charAt(index)) & 0xff)] ^ (crc >>> 8);
+        }
+
+        return crc;
+    }
+
+    /**
+     *
+     * @param residues : the residues
+     * @return the CRC64 of the residues as an upper case hexadecimal string of 16 characters
+     */
+    public static String getCrc64(byte[] residues) {
+        return toHexString(getCrc64Long(residues, 0, residues.length));
+    }
+
+    /**
+     *
+     * @param sequence : the sequence
+     * @return the CRC64 of the sequence as an upper case hexadecimal string of 16 characters
+     */
+    public static String getCrc64(CharSequence sequence) {
+        return toHexString(getCrc64Long(sequence));
+    }
+
+    /**
+     *
+     * @param crc : the CRC64
+     * @return the CRC64 as an upper case hexadecimal string of 16 characters
+     */
+    public static String toHexString(long crc) {
+        char[] hex = new char[16];
+
+        for (int i = 15; i >= 0; i--) {
+            hex[i] = HEX[(int) (crc & 0xf)];
+            crc >>>= 4;
+        }
+
+        return new String(hex);
+    }
+
+    private static long slice(long crc) {
+        return TABLES[7][(int) (crc & 0xff)]
+                ^ TABLES[6][(int) ((crc >>> 8) & 0xff)]
+                ^ TABLES[5][(int) ((crc >>> 16) & 0xff)]
+                ^ TABLES[4][(int) ((crc >>> 24) & 0xff)]
+                ^ TABLES[3][(int) ((crc >>> 32) & 0xff)]
+                ^ TABLES[2][(int) ((crc >>> 40) & 0xff)]
+                ^ TABLES[1][(int) ((crc >>> 48) & 0xff)]
+                ^ TABLES[0][(int) (crc >>> 56)];
+    }
+}
@@ -0,0 +1,159 @@
+package uk.ac.ebi.intact.dbupdate.prot.util;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Times the phases of the startup of an update application. The phases independent from each other can run in parallel
+ * with the phases of the main thread.
+ *
+ * The breakdown gives the duration of each phase and the total startup time, so the regressions of the startup are visible.
+ *
+ * @version $Id$
+ */
+public class StartupTimer {
+
+    private final long startTime;
+
+    /**
+     * The duration of each phase in milliseconds, in order of completion
+     */
+    private final Map<String, Long> durations = new LinkedHashMap<>();
+    private final Map<String, Boolean> parallelPhases = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+    public StartupTimer() {
+        this.startTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Runs a phase in the current thread
+     * @param phase : the name of the phase
+     * @param task : the phase
+     * @return the result of the phase
+     */
+    public <T> T time(String phase, Supplier<T> task) {
+        long start = System.currentTimeMillis();
+        try {
+            return task.get();
+        } finally {
+            record(phase, System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Runs a phase in the current thread
+     * @param phase : the name of the phase
+     * @param task : the phase
+     */
+    public void run(String phase, Runnable task) {
+        time(phase, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Starts a phase in parallel of the current thread
+     * @param phase : the name of the phase
+     * @param task : the phase
+     * @return the future result of the phase
+     */
+    public synchronized <T> Future<T> submit(final String phase, final Callable<T> task) {
+        if (executor == null) {
+            executor = Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "update-startup");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        parallelPhases.put(phase, Boolean.TRUE);
+        return executor.submit(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                return task.call();
+            } finally {
+                record(phase, System.currentTimeMillis() - start);
+            }
+        });
+    }
+
+    /**
+     * Waits for a phase started in parallel
+     * @param phase : the future result of the phase
+     * @return the result of the phase
+     * @throws IOException if the phase has failed with an IOException
+     */
+    public static <T> T join(Future<T> phase) throws IOException {
+        try {
+            return phase.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a startup phase", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("A startup phase has failed", cause);
+        }
+    }
+
+    /**
+     * Stops the threads of the parallel phases. The phases still running are not interrupted.
+     */
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    /**
+     *
+     * @return the duration of the phase in milliseconds, -1 if the phase is not finished
+     */
+    public synchronized long getDuration(String phase) {
+        Long duration = durations.get(phase);
+        return duration != null ? duration : -1;
+    }
+
+    /**
+     *
+     * @return the duration of each phase finished and the total startup time
+     */
+    public synchronized String getBreakdown() {
+        StringBuilder breakdown = new StringBuilder(256);
+        breakdown.append("Startup in ").append(formatSeconds(System.currentTimeMillis() - startTime)).append(" :");
+
+        for (Map.Entry<String, Long> duration : durations.entrySet()) {
+            breakdown.append(' ').append(duration.getKey()).append(' ').append(formatSeconds(duration.getValue()));
+            if (parallelPhases.containsKey(duration.getKey())) {
+                breakdown.append(" (parallel)");
+            }
+            breakdown.append(',');
+        }
+        breakdown.setLength(breakdown.length() - 1);
+
+        return breakdown.toString();
+    }
+
+    private synchronized void record(String phase, long duration) {
+        durations.put(phase, duration);
+    }
+
+    private String formatSeconds(long duration) {
+        return String.format(Locale.ENGLISH, "%.2f s", duration / 1000d);
+    }
+}
@@ -0,0 +1,697 @@
+package uk.ac.ebi.intact.dbupdate.prot.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Offline index of the deleted and secondary uniprot accessions, built from the files published by UniProt
+ * with each release (delac_sp.txt, delac_tr.txt and sec_ac.txt).
+ *
+ * Each accession is encoded in a long which keeps the alphabetical order of the accessions. The index file contains
+ * the sorted deleted accessions followed by the sorted (secondary, primary) pairs and is memory mapped, so a lookup
+ * is a binary search in the mapped file.
+ *
+ * The index is built with an external merge sort : the accessions are sorted in runs of at most MAX_LONGS_IN_MEMORY longs
+ * written in temporary files next to the index, then merged. The index is written in a temporary file of its own and moved
+ * atomically in place, so several processes can build the index of the same directory at the same time.
+ *
+ * @version $Id$
+ */
+public final class UniprotAccessionIndex {
+
+    private static final Log log = LogFactory.getLog( UniprotAccessionIndex.class );
+
+    public static final String DELETED_SWISSPROT_FILE = "delac_sp.txt";
+    public static final String DELETED_TREMBL_FILE = "delac_tr.txt";
+    public static final String SECONDARY_ACCESSION_FILE = "sec_ac.txt";
+    public static final String INDEX_FILE = "uniprot_accessions.idx";
+
+    private static final long MAGIC = 0x5550414349445831L; // UPACIDX1
+    private static final int HEADER_SIZE = 24;
+
+    /**
+     * Maximum length of a uniprot accession
+     */
+    private static final int MAX_ACCESSION_LENGTH = 10;
+    private static final int RADIX = 37;
+
+    /**
+     * The longs are mapped in segments of 2^27 longs (1Gb) because a mapped buffer cannot exceed 2Gb
+     */
+    private static final int SEGMENT_SHIFT = 27;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    /**
+     * Number of longs sorted in memory before being written in a run (64Mb)
+     */
+    private static final int MAX_LONGS_IN_MEMORY = 1 << 23;
+
+    private final MappedByteBuffer[] segments;
+    private final long numberOfDeletedAccessions;
+    private final long numberOfSecondaryAccessions;
+
+    /**
+     * Index of the first long of the secondary accessions
+     */
+    private final long secondaryOffset;
+
+    private UniprotAccessionIndex(MappedByteBuffer[] segments, long numberOfDeletedAccessions, long numberOfSecondaryAccessions) {
+        this.segments = segments;
+        this.numberOfDeletedAccessions = numberOfDeletedAccessions;
+        this.numberOfSecondaryAccessions = numberOfSecondaryAccessions;
+        this.secondaryOffset = numberOfDeletedAccessions;
+    }
+
+    /**
+     * Opens the index of this directory, (re)building it if it does not exist or is older than the uniprot files
+     * @param directory : the directory containing delac_sp.txt, delac_tr.txt and sec_ac.txt
+     * @return the index
+     * @throws IOException
+     */
+    public static UniprotAccessionIndex openOrBuild(File directory) throws IOException {
+        File indexFile = new File(directory, INDEX_FILE);
+        File[] deletedFiles = new File[]{new File(directory, DELETED_SWISSPROT_FILE), new File(directory, DELETED_TREMBL_FILE)};
+        File secondaryFile = new File(directory, SECONDARY_ACCESSION_FILE);
+
+        boolean upToDate = indexFile.exists();
+        for (File source : new File[]{deletedFiles[0], deletedFiles[1], secondaryFile}){
+            if (source.exists() && source.lastModified() > indexFile.lastModified()){
+                upToDate = false;
+            }
+        }
+
+        if (!upToDate){
+            build(deletedFiles, secondaryFile, indexFile);
+        }
+
+        return open(indexFile);
+    }
+
+    /**
+     * Builds the index file. The missing files are ignored.
+     * @param deletedFiles : the files listing the deleted accessions
+     * @param secondaryFile : the file listing the secondary accessions and their primary accessions
+     * @param indexFile : the index file to write
+     * @throws IOException
+     */
+    public static void build(File[] deletedFiles, File secondaryFile, File indexFile) throws IOException {
+        build(deletedFiles, secondaryFile, indexFile, MAX_LONGS_IN_MEMORY);
+    }
+
+    /**
+     * Builds the index file. The missing files are ignored.
+     * @param deletedFiles : the files listing the deleted accessions
+     * @param secondaryFile : the file listing the secondary accessions and their primary accessions
+     * @param indexFile : the index file to write
+     * @param maxLongsInMemory : the number of longs sorted in memory before being written in a run
+     * @throws IOException
+     */
+    static void build(File[] deletedFiles, File secondaryFile, File indexFile, int maxLongsInMemory) throws IOException {
+        long start = System.currentTimeMillis();
+        File directory = indexFile.getAbsoluteFile().getParentFile();
+
+        // unique temporary file : another process may be building the same index
+        File tmpFile = File.createTempFile(INDEX_FILE, ".tmp", directory);
+        long numberOfDeleted;
+        long numberOfPairs;
+
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile), 1 << 16))) {
+                // the numbers of accessions are written once the accessions are merged
+                out.writeLong(MAGIC);
+                out.writeLong(0);
+                out.writeLong(0);
+
+                try (ExternalSorter deleted = new ExternalSorter(1, maxLongsInMemory, directory)) {
+                    for (File deletedFile : deletedFiles){
+                        if (deletedFile != null && deletedFile.exists()){
+                            readDeletedAccessions(deletedFile, deleted);
+                        }
+                    }
+                    numberOfDeleted = deleted.writeSortedDistinct(out);
+                }
+
+                // the (secondary, primary) pairs are sorted on the secondary accession, then on the primary accession
+                try (ExternalSorter pairs = new ExternalSorter(2, maxLongsInMemory, directory)) {
+                    if (secondaryFile != null && secondaryFile.exists()){
+                        readSecondaryAccessions(secondaryFile, pairs);
+                    }
+                    numberOfPairs = pairs.writeSortedDistinct(out);
+                }
+            }
+
+            try (RandomAccessFile file = new RandomAccessFile(tmpFile, "rw")) {
+                file.seek(8);
+                file.writeLong(numberOfDeleted);
+                file.writeLong(numberOfPairs);
+            }
+
+            Files.move(tmpFile.toPath(), indexFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmpFile.toPath());
+        }
+
+        log.info("Uniprot accession index built in " + (System.currentTimeMillis() - start) + " ms : " + numberOfDeleted +
+                " deleted accessions, " + numberOfPairs + " secondary accessions");
+    }
+
+    /**
+     * Memory maps an index file
+     * @param indexFile : the index file
+     * @return the index
+     * @throws IOException
+     */
+    public static UniprotAccessionIndex open(File indexFile) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(indexFile, "r");
+             FileChannel channel = file.getChannel()) {
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            header.flip();
+
+            if (header.remaining() < HEADER_SIZE || header.getLong() != MAGIC){
+                throw new IOException(indexFile + " is not a uniprot accession index.");
+            }
+
+            long numberOfDeleted = header.getLong();
+            long numberOfSecondary = header.getLong();
+            long numberOfLongs = numberOfDeleted + 2 * numberOfSecondary;
+
+            if (channel.size() < HEADER_SIZE + numberOfLongs * 8){
+                throw new IOException(indexFile + " is truncated.");
+            }
+
+            int numberOfSegments = (int) ((numberOfLongs + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            MappedByteBuffer[] segments = new MappedByteBuffer[numberOfSegments];
+
+            for (int i = 0; i < numberOfSegments; i++){
+                long firstLong = ((long) i) << SEGMENT_SHIFT;
+                long longs = Math.min(numberOfLongs - firstLong, 1L << SEGMENT_SHIFT);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + firstLong * 8, longs * 8);
+            }
+
+            return new UniprotAccessionIndex(segments, numberOfDeleted, numberOfSecondary);
+        }
+    }
+
+    /**
+     *
+     * @param uniprotAc : a uniprot accession, the isoform and feature chain suffixes are ignored
+     * @return true if this accession has been deleted from uniprot
+     */
+    public boolean isDeleted(String uniprotAc){
+        long key = encode(stripTranscriptSuffix(uniprotAc));
+
+        return key >= 0 && binarySearch(0, numberOfDeletedAccessions, 1, key) >= 0;
+    }
+
+    /**
+     *
+     * @param uniprotAc : a uniprot accession
+     * @return true if this accession is a secondary accession of at least one uniprot entry
+     */
+    public boolean isSecondary(String uniprotAc){
+        long key = encode(uniprotAc);
+
+        return key >= 0 && binarySearch(secondaryOffset, numberOfSecondaryAccessions, 2, key) >= 0;
+    }
+
+    /**
+     *
+     * @param secondaryAc : a secondary uniprot accession
+     * @return the primary accessions of the entries having this secondary accession (several if the entry has been demerged),
+     * an empty list if this accession is not a secondary accession
+     */
+    public List<String> getPrimaryAccessions(String secondaryAc){
+        long key = encode(secondaryAc);
+
+        if (key < 0){
+            return Collections.emptyList();
+        }
+
+        long index = binarySearch(secondaryOffset, numberOfSecondaryAccessions, 2, key);
+
+        if (index < 0){
+            return Collections.emptyList();
+        }
+
+        // binary search returns the first pair of this secondary accession
+        List<String> primaryAccessions = new ArrayList<>(1);
+        for (long i = index; i < numberOfSecondaryAccessions && getLong(secondaryOffset + 2 * i) == key; i++){
+            primaryAccessions.add(decode(getLong(secondaryOffset + 2 * i + 1)));
+        }
+
+        return primaryAccessions;
+    }
+
+    public long getNumberOfDeletedAccessions() {
+        return numberOfDeletedAccessions;
+    }
+
+    public long getNumberOfSecondaryAccessions() {
+        return numberOfSecondaryAccessions;
+    }
+
+    /**
+     * Binary search of the first record having this key
+     * @param offset : the index of the first long of the records
+     * @param size : the number of records
+     * @param recordSize : the number of longs per record
+     * @param key : the key
+     * @return the index of the first record having this key, -1 if there is none
+     */
+    private long binarySearch(long offset, long size, int recordSize, long key){
+        long low = 0;
+        long high = size;
+
+        while (low < high){
+            long middle = (low + high) >>> 1;
+
+            if (getLong(offset + middle * recordSize) < key){
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+
+        return low < size && getLong(offset + low * recordSize) == key ? low : -1;
+    }
+
+    private long getLong(long index){
+        return segments[(int) (index >>> SEGMENT_SHIFT)].getLong((int) (index & SEGMENT_MASK) << 3);
+    }
+
+    /**
+     *
+     * @param accession : the accession
+     * @return the accession encoded in a long keeping the alphabetical order, -1 if it is not a valid uniprot accession
+     */
+    static long encode(String accession){
+        if (accession == null){
+            return -1;
+        }
+
+        int length = accession.length();
+        if (length == 0 || length > MAX_ACCESSION_LENGTH){
+            return -1;
+        }
+
+        long code = 0;
+        for (int i = 0; i < MAX_ACCESSION_LENGTH; i++){
+            int digit = 0;
+
+            if (i < length){
+                char c = Character.toUpperCase(accession.charAt(i));
+
+                if (c >= '0' && c <= '9'){
+                    digit = c - '0' + 1;
+                }
+                else if (c >= 'A' && c <= 'Z'){
+                    digit = c - 'A' + 11;
+                }
+                else {
+                    return -1;
+                }
+            }
+            code = code * RADIX + digit;
+        }
+
+        return code;
+    }
+
+    static String decode(long code){
+        char[] accession = new char[MAX_ACCESSION_LENGTH];
+        int length = 0;
+
+        for (int i = MAX_ACCESSION_LENGTH - 1; i >= 0; i--){
+            int digit = (int) (code % RADIX);
+            code /= RADIX;
+
+            if (digit == 0){
+                accession[i] = ' ';
+            }
+            else {
+                accession[i] = digit <= 10 ? (char) ('0' + digit - 1) : (char) ('A' + digit - 11);
+                length = Math.max(length, i + 1);
+            }
+        }
+
+        return new String(accession, 0, length);
+    }
+
+    private static String stripTranscriptSuffix(String uniprotAc){
+        if (uniprotAc == null){
+            return null;
+        }
+
+        int index = uniprotAc.indexOf('-');
+        return index > 0 ? uniprotAc.substring(0, index) : uniprotAc;
+    }
+
+    /**
+     * Reads the accessions listed one per line, the header lines are skipped
+     */
+    private static void readDeletedAccessions(File deletedFile, ExternalSorter accessions) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(deletedFile.toPath(), StandardCharsets.ISO_8859_1)) {
+            String line;
+            while ((line = reader.readLine()) != null){
+                String accession = line.trim();
+
+                if (isAccessionLine(accession)){
+                    accessions.add(encode(accession));
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the 'secondary primary' lines, the header lines are skipped
+     */
+    private static void readSecondaryAccessions(File secondaryFile, ExternalSorter pairs) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(secondaryFile.toPath(), StandardCharsets.ISO_8859_1)) {
+            String line;
+            while ((line = reader.readLine()) != null){
+                String[] columns = line.trim().split("\\s+");
+
+                if (columns.length == 2 && isAccessionLine(columns[0]) && isAccessionLine(columns[1])){
+                    pairs.add(encode(columns[0]));
+                    pairs.add(encode(columns[1]));
+                }
+            }
+        }
+    }
+
+    /**
+     *
+     * @return true if the text is a uniprot accession : 6 or 10 characters, starting with a letter followed by a digit
+     */
+    private static boolean isAccessionLine(String text){
+        int length = text.length();
+
+        if ((length != 6 && length != 10) || !Character.isUpperCase(text.charAt(0)) || !Character.isDigit(text.charAt(1))){
+            return false;
+        }
+
+        for (int i = 2; i < length; i++){
+            char c = text.charAt(i);
+            if (!(c >= '0' && c <= '9') && !(c >= 'A' && c <= 'Z')){
+                return false;
+            }
+        }
+        return Character.isDigit(text.charAt(length - 1));
+    }
+
+    /**
+     * External merge sort of records of one or two longs, compared on their first long then on their second long.
+     * The records are sorted in memory until MAX_LONGS_IN_MEMORY longs, then written in a sorted run in a temporary file.
+     * The runs are merged when the sorted records are written, the duplicated records are removed.
+     */
+    private static class ExternalSorter implements Closeable {
+        private final int recordSize;
+        private final int maxLongsInMemory;
+        private final File directory;
+        private final List<File> runs = new ArrayList<>();
+
+        private long[] values;
+        private int size;
+
+        /**
+         *
+         * @param recordSize : the number of longs per record, 1 or 2
+         * @param maxLongsInMemory : the number of longs sorted in memory before being written in a run
+         * @param directory : the directory of the runs
+         */
+        ExternalSorter(int recordSize, int maxLongsInMemory, File directory){
+            this.recordSize = recordSize;
+            this.maxLongsInMemory = Math.max(maxLongsInMemory - maxLongsInMemory % recordSize, recordSize);
+            this.directory = directory;
+            this.values = new long[Math.min(1024, this.maxLongsInMemory)];
+        }
+
+        /**
+         * Adds the next long of a record
+         */
+        void add(long value) throws IOException {
+            if (size == values.length){
+                if (size >= maxLongsInMemory){
+                    writeRun();
+                }
+                else {
+                    values = Arrays.copyOf(values, Math.min(values.length * 2, maxLongsInMemory));
+                }
+            }
+            values[size++] = value;
+        }
+
+        /**
+         * Writes the sorted distinct records
+         * @param out : the output
+         * @return the number of distinct records written
+         * @throws IOException
+         */
+        long writeSortedDistinct(DataOutputStream out) throws IOException {
+            if (runs.isEmpty()){
+                int numberOfRecords = sortDistinct();
+                for (int i = 0; i < numberOfRecords * recordSize; i++){
+                    out.writeLong(values[i]);
+                }
+                return numberOfRecords;
+            }
+
+            if (size > 0){
+                writeRun();
+            }
+            values = null;
+
+            return mergeRuns(out);
+        }
+
+        /**
+         * Sorts the records in memory and removes the duplicated records
+         * @return the number of distinct records
+         */
+        private int sortDistinct(){
+            int numberOfRecords = size / recordSize;
+
+            if (recordSize == 1){
+                Arrays.sort(values, 0, numberOfRecords);
+            }
+            else {
+                sortPairs(values, 0, numberOfRecords - 1);
+            }
+
+            int distinct = 0;
+            for (int i = 0; i < numberOfRecords; i++){
+                if (distinct == 0 || compareRecords(values, distinct - 1, values, i) != 0){
+                    System.arraycopy(values, i * recordSize, values, distinct * recordSize, recordSize);
+                    distinct++;
+                }
+            }
+            size = distinct * recordSize;
+
+            return distinct;
+        }
+
+        private void writeRun() throws IOException {
+            int numberOfRecords = sortDistinct();
+
+            File run = File.createTempFile(INDEX_FILE, ".run", directory);
+            runs.add(run);
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run), 1 << 16))) {
+                for (int i = 0; i < numberOfRecords * recordSize; i++){
+                    out.writeLong(values[i]);
+                }
+            }
+            size = 0;
+        }
+
+        /**
+         * Merges the runs, keeping the first of the records which are equal
+         */
+        private long mergeRuns(DataOutputStream out) throws IOException {
+            List<RunReader> readers = new ArrayList<>(runs.size());
+            PriorityQueue<RunReader> queue = new PriorityQueue<>(runs.size(),
+                    (first, second) -> compareRecords(first.record, 0, second.record, 0));
+
+            try {
+                for (File run : runs){
+                    RunReader reader = new RunReader(run, recordSize);
+                    readers.add(reader);
+
+                    if (reader.next()){
+                        queue.add(reader);
+                    }
+                }
+
+                long[] last = new long[recordSize];
+                long numberOfRecords = 0;
+
+                while (!queue.isEmpty()){
+                    RunReader reader = queue.poll();
+
+                    if (numberOfRecords == 0 || compareRecords(last, 0, reader.record, 0) != 0){
+                        System.arraycopy(reader.record, 0, last, 0, recordSize);
+                        for (long value : last){
+                            out.writeLong(value);
+                        }
+                        numberOfRecords++;
+                    }
+
+                    if (reader.next()){
+                        queue.add(reader);
+                    }
+                }
+
+                return numberOfRecords;
+            } finally {
+                for (RunReader reader : readers){
+                    reader.close();
+                }
+            }
+        }
+
+        private int compareRecords(long[] first, int firstIndex, long[] second, int secondIndex){
+            for (int i = 0; i < recordSize; i++){
+                int comparison = Long.compare(first[firstIndex * recordSize + i], second[secondIndex * recordSize + i]);
+                if (comparison != 0){
+                    return comparison;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * Deletes the runs
+         */
+        @Override
+        public void close() throws IOException {
+            for (File run : runs){
+                Files.deleteIfExists(run.toPath());
+            }
+            runs.clear();
+        }
+
+        /**
+         * Quicksort of the pairs from low to high (inclusive), with a median of three pivot and an insertion sort of the small ranges.
+         * The recursion is done on the smallest part so the stack stays in O(log n)
+         */
+        private static void sortPairs(long[] pairs, int low, int high){
+            while (high - low > 16){
+                int middle = (low + high) >>> 1;
+
+                if (comparePairs(pairs, middle, low) < 0) swapPairs(pairs, middle, low);
+                if (comparePairs(pairs, high, low) < 0) swapPairs(pairs, high, low);
+                if (comparePairs(pairs, high, middle) < 0) swapPairs(pairs, high, middle);
+
+                long pivotFirst = pairs[2 * middle];
+                long pivotSecond = pairs[2 * middle + 1];
+
+                int i = low;
+                int j = high;
+                while (i <= j){
+                    while (comparePair(pairs, i, pivotFirst, pivotSecond) < 0) i++;
+                    while (comparePair(pairs, j, pivotFirst, pivotSecond) > 0) j--;
+
+                    if (i <= j){
+                        swapPairs(pairs, i, j);
+                        i++;
+                        j--;
+                    }
+                }
+
+                if (j - low < high - i){
+                    sortPairs(pairs, low, j);
+                    low = i;
+                }
+                else {
+                    sortPairs(pairs, i, high);
+                    high = j;
+                }
+            }
+
+            for (int i = low + 1; i <= high; i++){
+                for (int j = i; j > low && comparePairs(pairs, j, j - 1) < 0; j--){
+                    swapPairs(pairs, j, j - 1);
+                }
+            }
+        }
+
+        private static int comparePairs(long[] pairs, int first, int second){
+            return comparePair(pairs, first, pairs[2 * second], pairs[2 * second + 1]);
+        }
+
+        private static int comparePair(long[] pairs, int index, long first, long second){
+            int comparison = Long.compare(pairs[2 * index], first);
+            return comparison != 0 ? comparison : Long.compare(pairs[2 * index + 1], second);
+        }
+
+        private static void swapPairs(long[] pairs, int first, int second){
+            long value = pairs[2 * first];
+            pairs[2 * first] = pairs[2 * second];
+            pairs[2 * second] = value;
+
+            value = pairs[2 * first + 1];
+            pairs[2 * first + 1] = pairs[2 * second + 1];
+            pairs[2 * second + 1] = value;
+        }
+    }
+
+    /**
+     * Reads the records of a sorted run
+     */
+    private static class RunReader implements Closeable {
+        private final DataInputStream in;
+        private final long[] record;
+
+        RunReader(File run, int recordSize) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(run), 1 << 16));
+            this.record = new long[recordSize];
+        }
+
+        /**
+         * Reads the next record
+         * @return false if the run is finished
+         */
+        boolean next() throws IOException {
+            try {
+                for (int i = 0; i < record.length; i++){
+                    record[i] = in.readLong();
+                }
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -4,6 +4,7 @@ import uk.ac.ebi.intact.model.Alias;
 import uk.ac.ebi.intact.model.InteractorAlias;
 import uk.ac.ebi.intact.model.Protein;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 
@@ -46,21 +47,37 @@ public class AliasUpdateReport {
     }
 
     public static String aliasesToString(Collection<Alias> aliases) {
-        StringBuilder sb = new StringBuilder();
+        try {
+            return appendAliases(new StringBuilder(), aliases).toString();
+        } catch (IOException e) {
+            throw new IllegalStateException("A StringBuilder cannot throw an IOException", e);
+        }
+    }
+
+    /**
+     * Appends the aliases in the same format as aliasesToString, without building intermediate strings
+     * @param out : where to append the aliases, for instance a ReportLine
+     * @param aliases : the aliases
+     * @return out
+     * @throws IOException
+     */
+    public static <A extends Appendable> A appendAliases(A out, Collection<Alias> aliases) throws IOException {
         int i = 1;
         for (Alias alias : aliases) {
 
             if (i < aliases.size()) {
-                sb.append(", ");
+                out.append(", ");
             }
 
-            String qual = (alias.getCvAliasType() != null)? "("+alias.getCvAliasType().getShortLabel()+")" : "";
+            if (alias.getCvAliasType() != null) {
+                out.append("(").append(alias.getCvAliasType().getShortLabel()).append(")");
+            }
 
-            sb.append(qual).append(":").append(alias.getName() != null ? alias.getName() : "");
+            out.append(":").append(alias.getName() != null ? alias.getName() : "");
 
             i++;
         }
 
-        return sb.toString();
+        return out;
     }
 }
\ No newline at end of file
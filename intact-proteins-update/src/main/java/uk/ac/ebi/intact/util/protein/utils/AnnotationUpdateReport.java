@@ -2,6 +2,7 @@ package uk.ac.ebi.intact.util.protein.utils;
 
 import uk.ac.ebi.intact.model.Annotation;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 
@@ -32,22 +33,38 @@ public class AnnotationUpdateReport {
     }
 
     public static String annotationsToString(Collection<Annotation> annotations) {
-        StringBuilder sb = new StringBuilder();
+        try {
+            return appendAnnotations(new StringBuilder(), annotations).toString();
+        } catch (IOException e) {
+            throw new IllegalStateException("A StringBuilder cannot throw an IOException", e);
+        }
+    }
+
+    /**
+     * Appends the annotations in the same format as annotationsToString, without building intermediate strings
+     * @param out : where to append the annotations, for instance a ReportLine
+     * @param annotations : the annotations
+     * @return out
+     * @throws IOException
+     */
+    public static <A extends Appendable> A appendAnnotations(A out, Collection<Annotation> annotations) throws IOException {
         int i = 1;
         for (Annotation a : annotations) {
 
             if (i < annotations.size()) {
-                sb.append(", ");
+                out.append(", ");
             }
 
-            String qual = (a.getCvTopic() != null)? "("+a.getCvTopic().getShortLabel()+")" : "";
+            if (a.getCvTopic() != null) {
+                out.append("(").append(a.getCvTopic().getShortLabel()).append(")");
+            }
 
-            sb.append(qual).append(":").append(a.getAnnotationText() != null ? a.getAnnotationText() : "");
+            out.append(":").append(a.getAnnotationText() != null ? a.getAnnotationText() : "");
 
             i++;
         }
 
-        return sb.toString();
+        return out;
     }
 
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package uk.ac.ebi.intact.util.protein.utils;
 import uk.ac.ebi.intact.model.Protein;
 import uk.ac.ebi.intact.model.Xref;
 
+import java.io.IOException;
 import java.util.Collection;
 
 /**
@@ -55,21 +56,37 @@ public final class XrefUpdaterReport {
     }
 
     protected static String xrefsToString(Collection<Xref> xrefs) {
-        StringBuilder sb = new StringBuilder();
-         int i = 1;
+        try {
+            return appendXrefs(new StringBuilder(), xrefs).toString();
+        } catch (IOException e) {
+            throw new IllegalStateException("A StringBuilder cannot throw an IOException", e);
+        }
+    }
+
+    /**
+     * Appends the xrefs in the same format as xrefsToString, without building intermediate strings
+     * @param out : where to append the xrefs, for instance a ReportLine
+     * @param xrefs : the xrefs
+     * @return out
+     * @throws IOException
+     */
+    public static <A extends Appendable> A appendXrefs(A out, Collection<Xref> xrefs) throws IOException {
+        int i = 1;
         for (Xref xref : xrefs) {
 
             if (i < xrefs.size()) {
-                sb.append(", ");
+                out.append(", ");
             }
 
-            String qual = (xref.getCvXrefQualifier() != null)? "("+xref.getCvXrefQualifier().getShortLabel()+")" : "";
+            out.append(xref.getCvDatabase().getShortLabel()).append(":").append(xref.getPrimaryId());
 
-            sb.append(xref.getCvDatabase().getShortLabel()).append(":").append(xref.getPrimaryId()).append(qual);
+            if (xref.getCvXrefQualifier() != null) {
+                out.append("(").append(xref.getCvXrefQualifier().getShortLabel()).append(")");
+            }
 
             i++;
         }
 
-        return sb.toString();
+        return out;
     }
 }
\ No newline at end of file
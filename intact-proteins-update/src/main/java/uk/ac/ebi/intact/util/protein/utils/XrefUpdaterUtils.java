@@ -370,22 +370,27 @@ public final class XrefUpdaterUtils {
         InteractorXref original = getOlderUniprotIdentity(uniprotIdentities);
 
         ProteinDao proteinDao =  context.getDaoFactory().getProteinDao();
-        Collection<Xref> deletedDuplicate = new ArrayList<>();
+        List<InteractorXref> deletedDuplicate = new ArrayList<>();
 
         if (original != null){
+            // the older uniprot identity is kept, its duplicates are deleted all at once
             for (InteractorXref ref : uniprotIdentities){
+                if (ref == original){
+                    continue;
+                }
+
                 if (ref.getPrimaryId() != null && ref.getPrimaryId().equalsIgnoreCase(original.getPrimaryId())){
                     deletedDuplicate.add(ref);
-                    ProteinTools.deleteInteractorXRef(prot, context, ref);
                 }
                 else if (ref.getPrimaryId() == null && original.getPrimaryId() == null){
                     deletedDuplicate.add(ref);
-                    ProteinTools.deleteInteractorXRef(prot, context, ref);
                 }
             }
+
+            ProteinTools.deleteInteractorXRefs(prot, context, deletedDuplicate);
         }
 
-        XrefUpdaterReport report = new XrefUpdaterReport(prot, Collections.emptyList(), deletedDuplicate);
+        XrefUpdaterReport report = new XrefUpdaterReport(prot, Collections.emptyList(), new ArrayList<Xref>(deletedDuplicate));
 
         proteinDao.update((ProteinImpl) prot);
 
@@ -439,6 +444,7 @@ public final class XrefUpdaterUtils {
         log.debug( "Found " + uniprotProtein.getSecondaryAcs().size() + " secondary ACs" );
         // update secondary xrefs
         List<String> secondaryUniprot = new ArrayList<>(uniprotProtein.getSecondaryAcs());
+        List<InteractorXref> deletedSecondaryXrefs = new ArrayList<>();
         for ( InteractorXref xref : protein.getXrefs() ) {
             if (xref.getCvDatabase() != null && xref.getCvDatabase().getIdentifier().equals(CvDatabase.UNIPROT_MI_REF)){
                 if (xref.getCvXrefQualifier() != null && xref.getCvXrefQualifier().getIdentifier().equals(CvXrefQualifier.SECONDARY_AC_MI_REF)){
@@ -450,13 +456,16 @@ public final class XrefUpdaterUtils {
                     }
                     // secondary xref does not exist, we delete it
                     else {
-                        deletedXrefs.add(xref);
-                        ProteinTools.deleteInteractorXRef(protein, context, xref);
+                        deletedSecondaryXrefs.add(xref);
                     }
                 }
             }
         }
 
+        // the secondary xrefs which do not exist anymore are deleted all at once
+        deletedXrefs.addAll(deletedSecondaryXrefs);
+        ProteinTools.deleteInteractorXRefs(protein, context, deletedSecondaryXrefs);
+
         if (secondary == null){
             secondary = CvHelper.getQualifierByMi(CvXrefQualifier.SECONDARY_AC_MI_REF);
         }
@@ -2,7 +2,9 @@ package uk.ac.ebi.intact.dbupdate.prot;
 
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.transaction.TransactionStatus;
@@ -16,12 +18,17 @@ import uk.ac.ebi.intact.core.persister.CorePersister;
 import uk.ac.ebi.intact.core.persister.CorePersisterImpl;
 import uk.ac.ebi.intact.core.persister.finder.DefaultFinder;
 import uk.ac.ebi.intact.core.unit.IntactBasicTestCase;
+import uk.ac.ebi.intact.dbupdate.prot.listener.ProteinUpdateProcessorListener;
+import uk.ac.ebi.intact.dbupdate.prot.listener.ReportWriterListener;
+import uk.ac.ebi.intact.dbupdate.prot.report.FileReportHandler;
+import uk.ac.ebi.intact.dbupdate.prot.report.ReportCompression;
 import uk.ac.ebi.intact.model.*;
 import uk.ac.ebi.intact.model.clone.IntactCloner;
 import uk.ac.ebi.intact.model.util.AnnotatedObjectUtils;
 import uk.ac.ebi.intact.model.util.ProteinUtils;
 import uk.ac.ebi.intact.util.protein.ComprehensiveCvPrimer;
 
+import java.io.File;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.*;
@@ -36,6 +43,9 @@ import java.util.*;
 @ContextConfiguration(locations = {"classpath*:/META-INF/dbupdate.spring.xml"} )
 public class ProteinUpdateProcessor4Test extends IntactBasicTestCase {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Before
     public void before() throws Exception {
 
@@ -123,6 +133,54 @@ public class ProteinUpdateProcessor4Test extends IntactBasicTestCase {
         context2.commitTransaction(status2);
     }
 
+    /**
+     * Processor whose default listeners can be removed before the update
+     */
+    private static class ListenerlessProteinUpdateProcessor extends ProteinUpdateProcessor {
+
+        private ListenerlessProteinUpdateProcessor(ProteinUpdateProcessorConfig configUpdate) {
+            super(configUpdate);
+
+            for (ProteinUpdateProcessorListener listener : getListeners(ProteinUpdateProcessorListener.class)) {
+                removeListener(listener);
+            }
+        }
+
+        private boolean hasReportWriterListener() {
+            return !getListeners(ReportWriterListener.class).isEmpty();
+        }
+    }
+
+    @Test
+    @DirtiesContext
+    @Transactional(propagation = Propagation.NEVER)
+    public void chunk_listener_does_not_prevent_default_listeners() throws Exception {
+        ProteinUpdateProcessorConfig configUpdate = new ProteinUpdateProcessorConfig();
+        configUpdate.setReportHandler(new FileReportHandler(folder.getRoot(), ReportCompression.none, FileReportHandler.DEFAULT_BUFFER_SIZE));
+
+        DataContext context = getDataContext();
+        TransactionStatus status = context.beginTransaction();
+
+        Protein prot = getMockBuilder().createProtein("P42898", "riboflavin");
+        final Interaction interaction = getMockBuilder().createInteraction(prot);
+        getCorePersister().saveOrUpdate(interaction);
+
+        context.commitTransaction(status);
+
+        ListenerlessProteinUpdateProcessor protUpdateProcessor = new ListenerlessProteinUpdateProcessor(configUpdate);
+        Assert.assertFalse(protUpdateProcessor.hasReportWriterListener());
+
+        final List<String> committedAcs = new ArrayList<String>();
+        protUpdateProcessor.addChunkListener(proteinAcs -> committedAcs.addAll(proteinAcs));
+
+        protUpdateProcessor.updateByACs(Arrays.asList(prot.getAc()));
+
+        // the chunk listener is notified and the default listeners have written the reports
+        Assert.assertTrue(committedAcs.contains(prot.getAc()));
+        Assert.assertTrue(protUpdateProcessor.hasReportWriterListener());
+        Assert.assertTrue(new File(folder.getRoot(), "update_cases.csv").length() > 0);
+    }
+
     @Test
     @DirtiesContext
     @Transactional(propagation = Propagation.NEVER)
@@ -0,0 +1,138 @@
+package uk.ac.ebi.intact.dbupdate.prot.actions;
+
+import org.junit.Assert;
+import org.junit.Test;
+import uk.ac.ebi.intact.core.unit.IntactMockBuilder;
+import uk.ac.ebi.intact.dbupdate.prot.actions.mappers.CachingIdentificationService;
+import uk.ac.ebi.intact.dbupdate.prot.actions.mappers.ProteinIdentificationService;
+import uk.ac.ebi.intact.dbupdate.prot.actions.mappers.RemappingCache;
+import uk.ac.ebi.intact.protein.mapping.factories.impl.DefaultResultsFactory;
+import uk.ac.ebi.intact.protein.mapping.model.actionReport.MappingReport;
+import uk.ac.ebi.intact.protein.mapping.model.contexts.UpdateContext;
+import uk.ac.ebi.intact.protein.mapping.results.IdentificationResults;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tester of the CachingIdentificationService
+ *
+ * @version $Id$
+ */
+public class CachingIdentificationServiceTest {
+
+    private static final String SEQUENCE = "MQTIKCVVVGDGAVGKTCLLISYTTNKFPSEYVPTVFDNYAVTVMIGGEPYTLGLFDTAGQEDYDRLRPLSYPQTDVFLVCFSVVSPSSFENVKEKWVPEITHHCPKTPFLLVGTQIDLRDDPSTIEKLAKNKQKPITPETAEKLARDLKAVKYVECSALTQKGLKNVFDEAILAALEPPEPKKSRRCVLL";
+
+    /**
+     * Stub of the remote identification : counts the identifications and remaps the proteins with a sequence
+     */
+    private static class StubIdentificationService implements ProteinIdentificationService {
+
+        private int numberOfIdentifications = 0;
+
+        @Override
+        public IdentificationResults<MappingReport> identifyProtein(UpdateContext context, boolean updateEnabled) throws Exception {
+            numberOfIdentifications++;
+
+            IdentificationResults<MappingReport> results = new DefaultResultsFactory().getIdentificationResults();
+            if ("EBI-remapped".equals(context.getIntactAccession())){
+                results.setFinalUniprotId("P60953");
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Remapping cache in memory
+     */
+    private static class MapRemappingCache implements RemappingCache {
+
+        private final Map<String, String> remappings = new HashMap<>();
+
+        @Override
+        public String getCachedUniprotAc(String crc64, String taxId, String uniprotRelease) {
+            return remappings.get(crc64 + "|" + taxId + "|" + uniprotRelease);
+        }
+
+        @Override
+        public void cacheRemapping(String crc64, String taxId, String uniprotRelease, String uniprotAc) {
+            remappings.put(crc64 + "|" + taxId + "|" + uniprotRelease, uniprotAc);
+        }
+
+        @Override
+        public int clearOtherReleases(String uniprotRelease) {
+            int size = remappings.size();
+            remappings.keySet().removeIf(key -> !key.endsWith("|" + uniprotRelease));
+            return size - remappings.size();
+        }
+    }
+
+    private UpdateContext createContext(String intactAc, String sequence, int taxId){
+        UpdateContext context = new UpdateContext();
+        context.setIntactAccession(intactAc);
+        context.setSequence(sequence);
+        context.setOrganism(new IntactMockBuilder().createBioSource(taxId, "organism"));
+        return context;
+    }
+
+    @Test
+    public void remapping_outcomes_reused() throws Exception {
+        StubIdentificationService stub = new StubIdentificationService();
+        MapRemappingCache cache = new MapRemappingCache();
+
+        CachingIdentificationService service = new CachingIdentificationService(stub, cache, "2026_04");
+
+        IdentificationResults<MappingReport> result = service.identifyProtein(createContext("EBI-remapped", SEQUENCE, 9606), true);
+        Assert.assertEquals("P60953", result.getFinalUniprotId());
+        Assert.assertEquals(1, stub.numberOfIdentifications);
+
+        // same sequence and organism : the outcome comes from the cache and is reported
+        result = service.identifyProtein(createContext("EBI-other", SEQUENCE.toLowerCase(), 9606), true);
+        Assert.assertEquals("P60953", result.getFinalUniprotId());
+        Assert.assertEquals(1, stub.numberOfIdentifications);
+        Assert.assertEquals(1, result.getListOfActions().size());
+        Assert.assertTrue(result.getListOfActions().get(0).getPossibleAccessions().contains("P60953"));
+
+        // another organism is identified again, the failed remappings are not cached
+        result = service.identifyProtein(createContext("EBI-unmapped", SEQUENCE, 10090), true);
+        Assert.assertNull(result.getFinalUniprotId());
+        Assert.assertEquals(2, stub.numberOfIdentifications);
+
+        result = service.identifyProtein(createContext("EBI-unmapped", SEQUENCE, 10090), true);
+        Assert.assertNull(result.getFinalUniprotId());
+        Assert.assertEquals(3, stub.numberOfIdentifications);
+
+        Assert.assertEquals(1, service.getHits());
+        Assert.assertEquals(3, service.getMisses());
+        Assert.assertEquals(25.0, service.getHitRate(), 0.001);
+        Assert.assertEquals(1, cache.remappings.size());
+
+        // a new uniprot release is identified again
+        CachingIdentificationService nextRelease = new CachingIdentificationService(stub, cache, "2026_05");
+        nextRelease.identifyProtein(createContext("EBI-remapped", SEQUENCE, 9606), true);
+        Assert.assertEquals(3, stub.numberOfIdentifications);
+        Assert.assertEquals(0, nextRelease.getHits());
+
+        // the remappings of the previous release are forgotten
+        Assert.assertEquals(1, cache.clearOtherReleases("2026_05"));
+        Assert.assertEquals(1, cache.remappings.size());
+    }
+
+    @Test
+    public void identifications_without_update_not_cached() throws Exception {
+        StubIdentificationService stub = new StubIdentificationService();
+        MapRemappingCache cache = new MapRemappingCache();
+
+        CachingIdentificationService service = new CachingIdentificationService(stub, cache, "2026_04");
+
+        service.identifyProtein(createContext("EBI-remapped", SEQUENCE, 9606), false);
+        service.identifyProtein(createContext("EBI-remapped", SEQUENCE, 9606), false);
+
+        // without sequence, the protein is identified with its cross references
+        service.identifyProtein(createContext("EBI-remapped", null, 9606), true);
+
+        Assert.assertEquals(3, stub.numberOfIdentifications);
+        Assert.assertTrue(cache.remappings.isEmpty());
+        Assert.assertEquals(0, service.getHits() + service.getMisses());
+    }
+}
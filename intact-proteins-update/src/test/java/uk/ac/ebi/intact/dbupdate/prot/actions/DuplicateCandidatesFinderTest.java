@@ -0,0 +1,134 @@
+package uk.ac.ebi.intact.dbupdate.prot.actions;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import uk.ac.ebi.intact.core.context.IntactContext;
+import uk.ac.ebi.intact.core.unit.IntactBasicTestCase;
+import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateProcessor;
+import uk.ac.ebi.intact.dbupdate.prot.actions.finders.DuplicateCandidatesFinder;
+import uk.ac.ebi.intact.dbupdate.prot.event.UpdateCaseEvent;
+import uk.ac.ebi.intact.dbupdate.prot.model.ProteinTranscript;
+import uk.ac.ebi.intact.model.Protein;
+import uk.ac.ebi.intact.uniprot.model.UniprotProtein;
+import uk.ac.ebi.intact.uniprot.model.UniprotSpliceVariant;
+import uk.ac.ebi.intact.util.protein.ComprehensiveCvPrimer;
+import uk.ac.ebi.intact.util.protein.mock.MockUniprotProtein;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Tester of the DuplicateCandidatesFinder
+ *
+ * @version $Id$
+ */
+@ContextConfiguration(locations = {"classpath*:/META-INF/dbupdate.spring.xml"} )
+public class DuplicateCandidatesFinderTest extends IntactBasicTestCase {
+
+    private DuplicateCandidatesFinder candidatesFinder;
+
+    @Before
+    public void setUp(){
+        candidatesFinder = new DuplicateCandidatesFinder();
+        TransactionStatus status = getDataContext().beginTransaction();
+
+        ComprehensiveCvPrimer primer = new ComprehensiveCvPrimer(getDaoFactory());
+        primer.createCVs();
+
+        getDataContext().commitTransaction(status);
+    }
+
+    @After
+    public void after() throws Exception {
+        candidatesFinder = null;
+    }
+
+    @Test
+    @DirtiesContext
+    @Transactional(propagation = Propagation.NEVER)
+    /**
+     * Create two proteins with the same uniprot identity and two isoforms with the same uniprot identity.
+     * Create one protein and one isoform without duplicates.
+     * Only the shared identities should be collected.
+     */
+    public void collect_duplicated_identities(){
+        TransactionStatus status = IntactContext.getCurrentInstance().getDataContext().beginTransaction();
+
+        Protein primary = getMockBuilder().createProtein("P60953", "primary");
+        Protein duplicate = getMockBuilder().createProtein("P60953", "duplicate");
+        Protein single = getMockBuilder().createProtein("P12345", "single");
+        IntactContext.getCurrentInstance().getCorePersister().saveOrUpdate(primary, duplicate, single);
+
+        Protein isoform = getMockBuilder().createProteinSpliceVariant(primary, "P60953-1", "isoform");
+        Protein isoform2 = getMockBuilder().createProteinSpliceVariant(duplicate, "P60953-1", "isoform2");
+        Protein isoform3 = getMockBuilder().createProteinSpliceVariant(single, "P12345-1", "isoform3");
+        IntactContext.getCurrentInstance().getCorePersister().saveOrUpdate(isoform, isoform2, isoform3);
+
+        Assert.assertFalse(candidatesFinder.isCollected());
+
+        Set<String> duplicatedIdentities = candidatesFinder.collectDuplicatedUniprotIdentities(IntactContext.getCurrentInstance().getDataContext());
+
+        Assert.assertTrue(candidatesFinder.isCollected());
+        Assert.assertEquals(2, duplicatedIdentities.size());
+        Assert.assertTrue(duplicatedIdentities.contains("P60953"));
+        Assert.assertTrue(duplicatedIdentities.contains("P60953-1"));
+
+        IntactContext.getCurrentInstance().getDataContext().commitTransaction(status);
+
+        candidatesFinder.clear();
+        Assert.assertFalse(candidatesFinder.isCollected());
+        Assert.assertTrue(candidatesFinder.getDuplicatedIdentities().isEmpty());
+    }
+
+    @Test
+    @DirtiesContext
+    @Transactional(propagation = Propagation.NEVER)
+    /**
+     * Create one protein with two isoforms without duplicates in the database.
+     * The update case should not enter the duplicate fixing stage once the pre-pass has been run.
+     */
+    public void update_case_without_duplicates(){
+        UniprotProtein uniprot = MockUniprotProtein.build_CDC42_HUMAN();
+
+        TransactionStatus status = IntactContext.getCurrentInstance().getDataContext().beginTransaction();
+
+        Protein primary = getMockBuilder().createProtein("P60953", "primary");
+        IntactContext.getCurrentInstance().getCorePersister().saveOrUpdate(primary);
+
+        Protein isoform = getMockBuilder().createProteinSpliceVariant(primary, "P60953-1", "isoform");
+        Protein isoform2 = getMockBuilder().createProteinSpliceVariant(primary, "P60953-2", "isoform2");
+        IntactContext.getCurrentInstance().getCorePersister().saveOrUpdate(isoform, isoform2);
+
+        Collection<Protein> primaryProteins = new ArrayList<>();
+        primaryProteins.add(primary);
+
+        Collection<ProteinTranscript> primaryIsoforms = new ArrayList<>();
+        for (UniprotSpliceVariant v : uniprot.getSpliceVariants()){
+            if (v.getPrimaryAc().equals("P60953-1")){
+                primaryIsoforms.add(new ProteinTranscript(isoform, v));
+            }
+            else if (v.getPrimaryAc().equals("P60953-2")){
+                primaryIsoforms.add(new ProteinTranscript(isoform2, v));
+            }
+        }
+
+        UpdateCaseEvent evt = new UpdateCaseEvent(new ProteinUpdateProcessor(), IntactContext.getCurrentInstance().getDataContext(), uniprot, primaryProteins, Collections.EMPTY_LIST, primaryIsoforms, Collections.EMPTY_LIST, Collections.EMPTY_LIST, "P60953");
+
+        // no pre-pass, all the update cases can have duplicates
+        Assert.assertTrue(candidatesFinder.hasPossibleDuplicates(evt));
+
+        candidatesFinder.collectDuplicatedUniprotIdentities(IntactContext.getCurrentInstance().getDataContext());
+        Assert.assertFalse(candidatesFinder.hasPossibleDuplicates(evt));
+
+        IntactContext.getCurrentInstance().getDataContext().commitTransaction(status);
+    }
+}
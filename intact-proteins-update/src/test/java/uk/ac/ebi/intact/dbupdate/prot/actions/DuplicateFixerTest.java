@@ -678,6 +678,109 @@ public class DuplicateFixerTest extends IntactBasicTestCase{
         IntactContext.getCurrentInstance().getDataContext().commitTransaction(status);
     }
 
+    @Test
+    @DirtiesContext
+    @Transactional(propagation = Propagation.NEVER)
+    /**
+     * Create two duplicates with different sequences and the duplicate contains features with range conflicts.
+     * The duplicate has several interactions without conflicts and one interaction shared with the original protein.
+     * The interactions without conflicts should be moved to the original protein in the database, the interaction shared with the original protein as well
+     * and the interaction with range conflicts should stay attached to the duplicate.
+     */
+    public void merge_duplicate_different_sequences_range_conflicts_several_moved_components(){
+        UniprotProtein uniprot = MockUniprotProtein.build_CDC42_HUMAN();
+
+        TransactionStatus status = IntactContext.getCurrentInstance().getDataContext().beginTransaction();
+        String sequence = "AAFFSSPPAAMMYYLLLLLAAAAAAAAAA";
+        String sequence2 = "AAPPPFFFLLLMMMMM";
+
+        Protein primary = getMockBuilder().createProtein("P60953", "primary");
+        primary.setSequence(sequence);
+        primary.getBioSource().setTaxId("9606");
+        Protein prot = getMockBuilder().createProtein("P12345", "protein");
+        prot.getBioSource().setTaxId("9606");
+        prot.setSequence(sequence2);
+        IntactContext.getCurrentInstance().getCorePersister().saveOrUpdate(primary);
+        IntactContext.getCurrentInstance().getCorePersister().saveOrUpdate(prot);
+
+        Collection<Protein> primaryProteins = new ArrayList<>();
+        primaryProteins.add(primary);
+        primaryProteins.add(prot);
+
+        Protein random1 = getMockBuilder().createProteinRandom();
+        Protein random2 = getMockBuilder().createProteinRandom();
+        Protein random3 = getMockBuilder().createProteinRandom();
+        Protein random4 = getMockBuilder().createProteinRandom();
+        IntactContext.getCurrentInstance().getCorePersister().saveOrUpdate(random1, random2, random3, random4);
+
+        Collection<Interaction> interactionsToMove = new ArrayList<>();
+        interactionsToMove.add(getMockBuilder().createInteraction(prot, random2));
+        interactionsToMove.add(getMockBuilder().createInteraction(prot, random3));
+        interactionsToMove.add(getMockBuilder().createInteraction(prot, random4));
+        interactionsToMove.add(getMockBuilder().createInteraction(prot, primary));
+        Interaction interactionWithConflict = getMockBuilder().createInteraction(prot, random1);
+
+        for (Interaction interaction : interactionsToMove){
+            for (Component c : interaction.getComponents()){
+                c.getBindingDomains().clear();
+            }
+        }
+
+        Feature f = getMockBuilder().createFeatureRandom();
+        Range r = getMockBuilder().createRange(1, 1, 50, 50);
+
+        f.getRanges().clear();
+        f.addRange(r);
+
+        for (Component c : interactionWithConflict.getComponents()){
+            c.getBindingDomains().clear();
+
+            if (prot.getAc().equalsIgnoreCase(c.getInteractor().getAc())){
+
+                c.addBindingDomain(f);
+            }
+        }
+
+        for (Interaction interaction : interactionsToMove){
+            IntactContext.getCurrentInstance().getCorePersister().saveOrUpdate(interaction);
+        }
+        IntactContext.getCurrentInstance().getCorePersister().saveOrUpdate(interactionWithConflict);
+
+        Assert.assertEquals(6, IntactContext.getCurrentInstance().getDaoFactory().getProteinDao().countAll());
+        Assert.assertEquals(5, IntactContext.getCurrentInstance().getDaoFactory().getInteractionDao().countAll());
+        Assert.assertEquals(1, primary.getActiveInstances().size());
+        Assert.assertEquals(5, prot.getActiveInstances().size());
+
+        // fix duplicates
+        DuplicatesFoundEvent evt = new DuplicatesFoundEvent(new ProteinUpdateProcessor(), IntactContext.getCurrentInstance().getDataContext(), primaryProteins, uniprot.getSequence(), uniprot.getCrc64(), "P60953", "9606");
+
+        duplicateFixer.fixProteinDuplicates(evt);
+
+        Assert.assertNotNull(evt.getReferenceProtein());
+        Assert.assertEquals(1, evt.getComponentsWithFeatureConflicts().size());
+
+        Assert.assertEquals(primary.getAc(), evt.getReferenceProtein().getAc());
+        Assert.assertNotNull(IntactContext.getCurrentInstance().getDaoFactory().getProteinDao().getByAc(prot.getAc()));
+        Assert.assertEquals(5, evt.getReferenceProtein().getActiveInstances().size());
+        Assert.assertEquals(1, prot.getActiveInstances().size());
+        Assert.assertEquals(interactionWithConflict.getAc(), prot.getActiveInstances().iterator().next().getInteraction().getAc());
+        Assert.assertEquals(4, evt.getMovedInteractions().get(prot.getAc()).size());
+
+        // the components have been moved in the database as well
+        getDataContext().getDaoFactory().getEntityManager().flush();
+        Assert.assertEquals(5L, countComponents(primary));
+        Assert.assertEquals(1L, countComponents(prot));
+
+        IntactContext.getCurrentInstance().getDataContext().commitTransaction(status);
+    }
+
+    private long countComponents(Protein protein){
+        return (Long) getDataContext().getDaoFactory().getEntityManager()
+                .createQuery("select count(c.ac) from Component c where c.interactor.ac = :ac")
+                .setParameter("ac", protein.getAc())
+                .getSingleResult();
+    }
+
     @Test
     @DirtiesContext
     @Transactional(propagation = Propagation.NEVER)
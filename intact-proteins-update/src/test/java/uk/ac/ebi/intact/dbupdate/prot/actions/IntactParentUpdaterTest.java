@@ -11,6 +11,7 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import uk.ac.ebi.intact.core.context.DataContext;
 import uk.ac.ebi.intact.core.unit.IntactBasicTestCase;
+import uk.ac.ebi.intact.dbupdate.prot.actions.finders.IntactParentFinder;
 import uk.ac.ebi.intact.dbupdate.prot.actions.updaters.IntactTranscriptParentUpdater;
 import uk.ac.ebi.intact.dbupdate.prot.model.ProteinTranscript;
 import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateProcessor;
@@ -19,12 +20,15 @@ import uk.ac.ebi.intact.dbupdate.prot.event.UpdateCaseEvent;
 import uk.ac.ebi.intact.model.CvDatabase;
 import uk.ac.ebi.intact.model.CvXrefQualifier;
 import uk.ac.ebi.intact.model.Protein;
+import uk.ac.ebi.intact.model.ProteinImpl;
 import uk.ac.ebi.intact.util.protein.ComprehensiveCvPrimer;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static uk.ac.ebi.intact.util.protein.utils.TestsUtils.*;
 
@@ -160,4 +164,62 @@ public class IntactParentUpdaterTest extends IntactBasicTestCase {
 
         context.commitTransaction(status);
     }
+
+    @Test
+    @DirtiesContext
+    @Transactional(propagation = Propagation.NEVER)
+    public void remap_parents_exact_match_single_query(){
+        DataContext context = getDataContext();
+        TransactionStatus status = context.beginTransaction();
+
+        String oldParent = "EBI-9999991";
+        String deadParent = "EBI-9999992";
+
+        CvDatabase intact = context.getDaoFactory().getCvObjectDao(CvDatabase.class).getByPsiMiRef(CvDatabase.INTACT_MI_REF);
+        CvXrefQualifier intactSecondary = context.getDaoFactory().getCvObjectDao(CvXrefQualifier.class).getByShortLabel("intact-secondary");
+        CvXrefQualifier isoformParent = context.getDaoFactory().getCvObjectDao(CvXrefQualifier.class).getByPsiMiRef(CvXrefQualifier.ISOFORM_PARENT_MI_REF);
+
+        Protein parentToFind = getMockBuilder().createProtein("P12345", "protein parent");
+        parentToFind.addXref(getMockBuilder().createXref(parentToFind, oldParent, intactSecondary, intact));
+        // an ac starting with the same characters must not match
+        parentToFind.addXref(getMockBuilder().createXref(parentToFind, deadParent + "0", intactSecondary, intact));
+
+        getCorePersister().saveOrUpdate(parentToFind);
+
+        Protein isoform1 = getMockBuilder().createProtein("P12345-1", "isoform1");
+        isoform1.addXref(getMockBuilder().createXref(isoform1, oldParent, isoformParent, intact));
+        getCorePersister().saveOrUpdate(isoform1);
+
+        Protein isoform2 = getMockBuilder().createProtein("P12345-2", "isoform2");
+        isoform2.addXref(getMockBuilder().createXref(isoform2, deadParent, isoformParent, intact));
+        getCorePersister().saveOrUpdate(isoform2);
+
+        Map<String, List<ProteinImpl>> remappedParents = new IntactParentFinder().findProteinsByIntactSecondaryAcs(Arrays.asList(oldParent, deadParent), parentToFind.getOwner(), context);
+        Assert.assertEquals(2, remappedParents.size());
+        Assert.assertEquals(1, remappedParents.get(oldParent).size());
+        Assert.assertEquals(parentToFind.getAc(), remappedParents.get(oldParent).iterator().next().getAc());
+        Assert.assertTrue(remappedParents.get(deadParent).isEmpty());
+
+        Collection<ProteinTranscript> primaryIsoforms = new ArrayList<>();
+        primaryIsoforms.add(new ProteinTranscript(isoform1, null));
+        primaryIsoforms.add(new ProteinTranscript(isoform2, null));
+
+        List<Protein> transcriptsWithoutParents = intactUpdater.checkConsistencyOfAllTranscripts(new UpdateCaseEvent(new ProteinUpdateProcessor(), context, null, Collections.singletonList(parentToFind), Collections.EMPTY_LIST, primaryIsoforms, Collections.EMPTY_LIST, Collections.EMPTY_LIST, "P12345"));
+
+        Assert.assertTrue(hasXRef(isoform1, parentToFind.getAc(), CvDatabase.INTACT, CvXrefQualifier.ISOFORM_PARENT));
+        Assert.assertFalse(hasXRef(isoform2, deadParent, CvDatabase.INTACT, CvXrefQualifier.ISOFORM_PARENT));
+        Assert.assertEquals(1, transcriptsWithoutParents.size());
+        Assert.assertEquals(isoform2.getAc(), transcriptsWithoutParents.iterator().next().getAc());
+
+        context.commitTransaction(status);
+    }
+
+    @Test
+    public void malformed_acs_not_matched_exactly(){
+        Assert.assertTrue(IntactParentFinder.isIntactAc("EBI-12345"));
+        Assert.assertFalse(IntactParentFinder.isIntactAc("EBI-xxxx"));
+        Assert.assertFalse(IntactParentFinder.isIntactAc(" EBI-12345"));
+        Assert.assertFalse(IntactParentFinder.isIntactAc("ebi-12345"));
+        Assert.assertFalse(IntactParentFinder.isIntactAc(null));
+    }
 }
\ No newline at end of file
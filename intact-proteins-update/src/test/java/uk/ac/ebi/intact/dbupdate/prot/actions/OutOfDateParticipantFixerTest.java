@@ -56,6 +56,32 @@ public class OutOfDateParticipantFixerTest  extends IntactBasicTestCase {
         participantFixer = null;
     }
 
+    @Test
+    /**
+     * The transcripts are found with their exact sequence (case insensitive), the canonical sequence is never matched.
+     * The index is only built again when the uniprot entry changes.
+     */
+    public void find_transcripts_with_identical_sequence(){
+        UniprotProtein uniprot = MockUniprotProtein.build_CDC42_HUMAN();
+        UniprotFeatureChain chain1 = new UniprotFeatureChain("PRO-1", uniprot.getOrganism(), "AAACCTA");
+        UniprotFeatureChain chain2 = new UniprotFeatureChain("PRO-2", uniprot.getOrganism(), "AAACCTA");
+        UniprotFeatureChain chain3 = new UniprotFeatureChain("PRO-3", uniprot.getOrganism(), uniprot.getSequence());
+        uniprot.getFeatureChains().add(chain1);
+        uniprot.getFeatureChains().add(chain2);
+        uniprot.getFeatureChains().add(chain3);
+
+        Assert.assertEquals(chain1, participantFixer.findTranscriptsWithIdenticalSequence("aaaccta", uniprot));
+        Assert.assertNull(participantFixer.findTranscriptsWithIdenticalSequence("AAACCTAA", uniprot));
+        Assert.assertNull(participantFixer.findTranscriptsWithIdenticalSequence(uniprot.getSequence(), uniprot));
+        Assert.assertNull(participantFixer.findTranscriptsWithIdenticalSequence(null, uniprot));
+
+        Assert.assertSame(participantFixer.getTranscriptSequenceIndex(uniprot), participantFixer.getTranscriptSequenceIndex(uniprot));
+
+        UniprotProtein uniprot2 = MockUniprotProtein.build_CDC42_HUMAN();
+        Assert.assertNull(participantFixer.findTranscriptsWithIdenticalSequence("AAACCTA", uniprot2));
+        Assert.assertSame(uniprot2, participantFixer.getTranscriptSequenceIndex(uniprot2).getUniprotProtein());
+    }
+
     @Test
     @DirtiesContext
     @Transactional(propagation = Propagation.NEVER)
@@ -0,0 +1,240 @@
+package uk.ac.ebi.intact.dbupdate.prot.actions;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import uk.ac.ebi.intact.dbupdate.prot.actions.mappers.ProteinIdentificationService;
+import uk.ac.ebi.intact.dbupdate.prot.actions.mappers.ProteinRemappingStage;
+import uk.ac.ebi.intact.protein.mapping.factories.impl.DefaultResultsFactory;
+import uk.ac.ebi.intact.protein.mapping.model.actionReport.MappingReport;
+import uk.ac.ebi.intact.protein.mapping.model.contexts.UpdateContext;
+import uk.ac.ebi.intact.protein.mapping.results.IdentificationResults;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tester of the ProteinRemappingStage, with a local stub instead of PICR and BLAST
+ *
+ * @version $Id$
+ */
+public class ProteinRemappingStageTest {
+
+    private ProteinRemappingStage remappingStage;
+
+    /**
+     * Stub identification service : remaps the intact accessions it knows, fails for 'EBI-error' and 'EBI-linkage-error' and
+     * waits for the latch before answering
+     */
+    private static class StubIdentificationService implements ProteinIdentificationService {
+
+        private final Map<String, String> uniprotAcs = new HashMap<>();
+        private final CountDownLatch latch;
+
+        private StubIdentificationService(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public IdentificationResults<MappingReport> identifyProtein(UpdateContext context, boolean updateEnabled) throws Exception {
+            latch.await(10, TimeUnit.SECONDS);
+
+            if ("EBI-error".equals(context.getIntactAccession())){
+                throw new IllegalStateException("PICR is down");
+            }
+            if ("EBI-linkage-error".equals(context.getIntactAccession())){
+                throw new NoClassDefFoundError("uk/ac/ebi/kraken/model/blast/JobStatus");
+            }
+
+            IdentificationResults<MappingReport> results = new DefaultResultsFactory().getIdentificationResults();
+            results.setFinalUniprotId(uniprotAcs.get(context.getIntactAccession()));
+
+            return results;
+        }
+    }
+
+    private UpdateContext createContext(String intactAc){
+        UpdateContext context = new UpdateContext();
+        context.setIntactAccession(intactAc);
+        context.setSequence("SYTGAGKTAL");
+        return context;
+    }
+
+    @After
+    public void after(){
+        if (remappingStage != null){
+            remappingStage.shutdown();
+        }
+        remappingStage = null;
+    }
+
+    @Test
+    public void parked_proteins_identified_by_workers(){
+        StubIdentificationService service = new StubIdentificationService(new CountDownLatch(0));
+        service.uniprotAcs.put("EBI-remapped", "P60953");
+        service.uniprotAcs.put("EBI-report-only", "P12345");
+
+        remappingStage = new ProteinRemappingStage(2, 10, service);
+        remappingStage.start();
+
+        remappingStage.park("EBI-remapped", createContext("EBI-remapped"), true, "no uniprot identities");
+        remappingStage.park("EBI-unmapped", createContext("EBI-unmapped"), true, "no uniprot identities");
+        remappingStage.park("EBI-error", createContext("EBI-error"), true, "no uniprot identities");
+        remappingStage.park("EBI-report-only", createContext("EBI-report-only"), false, "no uniprot identities");
+
+        List<ProteinRemappingStage.ParkedRemapping> completed;
+        try {
+            completed = remappingStage.awaitCompleted();
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+
+        Assert.assertEquals(4, completed.size());
+        Assert.assertFalse(remappingStage.hasParkedProteins());
+
+        for (ProteinRemappingStage.ParkedRemapping remapping : completed){
+            if ("EBI-remapped".equals(remapping.getProteinAc())){
+                Assert.assertEquals("P60953", remapping.getFinalUniprotId());
+                Assert.assertNull(remapping.getError());
+            }
+            else if ("EBI-error".equals(remapping.getProteinAc())){
+                Assert.assertNull(remapping.getFinalUniprotId());
+                Assert.assertTrue(remapping.getError() instanceof IllegalStateException);
+            }
+            else {
+                // not remapped or only reported
+                Assert.assertNull(remapping.getFinalUniprotId());
+                Assert.assertNull(remapping.getError());
+                Assert.assertNotNull(remapping.getResult());
+            }
+        }
+    }
+
+    @Test
+    public void park_does_not_wait_for_identification() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        StubIdentificationService service = new StubIdentificationService(latch);
+        service.uniprotAcs.put("EBI-remapped", "P60953");
+
+        remappingStage = new ProteinRemappingStage(1, 10, service);
+        Assert.assertFalse(remappingStage.canPark("EBI-remapped"));
+
+        remappingStage.start();
+        Assert.assertTrue(remappingStage.canPark("EBI-remapped"));
+
+        remappingStage.park("EBI-remapped", createContext("EBI-remapped"), true, "no uniprot update");
+
+        Assert.assertTrue(remappingStage.isParked("EBI-remapped"));
+        Assert.assertTrue(remappingStage.pollCompleted().isEmpty());
+
+        latch.countDown();
+
+        List<ProteinRemappingStage.ParkedRemapping> completed = remappingStage.awaitCompleted();
+        Assert.assertEquals(1, completed.size());
+        Assert.assertEquals("P60953", completed.iterator().next().getFinalUniprotId());
+
+        // a protein is only parked once per run
+        Assert.assertFalse(remappingStage.isParked("EBI-remapped"));
+        Assert.assertFalse(remappingStage.canPark("EBI-remapped"));
+    }
+
+    @Test
+    public void discarded_proteins_not_collected() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        StubIdentificationService service = new StubIdentificationService(latch);
+        service.uniprotAcs.put("EBI-remapped", "P60953");
+        service.uniprotAcs.put("EBI-rolled-back", "P12345");
+
+        remappingStage = new ProteinRemappingStage(2, 10, service);
+        remappingStage.start();
+
+        remappingStage.park("EBI-remapped", createContext("EBI-remapped"), true, "no uniprot update");
+        remappingStage.park("EBI-rolled-back", createContext("EBI-rolled-back"), true, "no uniprot update");
+
+        remappingStage.discard(Collections.singleton("EBI-rolled-back"));
+        Assert.assertFalse(remappingStage.isParked("EBI-rolled-back"));
+
+        latch.countDown();
+
+        List<ProteinRemappingStage.ParkedRemapping> completed = remappingStage.awaitCompleted();
+        Assert.assertEquals(1, completed.size());
+        Assert.assertEquals("EBI-remapped", completed.iterator().next().getProteinAc());
+        Assert.assertFalse(remappingStage.hasParkedProteins());
+
+        // the discarded protein can be parked again when its chunk is replayed
+        Assert.assertTrue(remappingStage.canPark("EBI-rolled-back"));
+        Assert.assertFalse(remappingStage.canPark("EBI-remapped"));
+    }
+
+    @Test
+    public void discarded_chunk_forgets_all_the_parked_proteins() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        StubIdentificationService service = new StubIdentificationService(latch);
+        service.uniprotAcs.put("EBI-committed", "P60953");
+
+        remappingStage = new ProteinRemappingStage(2, 10, service);
+        remappingStage.start();
+
+        remappingStage.startChunk();
+        remappingStage.park("EBI-committed", createContext("EBI-committed"), true, "no uniprot update");
+
+        // the chunk is rolled back after parking a protein, its transcript and its duplicate
+        remappingStage.startChunk();
+        remappingStage.park("EBI-protein", createContext("EBI-protein"), true, "no uniprot update");
+        remappingStage.park("EBI-transcript", createContext("EBI-transcript"), true, "no uniprot update");
+        remappingStage.park("EBI-duplicate", createContext("EBI-duplicate"), true, "no uniprot update");
+        remappingStage.discardChunk();
+
+        for (String ac : new String[]{"EBI-protein", "EBI-transcript", "EBI-duplicate"}){
+            Assert.assertFalse(remappingStage.isParked(ac));
+            Assert.assertTrue(remappingStage.canPark(ac));
+        }
+
+        latch.countDown();
+
+        List<ProteinRemappingStage.ParkedRemapping> completed = remappingStage.awaitCompleted();
+        Assert.assertEquals(1, completed.size());
+        Assert.assertEquals("EBI-committed", completed.iterator().next().getProteinAc());
+        Assert.assertFalse(remappingStage.canPark("EBI-committed"));
+    }
+
+    @Test
+    public void error_of_identification_completes_remapping() throws InterruptedException {
+        remappingStage = new ProteinRemappingStage(1, 10, new StubIdentificationService(new CountDownLatch(0)));
+        remappingStage.start();
+
+        remappingStage.park("EBI-linkage-error", createContext("EBI-linkage-error"), true, "no uniprot identities");
+
+        List<ProteinRemappingStage.ParkedRemapping> completed = remappingStage.awaitCompleted();
+        Assert.assertEquals(1, completed.size());
+        Assert.assertNull(completed.iterator().next().getFinalUniprotId());
+        Assert.assertTrue(completed.iterator().next().getError().getCause() instanceof NoClassDefFoundError);
+        Assert.assertFalse(remappingStage.hasParkedProteins());
+    }
+
+    @Test
+    public void remapping_parked_again_not_replaced_by_discarded_one() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        StubIdentificationService service = new StubIdentificationService(latch);
+        service.uniprotAcs.put("EBI-replayed", "P60953");
+
+        // a single worker : the discarded identification keeps running and completes before the new one
+        remappingStage = new ProteinRemappingStage(1, 10, service);
+        remappingStage.start();
+
+        remappingStage.park("EBI-replayed", createContext("EBI-replayed"), true, "no uniprot update");
+        remappingStage.discard(Collections.singleton("EBI-replayed"));
+        ProteinRemappingStage.ParkedRemapping replayed = remappingStage.park("EBI-replayed", createContext("EBI-replayed"), true, "no uniprot update");
+
+        latch.countDown();
+
+        List<ProteinRemappingStage.ParkedRemapping> completed = remappingStage.awaitCompleted();
+        Assert.assertEquals(1, completed.size());
+        Assert.assertSame(replayed, completed.iterator().next());
+        Assert.assertFalse(remappingStage.hasParkedProteins());
+    }
+}
@@ -0,0 +1,110 @@
+package uk.ac.ebi.intact.dbupdate.prot.report;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Tester of the buffered and compressed report files of the FileReportHandler
+ *
+ * @version $Id$
+ */
+public class BufferedReportWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void lines_written_at_end_of_chunk() throws Exception {
+        File dir = folder.newFolder("buffered");
+        FileReportHandler reportHandler = new FileReportHandler(dir, ReportCompression.none, 1024);
+
+        ReportWriter writer = reportHandler.getCreatedWriter();
+        writer.writeHeaderIfNecessary("protein ac", "uniprot ac");
+        writer.writeColumnValues("EBI-1", "P12345");
+        // flushed by the ReportWriterListener after each event
+        writer.flush();
+
+        File created = new File(dir, "created.csv");
+        Assert.assertEquals(0, created.length());
+
+        // end of the chunk
+        reportHandler.flush();
+        Assert.assertEquals(2, readLines(new FileInputStream(created)).size());
+
+        writer.writeColumnValues("EBI-2", "Q12345");
+        reportHandler.close();
+
+        List<String> lines = readLines(new FileInputStream(created));
+        Assert.assertEquals(3, lines.size());
+        Assert.assertEquals("EBI-2\tQ12345", lines.get(2));
+    }
+
+    @Test
+    public void gzip_readable_while_written() throws Exception {
+        File dir = folder.newFolder("gzip");
+        FileReportHandler reportHandler = new FileReportHandler(dir, ReportCompression.gzip, 1024);
+
+        File deleted = new File(dir, "deleted.csv.gz");
+        Assert.assertTrue(deleted.exists());
+        Assert.assertFalse(new File(dir, "deleted.csv").exists());
+
+        ReportWriter writer = reportHandler.getDeletedWriter();
+        for (int i = 0; i < 1000; i++) {
+            writer.writeColumnValues("EBI-" + i, "deleted");
+        }
+        reportHandler.flush();
+
+        // the file is not finished but what has been flushed can be read
+        Assert.assertEquals(1000, readLines(new GZIPInputStream(new FileInputStream(deleted))).size());
+
+        writer.writeColumnValues("EBI-1000", "deleted");
+        reportHandler.close();
+
+        List<String> lines = readLines(new GZIPInputStream(new FileInputStream(deleted)));
+        Assert.assertEquals(1001, lines.size());
+        Assert.assertEquals("EBI-1000\tdeleted", lines.get(1000));
+    }
+
+    @Test
+    public void unbuffered_writers_flush_each_event() throws Exception {
+        File dir = folder.newFolder("unbuffered");
+        FileReportHandler reportHandler = new FileReportHandler(dir);
+
+        ReportWriter writer = reportHandler.getDuplicatedWriter();
+        writer.writeColumnValues("EBI-1", "EBI-2");
+        writer.flush();
+
+        Assert.assertEquals(1, readLines(new FileInputStream(new File(dir, "duplicates.csv"))).size());
+        reportHandler.close();
+    }
+
+    private List<String> readLines(InputStream input) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+        // a gzip stream which is not finished ends with an EOFException once the flushed content is read
+        try (InputStream in = input) {
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                content.write(buffer, 0, read);
+            }
+        } catch (EOFException e) {
+            // end of the flushed content
+        }
+
+        List<String> lines = new ArrayList<String>();
+        BufferedReader reader = new BufferedReader(new StringReader(content.toString()));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lines.add(line);
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,97 @@
+package uk.ac.ebi.intact.dbupdate.prot.report;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Tester of the JsonLinesWriter
+ *
+ * @version $Id$
+ */
+public class JsonLinesWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void nested_record_on_one_line() throws Exception {
+        StringWriter output = new StringWriter();
+        JsonLinesWriter writer = new JsonLinesWriter(output);
+
+        writer.beginRecord()
+                .field("schema", 1)
+                .field("event", "duplicates")
+                .field("ac", (String) null)
+                .beginObject("payload")
+                .field("conservation", 0.5)
+                .field("count", -1234567890123L)
+                .field("merged", true)
+                .beginArray("duplicates").value("EBI-1").value("EBI-2").endArray()
+                .beginObject("movedInteractions").beginArray("EBI-2").endArray().endObject()
+                .endObject()
+                .endRecord();
+        writer.beginRecord().field("sequence", new StringBuilder("MAAK")).endRecord();
+        writer.flush();
+
+        Assert.assertEquals("{\"schema\":1,\"event\":\"duplicates\",\"ac\":null,\"payload\":{\"conservation\":0.5,\"count\":-1234567890123,"
+                + "\"merged\":true,\"duplicates\":[\"EBI-1\",\"EBI-2\"],\"movedInteractions\":{\"EBI-2\":[]}}}\n"
+                + "{\"sequence\":\"MAAK\"}\n", output.toString());
+    }
+
+    @Test
+    public void strings_escaped() throws Exception {
+        StringWriter output = new StringWriter();
+        JsonLinesWriter writer = new JsonLinesWriter(output);
+
+        writer.beginRecord().field("message", "the \"protein\"\tC:\\path\nnext\u0001\u2028").endRecord();
+
+        Assert.assertEquals("{\"message\":\"the \\\"protein\\\"\\tC:\\\\path\\nnext\\u0001\\u2028\"}\n", output.toString());
+    }
+
+    @Test
+    public void record_not_ended_is_discarded() throws Exception {
+        StringWriter output = new StringWriter();
+        JsonLinesWriter writer = new JsonLinesWriter(output);
+
+        writer.beginRecord().field("event", "created").beginObject("payload");
+        Assert.assertEquals("", output.toString());
+
+        writer.beginRecord().field("event", "deleted").endRecord();
+        Assert.assertEquals("{\"event\":\"deleted\"}\n", output.toString());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unbalanced_record() throws Exception {
+        JsonLinesWriter writer = new JsonLinesWriter(new StringWriter());
+
+        writer.beginRecord().beginArray("acs").endRecord();
+    }
+
+    @Test
+    public void gzip_file() throws Exception {
+        File file = new File(folder.getRoot(), "reports/" + ReportFormat.EVENT_REPORT_FILE_NAME);
+        JsonLinesWriter writer = new JsonLinesWriter(file, ReportCompression.gzip, 1024);
+
+        for (int i = 0; i < 100; i++) {
+            writer.beginRecord().field("ac", "EBI-" + i).field("label", "\u00e9").endRecord();
+        }
+        writer.close();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(file.getPath() + ".gz")), StandardCharsets.UTF_8));
+        int count = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            Assert.assertEquals("{\"ac\":\"EBI-" + count + "\",\"label\":\"\u00e9\"}", line);
+            count++;
+        }
+        reader.close();
+
+        Assert.assertEquals(100, count);
+    }
+}
@@ -0,0 +1,121 @@
+package uk.ac.ebi.intact.dbupdate.prot.report;
+
+import uk.ac.ebi.intact.dbupdate.prot.util.SequenceCrc64;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Benchmark of the allocations per event of a sequence changed event and of an update case event, written with strings concatenated as
+ * the ReportWriterListener did before and with the ReportLine. It is not a unit test, it is run with its main method.
+ *
+ * @version $Id$
+ */
+public class ReportLineBenchmark {
+
+    private static final String NEW_LINE = System.getProperty("line.separator");
+
+    private static final int WARM_UP_EVENTS = 20000;
+    private static final int EVENTS = 20000;
+
+    public static void main(String[] args) throws IOException {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            System.err.println("The memory allocated by the threads cannot be measured in this JVM.");
+            System.exit(1);
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) {
+            System.err.println("The memory allocated by the threads cannot be measured in this JVM.");
+            System.exit(1);
+        }
+
+        final String sequence = residues(2000);
+        final List<String> proteins = Arrays.asList("EBI-1", "EBI-2", "EBI-3", "EBI-4");
+        final ReportWriterImpl writer = new ReportWriterImpl(new BufferedWriter(new NullWriter(), 128 * 1024));
+
+        Event concatenated = i -> {
+            writer.getWriter().write(">" + proteins.get(0) + "|UPDATE|" + "label_" + "|" + "P12345" + "|CRC:" + SequenceCrc64.getCrc64(sequence)
+                    + "|Length:" + sequence.length() + "|Diff:" + i + "|Conservation:" + 0.5 + NEW_LINE);
+            writer.getWriter().write(insertNewLinesIfNecessary(sequence, 80) + NEW_LINE);
+
+            StringBuilder acs = new StringBuilder();
+            for (String ac : proteins) {
+                acs.append("label_").append("(").append(ac).append(")").append("[").append(i).append("]").append(", ");
+            }
+            writer.writeColumnValues("P12345", String.valueOf(proteins.size()), acs.toString());
+        };
+
+        Event appended = i -> {
+            writer.beginLine().append('>').append(proteins.get(0)).append("|UPDATE|").append("label_").append('|').append("P12345")
+                    .append("|CRC:").append(SequenceCrc64.getCrc64(sequence)).append("|Length:").append(sequence.length())
+                    .append("|Diff:").append(i).append("|Conservation:").append(0.5).end();
+            writer.beginLine().appendLines(sequence, 80, NEW_LINE).end();
+
+            ReportLine line = writer.beginLine().column("P12345").column().append(proteins.size()).column();
+            for (String ac : proteins) {
+                line.append("label_").append('(').append(ac).append(')').append('[').append(i).append(']').append(", ");
+            }
+            line.end();
+        };
+
+        long before = allocatedBytesPerEvent(threads, concatenated);
+        long after = allocatedBytesPerEvent(threads, appended);
+
+        System.out.println("Allocated bytes per event : " + before + " with concatenated strings, " + after + " with the report line");
+    }
+
+    private static long allocatedBytesPerEvent(com.sun.management.ThreadMXBean threads, Event event) throws IOException {
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARM_UP_EVENTS; i++) {
+            event.write(i);
+        }
+
+        long start = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < EVENTS; i++) {
+            event.write(i);
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - start) / EVENTS;
+    }
+
+    private static String insertNewLinesIfNecessary(String sequence, int maxLineLength) {
+        StringBuilder sb = new StringBuilder(sequence);
+
+        int startIndex = sequence.length() - (sequence.length() % maxLineLength);
+
+        if (startIndex >= maxLineLength) {
+            for (int i = startIndex; i > 0; i = i - maxLineLength) {
+                sb.insert(i, NEW_LINE);
+            }
+        }
+
+        return sb.toString();
+    }
+
+    private static String residues(int length) {
+        StringBuilder residues = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            residues.append("ACDEFGHIKLMNPQRSTVWY".charAt(i % 20));
+        }
+        return residues.toString();
+    }
+
+    private interface Event {
+        void write(int i) throws IOException;
+    }
+
+    private static class NullWriter extends Writer {
+        public void write(char[] chars, int offset, int length) {
+        }
+
+        public void flush() {
+        }
+
+        public void close() {
+        }
+    }
+}
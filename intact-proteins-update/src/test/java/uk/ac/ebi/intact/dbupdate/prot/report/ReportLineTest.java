@@ -0,0 +1,87 @@
+package uk.ac.ebi.intact.dbupdate.prot.report;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+/**
+ * Tester of the ReportLine of the ReportWriterImpl
+ *
+ * @version $Id$
+ */
+public class ReportLineTest {
+
+    private static final String NEW_LINE = System.getProperty("line.separator");
+
+    @Test
+    public void same_lines_as_column_values() throws Exception {
+        StringWriter expected = new StringWriter();
+        ReportWriterImpl columnWriter = new ReportWriterImpl(expected);
+        columnWriter.writeHeaderIfNecessary("protein ac", "count", "conservation", "sequence");
+        columnWriter.writeColumnValues("EBI-1", "-42", "0.75", "MAAK");
+        columnWriter.writeColumnValues("EBI-2", "0", "1.0", null);
+
+        StringWriter output = new StringWriter();
+        ReportWriterImpl writer = new ReportWriterImpl(output);
+        writer.writeHeaderIfNecessary("protein ac", "count", "conservation", "sequence");
+        writer.beginLine().column("EBI-1").column().append(-42).column().append(0.75).column(new StringBuilder("MAAK")).end();
+        writer.beginLine().column("EBI-").append(2).column().append(0L).column().append(1.0).column(null).end();
+
+        Assert.assertEquals(expected.toString(), output.toString());
+    }
+
+    @Test
+    public void sequence_lines() throws Exception {
+        StringWriter output = new StringWriter();
+        ReportWriterImpl writer = new ReportWriterImpl(output);
+
+        String sequence = residues(170);
+        writer.beginLine().appendLines(sequence, 80, NEW_LINE).end();
+        writer.beginLine().appendLines(sequence.substring(0, 160), 80, NEW_LINE).end();
+
+        Assert.assertEquals(sequence.substring(0, 80) + NEW_LINE + sequence.substring(80, 160) + NEW_LINE + sequence.substring(160) + NEW_LINE
+                + sequence.substring(0, 80) + NEW_LINE + sequence.substring(80, 160) + NEW_LINE + NEW_LINE, output.toString());
+    }
+
+    @Test
+    public void line_not_ended_is_ended_by_next_line() throws Exception {
+        StringWriter output = new StringWriter();
+        ReportWriterImpl writer = new ReportWriterImpl(output);
+
+        writer.beginLine().column("EBI-1").column("partial");
+        writer.beginLine().column("EBI-2").end();
+
+        Assert.assertEquals("EBI-1\tpartial" + NEW_LINE + "EBI-2" + NEW_LINE, output.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void columns_of_header_checked() throws Exception {
+        ReportWriterImpl writer = new ReportWriterImpl(new StringWriter());
+        writer.writeHeaderIfNecessary("protein ac", "uniprot ac");
+
+        writer.beginLine().column("EBI-1").end();
+    }
+
+    @Test
+    public void extra_column_not_written() throws Exception {
+        StringWriter output = new StringWriter();
+        ReportWriterImpl writer = new ReportWriterImpl(output);
+        writer.writeHeaderIfNecessary("protein ac", "uniprot ac");
+
+        try {
+            writer.beginLine().column("EBI-1").column("P12345").column("extra");
+            Assert.fail("The line has more columns than the header");
+        } catch (IllegalArgumentException e) {
+            Assert.assertFalse(output.toString().contains("extra"));
+        }
+    }
+
+    private static String residues(int length) {
+        StringBuilder residues = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            residues.append("ACDEFGHIKLMNPQRSTVWY".charAt(i % 20));
+        }
+        return residues.toString();
+    }
+}
@@ -0,0 +1,145 @@
+package uk.ac.ebi.intact.dbupdate.prot.report;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Tester of the ShardedReportHandler : concurrent workers write their reports without losing or interleaving lines
+ *
+ * @version $Id$
+ */
+public class ShardedReportHandlerTest {
+
+    private static final int WORKERS = 8;
+    private static final int EVENTS = 2000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void concurrent_workers_merged() throws Exception {
+        File dir = folder.newFolder("sharded");
+        writeConcurrently(dir, ReportCompression.none, 512);
+
+        List<String> created = Files.readAllLines(new File(dir, "created.csv").toPath());
+
+        // one header and all the lines of the workers in the order of their shards
+        Assert.assertEquals(1 + WORKERS * EVENTS, created.size());
+        Assert.assertEquals("#protein ac\tworker", created.get(0));
+        for (int w = 0; w < WORKERS; w++) {
+            for (int e = 0; e < EVENTS; e++) {
+                Assert.assertEquals("EBI-" + w + "-" + e + "\tworker-" + w, created.get(1 + w * EVENTS + e));
+            }
+        }
+
+        // the fasta records are not interleaved
+        List<String> fasta = Files.readAllLines(new File(dir, "sequence_changed.fasta").toPath());
+        Assert.assertEquals(WORKERS * EVENTS * 3, fasta.size());
+        for (int i = 0; i < fasta.size(); i += 3) {
+            String ac = fasta.get(i).substring(1);
+            Assert.assertTrue(fasta.get(i).startsWith(">EBI-"));
+            Assert.assertEquals(ac + "-1", fasta.get(i + 1));
+            Assert.assertEquals(ac + "-2", fasta.get(i + 2));
+        }
+
+        // the report files without any line are created as well
+        Assert.assertTrue(new File(dir, "duplicates.csv").exists());
+        Assert.assertEquals(0, new File(dir, "duplicates.csv").length());
+        Assert.assertFalse(new File(dir, ShardedReportHandler.SHARDS_DIRECTORY).exists());
+    }
+
+    @Test
+    public void merge_is_deterministic() throws Exception {
+        File dir1 = folder.newFolder("run1");
+        File dir2 = folder.newFolder("run2");
+
+        writeConcurrently(dir1, ReportCompression.gzip, 256);
+        writeConcurrently(dir2, ReportCompression.gzip, 4096);
+
+        for (String fileName : Arrays.asList("created.csv.gz", "deleted.csv.gz", "sequence_changed.fasta.gz")) {
+            Assert.assertEquals(fileName, gunzip(new File(dir1, fileName)), gunzip(new File(dir2, fileName)));
+        }
+        Assert.assertEquals(1 + WORKERS * EVENTS, gunzip(new File(dir1, "deleted.csv.gz")).split("\n").length);
+    }
+
+    @Test
+    public void natural_order_of_shards() {
+        List<String> names = new ArrayList<String>(Arrays.asList("worker-10", "worker-2", "worker-1", "worker-02b", "other"));
+        names.sort(ReportShardMerger.NATURAL_ORDER);
+
+        Assert.assertEquals(Arrays.asList("other", "worker-1", "worker-2", "worker-02b", "worker-10"), names);
+    }
+
+    private void writeConcurrently(File dir, ReportCompression compression, int bufferSize) throws Exception {
+        final ShardedReportHandler reportHandler = new ShardedReportHandler(dir, compression, bufferSize);
+        final CyclicBarrier start = new CyclicBarrier(WORKERS);
+
+        ExecutorService workers = Executors.newFixedThreadPool(WORKERS);
+        List<Future<?>> results = new ArrayList<Future<?>>();
+
+        // the workers are submitted in reverse order to check the merge follows the names of the shards
+        for (int w = WORKERS - 1; w >= 0; w--) {
+            final int worker = w;
+
+            results.add(workers.submit(() -> {
+                reportHandler.openShard("worker-" + worker);
+                start.await();
+
+                for (int e = 0; e < EVENTS; e++) {
+                    String ac = "EBI-" + worker + "-" + e;
+
+                    ReportWriter created = reportHandler.getCreatedWriter();
+                    created.writeHeaderIfNecessary("protein ac", "worker");
+                    created.writeColumnValues(ac, "worker-" + worker);
+                    created.flush();
+
+                    ReportWriter deleted = reportHandler.getDeletedWriter();
+                    deleted.writeHeaderIfNecessary("protein ac");
+                    deleted.writeColumnValues(ac);
+
+                    ReportWriter sequences = reportHandler.getSequenceChangedWriter();
+                    sequences.writeLine(">" + ac);
+                    sequences.writeLine(ac + "-1");
+                    sequences.writeLine(ac + "-2");
+
+                    // end of a chunk
+                    if (e % 50 == 49) {
+                        reportHandler.flush();
+                        Thread.yield();
+                    }
+                }
+
+                reportHandler.close();
+                return null;
+            }));
+        }
+
+        for (Future<?> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        workers.shutdown();
+
+        Assert.assertEquals(WORKERS, reportHandler.getShardNames().size());
+        reportHandler.merge(true);
+    }
+
+    private String gunzip(File file) throws IOException {
+        StringBuilder content = new StringBuilder();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(file))))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                content.append(line).append('\n');
+            }
+        }
+        return content.toString();
+    }
+}
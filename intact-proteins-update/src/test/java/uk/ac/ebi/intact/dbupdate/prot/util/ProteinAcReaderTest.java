@@ -0,0 +1,100 @@
+package uk.ac.ebi.intact.dbupdate.prot.util;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.ac.ebi.intact.dbupdate.prot.listener.CompletedProteinsListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tester of the ProteinAcReader, the CompactAcSet and the resume of a selection update
+ *
+ * @version $Id$
+ */
+public class ProteinAcReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private List<String> readAll(ProteinAcReader reader){
+        List<String> acs = new ArrayList<>();
+        while (reader.hasNext()){
+            acs.add(reader.next());
+        }
+        return acs;
+    }
+
+    @Test
+    public void acs_deduplicated() throws IOException {
+        String input = "EBI-1\n  EBI-2  \n\n# comment\nEBI-1\nDIP-123\nEBI-2\nEBI-1000000000\nEBI-01\n";
+
+        try (ProteinAcReader reader = new ProteinAcReader(new StringReader(input), null)) {
+            Assert.assertEquals(Arrays.asList("EBI-1", "EBI-2", "DIP-123", "EBI-1000000000", "EBI-01"), readAll(reader));
+            Assert.assertEquals(5, reader.getNumberOfAcs());
+            Assert.assertEquals(2, reader.getNumberOfDuplicates());
+            Assert.assertEquals(0, reader.getNumberOfCompleted());
+        }
+    }
+
+    @Test
+    public void compact_set(){
+        CompactAcSet acs = new CompactAcSet();
+
+        for (int i = 1; i <= 10000; i++){
+            Assert.assertTrue(acs.add("EBI-" + i));
+        }
+        Assert.assertFalse(acs.add("EBI-5000"));
+
+        // same number with another prefix or with leading zeros
+        Assert.assertTrue(acs.add("DIP-5000"));
+        Assert.assertTrue(acs.add("EBI-05000"));
+        Assert.assertTrue(acs.add("P12345"));
+
+        Assert.assertEquals(10003, acs.size());
+        Assert.assertTrue(acs.contains("EBI-10000"));
+        Assert.assertTrue(acs.contains("EBI-05000"));
+        Assert.assertTrue(acs.contains("P12345"));
+        Assert.assertFalse(acs.contains("EBI-10001"));
+        Assert.assertFalse(acs.contains("DIP-1"));
+        Assert.assertFalse(acs.contains(null));
+    }
+
+    @Test
+    public void resume_interrupted_run() throws IOException {
+        File completedFile = new File(folder.getRoot(), "completed.txt");
+
+        try (CompletedProteinsListener listener = new CompletedProteinsListener(completedFile)) {
+            listener.onChunkCommitted(Arrays.asList("EBI-1", "EBI-2"));
+        }
+        // the run is killed while writing the next chunk
+        Files.write(completedFile.toPath(), "EBI-3".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        CompactAcSet completedAcs = CompletedProteinsListener.readCompletedAcs(completedFile);
+        Assert.assertEquals(2, completedAcs.size());
+        Assert.assertFalse(completedAcs.contains("EBI-3"));
+
+        try (ProteinAcReader reader = new ProteinAcReader(new StringReader("EBI-1\nEBI-2\nEBI-3\nEBI-4\n"), completedAcs)) {
+            Assert.assertEquals(Arrays.asList("EBI-3", "EBI-4"), readAll(reader));
+            Assert.assertEquals(2, reader.getNumberOfCompleted());
+        }
+
+        // the next run appends its acs after the incomplete line
+        try (CompletedProteinsListener listener = new CompletedProteinsListener(completedFile)) {
+            listener.onChunkCommitted(Arrays.asList("EBI-3", "EBI-4"));
+        }
+
+        completedAcs = CompletedProteinsListener.readCompletedAcs(completedFile);
+        Assert.assertEquals(4, completedAcs.size());
+        Assert.assertTrue(completedAcs.contains("EBI-4"));
+    }
+}
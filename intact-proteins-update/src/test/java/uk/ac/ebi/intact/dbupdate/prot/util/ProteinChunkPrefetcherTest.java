@@ -0,0 +1,147 @@
+package uk.ac.ebi.intact.dbupdate.prot.util;
+
+import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import uk.ac.ebi.intact.core.context.DataContext;
+import uk.ac.ebi.intact.core.unit.IntactBasicTestCase;
+import uk.ac.ebi.intact.model.Interaction;
+import uk.ac.ebi.intact.model.Protein;
+import uk.ac.ebi.intact.model.ProteinImpl;
+import uk.ac.ebi.intact.util.protein.ComprehensiveCvPrimer;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Tester of ProteinChunkPrefetcher
+ *
+ * @version $Id$
+ */
+@ContextConfiguration(locations = {"classpath*:/META-INF/dbupdate.spring.xml"} )
+public class ProteinChunkPrefetcherTest extends IntactBasicTestCase {
+
+    private List<String> proteinAcs;
+
+    @Before
+    public void setUp(){
+        TransactionStatus status = getDataContext().beginTransaction();
+
+        ComprehensiveCvPrimer primer = new ComprehensiveCvPrimer(getDaoFactory());
+        primer.createCVs();
+
+        Protein protein1 = getMockBuilder().createProtein("P12345", "protein1");
+        Protein protein2 = getMockBuilder().createProtein("P12346", "protein2");
+        Protein protein3 = getMockBuilder().createProtein("P12347", "protein3");
+        getCorePersister().saveOrUpdate(protein1, protein2, protein3);
+
+        Interaction interaction = getMockBuilder().createInteraction(protein1, protein2);
+        getCorePersister().saveOrUpdate(interaction);
+
+        proteinAcs = Arrays.asList(protein1.getAc(), protein2.getAc(), protein3.getAc());
+
+        getDataContext().commitTransaction(status);
+    }
+
+    @Test
+    @DirtiesContext
+    @Transactional(propagation = Propagation.NEVER)
+    public void prefetch_protein_profile(){
+        DataContext context = getDataContext();
+        TransactionStatus status = context.beginTransaction();
+
+        Statistics statistics = startStatistics(context);
+
+        Assert.assertEquals(3, ProteinChunkPrefetcher.prefetch(proteinAcs, context, ProteinFetchProfile.PROTEIN));
+        long prefetchStatements = statistics.getPrepareStatementCount();
+
+        // the proteins, their xrefs, aliases and annotations have been loaded, no other round trip is needed
+        Collection<ProteinImpl> proteins = findProteins(context);
+        Assert.assertEquals(3, proteins.size());
+        for (ProteinImpl protein : proteins){
+            Assert.assertFalse(protein.getXrefs().isEmpty());
+            protein.getAliases().size();
+            protein.getAnnotations().size();
+        }
+        Assert.assertEquals(prefetchStatements, statistics.getPrepareStatementCount());
+
+        context.commitTransaction(status);
+    }
+
+    @Test
+    @DirtiesContext
+    @Transactional(propagation = Propagation.NEVER)
+    public void prefetch_participants_profile(){
+        DataContext context = getDataContext();
+        TransactionStatus status = context.beginTransaction();
+
+        Statistics statistics = startStatistics(context);
+
+        Assert.assertEquals(6, ProteinChunkPrefetcher.prefetch(proteinAcs, context, ProteinFetchProfile.PARTICIPANTS));
+        long prefetchStatements = statistics.getPrepareStatementCount();
+
+        // the participants of the proteins have been loaded, no other round trip is needed
+        int numberOfParticipants = 0;
+        for (ProteinImpl protein : findProteins(context)){
+            numberOfParticipants += protein.getActiveInstances().size();
+        }
+        Assert.assertEquals(2, numberOfParticipants);
+        Assert.assertEquals(prefetchStatements, statistics.getPrepareStatementCount());
+
+        context.commitTransaction(status);
+    }
+
+    @Test
+    @DirtiesContext
+    @Transactional(propagation = Propagation.NEVER)
+    public void prefetch_none(){
+        DataContext context = getDataContext();
+        TransactionStatus status = context.beginTransaction();
+
+        Statistics statistics = startStatistics(context);
+
+        Assert.assertEquals(0, ProteinChunkPrefetcher.prefetch(proteinAcs, context, ProteinFetchProfile.NONE));
+        Assert.assertEquals(0, statistics.getPrepareStatementCount());
+
+        // the proteins and their associations are lazily loaded
+        Assert.assertEquals(3, findProteins(context).size());
+
+        context.commitTransaction(status);
+    }
+
+    private Statistics startStatistics(DataContext context){
+        EntityManager entityManager = context.getDaoFactory().getEntityManager();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.unwrap(Session.class).getSessionFactory().getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        return statistics;
+    }
+
+    /**
+     * @return the proteins of the persistence context, without going to the database when they have been prefetched
+     */
+    private Collection<ProteinImpl> findProteins(DataContext context){
+        EntityManager entityManager = context.getDaoFactory().getEntityManager();
+        Collection<ProteinImpl> proteins = new ArrayList<>(proteinAcs.size());
+
+        for (String ac : proteinAcs){
+            ProteinImpl protein = entityManager.find(ProteinImpl.class, ac);
+            protein.getXrefs().size();
+            proteins.add(protein);
+        }
+        return proteins;
+    }
+}
@@ -0,0 +1,139 @@
+package uk.ac.ebi.intact.dbupdate.prot.util;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import uk.ac.ebi.intact.core.context.DataContext;
+import uk.ac.ebi.intact.core.unit.IntactBasicTestCase;
+import uk.ac.ebi.intact.model.*;
+import uk.ac.ebi.intact.util.protein.ComprehensiveCvPrimer;
+
+import java.util.Arrays;
+
+import static uk.ac.ebi.intact.util.protein.utils.TestsUtils.*;
+
+/**
+ * Tester of the deletion of xrefs and annotations in ProteinTools
+ *
+ * @version $Id$
+ */
+@ContextConfiguration(locations = {"classpath*:/META-INF/dbupdate.spring.xml"} )
+public class ProteinToolsTest extends IntactBasicTestCase {
+
+    @Before
+    public void setUp(){
+        TransactionStatus status = getDataContext().beginTransaction();
+
+        ComprehensiveCvPrimer primer = new ComprehensiveCvPrimer(getDaoFactory());
+        primer.createCVs();
+
+        getDataContext().commitTransaction(status);
+    }
+
+    @Test
+    @DirtiesContext
+    @Transactional(propagation = Propagation.NEVER)
+    /**
+     * The protein has two copies of a xref and another xref. One copy and the other xref are deleted.
+     * The second copy should be kept.
+     */
+    public void delete_xrefs_keep_one_copy(){
+        DataContext context = getDataContext();
+        TransactionStatus status = context.beginTransaction();
+
+        CvDatabase intact = context.getDaoFactory().getCvObjectDao(CvDatabase.class).getByPsiMiRef(CvDatabase.INTACT_MI_REF);
+        CvXrefQualifier intactSecondary = context.getDaoFactory().getCvObjectDao(CvXrefQualifier.class).getByShortLabel("intact-secondary");
+
+        Protein protein = getMockBuilder().createProtein("P12345", "protein");
+        InteractorXref copy1 = getMockBuilder().createXref(protein, "EBI-1", intactSecondary, intact);
+        InteractorXref copy2 = getMockBuilder().createXref(protein, "EBI-1", intactSecondary, intact);
+        InteractorXref other = getMockBuilder().createXref(protein, "EBI-2", intactSecondary, intact);
+        protein.addXref(copy1);
+        protein.addXref(copy2);
+        protein.addXref(other);
+
+        getCorePersister().saveOrUpdate(protein);
+
+        int numberOfXrefs = protein.getXrefs().size();
+        int totalOfXrefs = context.getDaoFactory().getXrefDao(InteractorXref.class).countAll();
+
+        ProteinTools.deleteInteractorXRefs(protein, context, Arrays.asList(copy1, other));
+
+        Assert.assertEquals(numberOfXrefs - 2, protein.getXrefs().size());
+        Assert.assertEquals(totalOfXrefs - 2, context.getDaoFactory().getXrefDao(InteractorXref.class).countAll());
+        Assert.assertTrue(protein.getXrefs().contains(copy2));
+        Assert.assertTrue(hasXRef(protein, "EBI-1", CvDatabase.INTACT, "intact-secondary"));
+        Assert.assertFalse(hasXRef(protein, "EBI-2", CvDatabase.INTACT, "intact-secondary"));
+
+        context.commitTransaction(status);
+    }
+
+    @Test
+    @DirtiesContext
+    @Transactional(propagation = Propagation.NEVER)
+    /**
+     * The protein has two copies of a xref and both are deleted. No copy should be kept.
+     */
+    public void delete_all_copies_of_xref(){
+        DataContext context = getDataContext();
+        TransactionStatus status = context.beginTransaction();
+
+        CvDatabase intact = context.getDaoFactory().getCvObjectDao(CvDatabase.class).getByPsiMiRef(CvDatabase.INTACT_MI_REF);
+        CvXrefQualifier intactSecondary = context.getDaoFactory().getCvObjectDao(CvXrefQualifier.class).getByShortLabel("intact-secondary");
+
+        Protein protein = getMockBuilder().createProtein("P12345", "protein");
+        InteractorXref copy1 = getMockBuilder().createXref(protein, "EBI-1", intactSecondary, intact);
+        InteractorXref copy2 = getMockBuilder().createXref(protein, "EBI-1", intactSecondary, intact);
+        protein.addXref(copy1);
+        protein.addXref(copy2);
+
+        getCorePersister().saveOrUpdate(protein);
+
+        int totalOfXrefs = context.getDaoFactory().getXrefDao(InteractorXref.class).countAll();
+
+        ProteinTools.deleteInteractorXRefs(protein, context, Arrays.asList(copy1, copy2));
+
+        Assert.assertEquals(totalOfXrefs - 2, context.getDaoFactory().getXrefDao(InteractorXref.class).countAll());
+        Assert.assertFalse(hasXRef(protein, "EBI-1", CvDatabase.INTACT, "intact-secondary"));
+
+        context.commitTransaction(status);
+    }
+
+    @Test
+    @DirtiesContext
+    @Transactional(propagation = Propagation.NEVER)
+    /**
+     * The protein has two copies of an annotation and another annotation. One copy is deleted,
+     * the second copy and the other annotation should be kept.
+     */
+    public void delete_annotation_keep_one_copy(){
+        DataContext context = getDataContext();
+        TransactionStatus status = context.beginTransaction();
+
+        Protein protein = getMockBuilder().createProtein("P12345", "protein");
+        Annotation copy1 = getMockBuilder().createAnnotation("obsolete", CvTopic.CAUTION_MI_REF, CvTopic.CAUTION);
+        Annotation copy2 = getMockBuilder().createAnnotation("obsolete", CvTopic.CAUTION_MI_REF, CvTopic.CAUTION);
+        Annotation other = getMockBuilder().createAnnotation("other", CvTopic.CAUTION_MI_REF, CvTopic.CAUTION);
+        protein.addAnnotation(copy1);
+        protein.addAnnotation(copy2);
+        protein.addAnnotation(other);
+
+        getCorePersister().saveOrUpdate(protein);
+
+        int totalOfAnnotations = context.getDaoFactory().getAnnotationDao().countAll();
+
+        ProteinTools.deleteAnnotation(protein, context, copy1);
+
+        Assert.assertEquals(2, protein.getAnnotations().size());
+        Assert.assertEquals(totalOfAnnotations - 1, context.getDaoFactory().getAnnotationDao().countAll());
+        Assert.assertTrue(protein.getAnnotations().contains(copy2));
+        Assert.assertTrue(hasAnnotation(protein, "other", CvTopic.CAUTION));
+
+        context.commitTransaction(status);
+    }
+}
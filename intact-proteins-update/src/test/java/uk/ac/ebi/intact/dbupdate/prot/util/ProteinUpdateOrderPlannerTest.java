@@ -0,0 +1,81 @@
+package uk.ac.ebi.intact.dbupdate.prot.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * Tester of the ProteinUpdateOrderPlanner
+ *
+ * @version $Id$
+ */
+public class ProteinUpdateOrderPlannerTest {
+
+    @Test
+    public void proteins_grouped_by_entry_and_organism(){
+        // created order
+        List<String> acs = Arrays.asList("EBI-1", "EBI-2", "EBI-3", "EBI-4", "EBI-5", "EBI-6", "EBI-7");
+
+        Map<String, String> identities = new HashMap<>();
+        identities.put("EBI-1", "P12345-2");
+        identities.put("EBI-2", "Q11111");
+        identities.put("EBI-3", "P12345");
+        identities.put("EBI-5", "P12345-PRO_0000000001");
+        identities.put("EBI-6", "Q22222");
+        identities.put("EBI-7", "Q11111");
+
+        Map<String, String> taxIds = new HashMap<>();
+        taxIds.put("EBI-1", "9606");
+        taxIds.put("EBI-2", "10090");
+        taxIds.put("EBI-3", "9606");
+        taxIds.put("EBI-4", "9606");
+        taxIds.put("EBI-5", "9606");
+        taxIds.put("EBI-6", "9606");
+        taxIds.put("EBI-7", "10090");
+
+        ProteinUpdateOrderPlanner planner = new ProteinUpdateOrderPlanner();
+        List<String> plannedAcs = planner.planUpdateOrder(acs, identities, taxIds);
+
+        // master protein of P12345 first, then its isoform and chain, then the other human entry, then the mouse entry,
+        // then the protein without uniprot identity
+        Assert.assertEquals(Arrays.asList("EBI-3", "EBI-1", "EBI-5", "EBI-6", "EBI-2", "EBI-7", "EBI-4"), plannedAcs);
+
+        Assert.assertEquals(3, planner.getNumberOfEntries());
+        Assert.assertEquals(2, planner.getNumberOfOrganisms());
+        Assert.assertEquals("P12345", planner.getUniprotEntryOf("EBI-5"));
+        Assert.assertNull(planner.getUniprotEntryOf("EBI-4"));
+    }
+
+    @Test
+    public void proteins_of_entry_consecutive(){
+        // the proteins of each entry are spread over the chunks in created order
+        List<String> acs = new ArrayList<>();
+        Map<String, String> identities = new HashMap<>();
+
+        for (int i = 0; i < 100; i++){
+            String ac = "EBI-" + i;
+            acs.add(ac);
+            identities.put(ac, "P0000" + (i % 10));
+        }
+
+        ProteinUpdateOrderPlanner planner = new ProteinUpdateOrderPlanner();
+        List<String> plannedAcs = planner.planUpdateOrder(acs, identities, Collections.<String, String>emptyMap());
+
+        Assert.assertEquals(100, plannedAcs.size());
+        Assert.assertEquals(new HashSet<>(acs), new HashSet<>(plannedAcs));
+
+        // the 10 proteins of each entry follow each other
+        for (int i = 0; i < plannedAcs.size(); i++){
+            Assert.assertEquals(planner.getUniprotEntryOf(plannedAcs.get(i - i % 10)), planner.getUniprotEntryOf(plannedAcs.get(i)));
+        }
+        Assert.assertEquals(10, planner.getNumberOfEntries());
+    }
+
+    @Test
+    public void uniprot_entry(){
+        Assert.assertEquals("P12345", ProteinUpdateOrderPlanner.getUniprotEntry("P12345"));
+        Assert.assertEquals("P12345", ProteinUpdateOrderPlanner.getUniprotEntry("P12345-3"));
+        Assert.assertEquals("P12345", ProteinUpdateOrderPlanner.getUniprotEntry("P12345-PRO_0000000001"));
+    }
+}
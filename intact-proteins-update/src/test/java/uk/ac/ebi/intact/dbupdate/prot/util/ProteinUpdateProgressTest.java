@@ -0,0 +1,110 @@
+package uk.ac.ebi.intact.dbupdate.prot.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tester of the ProteinUpdateProgress
+ *
+ * @version $Id$
+ */
+public class ProteinUpdateProgressTest {
+
+    @Test
+    public void throughput_and_completion_time(){
+        AtomicLong clock = new AtomicLong(1000000);
+        ProteinUpdateProgress progress = new ProteinUpdateProgress(clock::get);
+        progress.setExpectedProteins(1000);
+
+        // cannot be estimated before the first chunk
+        Assert.assertEquals(-1, progress.getEstimatedCompletionTime());
+
+        progress.startChunk(50);
+        clock.addAndGet(10000);
+        progress.chunkCommitted(50);
+
+        progress.startChunk(50);
+        clock.addAndGet(10000);
+        progress.chunkCommitted(50);
+
+        Assert.assertEquals(100, progress.getProcessedProteins());
+        Assert.assertEquals(900, progress.getRemainingProteins());
+        Assert.assertEquals(2, progress.getCurrentChunk());
+        Assert.assertEquals(5, progress.getThroughput(), 0.001);
+        Assert.assertEquals(clock.get() + 180000, progress.getEstimatedCompletionTime());
+    }
+
+    @Test
+    public void unknown_number_of_proteins(){
+        AtomicLong clock = new AtomicLong(0);
+        ProteinUpdateProgress progress = new ProteinUpdateProgress(clock::get);
+
+        progress.startChunk(50);
+        clock.addAndGet(1000);
+        progress.chunkCommitted(50);
+
+        Assert.assertEquals(-1, progress.getRemainingProteins());
+        Assert.assertEquals(-1, progress.getEstimatedCompletionTime());
+        Assert.assertEquals(50, progress.getThroughput(), 0.001);
+    }
+
+    @Test
+    public void stage_throughput_and_errors(){
+        AtomicLong clock = new AtomicLong(0);
+        ProteinUpdateProgress progress = new ProteinUpdateProgress(clock::get);
+
+        for (int i = 0; i < 4; i++){
+            progress.startProtein("EBI-" + i);
+            progress.enterStage(ProteinUpdateWatchdog.FILTER_STAGE);
+            clock.addAndGet(100);
+            progress.enterStage(ProteinUpdateWatchdog.UNIPROT_RETRIEVAL_STAGE);
+            clock.addAndGet(400);
+            progress.endProtein();
+        }
+
+        progress.errorFound("dead_uniprot_ac");
+        progress.errorFound("dead_uniprot_ac");
+        progress.errorFound("fatal_error_during_update");
+
+        // 4 proteins in 400 ms and 1600 ms
+        Assert.assertEquals(10, progress.getStageThroughput(ProteinUpdateWatchdog.FILTER_STAGE), 0.001);
+        Assert.assertEquals(2.5, progress.getStageThroughput(ProteinUpdateWatchdog.UNIPROT_RETRIEVAL_STAGE), 0.001);
+        Assert.assertEquals(0, progress.getStageThroughput(ProteinUpdateWatchdog.DUPLICATES_STAGE), 0.001);
+
+        Assert.assertEquals(Long.valueOf(2), progress.getErrors().get("dead_uniprot_ac"));
+        Assert.assertEquals(Long.valueOf(1), progress.getErrors().get("fatal_error_during_update"));
+
+        String json = progress.toJson();
+        Assert.assertTrue(json.contains("\"errors\":{\"dead_uniprot_ac\":2,\"fatal_error_during_update\":1}"));
+        Assert.assertTrue(json.contains("\"filter\":{\"proteins\":4,\"throughput\":10.000}"));
+        Assert.assertTrue(progress.toStatusLine().contains("3 errors"));
+    }
+
+    @Test
+    public void errors_of_rolled_back_chunk_dropped(){
+        ProteinUpdateProgress progress = new ProteinUpdateProgress(new AtomicLong(0)::get);
+
+        progress.startChunk(50);
+        progress.errorFound("dead_uniprot_ac");
+        progress.eventFired("deleted");
+
+        // not counted before the chunk is committed
+        Assert.assertTrue(progress.getErrors().isEmpty());
+
+        progress.chunkRolledBack();
+        // the error of the rollback is counted at once
+        progress.errorFound("fatal_error_during_update");
+
+        // the chunk is replayed
+        progress.startChunk(50);
+        progress.errorFound("dead_uniprot_ac");
+        progress.eventFired("deleted");
+        progress.chunkCommitted(49);
+
+        Assert.assertEquals(Long.valueOf(1), progress.getErrors().get("dead_uniprot_ac"));
+        Assert.assertEquals(Long.valueOf(1), progress.getErrors().get("fatal_error_during_update"));
+        Assert.assertEquals(Long.valueOf(1), progress.getEvents().get("deleted"));
+    }
+}
@@ -0,0 +1,119 @@
+package uk.ac.ebi.intact.dbupdate.prot.util;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.ac.ebi.intact.dbupdate.prot.util.ProteinUpdateSummary.Counter;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tester of the ProteinUpdateSummary
+ *
+ * @version $Id$
+ */
+public class ProteinUpdateSummaryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void totals_by_stage_and_organism(){
+        ProteinUpdateSummary summary = new ProteinUpdateSummary("run-1", new AtomicLong(1000)::get);
+
+        summary.startProtein("9606");
+        summary.enterStage(ProteinUpdateWatchdog.UPDATE_CASE_STAGE);
+        summary.add(Counter.updated, 3);
+        summary.increment(Counter.sequence_changed);
+        summary.add(Counter.ranges_shifted, 2);
+        summary.enterStage(ProteinUpdateWatchdog.DUPLICATES_STAGE);
+        summary.add(Counter.duplicates_merged, 1);
+        summary.endProtein();
+
+        summary.startProtein("10090");
+        summary.enterStage(ProteinUpdateWatchdog.UNIPROT_RETRIEVAL_STAGE);
+        summary.increment(Counter.remote_failures);
+        summary.errorFound("fatal_error_during_update");
+        summary.endProtein();
+
+        // outside the update of a protein
+        summary.increment(Counter.deleted);
+        summary.add(Counter.created, 0);
+        summary.chunkCommitted(50);
+
+        Assert.assertEquals(50, summary.getCount(Counter.proteins));
+        Assert.assertEquals(3, summary.getCount(Counter.updated));
+        Assert.assertEquals(1, summary.getCount(Counter.deleted));
+        Assert.assertEquals(0, summary.getCount(Counter.created));
+        Assert.assertEquals(1, summary.getCount(Counter.errors));
+
+        Assert.assertEquals(2, summary.getCountByStage(ProteinUpdateWatchdog.UPDATE_CASE_STAGE, Counter.ranges_shifted));
+        Assert.assertEquals(1, summary.getCountByStage(ProteinUpdateWatchdog.DUPLICATES_STAGE, Counter.duplicates_merged));
+        Assert.assertEquals(1, summary.getCountByStage(ProteinUpdateWatchdog.UNIPROT_RETRIEVAL_STAGE, Counter.errors));
+        Assert.assertEquals(1, summary.getCountByStage(ProteinUpdateSummary.NONE, Counter.deleted));
+
+        Assert.assertEquals(3, summary.getCountByOrganism("9606", Counter.updated));
+        Assert.assertEquals(0, summary.getCountByOrganism("9606", Counter.remote_failures));
+        Assert.assertEquals(1, summary.getCountByOrganism("10090", Counter.remote_failures));
+        Assert.assertEquals(1, summary.getCountByOrganism(ProteinUpdateSummary.NONE, Counter.deleted));
+
+        Assert.assertEquals(Long.valueOf(1), summary.getErrors().get("fatal_error_during_update"));
+    }
+
+    @Test
+    public void counts_of_rolled_back_chunk_dropped(){
+        ProteinUpdateSummary summary = new ProteinUpdateSummary("run-1", new AtomicLong(1000)::get);
+
+        summary.startChunk();
+        summary.startProtein("9606");
+        summary.add(Counter.updated, 2);
+        summary.endProtein();
+
+        // not counted before the chunk is committed
+        Assert.assertEquals(0, summary.getCount(Counter.updated));
+
+        summary.chunkRolledBack();
+        // the error of the rollback is counted at once
+        summary.errorFound("fatal_error_during_update");
+
+        // the chunk is replayed
+        summary.startChunk();
+        summary.startProtein("9606");
+        summary.add(Counter.updated, 2);
+        summary.endProtein();
+        summary.chunkCommitted(49);
+
+        Assert.assertEquals(49, summary.getCount(Counter.proteins));
+        Assert.assertEquals(2, summary.getCount(Counter.updated));
+        Assert.assertEquals(2, summary.getCountByOrganism("9606", Counter.updated));
+        Assert.assertEquals(1, summary.getCount(Counter.errors));
+        Assert.assertEquals(Long.valueOf(1), summary.getErrors().get("fatal_error_during_update"));
+    }
+
+    @Test
+    public void summary_file() throws Exception {
+        AtomicLong clock = new AtomicLong(1000);
+        ProteinUpdateSummary summary = new ProteinUpdateSummary("run-1", clock::get);
+
+        summary.startProtein("9606");
+        summary.enterStage(ProteinUpdateWatchdog.FILTER_STAGE);
+        summary.increment(Counter.non_uniprot);
+        summary.endProtein();
+        summary.chunkCommitted(1);
+
+        clock.set(5000);
+        summary.finish();
+
+        File file = new File(folder.getRoot(), ProteinUpdateSummary.SUMMARY_FILE_NAME);
+        summary.writeTo(file);
+
+        String json = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+
+        Assert.assertTrue(json.startsWith("{\"process\":\"run-1\",\"startTime\":1000,\"endTime\":5000,\"totals\":{\"proteins\":1,\"created\":0,"));
+        Assert.assertTrue(json.endsWith("\"errors\":{},\"stages\":{\"filter\":{\"non_uniprot\":1}},\"organisms\":{\"9606\":{\"non_uniprot\":1}}}\n"));
+    }
+}
@@ -0,0 +1,148 @@
+package uk.ac.ebi.intact.dbupdate.prot.util;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import uk.ac.ebi.intact.dbupdate.prot.ProteinBudgetExceededException;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+
+/**
+ * Tester of the ProteinUpdateWatchdog
+ *
+ * @version $Id$
+ */
+public class ProteinUpdateWatchdogTest {
+
+    private ProteinUpdateWatchdog watchdog;
+
+    @After
+    public void shutdown(){
+        if (watchdog != null){
+            watchdog.shutdown();
+        }
+        Thread.interrupted();
+    }
+
+    @Test
+    public void protein_within_budget(){
+        watchdog = new ProteinUpdateWatchdog(10000, 0, null);
+        Assert.assertTrue(watchdog.hasBudget());
+
+        watchdog.startProtein("EBI-1");
+        watchdog.enterStage(ProteinUpdateWatchdog.UNIPROT_RETRIEVAL_STAGE);
+        watchdog.checkpoint();
+        watchdog.endProtein();
+
+        Assert.assertNull(watchdog.getExceeded());
+
+        // no protein is being updated
+        watchdog.checkpoint();
+    }
+
+    @Test
+    public void no_budget(){
+        watchdog = new ProteinUpdateWatchdog(0, 0, null);
+        Assert.assertFalse(watchdog.hasBudget());
+    }
+
+    @Test
+    public void checkpoint_after_budget() throws InterruptedException {
+        watchdog = new ProteinUpdateWatchdog(50, 0, null);
+
+        watchdog.startProtein("EBI-1");
+        Thread.sleep(100);
+
+        try {
+            watchdog.checkpoint();
+            Assert.fail("The budget of EBI-1 is exceeded");
+        } catch (ProteinBudgetExceededException e) {
+            Assert.assertEquals("EBI-1", e.getProteinAc());
+            Assert.assertEquals(ProteinUpdateWatchdog.FILTER_STAGE, e.getStage());
+            Assert.assertTrue(e.getElapsedTime() >= 50);
+        } finally {
+            watchdog.endProtein();
+        }
+
+        // the next protein has its own budget
+        watchdog.startProtein("EBI-2");
+        watchdog.checkpoint();
+        watchdog.endProtein();
+    }
+
+    @Test
+    public void stage_budget() throws InterruptedException {
+        watchdog = new ProteinUpdateWatchdog(0, 0, Collections.singletonMap(ProteinUpdateWatchdog.DUPLICATES_STAGE, 50L));
+
+        watchdog.startProtein("EBI-1");
+        Thread.sleep(100);
+        // the other stages have no budget
+        watchdog.enterStage(ProteinUpdateWatchdog.DUPLICATES_STAGE);
+        Thread.sleep(100);
+
+        try {
+            watchdog.enterStage(ProteinUpdateWatchdog.MASTER_UPDATE_STAGE);
+            Assert.fail("The budget of the duplicates stage is exceeded");
+        } catch (ProteinBudgetExceededException e) {
+            Assert.assertEquals(ProteinUpdateWatchdog.DUPLICATES_STAGE, e.getStage());
+        } finally {
+            watchdog.endProtein();
+        }
+    }
+
+    @Test
+    public void blocked_update_interrupted() {
+        watchdog = new ProteinUpdateWatchdog(300, 0, null);
+        watchdog.start();
+
+        watchdog.startProtein("EBI-1");
+        try {
+            // a remote call which hangs
+            Thread.sleep(10000);
+            Assert.fail("The watchdog should have interrupted the update");
+        } catch (InterruptedException e) {
+            Assert.assertNotNull(watchdog.getExceeded());
+
+            try {
+                watchdog.checkpoint();
+                Assert.fail("The budget of EBI-1 is exceeded");
+            } catch (ProteinBudgetExceededException budgetExceeded) {
+                Assert.assertEquals("EBI-1", budgetExceeded.getProteinAc());
+            }
+        } finally {
+            watchdog.endProtein();
+        }
+
+        // the interrupt does not leak to the next protein
+        Assert.assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    public void cpu_budget() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean().isThreadCpuTimeSupported());
+
+        watchdog = new ProteinUpdateWatchdog(0, 50, null);
+        watchdog.start();
+
+        watchdog.startProtein("EBI-1");
+        long start = System.currentTimeMillis();
+        long iterations = 0;
+
+        try {
+            // a huge diff
+            while (System.currentTimeMillis() - start < 10000){
+                iterations++;
+                if (iterations % 1000 == 0){
+                    watchdog.checkpoint();
+                }
+            }
+            Assert.fail("The CPU budget of EBI-1 is exceeded");
+        } catch (ProteinBudgetExceededException e) {
+            Assert.assertTrue(e.getCpuTime() >= 50);
+        } finally {
+            watchdog.endProtein();
+        }
+    }
+}
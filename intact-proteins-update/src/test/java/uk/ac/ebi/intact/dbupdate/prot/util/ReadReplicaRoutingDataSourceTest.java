@@ -0,0 +1,97 @@
+package uk.ac.ebi.intact.dbupdate.prot.util;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Tester of the ReadReplicaRoutingDataSource using two H2 databases
+ *
+ * @version $Id$
+ */
+public class ReadReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private DataSource routingDataSource;
+    private DataSourceTransactionManager transactionManager;
+
+    @Before
+    public void setUp(){
+        primary = createDataSource("primary");
+        replica = createDataSource("replica");
+
+        new JdbcTemplate(primary).execute("create table db_name (name varchar(20))");
+        new JdbcTemplate(primary).execute("insert into db_name values ('primary')");
+        new JdbcTemplate(replica).execute("create table db_name (name varchar(20))");
+        new JdbcTemplate(replica).execute("insert into db_name values ('replica')");
+
+        ReadReplicaRoutingDataSource routing = new ReadReplicaRoutingDataSource(primary, replica);
+        routing.afterPropertiesSet();
+
+        routingDataSource = new LazyConnectionDataSourceProxy(routing);
+        transactionManager = new DataSourceTransactionManager(routingDataSource);
+    }
+
+    @After
+    public void after(){
+        ReadReplicaRoutingDataSource.endReadOnlyStage();
+        new JdbcTemplate(primary).execute("drop table db_name");
+        new JdbcTemplate(replica).execute("drop table db_name");
+    }
+
+    private DataSource createDataSource(String name){
+        DriverManagerDataSource dataSource = new DriverManagerDataSource();
+        dataSource.setDriverClassName("org.h2.Driver");
+        dataSource.setUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        return dataSource;
+    }
+
+    private String readDatabaseName(boolean readOnly){
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+
+        return template.execute(status -> new JdbcTemplate(routingDataSource).queryForObject("select name from db_name", String.class));
+    }
+
+    @Test
+    public void write_transaction_uses_primary(){
+        Assert.assertEquals("primary", readDatabaseName(false));
+    }
+
+    @Test
+    public void read_only_transaction_uses_replica(){
+        Assert.assertEquals("replica", readDatabaseName(true));
+        Assert.assertEquals("primary", readDatabaseName(false));
+    }
+
+    @Test
+    public void read_only_stage_uses_replica(){
+        ReadReplicaRoutingDataSource.beginReadOnlyStage();
+        Assert.assertTrue(ReadReplicaRoutingDataSource.isReadOnlyStage());
+        Assert.assertEquals("replica", readDatabaseName(false));
+
+        ReadReplicaRoutingDataSource.endReadOnlyStage();
+        Assert.assertFalse(ReadReplicaRoutingDataSource.isReadOnlyStage());
+        Assert.assertEquals("primary", readDatabaseName(false));
+    }
+
+    @Test
+    public void no_replica_uses_primary(){
+        ReadReplicaRoutingDataSource routing = new ReadReplicaRoutingDataSource(primary, null);
+        routing.afterPropertiesSet();
+
+        ReadReplicaRoutingDataSource.beginReadOnlyStage();
+        Assert.assertEquals("primary", new JdbcTemplate(routing).queryForObject("select name from db_name", String.class));
+    }
+}
@@ -0,0 +1,134 @@
+package uk.ac.ebi.intact.dbupdate.prot.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+import uk.ac.ebi.intact.dbupdate.prot.event.ProteinSequenceChangeEvent;
+import uk.ac.ebi.intact.util.protein.mock.MockUniprotProtein;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tester of SequenceConservationCalculator
+ *
+ * @version $Id$
+ */
+public class SequenceConservationCalculatorTest {
+
+    private static final String RESIDUES = "ACDEFGHIKLMNPQRSTVWY";
+
+    private static final double[] THRESHOLDS = {0.1, 0.35, 0.5, 0.9};
+
+    /**
+     * Builds pairs of sequence versions : residue fixes, insertions, deletions, truncations, extensions and sequences replaced.
+     */
+    private List<String[]> buildVersionPairs(){
+        Random random = new Random(7);
+        List<String[]> pairs = new ArrayList<>();
+
+        String sequence = MockUniprotProtein.CANFA_SEQUENCE;
+
+        for (int i = 0; i < 200; i++){
+            StringBuilder newSequence = new StringBuilder(sequence);
+            int numberOfChanges = 1 + random.nextInt(i < 100 ? 3 : sequence.length());
+
+            for (int j = 0; j < numberOfChanges && newSequence.length() > 1; j++){
+                int position = random.nextInt(newSequence.length());
+                char residue = RESIDUES.charAt(random.nextInt(RESIDUES.length()));
+
+                switch (random.nextInt(3)){
+                    case 0:
+                        newSequence.setCharAt(position, residue);
+                        break;
+                    case 1:
+                        newSequence.insert(position, residue);
+                        break;
+                    default:
+                        newSequence.deleteCharAt(position);
+                }
+            }
+            pairs.add(new String[]{sequence, newSequence.toString()});
+        }
+
+        // truncations and extensions
+        pairs.add(new String[]{sequence, sequence.substring(0, sequence.length() / 3)});
+        pairs.add(new String[]{sequence, sequence.substring(sequence.length() / 2)});
+        pairs.add(new String[]{sequence, sequence + sequence});
+        pairs.add(new String[]{sequence.substring(10), sequence});
+
+        // sequences completely replaced
+        pairs.add(new String[]{sequence, "MQTIKCVKRKCCIF"});
+        pairs.add(new String[]{sequence, new StringBuilder(sequence).reverse().toString()});
+        pairs.add(new String[]{"AAAAAAAAAA", "CCCCCCCCCC"});
+
+        return pairs;
+    }
+
+    @Test
+    public void bounds_contain_exact_conservation(){
+        for (String[] pair : buildVersionPairs()){
+            double exact = ProteinTools.calculateSequenceConservation(pair[0], pair[1]);
+            double lowerBound = SequenceConservationCalculator.getConservationLowerBound(pair[0], pair[1]);
+            double upperBound = SequenceConservationCalculator.getConservationUpperBound(pair[0], pair[1]);
+
+            Assert.assertTrue(lowerBound <= exact);
+            Assert.assertTrue(exact <= upperBound);
+        }
+    }
+
+    @Test
+    public void same_threshold_decisions_as_exact_conservation(){
+        for (String[] pair : buildVersionPairs()){
+            double exact = ProteinTools.calculateSequenceConservation(pair[0], pair[1]);
+
+            for (double threshold : THRESHOLDS){
+                Assert.assertEquals(exact <= threshold, SequenceConservationCalculator.isConservationBelowThreshold(pair[0], pair[1], threshold));
+            }
+        }
+    }
+
+    @Test
+    public void event_computes_exact_conservation_only_if_needed(){
+        String sequence = MockUniprotProtein.CANFA_SEQUENCE;
+
+        // one residue fixed : the lower bound is enough to decide
+        ProteinSequenceChangeEvent evt = new ProteinSequenceChangeEvent(this, null, null, "P12345", sequence, "W" + sequence.substring(1), null);
+        Assert.assertFalse(evt.isRelativeConservationBelow(0.35));
+        Assert.assertFalse(evt.isRelativeConservationComputed());
+        Assert.assertTrue(evt.getRelativeConservationLowerBound() <= evt.getRelativeConservationUpperBound());
+
+        // sequence replaced : the upper bound is enough to decide
+        evt = new ProteinSequenceChangeEvent(this, null, null, "P12345", "AAAAAAAAAA", "CCCCCCCCCC", null);
+        Assert.assertTrue(evt.isRelativeConservationBelow(0.35));
+        Assert.assertFalse(evt.isRelativeConservationComputed());
+
+        // once computed, the bounds are the exact conservation
+        double exact = evt.getRelativeConservation();
+        Assert.assertTrue(evt.isRelativeConservationComputed());
+        Assert.assertEquals(exact, evt.getRelativeConservationLowerBound(), 0);
+        Assert.assertEquals(exact, evt.getRelativeConservationUpperBound(), 0);
+    }
+
+    @Test
+    public void empty_old_sequence_never_below_threshold(){
+        // the relative conservation of an empty sequence is NaN, which has never raised a caution
+        Assert.assertTrue(Double.isNaN(ProteinTools.calculateSequenceConservation("", "MQTIKCVKRKCCIF")));
+
+        for (double threshold : THRESHOLDS){
+            Assert.assertFalse(SequenceConservationCalculator.isConservationBelowThreshold("", "MQTIKCVKRKCCIF", threshold));
+
+            ProteinSequenceChangeEvent evt = new ProteinSequenceChangeEvent(this, null, null, "P12345", "", "MQTIKCVKRKCCIF", null);
+            Assert.assertFalse(evt.isRelativeConservationBelow(threshold));
+        }
+    }
+
+    @Test
+    public void common_prefix_and_suffix_do_not_overlap(){
+        Assert.assertEquals(3, SequenceConservationCalculator.countCommonPrefixAndSuffix("AAA", "AAAA"));
+        Assert.assertEquals(4, SequenceConservationCalculator.countCommonPrefixAndSuffix("ACDE", "ACDE"));
+        Assert.assertEquals(4, SequenceConservationCalculator.countCommonPrefixAndSuffix("ACXDE", "ACYDE"));
+        Assert.assertEquals(0, SequenceConservationCalculator.countCommonResidues("AAAA", "CCCC"));
+        Assert.assertEquals(2, SequenceConservationCalculator.countCommonResidues("AACC", "CACA".substring(0, 2)));
+    }
+}
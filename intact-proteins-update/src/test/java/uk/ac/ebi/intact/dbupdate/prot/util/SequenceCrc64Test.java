@@ -0,0 +1,48 @@
+package uk.ac.ebi.intact.dbupdate.prot.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+import uk.ac.ebi.intact.commons.util.Crc64;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Tester of SequenceCrc64
+ *
+ * @version $Id$
+ */
+public class SequenceCrc64Test {
+
+    private static final String RESIDUES = "ACDEFGHIKLMNPQRSTVWYBXZUO";
+
+    private String randomSequence(Random random, int length){
+        StringBuilder sequence = new StringBuilder(length);
+
+        for (int i = 0; i < length; i++){
+            sequence.append(RESIDUES.charAt(random.nextInt(RESIDUES.length())));
+        }
+        return sequence.toString();
+    }
+
+    @Test
+    public void same_crc64_as_commons_implementation(){
+        Random random = new Random(42);
+
+        // all the lengths around the 8 residues blocks and a uniprot like distribution of lengths
+        for (int length = 0; length < 40; length++){
+            String sequence = randomSequence(random, length);
+            Assert.assertEquals(Crc64.getCrc64(sequence), SequenceCrc64.getCrc64(sequence));
+            Assert.assertEquals(Crc64.getCrc64(sequence), SequenceCrc64.getCrc64(sequence.getBytes(StandardCharsets.ISO_8859_1)));
+        }
+
+        for (int i = 0; i < 500; i++){
+            String sequence = randomSequence(random, 50 + random.nextInt(2000));
+            Assert.assertEquals(Crc64.getCrc64(sequence), SequenceCrc64.getCrc64(sequence));
+            Assert.assertEquals(Crc64.getCrc64(sequence), SequenceCrc64.getCrc64(sequence.getBytes(StandardCharsets.ISO_8859_1)));
+        }
+
+        String lowerCase = "mqtikcvvvgdgavgktcllisyttnkfpseyvptvfdnyavtvmiggepytlglfdtag";
+        Assert.assertEquals(Crc64.getCrc64(lowerCase), SequenceCrc64.getCrc64(lowerCase));
+    }
+}
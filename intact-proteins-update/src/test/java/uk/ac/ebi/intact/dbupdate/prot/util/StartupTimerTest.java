@@ -0,0 +1,63 @@
+package uk.ac.ebi.intact.dbupdate.prot.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tester of the StartupTimer
+ *
+ * @version $Id$
+ */
+public class StartupTimerTest {
+
+    @Test
+    public void phases_run_in_parallel() throws Exception {
+        StartupTimer startup = new StartupTimer();
+        final CountDownLatch mainPhaseStarted = new CountDownLatch(1);
+
+        // the parallel phase can only finish while the phase of the main thread runs
+        Future<String> service = startup.submit("service", () -> {
+            Assert.assertTrue(mainPhaseStarted.await(10, TimeUnit.SECONDS));
+            return "service";
+        });
+
+        startup.run("context", () -> {
+            mainPhaseStarted.countDown();
+            try {
+                Assert.assertEquals("service", StartupTimer.join(service));
+            } catch (IOException e) {
+                Assert.fail(e.getMessage());
+            }
+        });
+        startup.shutdown();
+
+        Assert.assertTrue(startup.getDuration("service") >= 0);
+        Assert.assertTrue(startup.getDuration("context") >= 0);
+        Assert.assertEquals(-1, startup.getDuration("processor"));
+
+        String breakdown = startup.getBreakdown();
+        Assert.assertTrue(breakdown, breakdown.contains("service") && breakdown.contains("(parallel)"));
+        Assert.assertTrue(breakdown, breakdown.contains("context"));
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void io_failure_of_parallel_phase() throws Exception {
+        StartupTimer startup = new StartupTimer();
+
+        Future<Object> index = startup.submit("index", () -> {
+            throw new FileNotFoundException("sec_ac.txt");
+        });
+
+        try {
+            StartupTimer.join(index);
+        } finally {
+            startup.shutdown();
+        }
+    }
+}
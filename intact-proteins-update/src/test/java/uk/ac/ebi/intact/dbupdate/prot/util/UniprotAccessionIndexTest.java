@@ -0,0 +1,205 @@
+package uk.ac.ebi.intact.dbupdate.prot.util;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Tester of the UniprotAccessionIndex
+ *
+ * @version $Id$
+ */
+public class UniprotAccessionIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private void write(String fileName, String... lines) throws IOException {
+        Files.write(new File(folder.getRoot(), fileName).toPath(), Arrays.asList(lines), StandardCharsets.ISO_8859_1);
+    }
+
+    private UniprotAccessionIndex buildIndex() throws IOException {
+        write(UniprotAccessionIndex.DELETED_SWISSPROT_FILE,
+                "Deleted accessions in UniProtKB/Swiss-Prot",
+                "_________________________",
+                "Q8N5M5",
+                "P00001");
+        write(UniprotAccessionIndex.DELETED_TREMBL_FILE,
+                "A0A023GPI8",
+                "Q8N5M5",
+                "A0A000");
+        write(UniprotAccessionIndex.SECONDARY_ACCESSION_FILE,
+                "Secondary AC   Primary AC",
+                "____________   __________",
+                "P12346         P02787",
+                "Q9UKV9         P60953",
+                "Q9UKV9         P12345",
+                "A0A024R3B9     Q15796",
+                "Q9UKV9         P60953");
+
+        return UniprotAccessionIndex.openOrBuild(folder.getRoot());
+    }
+
+    @Test
+    public void deleted_accessions() throws IOException {
+        UniprotAccessionIndex index = buildIndex();
+
+        // duplicated accessions are indexed once
+        Assert.assertEquals(4, index.getNumberOfDeletedAccessions());
+
+        Assert.assertTrue(index.isDeleted("Q8N5M5"));
+        Assert.assertTrue(index.isDeleted("A0A023GPI8"));
+        Assert.assertTrue(index.isDeleted("A0A000"));
+        Assert.assertTrue(index.isDeleted("p00001"));
+
+        // the isoforms and feature chains of a deleted entry are deleted as well
+        Assert.assertTrue(index.isDeleted("Q8N5M5-2"));
+        Assert.assertTrue(index.isDeleted("Q8N5M5-PRO_0000001"));
+
+        Assert.assertFalse(index.isDeleted("P60953"));
+        Assert.assertFalse(index.isDeleted("A0A023"));
+        Assert.assertFalse(index.isDeleted("Q8N5M"));
+        Assert.assertFalse(index.isDeleted(null));
+        Assert.assertFalse(index.isDeleted("EBI-12345"));
+    }
+
+    @Test
+    public void secondary_accessions() throws IOException {
+        UniprotAccessionIndex index = buildIndex();
+
+        Assert.assertEquals(4, index.getNumberOfSecondaryAccessions());
+
+        Assert.assertEquals(Arrays.asList("P02787"), index.getPrimaryAccessions("P12346"));
+        Assert.assertEquals(Arrays.asList("Q15796"), index.getPrimaryAccessions("A0A024R3B9"));
+
+        // demerged entry
+        List<String> primaryAcs = index.getPrimaryAccessions("Q9UKV9");
+        Assert.assertEquals(Arrays.asList("P12345", "P60953"), primaryAcs);
+        Assert.assertTrue(index.isSecondary("Q9UKV9"));
+
+        Assert.assertTrue(index.getPrimaryAccessions("P60953").isEmpty());
+        Assert.assertFalse(index.isSecondary("P60953"));
+    }
+
+    @Test
+    public void many_secondary_accessions_sorted() throws IOException {
+        Random random = new Random(3);
+        List<String> lines = new ArrayList<>();
+        Map<String, SortedSet<String>> expected = new HashMap<>();
+
+        // enough pairs for the quicksort, with duplicated pairs and demerged entries
+        for (int i = 0; i < 5000; i++){
+            String secondary = "P" + (10000 + random.nextInt(2000));
+            String primary = "Q" + (10000 + random.nextInt(50000));
+            lines.add(secondary + "     " + primary);
+            if (i % 10 == 0){
+                lines.add(secondary + "     " + primary);
+            }
+            expected.computeIfAbsent(secondary, k -> new TreeSet<>()).add(primary);
+        }
+        write(UniprotAccessionIndex.SECONDARY_ACCESSION_FILE, lines.toArray(new String[lines.size()]));
+
+        UniprotAccessionIndex index = UniprotAccessionIndex.openOrBuild(folder.getRoot());
+
+        int numberOfPairs = 0;
+        for (Map.Entry<String, SortedSet<String>> entry : expected.entrySet()){
+            Assert.assertEquals(new ArrayList<>(entry.getValue()), index.getPrimaryAccessions(entry.getKey()));
+            numberOfPairs += entry.getValue().size();
+        }
+        Assert.assertEquals(numberOfPairs, index.getNumberOfSecondaryAccessions());
+    }
+
+    @Test
+    public void accessions_merged_from_sorted_runs() throws IOException {
+        Random random = new Random(5);
+        List<String> deletedLines = new ArrayList<>();
+        List<String> secondaryLines = new ArrayList<>();
+        SortedSet<String> expectedDeleted = new TreeSet<>();
+        Map<String, SortedSet<String>> expectedSecondary = new HashMap<>();
+
+        // duplicated accessions in different runs
+        for (int i = 0; i < 3000; i++){
+            String deleted = "A" + (10000 + random.nextInt(2000));
+            deletedLines.add(deleted);
+            expectedDeleted.add(deleted);
+
+            String secondary = "P" + (10000 + random.nextInt(500));
+            String primary = "Q" + (10000 + random.nextInt(1000));
+            secondaryLines.add(secondary + "     " + primary);
+            expectedSecondary.computeIfAbsent(secondary, k -> new TreeSet<>()).add(primary);
+        }
+        write(UniprotAccessionIndex.DELETED_TREMBL_FILE, deletedLines.toArray(new String[deletedLines.size()]));
+        write(UniprotAccessionIndex.SECONDARY_ACCESSION_FILE, secondaryLines.toArray(new String[secondaryLines.size()]));
+
+        File indexFile = new File(folder.getRoot(), UniprotAccessionIndex.INDEX_FILE);
+        UniprotAccessionIndex.build(new File[]{new File(folder.getRoot(), UniprotAccessionIndex.DELETED_TREMBL_FILE)},
+                new File(folder.getRoot(), UniprotAccessionIndex.SECONDARY_ACCESSION_FILE), indexFile, 101);
+        UniprotAccessionIndex index = UniprotAccessionIndex.open(indexFile);
+
+        Assert.assertEquals(expectedDeleted.size(), index.getNumberOfDeletedAccessions());
+        for (String deleted : expectedDeleted){
+            Assert.assertTrue(index.isDeleted(deleted));
+        }
+
+        int numberOfPairs = 0;
+        for (Map.Entry<String, SortedSet<String>> entry : expectedSecondary.entrySet()){
+            Assert.assertEquals(new ArrayList<>(entry.getValue()), index.getPrimaryAccessions(entry.getKey()));
+            numberOfPairs += entry.getValue().size();
+        }
+        Assert.assertEquals(numberOfPairs, index.getNumberOfSecondaryAccessions());
+
+        // the runs and the temporary index are deleted
+        Assert.assertEquals(3, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void index_reused_until_files_change() throws IOException {
+        buildIndex();
+
+        File indexFile = new File(folder.getRoot(), UniprotAccessionIndex.INDEX_FILE);
+        Assert.assertTrue(indexFile.exists());
+
+        // the uniprot files are newer than the index
+        write(UniprotAccessionIndex.DELETED_SWISSPROT_FILE, "P99999");
+        new File(folder.getRoot(), UniprotAccessionIndex.DELETED_SWISSPROT_FILE).setLastModified(indexFile.lastModified() + 10000);
+
+        UniprotAccessionIndex index = UniprotAccessionIndex.openOrBuild(folder.getRoot());
+        Assert.assertTrue(index.isDeleted("P99999"));
+        Assert.assertFalse(index.isDeleted("P00001"));
+    }
+
+    @Test(expected = IOException.class)
+    public void not_an_index() throws IOException {
+        File file = folder.newFile("other.idx");
+        Files.write(file.toPath(), "P12345 P60953 and more text".getBytes(StandardCharsets.ISO_8859_1));
+
+        UniprotAccessionIndex.open(file);
+    }
+
+    @Test
+    public void encoding_keeps_alphabetical_order() {
+        String[] accessions = {"A0A000", "A0A023GPI8", "A0A024R3B9", "P02787", "P12345", "P60953", "Q15796", "Q9UKV9"};
+
+        for (int i = 0; i < accessions.length; i++){
+            Assert.assertEquals(accessions[i], UniprotAccessionIndex.decode(UniprotAccessionIndex.encode(accessions[i])));
+
+            if (i > 0){
+                Assert.assertTrue(UniprotAccessionIndex.encode(accessions[i - 1]) < UniprotAccessionIndex.encode(accessions[i]));
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package uk.ac.ebi.intact.update;
+
+import org.springframework.transaction.TransactionStatus;
+import uk.ac.ebi.intact.core.context.DataContext;
+import uk.ac.ebi.intact.core.context.IntactContext;
+import uk.ac.ebi.intact.dbupdate.prot.ProcessorException;
+import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateContext;
+import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateProcessor;
+import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateProcessorConfig;
+import uk.ac.ebi.intact.dbupdate.prot.report.FileReportHandler;
+import uk.ac.ebi.intact.dbupdate.prot.report.ReportCompression;
+import uk.ac.ebi.intact.dbupdate.prot.util.ProteinUpdateOrderPlanner;
+import uk.ac.ebi.intact.dbupdate.prot.util.UniprotAccessionIndex;
+import uk.ac.ebi.intact.update.model.protein.lease.PersistentProteinLeaseManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Worker of a global protein update distributed over several processes.
+ * It needs the intact database, the update database, the folder where to put the log files, the boolean value to set the blast to true or false,
+ * the name of the run shared by all the workers, the number of partitions and optionally the lease duration in seconds and the folder of the
+ * uniprot accession index (delac_sp.txt, delac_tr.txt and sec_ac.txt).
+ *
+ * The workers coordinate through the ia_protein_lease table of the update database. The proteins are partitioned by the hash of their uniprot
+ * identity, so all the proteins of a uniprot entry are updated by the same worker. Each worker claims a partition, updates it and marks it as
+ * done until all the partitions are done. The partitions of a crashed worker are claimed again once their lease has expired.
+ *
+ * The proteins having a secondary uniprot ac are partitioned with the primary ac of their entry found in the uniprot accession index, so
+ * their duplicates are merged by the same worker. Without the index, a protein with a secondary ac can be updated by another worker than the
+ * proteins of its entry, and two workers can then merge the same duplicates concurrently.
+ *
+ * @version $Id$
+ */
+public class DistributedProteinUpdate {
+
+    public static void main(String [] args){
+
+        // six to eight arguments
+        if( args.length < 6 || args.length > 8 ) {
+            System.err.println( "Usage: DistributedUpdate <database> <update database> <folder> <blast> <run name> <partitions> <lease duration in seconds> <uniprot accession folder>" );
+            System.exit( 1 );
+        }
+        final String database = args[0];
+        final String updateDatabase = args[1];
+        final String filename = args[2];
+        final boolean isBlastEnabled = Boolean.parseBoolean(args[3]);
+        final String runName = args[4];
+        final int partitions = Integer.parseInt(args[5]);
+        final long leaseDuration = args.length >= 7 ? Long.parseLong(args[6]) * 1000 : 10 * 60 * 1000;
+        final String accessionFolder = args.length == 8 ? args[7] : null;
+
+        // host and pid
+        final String owner = ManagementFactory.getRuntimeMXBean().getName();
+
+        System.out.println( "folder where are the log files = " + filename );
+        System.out.println( "database = " + database );
+        System.out.println( "update database = " + updateDatabase );
+        System.out.println( "Blast enabled = " + isBlastEnabled );
+        System.out.println( "Run = " + runName + ", partitions = " + partitions + ", lease duration (ms) = " + leaseDuration );
+        System.out.println( "Worker = " + owner );
+        System.out.println( "Uniprot accession folder = " + accessionFolder );
+
+        IntactContext.initContext(new String[]{"/META-INF/" + database + ".spring.xml"});
+        IntactUpdateContext.initContext(new String[]{"/META-INF/" + updateDatabase + ".spring.xml"});
+
+        ProteinUpdateProcessorConfig config = ProteinUpdateContext.getInstance().getConfig();
+        config.setDeleteProteinTranscriptWithoutInteractions(true);
+        config.setDeleteProtsWithoutInteractions(true);
+        config.setGlobalProteinUpdate(true);
+        config.setFixDuplicates(true);
+        config.setProcessProteinNotFoundInUniprot(true);
+        config.setBlastEnabled(isBlastEnabled);
+
+        if (accessionFolder != null) {
+            try {
+                config.setUniprotAccessionIndex(UniprotAccessionIndex.openOrBuild(new File(accessionFolder)));
+            } catch (IOException e) {
+                System.err.println("The uniprot accession index of " + accessionFolder + " cannot be opened. The proteins having a secondary uniprot ac are partitioned by this ac.");
+                e.printStackTrace();
+            }
+        } else {
+            System.out.println("No uniprot accession index, the proteins having a secondary uniprot ac are partitioned by this ac.");
+        }
+
+        PersistentProteinLeaseManager leaseManager = new PersistentProteinLeaseManager(runName, owner, leaseDuration);
+        int numberOfPartitions = leaseManager.createPartitions(partitions);
+
+        Map<Integer, List<String>> acsByPartition = collectProteinAcsByPartition(numberOfPartitions, config.getUniprotAccessionIndex());
+
+        leaseManager.startHeartbeat();
+        try {
+            while (!leaseManager.isRunCompleted()) {
+                Integer partition = leaseManager.claimPartition();
+
+                // the remaining partitions are owned by other workers, wait for their completion or the expiry of their leases
+                if (partition == null) {
+                    Thread.sleep(Math.max(1000, leaseDuration / 3));
+                    continue;
+                }
+
+                updatePartition(partition, acsByPartition.get(partition), leaseManager, new File(filename, "partition-" + partition));
+            }
+        } catch (InterruptedException e) {
+            System.err.println("The worker " + owner + " has been interrupted.");
+            Thread.currentThread().interrupt();
+        } finally {
+            leaseManager.stopHeartbeat();
+        }
+
+        System.out.println("Protein update " + runName + " done");
+    }
+
+    private static void updatePartition(final int partition, List<String> acs, final PersistentProteinLeaseManager leaseManager, File reportFolder) {
+        System.out.println("Updating the partition " + partition + " (" + (acs != null ? acs.size() : 0) + " proteins)");
+
+        try {
+            reportFolder.mkdirs();
+            ProteinUpdateContext.getInstance().getConfig().setReportHandler(new FileReportHandler(reportFolder, ReportCompression.none, FileReportHandler.DEFAULT_BUFFER_SIZE));
+        } catch (IOException e) {
+            System.err.println("The repository " + reportFolder + " cannot be created. The partition " + partition + " is released.");
+            e.printStackTrace();
+            leaseManager.releasePartition(partition);
+            return;
+        }
+
+        try {
+            if (acs != null) {
+                ProteinUpdateProcessor updateProcessor = new ProteinUpdateProcessor();
+
+                // stop as soon as the lease is lost, another worker updates the partition
+                updateProcessor.addChunkListener(proteinAcs -> {
+                    if (!leaseManager.isOwned(partition)) {
+                        throw new ProcessorException("The lease of the partition " + partition + " has been lost.");
+                    }
+                });
+
+                updateProcessor.updateByACs(acs);
+            }
+        } catch (ProcessorException e) {
+            System.err.println("The update of the partition " + partition + " has been stopped : " + e.getMessage());
+            e.printStackTrace();
+            leaseManager.releasePartition(partition);
+            return;
+        }
+
+        if (!leaseManager.completePartition(partition)) {
+            System.err.println("The lease of the partition " + partition + " has been lost, it is updated again by another worker.");
+        }
+    }
+
+    /**
+     * Partitions the proteins by the hash of their uniprot entry, or of their ac if they don't have any uniprot identity.
+     * The proteins of each partition keep the order planned for the global update
+     *
+     * @param accessionIndex : the index resolving the secondary uniprot acs, can be null
+     */
+    private static Map<Integer, List<String>> collectProteinAcsByPartition(int numberOfPartitions, UniprotAccessionIndex accessionIndex) {
+        DataContext dataContext = IntactContext.getCurrentInstance().getDataContext();
+        TransactionStatus transactionStatus = dataContext.beginTransaction();
+
+        Map<Integer, List<String>> acsByPartition = new HashMap<Integer, List<String>>();
+        try {
+            ProteinUpdateOrderPlanner planner = new ProteinUpdateOrderPlanner();
+
+            for (String ac : planner.planUpdateOrder(dataContext)) {
+                String entry = primaryEntryOf(planner.getUniprotEntryOf(ac), accessionIndex);
+                int partition = PersistentProteinLeaseManager.partitionOf(entry != null ? entry : ac, numberOfPartitions);
+
+                List<String> partitionAcs = acsByPartition.get(partition);
+                if (partitionAcs == null) {
+                    partitionAcs = new ArrayList<String>();
+                    acsByPartition.put(partition, partitionAcs);
+                }
+                partitionAcs.add(ac);
+            }
+
+            dataContext.commitTransaction(transactionStatus);
+        } finally {
+            if (!transactionStatus.isCompleted()) {
+                dataContext.rollbackTransaction(transactionStatus);
+            }
+        }
+
+        return acsByPartition;
+    }
+
+    /**
+     * @param entry          : the uniprot entry of a protein, can be null
+     * @param accessionIndex : the index resolving the secondary uniprot acs, can be null
+     * @return the primary ac of the entry if it is a secondary ac. For a secondary ac of several entries (demerged entry), the lowest primary ac
+     * is used so all the workers choose the same partition
+     */
+    private static String primaryEntryOf(String entry, UniprotAccessionIndex accessionIndex) {
+        if (entry == null || accessionIndex == null) {
+            return entry;
+        }
+
+        List<String> primaryAcs = accessionIndex.getPrimaryAccessions(entry);
+        return primaryAcs.isEmpty() ? entry : Collections.min(primaryAcs);
+    }
+}
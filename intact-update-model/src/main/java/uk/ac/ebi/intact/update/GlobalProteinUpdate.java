@@ -0,0 +1,47 @@
+package uk.ac.ebi.intact.update;
+
+import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateContext;
+import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateProcessorConfig;
+import uk.ac.ebi.intact.update.model.protein.mapping.PersistentRemappingCache;
+import uk.ac.ebi.intact.update.model.protein.quarantine.PersistentProteinQuarantine;
+import uk.ac.ebi.intact.update.model.protein.summary.PersistentProteinUpdateSummaryStore;
+
+/**
+ * Global protein update keeping its remapping outcomes, its quarantined proteins and its summary in the update database.
+ * It needs the intact database, the update database, the folder where to put the log files and optionally the other arguments
+ * of uk.ac.ebi.intact.GlobalProteinUpdate.
+ *
+ * The proteins remapped by the previous runs of the same uniprot release are not identified again with PICR and BLAST.
+ * The update context is initialised here, before the intact context, as the stores of the update database need it.
+ * A quarantine or a summary store declared in the spring context of the intact database replaces the ones of the update database.
+ *
+ * @version $Id$
+ */
+public class GlobalProteinUpdate {
+
+    public static void main(String [] args){
+
+        // three to nine arguments
+        if( args.length < 3 || args.length > 9 ) {
+            System.err.println( "Usage: GlobalUpdate <database> <update database> <folder> <blast> <uniprot accession folder> <protein budget in seconds> <progress port> <report compression> <report format>" );
+            System.exit( 1 );
+        }
+        final String updateDatabase = args[1];
+
+        System.out.println( "update database = " + updateDatabase );
+
+        IntactUpdateContext.initContext(new String[]{"/META-INF/" + updateDatabase + ".spring.xml"});
+
+        ProteinUpdateProcessorConfig config = ProteinUpdateContext.getInstance().getConfig();
+        config.setRemappingCache(new PersistentRemappingCache());
+        config.setProteinQuarantine(new PersistentProteinQuarantine());
+        config.setSummaryStore(new PersistentProteinUpdateSummaryStore());
+
+        // the other arguments are the ones of the global update
+        String[] globalUpdateArgs = new String[args.length - 1];
+        globalUpdateArgs[0] = args[0];
+        System.arraycopy(args, 2, globalUpdateArgs, 1, args.length - 2);
+
+        uk.ac.ebi.intact.GlobalProteinUpdate.main(globalUpdateArgs);
+    }
+}
@@ -0,0 +1,86 @@
+package uk.ac.ebi.intact.update;
+
+import uk.ac.ebi.intact.core.context.IntactContext;
+import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateContext;
+import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateProcessor;
+import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateProcessorConfig;
+import uk.ac.ebi.intact.dbupdate.prot.report.FileReportHandler;
+import uk.ac.ebi.intact.dbupdate.prot.report.ReportCompression;
+import uk.ac.ebi.intact.update.model.protein.quarantine.PersistentProteinQuarantine;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Updates the proteins quarantined by a previous protein update because they exceeded their budget.
+ * It needs the intact database, the update database, the folder where to put the log files, the boolean value to set the blast to true or false
+ * and the wall clock budget of each protein in seconds (0 for no budget).
+ *
+ * The proteins updated are released from the quarantine. The proteins exceeding the relaxed budget stay in quarantine.
+ *
+ * @version $Id$
+ */
+public class QuarantineProteinUpdate {
+
+    public static void main(String [] args){
+
+        // five arguments
+        if( args.length != 5 ) {
+            System.err.println( "Usage: QuarantineUpdate <database> <update database> <folder> <blast> <protein budget in seconds>" );
+            System.exit( 1 );
+        }
+        final String database = args[0];
+        final String updateDatabase = args[1];
+        final String filename = args[2];
+        final boolean isBlastEnabled = Boolean.parseBoolean(args[3]);
+        final long budget = Long.parseLong(args[4]);
+
+        System.out.println( "folder where are the log files = " + filename );
+        System.out.println( "database = " + database );
+        System.out.println( "update database = " + updateDatabase );
+        System.out.println( "Blast enabled = " + isBlastEnabled );
+        System.out.println( "Protein budget (s) = " + budget );
+
+        IntactContext.initContext(new String[]{"/META-INF/" + database + ".spring.xml"});
+        IntactUpdateContext.initContext(new String[]{"/META-INF/" + updateDatabase + ".spring.xml"});
+
+        final PersistentProteinQuarantine quarantine = new PersistentProteinQuarantine();
+
+        ProteinUpdateProcessorConfig config = ProteinUpdateContext.getInstance().getConfig();
+        config.setDeleteProteinTranscriptWithoutInteractions(true);
+        config.setDeleteProtsWithoutInteractions(true);
+        config.setGlobalProteinUpdate(true);
+        config.setFixDuplicates(true);
+        config.setProcessProteinNotFoundInUniprot(true);
+        config.setBlastEnabled(isBlastEnabled);
+        config.setProteinWallClockBudget(budget * 1000);
+        // the proteins exceeding the relaxed budget are quarantined again
+        config.setProteinQuarantine(quarantine);
+
+        try {
+            config.setReportHandler(new FileReportHandler(new File(filename), ReportCompression.none, FileReportHandler.DEFAULT_BUFFER_SIZE));
+        } catch (IOException e) {
+            System.err.println("The repository " + filename + " cannot be found. We cannot write log files and so we cannot update the quarantined proteins.");
+            e.printStackTrace();
+            return;
+        }
+
+        List<String> quarantinedAcs = quarantine.getQuarantinedProteins();
+        System.out.println(quarantinedAcs.size() + " proteins in quarantine");
+
+        ProteinUpdateProcessor updateProcessor = new ProteinUpdateProcessor();
+
+        // the proteins are released once their chunk is committed
+        updateProcessor.addChunkListener(proteinAcs -> {
+            for (String ac : proteinAcs){
+                quarantine.release(ac);
+            }
+        });
+
+        System.out.println("Starting the protein update of the quarantined proteins");
+        updateProcessor.updateByACs(quarantinedAcs);
+
+        System.out.println("Protein update done, " + quarantine.getQuarantinedProteins().size() + " proteins still in quarantine");
+    }
+}
@@ -0,0 +1,11 @@
+package uk.ac.ebi.intact.update.model.protein.lease;
+
+/**
+ * Status of a partition of a distributed protein update
+ *
+ * @version $Id$
+ */
+
+public enum LeaseStatus {
+    available, leased, done
+}
@@ -0,0 +1,207 @@
+package uk.ac.ebi.intact.update.model.protein.lease;
+
+import uk.ac.ebi.intact.update.model.HibernateUpdatePersistentImpl;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * The lease of a partition of the proteins updated by a distributed protein update.
+ *
+ * A worker owns a partition until the lease expires. The worker renews the lease regularly with a heartbeat,
+ * so the partitions of a crashed worker can be claimed again by another worker once their lease has expired.
+ *
+ * @version $Id$
+ */
+@Entity
+@Table(name = "ia_protein_lease", uniqueConstraints = @UniqueConstraint(columnNames = {"run_name", "partition_index"}))
+public class PersistentProteinLease extends HibernateUpdatePersistentImpl {
+
+    /**
+     * The name of the distributed update
+     */
+    private String runName;
+
+    /**
+     * The index of the partition, between 0 and numberOfPartitions - 1
+     */
+    private int partitionIndex;
+
+    /**
+     * The number of partitions of the distributed update
+     */
+    private int numberOfPartitions;
+
+    /**
+     * The status of the partition
+     */
+    private LeaseStatus status;
+
+    /**
+     * The worker owning or having completed the partition, null if the partition has never been claimed
+     */
+    private String owner;
+
+    /**
+     * The last heartbeat of the owner
+     */
+    private Date heartbeat;
+
+    /**
+     * The date after which the partition can be claimed by another worker
+     */
+    private Date expiry;
+
+    /**
+     * The number of times the partition has been claimed
+     */
+    private int claims;
+
+    /**
+     * Create a new PersistentProteinLease instance
+     */
+    public PersistentProteinLease() {
+    }
+
+    /**
+     * Create a new available PersistentProteinLease instance
+     * @param runName : the name of the distributed update
+     * @param partitionIndex : the index of the partition
+     * @param numberOfPartitions : the number of partitions
+     */
+    public PersistentProteinLease(String runName, int partitionIndex, int numberOfPartitions) {
+        this.runName = runName;
+        this.partitionIndex = partitionIndex;
+        this.numberOfPartitions = numberOfPartitions;
+        this.status = LeaseStatus.available;
+        this.claims = 0;
+    }
+
+    /**
+     *
+     * @return the name of the distributed update
+     */
+    @Column(name = "run_name", nullable = false, length = 100)
+    public String getRunName() {
+        return runName;
+    }
+
+    public void setRunName(String runName) {
+        this.runName = runName;
+    }
+
+    /**
+     *
+     * @return the index of the partition
+     */
+    @Column(name = "partition_index", nullable = false)
+    public int getPartitionIndex() {
+        return partitionIndex;
+    }
+
+    public void setPartitionIndex(int partitionIndex) {
+        this.partitionIndex = partitionIndex;
+    }
+
+    /**
+     *
+     * @return the number of partitions of the distributed update
+     */
+    @Column(name = "partitions", nullable = false)
+    public int getNumberOfPartitions() {
+        return numberOfPartitions;
+    }
+
+    public void setNumberOfPartitions(int numberOfPartitions) {
+        this.numberOfPartitions = numberOfPartitions;
+    }
+
+    /**
+     *
+     * @return the status of the partition
+     */
+    @Column(name = "status", nullable = false)
+    @Enumerated(EnumType.STRING)
+    public LeaseStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(LeaseStatus status) {
+        this.status = status;
+    }
+
+    /**
+     *
+     * @return the worker owning or having completed the partition
+     */
+    @Column(name = "owner", length = 200)
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    /**
+     *
+     * @return the last heartbeat of the owner
+     */
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "heartbeat")
+    public Date getHeartbeat() {
+        return heartbeat;
+    }
+
+    public void setHeartbeat(Date heartbeat) {
+        this.heartbeat = heartbeat;
+    }
+
+    /**
+     *
+     * @return the date after which the partition can be claimed by another worker
+     */
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "expiry")
+    public Date getExpiry() {
+        return expiry;
+    }
+
+    public void setExpiry(Date expiry) {
+        this.expiry = expiry;
+    }
+
+    /**
+     *
+     * @return the number of times the partition has been claimed
+     */
+    @Column(name = "claims")
+    public int getClaims() {
+        return claims;
+    }
+
+    public void setClaims(int claims) {
+        this.claims = claims;
+    }
+
+    @Override
+    public boolean isIdenticalTo(Object o){
+
+        if (!super.isIdenticalTo(o)){
+            return false;
+        }
+
+        final PersistentProteinLease lease = (PersistentProteinLease) o;
+
+        if (runName != null ? !runName.equals(lease.getRunName()) : lease.getRunName() != null){
+            return false;
+        }
+
+        return partitionIndex == lease.getPartitionIndex();
+    }
+
+    @Override
+    public String toString() {
+        return "Partition " + partitionIndex + "/" + numberOfPartitions + " of " + runName + " : " + status + (owner != null ? " (" + owner + ")" : "");
+    }
+}
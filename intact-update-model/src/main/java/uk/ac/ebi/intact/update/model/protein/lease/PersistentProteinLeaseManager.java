@@ -0,0 +1,318 @@
+package uk.ac.ebi.intact.update.model.protein.lease;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.transaction.TransactionStatus;
+import uk.ac.ebi.intact.core.IntactTransactionException;
+import uk.ac.ebi.intact.update.IntactUpdateContext;
+import uk.ac.ebi.intact.update.persistence.dao.protein.ProteinLeaseDao;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinates the workers of a distributed protein update through the ia_protein_lease table of the update-model persistence unit.
+ *
+ * The proteins of the run are split in hash partitions. Each worker claims a partition, updates its proteins and marks it as done.
+ * The leases of the partitions owned by the worker are renewed by a heartbeat thread, so the partitions of a crashed worker
+ * can be claimed by another worker once their lease has expired. Each operation runs in its own transaction and is a conditional
+ * update of the lease, so two workers cannot own the same partition at the same time.
+ *
+ * The expiry of the leases is computed with the clock of each worker : the lease duration must be much longer than the
+ * clock skew between the machines of the workers.
+ *
+ * @version $Id$
+ */
+public class PersistentProteinLeaseManager {
+
+    private static final Log log = LogFactory.getLog( PersistentProteinLeaseManager.class );
+
+    private final String runName;
+    private final String owner;
+    private final long leaseDuration;
+
+    /**
+     * The ids of the leases owned by this worker, by partition index
+     */
+    private final Map<Integer, Long> ownedLeases = new ConcurrentHashMap<Integer, Long>();
+
+    private ScheduledExecutorService heartbeat;
+
+    /**
+     *
+     * @param runName : the name of the distributed update, shared by all the workers
+     * @param owner : the name of this worker, unique among the workers
+     * @param leaseDuration : the duration of a lease in milliseconds
+     */
+    public PersistentProteinLeaseManager(String runName, String owner, long leaseDuration) {
+        this.runName = runName;
+        this.owner = owner;
+        this.leaseDuration = leaseDuration;
+    }
+
+    /**
+     *
+     * @param key : the key of a protein, for instance its uniprot identity
+     * @param numberOfPartitions : the number of partitions
+     * @return the partition of this protein. The partition only depends on the key so it is the same in all the workers
+     */
+    public static int partitionOf(String key, int numberOfPartitions) {
+        return Math.floorMod(key.hashCode(), numberOfPartitions);
+    }
+
+    /**
+     * Creates the partitions of the run if no other worker has created them yet
+     * @param numberOfPartitions : the number of partitions
+     * @return the number of partitions of the run, which can have been created by another worker with a different number of partitions
+     */
+    public int createPartitions(int numberOfPartitions) {
+        IntactUpdateContext updateContext = IntactUpdateContext.getCurrentInstance();
+        TransactionStatus status = updateContext.beginTransaction();
+
+        try {
+            ProteinLeaseDao proteinLeaseDao = updateContext.getUpdateFactory().getProteinLeaseDao();
+            List<PersistentProteinLease> leases = proteinLeaseDao.getByRunName(runName);
+
+            if (!leases.isEmpty()){
+                return leases.get(0).getNumberOfPartitions();
+            }
+
+            for (int i = 0; i < numberOfPartitions; i++){
+                proteinLeaseDao.persist(new PersistentProteinLease(runName, i, numberOfPartitions));
+            }
+
+            updateContext.commitTransaction(status);
+
+            log.info("Created " + numberOfPartitions + " partitions for the protein update " + runName);
+            return numberOfPartitions;
+        } catch (IntactTransactionException e) {
+            // another worker has created the partitions concurrently
+            log.info("The partitions of the protein update " + runName + " have been created by another worker");
+        } catch (RuntimeException e) {
+            log.info("The partitions of the protein update " + runName + " have been created by another worker", e);
+        } finally {
+            rollback(updateContext, status);
+        }
+
+        List<PersistentProteinLease> leases = getLeases();
+        if (leases.isEmpty()){
+            throw new IllegalStateException("Impossible to create the partitions of the protein update " + runName);
+        }
+        return leases.get(0).getNumberOfPartitions();
+    }
+
+    /**
+     * Claims a partition which is available or whose lease has expired
+     * @return the index of the partition claimed, null if no partition can be claimed now
+     */
+    public Integer claimPartition() {
+        List<PersistentProteinLease> leases = getLeases();
+
+        // the workers start from different partitions to avoid competing for the same leases
+        int start = leases.isEmpty() ? 0 : partitionOf(owner, leases.size());
+        Date now = new Date(System.currentTimeMillis());
+
+        for (int i = 0; i < leases.size(); i++){
+            PersistentProteinLease lease = leases.get((start + i) % leases.size());
+
+            boolean claimable = lease.getStatus() == LeaseStatus.available
+                    || (lease.getStatus() == LeaseStatus.leased && lease.getExpiry() != null && lease.getExpiry().before(now));
+
+            if (claimable && claim(lease)){
+                if (lease.getStatus() == LeaseStatus.leased){
+                    log.warn("The lease of the partition " + lease.getPartitionIndex() + " owned by " + lease.getOwner() + " has expired, the partition is claimed by " + owner);
+                }
+                return lease.getPartitionIndex();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     *
+     * @return true if all the partitions of the run are done
+     */
+    public boolean isRunCompleted() {
+        List<PersistentProteinLease> leases = getLeases();
+
+        for (PersistentProteinLease lease : leases){
+            if (lease.getStatus() != LeaseStatus.done){
+                return false;
+            }
+        }
+        return !leases.isEmpty();
+    }
+
+    /**
+     *
+     * @param partition : the index of the partition
+     * @return true if this worker still owns the partition. It is false once the lease has been lost or the partition completed
+     */
+    public boolean isOwned(int partition) {
+        return ownedLeases.containsKey(partition);
+    }
+
+    /**
+     * Renews the leases of all the partitions owned by this worker.
+     * The partitions whose lease cannot be renewed are not owned anymore.
+     */
+    public void renewLeases() {
+        for (Map.Entry<Integer, Long> ownedLease : ownedLeases.entrySet()){
+            Date now = new Date(System.currentTimeMillis());
+            Date expiry = new Date(now.getTime() + leaseDuration);
+
+            boolean renewed;
+            try {
+                renewed = update(ownedLease.getValue(), d -> d.renew(ownedLease.getValue(), owner, now, expiry));
+            } catch (RuntimeException e) {
+                // the lease is still valid until it expires, it is renewed at the next heartbeat
+                log.error("Impossible to renew the lease of the partition " + ownedLease.getKey() + " of " + runName, e);
+                continue;
+            }
+
+            if (!renewed){
+                log.error("The lease of the partition " + ownedLease.getKey() + " of " + runName + " has been lost by " + owner);
+                ownedLeases.remove(ownedLease.getKey());
+            }
+        }
+    }
+
+    /**
+     * Marks a partition owned by this worker as done
+     * @param partition : the index of the partition
+     * @return true if the partition is done, false if the lease had been lost and the partition is updated by another worker
+     */
+    public boolean completePartition(int partition) {
+        Long id = ownedLeases.remove(partition);
+        if (id == null){
+            return false;
+        }
+
+        Date now = new Date(System.currentTimeMillis());
+        return update(id, d -> d.complete(id, owner, now));
+    }
+
+    /**
+     * Makes a partition owned by this worker available to the other workers
+     * @param partition : the index of the partition
+     */
+    public void releasePartition(int partition) {
+        Long id = ownedLeases.remove(partition);
+        if (id != null){
+            update(id, d -> d.release(id, owner));
+        }
+    }
+
+    /**
+     * Starts the heartbeat thread renewing the leases of this worker
+     */
+    public synchronized void startHeartbeat() {
+        if (heartbeat != null){
+            return;
+        }
+
+        heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "protein-lease-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long period = Math.max(1, leaseDuration / 3);
+        heartbeat.scheduleWithFixedDelay(() -> {
+            try {
+                renewLeases();
+            } catch (RuntimeException e) {
+                log.error("Unexpected error in the heartbeat of " + owner, e);
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the heartbeat thread. The leases still owned expire and can be claimed by another worker
+     */
+    public synchronized void stopHeartbeat() {
+        if (heartbeat != null){
+            heartbeat.shutdownNow();
+            heartbeat = null;
+        }
+    }
+
+    /**
+     *
+     * @return the leases of the partitions of the run, ordered by partition index
+     */
+    public List<PersistentProteinLease> getLeases() {
+        IntactUpdateContext updateContext = IntactUpdateContext.getCurrentInstance();
+        TransactionStatus status = updateContext.beginTransaction();
+
+        try {
+            return updateContext.getUpdateFactory().getProteinLeaseDao().getByRunName(runName);
+        } finally {
+            rollback(updateContext, status);
+        }
+    }
+
+    public String getRunName() {
+        return runName;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    private boolean claim(PersistentProteinLease lease) {
+        Date now = new Date(System.currentTimeMillis());
+        Date expiry = new Date(now.getTime() + leaseDuration);
+
+        try {
+            if (update(lease.getId(), d -> d.claim(lease.getId(), owner, now, expiry))){
+                ownedLeases.put(lease.getPartitionIndex(), lease.getId());
+                return true;
+            }
+        } catch (RuntimeException e) {
+            // another worker is claiming the same partition
+            log.debug("Impossible to claim the partition " + lease.getPartitionIndex() + " of " + runName, e);
+        }
+        return false;
+    }
+
+    /**
+     * Runs a conditional update of a lease in its own transaction
+     * @return true if the lease has been updated
+     */
+    private boolean update(long id, LeaseUpdate leaseUpdate) {
+        IntactUpdateContext updateContext = IntactUpdateContext.getCurrentInstance();
+        TransactionStatus status = updateContext.beginTransaction();
+
+        try {
+            int updated = leaseUpdate.update(updateContext.getUpdateFactory().getProteinLeaseDao());
+            updateContext.commitTransaction(status);
+
+            return updated == 1;
+        } catch (IntactTransactionException e) {
+            // the lease has been updated concurrently by another worker
+            log.debug("Impossible to update the lease " + id + " of " + runName, e);
+            return false;
+        } finally {
+            rollback(updateContext, status);
+        }
+    }
+
+    private void rollback(IntactUpdateContext updateContext, TransactionStatus status){
+        if (!status.isCompleted()){
+            try {
+                updateContext.rollbackTransaction(status);
+            } catch (IntactTransactionException e) {
+                log.error("Impossible to rollback the transaction of the protein leases", e);
+            }
+        }
+    }
+
+    private interface LeaseUpdate {
+        int update(ProteinLeaseDao proteinLeaseDao);
+    }
+}
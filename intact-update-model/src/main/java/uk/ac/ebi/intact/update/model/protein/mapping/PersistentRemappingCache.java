@@ -0,0 +1,88 @@
+package uk.ac.ebi.intact.update.model.protein.mapping;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.transaction.TransactionStatus;
+import uk.ac.ebi.intact.core.IntactTransactionException;
+import uk.ac.ebi.intact.dbupdate.prot.actions.mappers.RemappingCache;
+import uk.ac.ebi.intact.update.IntactUpdateContext;
+import uk.ac.ebi.intact.update.model.protein.mapping.results.PersistentRemappingResult;
+import uk.ac.ebi.intact.update.persistence.dao.protein.RemappingResultDao;
+
+/**
+ * Remapping cache stored in the ia_remapping_cache table of the update-model persistence unit.
+ *
+ * Each lookup and each new remapping runs in its own transaction, so the cache can be used from the worker threads
+ * of the remapping stage while the protein update transaction is running.
+ *
+ * @version $Id$
+ */
+public class PersistentRemappingCache implements RemappingCache {
+
+    private static final Log log = LogFactory.getLog( PersistentRemappingCache.class );
+
+    @Override
+    public String getCachedUniprotAc(String crc64, String taxId, String uniprotRelease) {
+        IntactUpdateContext updateContext = IntactUpdateContext.getCurrentInstance();
+        TransactionStatus status = updateContext.beginTransaction();
+
+        PersistentRemappingResult result;
+        try {
+            result = updateContext.getUpdateFactory().getRemappingResultDao().getByCrc64AndTaxIdAndRelease(crc64, taxId, uniprotRelease);
+        } finally {
+            rollback(updateContext, status);
+        }
+
+        // the rows without uniprot ac are not used, the sequence is identified again
+        return result != null ? result.getUniprotAc() : null;
+    }
+
+    @Override
+    public void cacheRemapping(String crc64, String taxId, String uniprotRelease, String uniprotAc) {
+        IntactUpdateContext updateContext = IntactUpdateContext.getCurrentInstance();
+        TransactionStatus status = updateContext.beginTransaction();
+
+        try {
+            RemappingResultDao remappingResultDao = updateContext.getUpdateFactory().getRemappingResultDao();
+
+            // another thread can have remapped the same sequence in the meantime
+            if (remappingResultDao.getByCrc64AndTaxIdAndRelease(crc64, taxId, uniprotRelease) == null){
+                remappingResultDao.persist(new PersistentRemappingResult(crc64, taxId, uniprotRelease, uniprotAc));
+            }
+
+            updateContext.commitTransaction(status);
+        } catch (IntactTransactionException e) {
+            // the same remapping has been cached concurrently
+            log.warn("Impossible to cache the remapping of " + crc64 + " (taxId " + taxId + ")", e);
+        } finally {
+            rollback(updateContext, status);
+        }
+    }
+
+    @Override
+    public int clearOtherReleases(String uniprotRelease) {
+        IntactUpdateContext updateContext = IntactUpdateContext.getCurrentInstance();
+        TransactionStatus status = updateContext.beginTransaction();
+
+        try {
+            int deleted = updateContext.getUpdateFactory().getRemappingResultDao().deleteAllExceptRelease(uniprotRelease);
+            updateContext.commitTransaction(status);
+
+            return deleted;
+        } catch (IntactTransactionException e) {
+            throw new IllegalStateException("Impossible to clear the remapping cache", e);
+        } finally {
+            rollback(updateContext, status);
+        }
+    }
+
+    private void rollback(IntactUpdateContext updateContext, TransactionStatus status){
+        if (!status.isCompleted()){
+            try {
+                updateContext.rollbackTransaction(status);
+            } catch (IntactTransactionException e) {
+                log.error("Impossible to rollback the transaction of the remapping cache", e);
+            }
+        }
+    }
+}
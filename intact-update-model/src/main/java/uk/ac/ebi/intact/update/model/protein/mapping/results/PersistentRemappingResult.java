@@ -0,0 +1,155 @@
+package uk.ac.ebi.intact.update.model.protein.mapping.results;
+
+import uk.ac.ebi.intact.update.model.HibernateUpdatePersistentImpl;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * The outcome of the remapping of a sequence in an organism for a uniprot release.
+ *
+ * @version $Id$
+ */
+@Entity
+@Table(name = "ia_remapping_cache", uniqueConstraints = @UniqueConstraint(columnNames = {"crc64", "taxId", "uniprot_release"}))
+public class PersistentRemappingResult extends HibernateUpdatePersistentImpl {
+
+    /**
+     * The CRC64 of the remapped sequence
+     */
+    private String crc64;
+
+    /**
+     * The taxId of the organism
+     */
+    private String taxId;
+
+    /**
+     * The uniprot release of the remapping
+     */
+    private String uniprotRelease;
+
+    /**
+     * The uniprot accession the sequence is remapped to, null if the sequence could not be remapped
+     */
+    private String uniprotAc;
+
+    /**
+     * The date of the remapping
+     */
+    private Date remappingDate;
+
+    /**
+     * Create a new PersistentRemappingResult instance
+     */
+    public PersistentRemappingResult() {
+    }
+
+    /**
+     * Create a new PersistentRemappingResult instance
+     * @param crc64 : the CRC64 of the sequence
+     * @param taxId : the taxId of the organism
+     * @param uniprotRelease : the uniprot release
+     * @param uniprotAc : the uniprot accession, null if the sequence could not be remapped
+     */
+    public PersistentRemappingResult(String crc64, String taxId, String uniprotRelease, String uniprotAc) {
+        this.crc64 = crc64;
+        this.taxId = taxId;
+        this.uniprotRelease = uniprotRelease;
+        this.uniprotAc = uniprotAc;
+        this.remappingDate = new Date(System.currentTimeMillis());
+    }
+
+    /**
+     *
+     * @return the CRC64 of the sequence
+     */
+    @Column(name = "crc64", nullable = false, length = 16)
+    public String getCrc64() {
+        return crc64;
+    }
+
+    public void setCrc64(String crc64) {
+        this.crc64 = crc64;
+    }
+
+    /**
+     *
+     * @return the taxId of the organism
+     */
+    @Column(name = "taxId", nullable = false, length = 30)
+    public String getTaxId() {
+        return taxId;
+    }
+
+    public void setTaxId(String taxId) {
+        this.taxId = taxId;
+    }
+
+    /**
+     *
+     * @return the uniprot release
+     */
+    @Column(name = "uniprot_release", nullable = false, length = 30)
+    public String getUniprotRelease() {
+        return uniprotRelease;
+    }
+
+    public void setUniprotRelease(String uniprotRelease) {
+        this.uniprotRelease = uniprotRelease;
+    }
+
+    /**
+     *
+     * @return the uniprot accession, null if the sequence could not be remapped
+     */
+    @Column(name = "uniprot_ac", nullable = true, length = 20)
+    public String getUniprotAc() {
+        return uniprotAc;
+    }
+
+    public void setUniprotAc(String uniprotAc) {
+        this.uniprotAc = uniprotAc;
+    }
+
+    /**
+     *
+     * @return the date of the remapping
+     */
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "remapping_date")
+    public Date getRemappingDate() {
+        return remappingDate;
+    }
+
+    public void setRemappingDate(Date remappingDate) {
+        this.remappingDate = remappingDate;
+    }
+
+    @Override
+    public boolean isIdenticalTo(Object o){
+
+        if (!super.isIdenticalTo(o)){
+            return false;
+        }
+
+        final PersistentRemappingResult result = (PersistentRemappingResult) o;
+
+        if (crc64 != null ? !crc64.equals(result.getCrc64()) : result.getCrc64() != null){
+            return false;
+        }
+        if (taxId != null ? !taxId.equals(result.getTaxId()) : result.getTaxId() != null){
+            return false;
+        }
+        if (uniprotRelease != null ? !uniprotRelease.equals(result.getUniprotRelease()) : result.getUniprotRelease() != null){
+            return false;
+        }
+
+        return uniprotAc != null ? uniprotAc.equals(result.getUniprotAc()) : result.getUniprotAc() == null;
+    }
+
+    @Override
+    public String toString() {
+        return "Remapping of " + crc64 + " (taxId " + taxId + ", uniprot release " + uniprotRelease + ") : " + (uniprotAc != null ? uniprotAc : "not remapped");
+    }
+}
@@ -0,0 +1,99 @@
+package uk.ac.ebi.intact.update.model.protein.quarantine;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.transaction.TransactionStatus;
+import uk.ac.ebi.intact.core.IntactTransactionException;
+import uk.ac.ebi.intact.dbupdate.prot.ProteinQuarantine;
+import uk.ac.ebi.intact.update.IntactUpdateContext;
+import uk.ac.ebi.intact.update.persistence.dao.protein.QuarantinedProteinDao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Protein quarantine stored in the ia_protein_quarantine table of the update-model persistence unit.
+ *
+ * Each operation runs in its own transaction, so a protein stays in quarantine when the chunk of the protein update is rolled back.
+ *
+ * @version $Id$
+ */
+public class PersistentProteinQuarantine implements ProteinQuarantine {
+
+    private static final Log log = LogFactory.getLog( PersistentProteinQuarantine.class );
+
+    @Override
+    public void quarantine(String proteinAc, String stage, long elapsedTime, long cpuTime, String reason) {
+        IntactUpdateContext updateContext = IntactUpdateContext.getCurrentInstance();
+        TransactionStatus status = updateContext.beginTransaction();
+
+        try {
+            QuarantinedProteinDao quarantinedProteinDao = updateContext.getUpdateFactory().getQuarantinedProteinDao();
+            PersistentQuarantinedProtein quarantinedProtein = quarantinedProteinDao.getByProteinAc(proteinAc);
+
+            // the protein exceeds its budget again
+            if (quarantinedProtein != null){
+                quarantinedProtein.quarantineAgain(stage, elapsedTime, cpuTime, reason);
+                quarantinedProteinDao.update(quarantinedProtein);
+            }
+            else {
+                quarantinedProteinDao.persist(new PersistentQuarantinedProtein(proteinAc, stage, elapsedTime, cpuTime, reason));
+            }
+
+            updateContext.commitTransaction(status);
+        } catch (IntactTransactionException e) {
+            throw new IllegalStateException("Impossible to quarantine the protein " + proteinAc, e);
+        } finally {
+            rollback(updateContext, status);
+        }
+    }
+
+    @Override
+    public List<String> getQuarantinedProteins() {
+        IntactUpdateContext updateContext = IntactUpdateContext.getCurrentInstance();
+        TransactionStatus status = updateContext.beginTransaction();
+
+        try {
+            List<PersistentQuarantinedProtein> quarantinedProteins = updateContext.getUpdateFactory().getQuarantinedProteinDao().getAllOrderedByQuarantineDate();
+            List<String> proteinAcs = new ArrayList<String>(quarantinedProteins.size());
+
+            for (PersistentQuarantinedProtein quarantinedProtein : quarantinedProteins){
+                proteinAcs.add(quarantinedProtein.getProteinAc());
+            }
+            return proteinAcs;
+        } finally {
+            rollback(updateContext, status);
+        }
+    }
+
+    @Override
+    public void release(String proteinAc) {
+        IntactUpdateContext updateContext = IntactUpdateContext.getCurrentInstance();
+        TransactionStatus status = updateContext.beginTransaction();
+
+        try {
+            QuarantinedProteinDao quarantinedProteinDao = updateContext.getUpdateFactory().getQuarantinedProteinDao();
+            PersistentQuarantinedProtein quarantinedProtein = quarantinedProteinDao.getByProteinAc(proteinAc);
+
+            if (quarantinedProtein != null){
+                quarantinedProteinDao.delete(quarantinedProtein);
+            }
+
+            updateContext.commitTransaction(status);
+        } catch (IntactTransactionException e) {
+            throw new IllegalStateException("Impossible to release the protein " + proteinAc + " from the quarantine", e);
+        } finally {
+            rollback(updateContext, status);
+        }
+    }
+
+    private void rollback(IntactUpdateContext updateContext, TransactionStatus status){
+        if (!status.isCompleted()){
+            try {
+                updateContext.rollbackTransaction(status);
+            } catch (IntactTransactionException e) {
+                log.error("Impossible to rollback the transaction of the protein quarantine", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package uk.ac.ebi.intact.update.model.protein.quarantine;
+
+import uk.ac.ebi.intact.update.model.HibernateUpdatePersistentImpl;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * A protein put aside by the protein update because its update exceeded its budget.
+ *
+ * @version $Id$
+ */
+@Entity
+@Table(name = "ia_protein_quarantine", uniqueConstraints = @UniqueConstraint(columnNames = {"protein_ac"}))
+public class PersistentQuarantinedProtein extends HibernateUpdatePersistentImpl {
+
+    /**
+     * The intact ac of the protein
+     */
+    private String proteinAc;
+
+    /**
+     * The stage of the update when the budget has been exceeded
+     */
+    private String stage;
+
+    /**
+     * The wall clock time spent on the protein, in milliseconds
+     */
+    private long elapsedTime;
+
+    /**
+     * The CPU time spent on the protein, in milliseconds
+     */
+    private long cpuTime;
+
+    /**
+     * The budget exceeded
+     */
+    private String reason;
+
+    /**
+     * The date of the last quarantine
+     */
+    private Date quarantineDate;
+
+    /**
+     * The number of times the protein has been quarantined
+     */
+    private int attempts;
+
+    /**
+     * Create a new PersistentQuarantinedProtein instance
+     */
+    public PersistentQuarantinedProtein() {
+    }
+
+    /**
+     * Create a new PersistentQuarantinedProtein instance
+     * @param proteinAc : the intact ac of the protein
+     * @param stage : the stage of the update when the budget has been exceeded
+     * @param elapsedTime : the wall clock time spent on the protein
+     * @param cpuTime : the CPU time spent on the protein
+     * @param reason : the budget exceeded
+     */
+    public PersistentQuarantinedProtein(String proteinAc, String stage, long elapsedTime, long cpuTime, String reason) {
+        this.proteinAc = proteinAc;
+        this.attempts = 0;
+        quarantineAgain(stage, elapsedTime, cpuTime, reason);
+    }
+
+    /**
+     * Records a new quarantine of the protein
+     * @param stage : the stage of the update when the budget has been exceeded
+     * @param elapsedTime : the wall clock time spent on the protein
+     * @param cpuTime : the CPU time spent on the protein
+     * @param reason : the budget exceeded
+     */
+    public void quarantineAgain(String stage, long elapsedTime, long cpuTime, String reason) {
+        this.stage = stage;
+        this.elapsedTime = elapsedTime;
+        this.cpuTime = cpuTime;
+        this.reason = reason;
+        this.quarantineDate = new Date(System.currentTimeMillis());
+        this.attempts++;
+    }
+
+    /**
+     *
+     * @return the intact ac of the protein
+     */
+    @Column(name = "protein_ac", nullable = false, length = 30)
+    public String getProteinAc() {
+        return proteinAc;
+    }
+
+    public void setProteinAc(String proteinAc) {
+        this.proteinAc = proteinAc;
+    }
+
+    /**
+     *
+     * @return the stage of the update when the budget has been exceeded
+     */
+    @Column(name = "stage", length = 30)
+    public String getStage() {
+        return stage;
+    }
+
+    public void setStage(String stage) {
+        this.stage = stage;
+    }
+
+    /**
+     *
+     * @return the wall clock time spent on the protein, in milliseconds
+     */
+    @Column(name = "elapsed_time")
+    public long getElapsedTime() {
+        return elapsedTime;
+    }
+
+    public void setElapsedTime(long elapsedTime) {
+        this.elapsedTime = elapsedTime;
+    }
+
+    /**
+     *
+     * @return the CPU time spent on the protein, in milliseconds
+     */
+    @Column(name = "cpu_time")
+    public long getCpuTime() {
+        return cpuTime;
+    }
+
+    public void setCpuTime(long cpuTime) {
+        this.cpuTime = cpuTime;
+    }
+
+    /**
+     *
+     * @return the budget exceeded
+     */
+    @Column(name = "reason", length = 500)
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    /**
+     *
+     * @return the date of the last quarantine
+     */
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "quarantine_date")
+    public Date getQuarantineDate() {
+        return quarantineDate;
+    }
+
+    public void setQuarantineDate(Date quarantineDate) {
+        this.quarantineDate = quarantineDate;
+    }
+
+    /**
+     *
+     * @return the number of times the protein has been quarantined
+     */
+    @Column(name = "attempts")
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    @Override
+    public boolean isIdenticalTo(Object o){
+
+        if (!super.isIdenticalTo(o)){
+            return false;
+        }
+
+        final PersistentQuarantinedProtein protein = (PersistentQuarantinedProtein) o;
+
+        if (proteinAc != null ? !proteinAc.equals(protein.getProteinAc()) : protein.getProteinAc() != null){
+            return false;
+        }
+        if (stage != null ? !stage.equals(protein.getStage()) : protein.getStage() != null){
+            return false;
+        }
+
+        return attempts == protein.getAttempts();
+    }
+
+    @Override
+    public String toString() {
+        return "Quarantine of " + proteinAc + " during the stage '" + stage + "' (" + attempts + " attempts) : " + reason;
+    }
+}
@@ -0,0 +1,237 @@
+package uk.ac.ebi.intact.update.model.protein.summary;
+
+import uk.ac.ebi.intact.update.model.HibernateUpdatePersistentImpl;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * The summary of a protein update run : its main totals and the complete summary with the histograms by stage and organism.
+ *
+ * @version $Id$
+ */
+@Entity
+@Table(name = "ia_prot_update_summary")
+public class PersistentProteinUpdateSummary extends HibernateUpdatePersistentImpl {
+
+    /**
+     * The identifier of the update run
+     */
+    private String processId;
+
+    /**
+     * The start of the update
+     */
+    private Date startDate;
+
+    /**
+     * The end of the update
+     */
+    private Date endDate;
+
+    private long proteins;
+    private long created;
+    private long updated;
+    private long deleted;
+    private long sequenceChanged;
+    private long duplicatesMerged;
+    private long rangesShifted;
+    private long rangesInvalid;
+    private long errors;
+    private long remoteFailures;
+
+    /**
+     * The complete summary, as a JSON record
+     */
+    private String details;
+
+    /**
+     * Create a new PersistentProteinUpdateSummary instance
+     */
+    public PersistentProteinUpdateSummary() {
+    }
+
+    /**
+     * Create a new PersistentProteinUpdateSummary instance
+     * @param processId : the identifier of the update run
+     * @param startDate : the start of the update
+     * @param endDate : the end of the update
+     */
+    public PersistentProteinUpdateSummary(String processId, Date startDate, Date endDate) {
+        this.processId = processId;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    /**
+     *
+     * @return the identifier of the update run
+     */
+    @Column(name = "process_id", nullable = false)
+    public String getProcessId() {
+        return processId;
+    }
+
+    public void setProcessId(String processId) {
+        this.processId = processId;
+    }
+
+    /**
+     *
+     * @return the start of the update
+     */
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "start_date", nullable = false)
+    public Date getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(Date startDate) {
+        this.startDate = startDate;
+    }
+
+    /**
+     *
+     * @return the end of the update
+     */
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "end_date")
+    public Date getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(Date endDate) {
+        this.endDate = endDate;
+    }
+
+    /**
+     *
+     * @return the number of proteins updated in the committed chunks
+     */
+    @Column(name = "proteins")
+    public long getProteins() {
+        return proteins;
+    }
+
+    public void setProteins(long proteins) {
+        this.proteins = proteins;
+    }
+
+    @Column(name = "created")
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    @Column(name = "updated")
+    public long getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(long updated) {
+        this.updated = updated;
+    }
+
+    @Column(name = "deleted")
+    public long getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(long deleted) {
+        this.deleted = deleted;
+    }
+
+    @Column(name = "sequence_changed")
+    public long getSequenceChanged() {
+        return sequenceChanged;
+    }
+
+    public void setSequenceChanged(long sequenceChanged) {
+        this.sequenceChanged = sequenceChanged;
+    }
+
+    @Column(name = "duplicates_merged")
+    public long getDuplicatesMerged() {
+        return duplicatesMerged;
+    }
+
+    public void setDuplicatesMerged(long duplicatesMerged) {
+        this.duplicatesMerged = duplicatesMerged;
+    }
+
+    @Column(name = "ranges_shifted")
+    public long getRangesShifted() {
+        return rangesShifted;
+    }
+
+    public void setRangesShifted(long rangesShifted) {
+        this.rangesShifted = rangesShifted;
+    }
+
+    @Column(name = "ranges_invalid")
+    public long getRangesInvalid() {
+        return rangesInvalid;
+    }
+
+    public void setRangesInvalid(long rangesInvalid) {
+        this.rangesInvalid = rangesInvalid;
+    }
+
+    @Column(name = "errors")
+    public long getErrors() {
+        return errors;
+    }
+
+    public void setErrors(long errors) {
+        this.errors = errors;
+    }
+
+    @Column(name = "remote_failures")
+    public long getRemoteFailures() {
+        return remoteFailures;
+    }
+
+    public void setRemoteFailures(long remoteFailures) {
+        this.remoteFailures = remoteFailures;
+    }
+
+    /**
+     *
+     * @return the complete summary, as a JSON record
+     */
+    @Lob
+    @Column(name = "details")
+    public String getDetails() {
+        return details;
+    }
+
+    public void setDetails(String details) {
+        this.details = details;
+    }
+
+    @Override
+    public boolean isIdenticalTo(Object o){
+
+        if (!super.isIdenticalTo(o)){
+            return false;
+        }
+
+        final PersistentProteinUpdateSummary summary = (PersistentProteinUpdateSummary) o;
+
+        if (processId != null ? !processId.equals(summary.getProcessId()) : summary.getProcessId() != null){
+            return false;
+        }
+
+        return startDate != null ? startDate.equals(summary.getStartDate()) : summary.getStartDate() == null;
+    }
+
+    @Override
+    public String toString() {
+        return "Summary of " + processId + " : " + proteins + " proteins, " + created + " created, " + updated + " updated, " + deleted + " deleted, "
+                + sequenceChanged + " sequences changed, " + duplicatesMerged + " duplicates merged, " + rangesShifted + " ranges shifted, "
+                + rangesInvalid + " ranges invalid, " + errors + " errors, " + remoteFailures + " remote failures";
+    }
+}
@@ -0,0 +1,81 @@
+package uk.ac.ebi.intact.update.model.protein.summary;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.transaction.TransactionStatus;
+import uk.ac.ebi.intact.core.IntactTransactionException;
+import uk.ac.ebi.intact.dbupdate.prot.ProteinUpdateSummaryStore;
+import uk.ac.ebi.intact.dbupdate.prot.report.JsonLinesWriter;
+import uk.ac.ebi.intact.dbupdate.prot.util.ProteinUpdateSummary;
+import uk.ac.ebi.intact.dbupdate.prot.util.ProteinUpdateSummary.Counter;
+import uk.ac.ebi.intact.update.IntactUpdateContext;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Date;
+
+/**
+ * Store of the summaries of the protein update runs in the ia_prot_update_summary table of the update-model persistence unit.
+ *
+ * The summary is stored in its own transaction, once the update is finished.
+ *
+ * @version $Id$
+ */
+public class PersistentProteinUpdateSummaryStore implements ProteinUpdateSummaryStore {
+
+    private static final Log log = LogFactory.getLog( PersistentProteinUpdateSummaryStore.class );
+
+    @Override
+    public void store(ProteinUpdateSummary summary) {
+        PersistentProteinUpdateSummary persistentSummary = toPersistentSummary(summary);
+
+        IntactUpdateContext updateContext = IntactUpdateContext.getCurrentInstance();
+        TransactionStatus status = updateContext.beginTransaction();
+
+        try {
+            updateContext.getUpdateFactory().getProteinUpdateSummaryDao().persist(persistentSummary);
+
+            updateContext.commitTransaction(status);
+        } catch (IntactTransactionException e) {
+            throw new IllegalStateException("Impossible to store the summary of the update " + summary.getProcessId(), e);
+        } finally {
+            if (!status.isCompleted()){
+                try {
+                    updateContext.rollbackTransaction(status);
+                } catch (IntactTransactionException e) {
+                    log.error("Impossible to rollback the transaction of the update summary", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param summary : the summary of the update
+     * @return the totals and the complete summary of the update
+     */
+    public static PersistentProteinUpdateSummary toPersistentSummary(ProteinUpdateSummary summary) {
+        Date endDate = summary.getEndTime() >= 0 ? new Date(summary.getEndTime()) : null;
+        PersistentProteinUpdateSummary persistentSummary = new PersistentProteinUpdateSummary(summary.getProcessId(), new Date(summary.getStartTime()), endDate);
+
+        persistentSummary.setProteins(summary.getCount(Counter.proteins));
+        persistentSummary.setCreated(summary.getCount(Counter.created));
+        persistentSummary.setUpdated(summary.getCount(Counter.updated));
+        persistentSummary.setDeleted(summary.getCount(Counter.deleted));
+        persistentSummary.setSequenceChanged(summary.getCount(Counter.sequence_changed));
+        persistentSummary.setDuplicatesMerged(summary.getCount(Counter.duplicates_merged));
+        persistentSummary.setRangesShifted(summary.getCount(Counter.ranges_shifted));
+        persistentSummary.setRangesInvalid(summary.getCount(Counter.ranges_invalid));
+        persistentSummary.setErrors(summary.getCount(Counter.errors));
+        persistentSummary.setRemoteFailures(summary.getCount(Counter.remote_failures));
+
+        StringWriter details = new StringWriter(1024);
+        try {
+            summary.writeRecord(new JsonLinesWriter(details));
+        } catch (IOException e) {
+            throw new IllegalStateException("Impossible to write the summary of the update " + summary.getProcessId(), e);
+        }
+        persistentSummary.setDetails(details.toString().trim());
+
+        return persistentSummary;
+    }
+}
@@ -53,6 +53,30 @@ public class UpdateDaoFactory implements Serializable{
     @Autowired
     private BlastResultsDao blastResultsDao;
 
+    /**
+     * The RemappingResultDao instance
+     */
+    @Autowired
+    private RemappingResultDao remappingResultDao;
+
+    /**
+     * The QuarantinedProteinDao instance
+     */
+    @Autowired
+    private QuarantinedProteinDao quarantinedProteinDao;
+
+    /**
+     * The ProteinLeaseDao instance
+     */
+    @Autowired
+    private ProteinLeaseDao proteinLeaseDao;
+
+    /**
+     * The ProteinUpdateSummaryDao instance
+     */
+    @Autowired
+    private ProteinUpdateSummaryDao proteinUpdateSummaryDao;
+
     /**
      * The PersistentUniprotProteinAPICrossReferences instance
      */
@@ -195,6 +219,38 @@ public class UpdateDaoFactory implements Serializable{
         return blastResultsDao;
     }
 
+    /**
+     *
+     * @return the RemappingResultDao
+     */
+    public RemappingResultDao getRemappingResultDao() {
+        return remappingResultDao;
+    }
+
+    /**
+     *
+     * @return the QuarantinedProteinDao
+     */
+    public QuarantinedProteinDao getQuarantinedProteinDao() {
+        return quarantinedProteinDao;
+    }
+
+    /**
+     *
+     * @return the ProteinLeaseDao
+     */
+    public ProteinLeaseDao getProteinLeaseDao() {
+        return proteinLeaseDao;
+    }
+
+    /**
+     *
+     * @return the ProteinUpdateSummaryDao
+     */
+    public ProteinUpdateSummaryDao getProteinUpdateSummaryDao() {
+        return proteinUpdateSummaryDao;
+    }
+
     /**
      *
      * @return the PicrCrossReferencesDao
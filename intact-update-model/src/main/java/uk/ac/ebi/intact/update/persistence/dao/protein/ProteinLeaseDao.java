@@ -0,0 +1,73 @@
+package uk.ac.ebi.intact.update.persistence.dao.protein;
+
+import uk.ac.ebi.intact.annotation.Mockable;
+import uk.ac.ebi.intact.update.model.protein.lease.LeaseStatus;
+import uk.ac.ebi.intact.update.model.protein.lease.PersistentProteinLease;
+import uk.ac.ebi.intact.update.persistence.dao.UpdateBaseDao;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * This interface contains some methods to query the database and get specific PersistentProteinLease.
+ *
+ * The claim, renew, complete and release methods are conditional updates : they return the number of leases updated,
+ * 0 if another worker has changed the lease in the meantime.
+ *
+ * @version $Id$
+ */
+@Mockable
+public interface ProteinLeaseDao extends UpdateBaseDao<PersistentProteinLease> {
+
+    /**
+     *
+     * @param runName
+     * @return the leases of the partitions of this distributed update, ordered by partition index
+     */
+    public List<PersistentProteinLease> getByRunName(String runName);
+
+    /**
+     *
+     * @param runName
+     * @param status
+     * @return the number of partitions of this distributed update having this status
+     */
+    public long countByRunNameAndStatus(String runName, LeaseStatus status);
+
+    /**
+     * Claims a partition if it is available or if its lease has expired
+     * @param id : the id of the lease
+     * @param owner : the worker claiming the partition
+     * @param now : the current date
+     * @param expiry : the date after which the partition can be claimed by another worker
+     * @return 1 if the partition has been claimed, 0 otherwise
+     */
+    public int claim(long id, String owner, Date now, Date expiry);
+
+    /**
+     * Renews the lease of a partition owned by this worker
+     * @param id : the id of the lease
+     * @param owner : the worker owning the partition
+     * @param now : the current date
+     * @param expiry : the new expiry date
+     * @return 1 if the lease has been renewed, 0 if the worker does not own the partition anymore
+     */
+    public int renew(long id, String owner, Date now, Date expiry);
+
+    /**
+     * Marks a partition owned by this worker as done
+     * @param id : the id of the lease
+     * @param owner : the worker owning the partition
+     * @param now : the current date
+     * @return 1 if the partition is done, 0 if the worker does not own the partition anymore
+     */
+    public int complete(long id, String owner, Date now);
+
+    /**
+     * Makes a partition owned by this worker available again
+     * @param id : the id of the lease
+     * @param owner : the worker owning the partition
+     * @return 1 if the partition is available, 0 if the worker does not own the partition anymore
+     */
+    public int release(long id, String owner);
+}
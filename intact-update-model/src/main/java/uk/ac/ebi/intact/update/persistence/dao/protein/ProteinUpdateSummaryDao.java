@@ -0,0 +1,29 @@
+package uk.ac.ebi.intact.update.persistence.dao.protein;
+
+import uk.ac.ebi.intact.annotation.Mockable;
+import uk.ac.ebi.intact.update.model.protein.summary.PersistentProteinUpdateSummary;
+import uk.ac.ebi.intact.update.persistence.dao.UpdateBaseDao;
+
+import java.util.List;
+
+/**
+ * This interface contains some methods to query the database and get specific PersistentProteinUpdateSummary
+ *
+ * @version $Id$
+ */
+@Mockable
+public interface ProteinUpdateSummaryDao extends UpdateBaseDao<PersistentProteinUpdateSummary> {
+
+    /**
+     *
+     * @param processId
+     * @return the summaries of this update run, the oldest first
+     */
+    public List<PersistentProteinUpdateSummary> getByProcessId(String processId);
+
+    /**
+     *
+     * @return the summary of the last update started, null if no summary has been recorded
+     */
+    public PersistentProteinUpdateSummary getLastSummary();
+}
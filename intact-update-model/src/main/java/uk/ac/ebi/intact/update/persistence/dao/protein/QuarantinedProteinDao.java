@@ -0,0 +1,29 @@
+package uk.ac.ebi.intact.update.persistence.dao.protein;
+
+import uk.ac.ebi.intact.annotation.Mockable;
+import uk.ac.ebi.intact.update.model.protein.quarantine.PersistentQuarantinedProtein;
+import uk.ac.ebi.intact.update.persistence.dao.UpdateBaseDao;
+
+import java.util.List;
+
+/**
+ * This interface contains some methods to query the database and get specific PersistentQuarantinedProtein
+ *
+ * @version $Id$
+ */
+@Mockable
+public interface QuarantinedProteinDao extends UpdateBaseDao<PersistentQuarantinedProtein> {
+
+    /**
+     *
+     * @param proteinAc
+     * @return The PersistentQuarantinedProtein of this protein, null if the protein is not in quarantine
+     */
+    public PersistentQuarantinedProtein getByProteinAc(String proteinAc);
+
+    /**
+     *
+     * @return all the PersistentQuarantinedProtein, the oldest first
+     */
+    public List<PersistentQuarantinedProtein> getAllOrderedByQuarantineDate();
+}
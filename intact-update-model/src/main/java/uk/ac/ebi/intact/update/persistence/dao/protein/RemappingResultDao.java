@@ -0,0 +1,30 @@
+package uk.ac.ebi.intact.update.persistence.dao.protein;
+
+import uk.ac.ebi.intact.annotation.Mockable;
+import uk.ac.ebi.intact.update.model.protein.mapping.results.PersistentRemappingResult;
+import uk.ac.ebi.intact.update.persistence.dao.UpdateBaseDao;
+
+/**
+ * This interface contains some methods to query the database and get specific PersistentRemappingResult
+ *
+ * @version $Id$
+ */
+@Mockable
+public interface RemappingResultDao extends UpdateBaseDao<PersistentRemappingResult> {
+
+    /**
+     *
+     * @param crc64
+     * @param taxId
+     * @param uniprotRelease
+     * @return The PersistentRemappingResult of this sequence in this organism for this uniprot release, null if there is none
+     */
+    public PersistentRemappingResult getByCrc64AndTaxIdAndRelease(String crc64, String taxId, String uniprotRelease);
+
+    /**
+     *
+     * @param uniprotRelease
+     * @return the number of remapping results deleted because they are older than this uniprot release
+     */
+    public int deleteAllExceptRelease(String uniprotRelease);
+}
@@ -0,0 +1,114 @@
+package uk.ac.ebi.intact.update.persistence.dao.protein.impl;
+
+import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Projections;
+import org.hibernate.criterion.Restrictions;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import uk.ac.ebi.intact.update.model.protein.lease.LeaseStatus;
+import uk.ac.ebi.intact.update.model.protein.lease.PersistentProteinLease;
+import uk.ac.ebi.intact.update.persistence.dao.impl.UpdateBaseDaoImpl;
+import uk.ac.ebi.intact.update.persistence.dao.protein.ProteinLeaseDao;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The basic implementation of ProteinLeaseDao
+ *
+ * @version $Id$
+ */
+@Repository
+@Transactional(readOnly = true)
+@Lazy
+public class ProteinLeaseDaoImpl extends UpdateBaseDaoImpl<PersistentProteinLease> implements ProteinLeaseDao {
+
+    /**
+     * Create a new ProteinLeaseDaoImpl
+     */
+    public ProteinLeaseDaoImpl() {
+        super(PersistentProteinLease.class);
+    }
+
+    /**
+     *
+     * @param runName
+     * @return
+     */
+    public List<PersistentProteinLease> getByRunName(String runName) {
+        return getSession().createCriteria(PersistentProteinLease.class)
+                .add(Restrictions.eq("runName", runName)).addOrder(Order.asc("partitionIndex")).list();
+    }
+
+    /**
+     *
+     * @param runName
+     * @param status
+     * @return
+     */
+    public long countByRunNameAndStatus(String runName, LeaseStatus status) {
+        return (Long) getSession().createCriteria(PersistentProteinLease.class)
+                .add(Restrictions.eq("runName", runName)).add(Restrictions.eq("status", status))
+                .setProjection(Projections.rowCount()).uniqueResult();
+    }
+
+    /**
+     *
+     * @param id
+     * @param owner
+     * @param now
+     * @param expiry
+     * @return
+     */
+    public int claim(long id, String owner, Date now, Date expiry) {
+        return getEntityManager().createQuery("update PersistentProteinLease l set l.status = :leased, l.owner = :owner, " +
+                "l.heartbeat = :now, l.expiry = :expiry, l.claims = l.claims + 1 " +
+                "where l.id = :id and (l.status = :available or (l.status = :leased and l.expiry < :now))")
+                .setParameter("leased", LeaseStatus.leased).setParameter("available", LeaseStatus.available)
+                .setParameter("owner", owner).setParameter("now", now).setParameter("expiry", expiry)
+                .setParameter("id", id).executeUpdate();
+    }
+
+    /**
+     *
+     * @param id
+     * @param owner
+     * @param now
+     * @param expiry
+     * @return
+     */
+    public int renew(long id, String owner, Date now, Date expiry) {
+        return getEntityManager().createQuery("update PersistentProteinLease l set l.heartbeat = :now, l.expiry = :expiry " +
+                "where l.id = :id and l.owner = :owner and l.status = :leased")
+                .setParameter("leased", LeaseStatus.leased).setParameter("owner", owner)
+                .setParameter("now", now).setParameter("expiry", expiry).setParameter("id", id).executeUpdate();
+    }
+
+    /**
+     *
+     * @param id
+     * @param owner
+     * @param now
+     * @return
+     */
+    public int complete(long id, String owner, Date now) {
+        return getEntityManager().createQuery("update PersistentProteinLease l set l.status = :done, l.heartbeat = :now " +
+                "where l.id = :id and l.owner = :owner and l.status = :leased")
+                .setParameter("done", LeaseStatus.done).setParameter("leased", LeaseStatus.leased)
+                .setParameter("owner", owner).setParameter("now", now).setParameter("id", id).executeUpdate();
+    }
+
+    /**
+     *
+     * @param id
+     * @param owner
+     * @return
+     */
+    public int release(long id, String owner) {
+        return getEntityManager().createQuery("update PersistentProteinLease l set l.status = :available, l.expiry = null " +
+                "where l.id = :id and l.owner = :owner and l.status = :leased")
+                .setParameter("available", LeaseStatus.available).setParameter("leased", LeaseStatus.leased)
+                .setParameter("owner", owner).setParameter("id", id).executeUpdate();
+    }
+}
@@ -0,0 +1,49 @@
+package uk.ac.ebi.intact.update.persistence.dao.protein.impl;
+
+import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Restrictions;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import uk.ac.ebi.intact.update.model.protein.summary.PersistentProteinUpdateSummary;
+import uk.ac.ebi.intact.update.persistence.dao.impl.UpdateBaseDaoImpl;
+import uk.ac.ebi.intact.update.persistence.dao.protein.ProteinUpdateSummaryDao;
+
+import java.util.List;
+
+/**
+ * The basic implementation of ProteinUpdateSummaryDao
+ *
+ * @version $Id$
+ */
+@Repository
+@Transactional(readOnly = true)
+@Lazy
+public class ProteinUpdateSummaryDaoImpl extends UpdateBaseDaoImpl<PersistentProteinUpdateSummary> implements ProteinUpdateSummaryDao {
+
+    /**
+     * Create a new ProteinUpdateSummaryDaoImpl
+     */
+    public ProteinUpdateSummaryDaoImpl() {
+        super(PersistentProteinUpdateSummary.class);
+    }
+
+    /**
+     *
+     * @param processId
+     * @return
+     */
+    public List<PersistentProteinUpdateSummary> getByProcessId(String processId) {
+        return getSession().createCriteria(PersistentProteinUpdateSummary.class)
+                .add(Restrictions.eq("processId", processId)).addOrder(Order.asc("startDate")).list();
+    }
+
+    /**
+     *
+     * @return
+     */
+    public PersistentProteinUpdateSummary getLastSummary() {
+        return (PersistentProteinUpdateSummary) getSession().createCriteria(PersistentProteinUpdateSummary.class)
+                .addOrder(Order.desc("startDate")).setMaxResults(1).uniqueResult();
+    }
+}
@@ -0,0 +1,49 @@
+package uk.ac.ebi.intact.update.persistence.dao.protein.impl;
+
+import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Restrictions;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import uk.ac.ebi.intact.update.model.protein.quarantine.PersistentQuarantinedProtein;
+import uk.ac.ebi.intact.update.persistence.dao.impl.UpdateBaseDaoImpl;
+import uk.ac.ebi.intact.update.persistence.dao.protein.QuarantinedProteinDao;
+
+import java.util.List;
+
+/**
+ * The basic implementation of QuarantinedProteinDao
+ *
+ * @version $Id$
+ */
+@Repository
+@Transactional(readOnly = true)
+@Lazy
+public class QuarantinedProteinDaoImpl extends UpdateBaseDaoImpl<PersistentQuarantinedProtein> implements QuarantinedProteinDao {
+
+    /**
+     * Create a new QuarantinedProteinDaoImpl
+     */
+    public QuarantinedProteinDaoImpl() {
+        super(PersistentQuarantinedProtein.class);
+    }
+
+    /**
+     *
+     * @param proteinAc
+     * @return
+     */
+    public PersistentQuarantinedProtein getByProteinAc(String proteinAc) {
+        return (PersistentQuarantinedProtein) getSession().createCriteria(PersistentQuarantinedProtein.class)
+                .add(Restrictions.eq("proteinAc", proteinAc)).uniqueResult();
+    }
+
+    /**
+     *
+     * @return
+     */
+    public List<PersistentQuarantinedProtein> getAllOrderedByQuarantineDate() {
+        return getSession().createCriteria(PersistentQuarantinedProtein.class)
+                .addOrder(Order.asc("quarantineDate")).addOrder(Order.asc("proteinAc")).list();
+    }
+}
@@ -0,0 +1,50 @@
+package uk.ac.ebi.intact.update.persistence.dao.protein.impl;
+
+import org.hibernate.criterion.Restrictions;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import uk.ac.ebi.intact.update.model.protein.mapping.results.PersistentRemappingResult;
+import uk.ac.ebi.intact.update.persistence.dao.impl.UpdateBaseDaoImpl;
+import uk.ac.ebi.intact.update.persistence.dao.protein.RemappingResultDao;
+
+/**
+ * The basic implementation of RemappingResultDao
+ *
+ * @version $Id$
+ */
+@Repository
+@Transactional(readOnly = true)
+@Lazy
+public class RemappingResultDaoImpl extends UpdateBaseDaoImpl<PersistentRemappingResult> implements RemappingResultDao {
+
+    /**
+     * Create a new RemappingResultDaoImpl
+     */
+    public RemappingResultDaoImpl() {
+        super(PersistentRemappingResult.class);
+    }
+
+    /**
+     *
+     * @param crc64
+     * @param taxId
+     * @param uniprotRelease
+     * @return
+     */
+    public PersistentRemappingResult getByCrc64AndTaxIdAndRelease(String crc64, String taxId, String uniprotRelease) {
+        return (PersistentRemappingResult) getSession().createCriteria(PersistentRemappingResult.class)
+                .add(Restrictions.eq("crc64", crc64)).add(Restrictions.eq("taxId", taxId))
+                .add(Restrictions.eq("uniprotRelease", uniprotRelease)).uniqueResult();
+    }
+
+    /**
+     *
+     * @param uniprotRelease
+     * @return
+     */
+    public int deleteAllExceptRelease(String uniprotRelease) {
+        return getEntityManager().createQuery("delete from PersistentRemappingResult r where r.uniprotRelease <> :release")
+                .setParameter("release", uniprotRelease).executeUpdate();
+    }
+}
@@ -0,0 +1,184 @@
+package uk.ac.ebi.intact.update.model.protein.lease;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tester of the PersistentProteinLeaseManager. The workers of the distributed update are simulated by threads
+ * sharing one H2 file database.
+ *
+ * @version $Id$
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@TestPropertySource(locations="classpath:/retry.properties")
+@ContextConfiguration(locations = {
+        "classpath*:/META-INF/update-jpa.spring.xml",
+        "classpath*:/META-INF/lease-test.spring.xml"
+})
+public class PersistentProteinLeaseManagerTest {
+
+    private String newRunName(){
+        return "run-" + UUID.randomUUID();
+    }
+
+    @Test
+    public void partitions_created_once() {
+        String runName = newRunName();
+
+        PersistentProteinLeaseManager worker1 = new PersistentProteinLeaseManager(runName, "worker1", 60000);
+        PersistentProteinLeaseManager worker2 = new PersistentProteinLeaseManager(runName, "worker2", 60000);
+
+        Assert.assertEquals(8, worker1.createPartitions(8));
+        // the partitions of the first worker are kept
+        Assert.assertEquals(8, worker2.createPartitions(4));
+        Assert.assertEquals(8, worker2.getLeases().size());
+        Assert.assertFalse(worker2.isRunCompleted());
+    }
+
+    @Test
+    public void partition_of_protein() {
+        Assert.assertEquals(PersistentProteinLeaseManager.partitionOf("P12345", 16), PersistentProteinLeaseManager.partitionOf("P12345", 16));
+
+        for (int i = 0; i < 1000; i++){
+            int partition = PersistentProteinLeaseManager.partitionOf("EBI-" + i, 7);
+            Assert.assertTrue(partition >= 0 && partition < 7);
+        }
+    }
+
+    @Test
+    public void workers_update_each_partition_once() throws Exception {
+        final String runName = newRunName();
+        final int numberOfPartitions = 16;
+        final int numberOfWorkers = 4;
+
+        final List<String> acs = new ArrayList<String>();
+        for (int i = 0; i < 2000; i++){
+            acs.add("EBI-" + i);
+        }
+
+        // the worker owning each partition while it is updated
+        final ConcurrentMap<Integer, String> currentOwners = new ConcurrentHashMap<Integer, String>();
+        final ConcurrentMap<String, AtomicInteger> updatedAcs = new ConcurrentHashMap<String, AtomicInteger>();
+        final List<String> errors = Collections.synchronizedList(new ArrayList<String>());
+
+        ExecutorService workers = Executors.newFixedThreadPool(numberOfWorkers);
+        List<Future<Integer>> completedPartitions = new ArrayList<Future<Integer>>();
+
+        for (int w = 0; w < numberOfWorkers; w++){
+            final String owner = "worker" + w;
+
+            completedPartitions.add(workers.submit(() -> {
+                PersistentProteinLeaseManager leaseManager = new PersistentProteinLeaseManager(runName, owner, 60000);
+                leaseManager.createPartitions(numberOfPartitions);
+
+                int completed = 0;
+                while (!leaseManager.isRunCompleted()){
+                    Integer partition = leaseManager.claimPartition();
+                    if (partition == null){
+                        Thread.sleep(10);
+                        continue;
+                    }
+
+                    String previousOwner = currentOwners.putIfAbsent(partition, owner);
+                    if (previousOwner != null){
+                        errors.add("The partition " + partition + " is owned by " + previousOwner + " and " + owner);
+                    }
+
+                    for (String ac : acs){
+                        if (PersistentProteinLeaseManager.partitionOf(ac, numberOfPartitions) == partition){
+                            updatedAcs.computeIfAbsent(ac, k -> new AtomicInteger()).incrementAndGet();
+                        }
+                    }
+                    currentOwners.remove(partition);
+
+                    Assert.assertTrue(leaseManager.completePartition(partition));
+                    completed++;
+                }
+                return completed;
+            }));
+        }
+
+        int total = 0;
+        for (Future<Integer> completed : completedPartitions){
+            total += completed.get(60, TimeUnit.SECONDS);
+        }
+        workers.shutdown();
+
+        Assert.assertTrue(errors.toString(), errors.isEmpty());
+        Assert.assertEquals(numberOfPartitions, total);
+        Assert.assertEquals(acs.size(), updatedAcs.size());
+        for (AtomicInteger updates : updatedAcs.values()){
+            Assert.assertEquals(1, updates.get());
+        }
+
+        PersistentProteinLeaseManager leaseManager = new PersistentProteinLeaseManager(runName, "checker", 60000);
+        Assert.assertTrue(leaseManager.isRunCompleted());
+        for (PersistentProteinLease lease : leaseManager.getLeases()){
+            Assert.assertEquals(LeaseStatus.done, lease.getStatus());
+            Assert.assertEquals(1, lease.getClaims());
+        }
+    }
+
+    @Test
+    public void lease_of_crashed_worker_reclaimed() throws Exception {
+        String runName = newRunName();
+
+        PersistentProteinLeaseManager crashed = new PersistentProteinLeaseManager(runName, "crashed", 500);
+        PersistentProteinLeaseManager survivor = new PersistentProteinLeaseManager(runName, "survivor", 500);
+        crashed.createPartitions(1);
+
+        // the crashed worker claims the partition and never renews it
+        Integer partition = crashed.claimPartition();
+        Assert.assertEquals(Integer.valueOf(0), partition);
+        Assert.assertNull(survivor.claimPartition());
+
+        Thread.sleep(1000);
+
+        Assert.assertEquals(Integer.valueOf(0), survivor.claimPartition());
+        Assert.assertTrue(survivor.isOwned(0));
+
+        // the crashed worker has lost its lease
+        crashed.renewLeases();
+        Assert.assertFalse(crashed.isOwned(0));
+        Assert.assertFalse(crashed.completePartition(0));
+
+        Assert.assertTrue(survivor.completePartition(0));
+        Assert.assertTrue(survivor.isRunCompleted());
+        Assert.assertEquals(2, survivor.getLeases().get(0).getClaims());
+        Assert.assertEquals("survivor", survivor.getLeases().get(0).getOwner());
+    }
+
+    @Test
+    public void heartbeat_keeps_lease() throws Exception {
+        String runName = newRunName();
+
+        PersistentProteinLeaseManager worker = new PersistentProteinLeaseManager(runName, "worker", 300);
+        PersistentProteinLeaseManager other = new PersistentProteinLeaseManager(runName, "other", 300);
+        worker.createPartitions(1);
+
+        Assert.assertEquals(Integer.valueOf(0), worker.claimPartition());
+
+        worker.startHeartbeat();
+        try {
+            for (int i = 0; i < 5; i++){
+                Thread.sleep(200);
+                Assert.assertNull(other.claimPartition());
+            }
+            Assert.assertTrue(worker.isOwned(0));
+        } finally {
+            worker.stopHeartbeat();
+        }
+
+        // a released partition is available at once
+        worker.releasePartition(0);
+        Assert.assertEquals(Integer.valueOf(0), other.claimPartition());
+    }
+}
@@ -0,0 +1,67 @@
+package uk.ac.ebi.intact.update.persistence.dao.protein.impl;
+
+import junit.framework.Assert;
+import org.junit.Test;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import uk.ac.ebi.intact.dbupdate.prot.util.ProteinUpdateSummary;
+import uk.ac.ebi.intact.update.model.protein.summary.PersistentProteinUpdateSummary;
+import uk.ac.ebi.intact.update.model.protein.summary.PersistentProteinUpdateSummaryStore;
+import uk.ac.ebi.intact.update.model.unit.UpdateBasicTestCase;
+import uk.ac.ebi.intact.update.persistence.dao.protein.ProteinUpdateSummaryDao;
+
+import java.util.Date;
+
+/**
+ * Unit test for ProteinUpdateSummaryDaoImpl
+ *
+ * @version $Id$
+ */
+@ContextConfiguration(locations = {
+        "classpath*:/META-INF/intact.spring.xml",
+        "classpath*:/META-INF/update-jpa.spring.xml",
+        "classpath*:/META-INF/db-update-test.spring.xml"
+})
+public class ProteinUpdateSummaryDaoImplTest extends UpdateBasicTestCase {
+
+    @Test
+    @DirtiesContext
+    public void search_by_process_and_last_summary() throws Exception {
+        final ProteinUpdateSummaryDao summaryDao = getUpdateDaoFactory().getProteinUpdateSummaryDao();
+        Assert.assertEquals( 0, summaryDao.countAll() );
+        Assert.assertNull( summaryDao.getLastSummary() );
+
+        summaryDao.persist( new PersistentProteinUpdateSummary("run-1", new Date(1000), new Date(2000)) );
+        summaryDao.persist( new PersistentProteinUpdateSummary("run-2", new Date(3000), null) );
+        summaryDao.flush();
+        Assert.assertEquals( 2, summaryDao.countAll() );
+
+        Assert.assertEquals(1, summaryDao.getByProcessId("run-1").size());
+        Assert.assertEquals(0, summaryDao.getByProcessId("run-3").size());
+        Assert.assertEquals("run-2", summaryDao.getLastSummary().getProcessId());
+    }
+
+    @Test
+    @DirtiesContext
+    public void totals_and_details_of_the_summary() throws Exception {
+        final ProteinUpdateSummaryDao summaryDao = getUpdateDaoFactory().getProteinUpdateSummaryDao();
+
+        ProteinUpdateSummary summary = new ProteinUpdateSummary("run-1");
+        summary.startProtein("9606");
+        summary.add(ProteinUpdateSummary.Counter.updated, 3);
+        summary.increment(ProteinUpdateSummary.Counter.remote_failures);
+        summary.endProtein();
+        summary.chunkCommitted(50);
+        summary.finish();
+
+        summaryDao.persist( PersistentProteinUpdateSummaryStore.toPersistentSummary(summary) );
+        summaryDao.flush();
+
+        PersistentProteinUpdateSummary persistentSummary = summaryDao.getByProcessId("run-1").iterator().next();
+        Assert.assertEquals(50, persistentSummary.getProteins());
+        Assert.assertEquals(3, persistentSummary.getUpdated());
+        Assert.assertEquals(1, persistentSummary.getRemoteFailures());
+        Assert.assertNotNull(persistentSummary.getEndDate());
+        Assert.assertTrue(persistentSummary.getDetails().contains("\"organisms\":{\"9606\":{\"updated\":3,\"remote_failures\":1}}"));
+    }
+}
@@ -0,0 +1,58 @@
+package uk.ac.ebi.intact.update.persistence.dao.protein.impl;
+
+import junit.framework.Assert;
+import org.junit.Test;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import uk.ac.ebi.intact.update.model.protein.mapping.results.PersistentRemappingResult;
+import uk.ac.ebi.intact.update.model.unit.UpdateBasicTestCase;
+import uk.ac.ebi.intact.update.persistence.dao.protein.RemappingResultDao;
+
+/**
+ * Unit test for RemappingResultDaoImpl
+ *
+ * @version $Id$
+ */
+@ContextConfiguration(locations = {
+        "classpath*:/META-INF/intact.spring.xml",
+        "classpath*:/META-INF/update-jpa.spring.xml",
+        "classpath*:/META-INF/db-update-test.spring.xml"
+})
+public class RemappingResultDaoImplTest extends UpdateBasicTestCase {
+
+    @Test
+    @DirtiesContext
+    public void search_by_crc64_taxId_and_release() throws Exception {
+        final RemappingResultDao remappingResultDao = getUpdateDaoFactory().getRemappingResultDao();
+        Assert.assertEquals( 0, remappingResultDao.countAll() );
+
+        remappingResultDao.persist( new PersistentRemappingResult("D3A6A6D6B0D7C8E1", "9606", "2026_04", "P60953") );
+        remappingResultDao.persist( new PersistentRemappingResult("D3A6A6D6B0D7C8E1", "10090", "2026_04", null) );
+        remappingResultDao.flush();
+        Assert.assertEquals( 2, remappingResultDao.countAll() );
+
+        PersistentRemappingResult human = remappingResultDao.getByCrc64AndTaxIdAndRelease("D3A6A6D6B0D7C8E1", "9606", "2026_04");
+        Assert.assertNotNull(human);
+        Assert.assertEquals("P60953", human.getUniprotAc());
+
+        PersistentRemappingResult mouse = remappingResultDao.getByCrc64AndTaxIdAndRelease("D3A6A6D6B0D7C8E1", "10090", "2026_04");
+        Assert.assertNotNull(mouse);
+        Assert.assertNull(mouse.getUniprotAc());
+
+        Assert.assertNull(remappingResultDao.getByCrc64AndTaxIdAndRelease("D3A6A6D6B0D7C8E1", "9606", "2026_05"));
+    }
+
+    @Test
+    @DirtiesContext
+    public void delete_other_releases() throws Exception {
+        final RemappingResultDao remappingResultDao = getUpdateDaoFactory().getRemappingResultDao();
+
+        remappingResultDao.persist( new PersistentRemappingResult("D3A6A6D6B0D7C8E1", "9606", "2026_03", "P60953") );
+        remappingResultDao.persist( new PersistentRemappingResult("D3A6A6D6B0D7C8E1", "9606", "2026_04", "P60953") );
+        remappingResultDao.flush();
+
+        Assert.assertEquals(1, remappingResultDao.deleteAllExceptRelease("2026_04"));
+        Assert.assertNull(remappingResultDao.getByCrc64AndTaxIdAndRelease("D3A6A6D6B0D7C8E1", "9606", "2026_03"));
+        Assert.assertNotNull(remappingResultDao.getByCrc64AndTaxIdAndRelease("D3A6A6D6B0D7C8E1", "9606", "2026_04"));
+    }
+}
@@ -32,11 +32,11 @@ public class SchemaUtilsTest {
     public void testGenerateCreateSchemaDDLForPostgres() {
         String[] strings = SchemaUtils.generateCreateSchemaDDLForPostgreSQL(dataSource);
 
-        Assert.assertEquals(44, strings.length);
-        Assert.assertEquals(44, SchemaUtils.generateCreateSchemaDDLForOracle(dataSource).length);
-        Assert.assertEquals(44, SchemaUtils.generateCreateSchemaDDLForHSQL(dataSource).length);
-        Assert.assertEquals(44, SchemaUtils.generateCreateSchemaDDLForH2(dataSource).length);
+        Assert.assertEquals(51, strings.length);
+        Assert.assertEquals(51, SchemaUtils.generateCreateSchemaDDLForOracle(dataSource).length);
+        Assert.assertEquals(51, SchemaUtils.generateCreateSchemaDDLForHSQL(dataSource).length);
+        Assert.assertEquals(51, SchemaUtils.generateCreateSchemaDDLForH2(dataSource).length);
 
-        Assert.assertEquals(22, SchemaUtils.getTableNames(dataSource).length);
+        Assert.assertEquals(26, SchemaUtils.getTableNames(dataSource).length);
     }
 }